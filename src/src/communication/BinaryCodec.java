@@ -0,0 +1,706 @@
+package communication;
+
+import communication.gameinfo.BagInfo;
+import communication.gameinfo.CurrentPlayerInfo;
+import communication.gameinfo.ErrorInfo;
+import communication.gameinfo.GameIPAddress;
+import communication.gameinfo.GameInfo;
+import communication.gameinfo.GameInfoID;
+import communication.gameinfo.GameStartInfo;
+import communication.gameinfo.GameUsernames;
+import communication.gameinfo.GridDeltaInfo;
+import communication.gameinfo.GridInfo;
+import communication.gameinfo.HandSizesInfo;
+import communication.gameinfo.InvalidSetsInfo;
+import communication.gameinfo.PlayerNamesInfo;
+import communication.gameinfo.RankInfo;
+import communication.gameinfo.RoomJoinedInfo;
+import communication.gameinfo.RoomsInfo;
+import communication.gameinfo.SessionInfo;
+import communication.gameinfo.SimpleGameInfo;
+import communication.gameinfo.StoneInfo;
+import communication.request.ConcreteCreateRoom;
+import communication.request.ConcreteJoinRoom;
+import communication.request.ConcreteMove;
+import communication.request.ConcreteResume;
+import communication.request.ConcreteSetPlayer;
+import communication.request.ConcreteSpectateRoom;
+import communication.request.ConcreteStart;
+import communication.request.Request;
+import communication.request.RequestID;
+import communication.request.SimpleRequest;
+import game.Stone.Color;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Compact binary encoding of Requests and GameInfos, an alternative to the JSON of the
+ * Serializer and Deserializer.
+ * A message starts with a varint tag of its class and a varint of its id, followed by its fields.
+ * Numbers are zigzag varints, strings are UTF-8 with their length, a stone takes one byte and
+ * a grid a bitmap of its occupied cells followed by the stones of these cells.
+ * On the wire every message is a frame prefixed with its length. A client chooses the binary
+ * protocol by sending the MAGIC byte first, which can not start a line of JSON, the server keeps
+ * talking JSON to all other clients.
+ */
+public final class BinaryCodec {
+  /** First byte a client sends to talk the binary protocol. */
+  public static final int MAGIC = 0;
+  /** Largest frame which is accepted. */
+  public static final int MAX_FRAME_LENGTH = 1 << 20;
+
+  private static final Color[] COLORS = Color.values();
+  private static final int NO_COLOR = 7;
+  private static final int NUMBER_BITS = 5;
+  private static final RequestID[] REQUEST_IDS = RequestID.values();
+  private static final GameInfoID[] INFO_IDS = GameInfoID.values();
+
+  // tags of the classes of requests
+  private static final int SIMPLE_REQUEST = 0;
+  private static final int MOVE = 1;
+  private static final int SET_PLAYER = 2;
+  private static final int START = 3;
+  private static final int CREATE_ROOM = 4;
+  private static final int JOIN_ROOM = 5;
+  private static final int SPECTATE_ROOM = 6;
+  private static final int RESUME = 7;
+
+  // tags of the classes of infos
+  private static final int SIMPLE_INFO = 0;
+  private static final int GRID = 1;
+  private static final int BAG = 2;
+  private static final int HAND_SIZES = 3;
+  private static final int PLAYER_NAMES = 4;
+  private static final int CURRENT_PLAYER = 5;
+  private static final int ERROR = 6;
+  private static final int GAME_START = 7;
+  private static final int IP_ADDRESS = 8;
+  private static final int USERNAME = 9;
+  private static final int RANK = 10;
+  private static final int INVALID_SETS = 11;
+  private static final int ROOMS = 12;
+  private static final int ROOM_JOINED = 13;
+  private static final int GRID_DELTA = 14;
+  private static final int SESSION = 15;
+
+  /**
+   * Encodes a Request.
+   * Requests of other classes than the ones of the protocol are encoded by their id only.
+   *
+   * @param request to be encoded
+   * @return the encoded request
+   */
+  public byte[] encode(Request request) {
+    Output out = new Output();
+    if (request instanceof ConcreteMove) {
+      ConcreteMove move = (ConcreteMove) request;
+      out.header(MOVE, request.getRequestID().ordinal());
+      out.writeInt(move.getInitCol());
+      out.writeInt(move.getInitRow());
+      out.writeInt(move.getTargetCol());
+      out.writeInt(move.getTargetRow());
+    } else if (request instanceof ConcreteSetPlayer) {
+      ConcreteSetPlayer setPlayer = (ConcreteSetPlayer) request;
+      out.header(SET_PLAYER, request.getRequestID().ordinal());
+      out.writeString(setPlayer.getName());
+      out.writeInt(setPlayer.getAge());
+    } else if (request instanceof ConcreteStart) {
+      out.header(START, request.getRequestID().ordinal());
+      out.writeLong(((ConcreteStart) request).getSeed());
+    } else if (request instanceof ConcreteCreateRoom) {
+      out.header(CREATE_ROOM, request.getRequestID().ordinal());
+      out.writeString(((ConcreteCreateRoom) request).getName());
+    } else if (request instanceof ConcreteJoinRoom) {
+      out.header(JOIN_ROOM, request.getRequestID().ordinal());
+      out.writeInt(((ConcreteJoinRoom) request).getRoomID());
+    } else if (request instanceof ConcreteSpectateRoom) {
+      out.header(SPECTATE_ROOM, request.getRequestID().ordinal());
+      out.writeInt(((ConcreteSpectateRoom) request).getRoomID());
+    } else if (request instanceof ConcreteResume) {
+      out.header(RESUME, request.getRequestID().ordinal());
+      out.writeString(((ConcreteResume) request).getToken());
+    } else {
+      out.header(SIMPLE_REQUEST, request.getRequestID().ordinal());
+    }
+    return out.toByteArray();
+  }
+
+  /**
+   * Decodes a Request.
+   *
+   * @param bytes the encoded request
+   * @return the request
+   * @throws IllegalArgumentException if the bytes are not an encoded request
+   */
+  public Request decodeRequest(byte[] bytes) throws IllegalArgumentException {
+    return decodeRequest(bytes, bytes.length);
+  }
+
+  /**
+   * Decodes a Request from the start of a buffer, which may be reused afterwards.
+   *
+   * @param bytes  the buffer
+   * @param length the number of bytes of the encoded request
+   * @return the request
+   * @throws IllegalArgumentException if the bytes are not an encoded request
+   */
+  public Request decodeRequest(byte[] bytes, int length) throws IllegalArgumentException {
+    Input in = new Input(bytes, length);
+    int tag = in.readTag();
+    RequestID id = in.readEnum(REQUEST_IDS);
+    Request request;
+    switch (tag) {
+      case SIMPLE_REQUEST:
+        request = new SimpleRequest(id);
+        break;
+      case MOVE:
+        request = new ConcreteMove(id, in.readInt(), in.readInt(), in.readInt(), in.readInt());
+        break;
+      case SET_PLAYER:
+        request = new ConcreteSetPlayer(in.readString(), in.readInt());
+        break;
+      case START:
+        request = new ConcreteStart(in.readLong());
+        break;
+      case CREATE_ROOM:
+        request = new ConcreteCreateRoom(in.readString());
+        break;
+      case JOIN_ROOM:
+        request = new ConcreteJoinRoom(in.readInt());
+        break;
+      case SPECTATE_ROOM:
+        request = new ConcreteSpectateRoom(in.readInt());
+        break;
+      case RESUME:
+        request = new ConcreteResume(in.readString());
+        break;
+      default:
+        throw new IllegalArgumentException("Unknown request tag " + tag);
+    }
+    in.checkEnd();
+    return request;
+  }
+
+  /**
+   * Encodes a GameInfo.
+   *
+   * @param info to be encoded
+   * @return the encoded info
+   * @throws IllegalArgumentException if the class of the info is not part of the protocol
+   */
+  public byte[] encode(GameInfo info) throws IllegalArgumentException {
+    Output out = new Output();
+    int id = info.getGameInfoID().ordinal();
+    if (info instanceof GridInfo) {
+      out.header(GRID, id);
+      out.writeInt(((GridInfo) info).getVersion());
+      out.writeGrid(((GridInfo) info).getGrid());
+    } else if (info instanceof GridDeltaInfo) {
+      GridDeltaInfo delta = (GridDeltaInfo) info;
+      out.header(GRID_DELTA, id);
+      out.writeInt(delta.getBaseVersion());
+      out.writeInt(delta.getVersion());
+      out.writeLength(delta.getCells().size());
+      for (GridDeltaInfo.Cell cell : delta.getCells()) {
+        // the lowest bit of the row tells whether the byte of a stone follows
+        out.writeLength(cell.getColumn());
+        out.writeLength(cell.getRow() << 1 | (cell.getStone() == null ? 0 : 1));
+        if (cell.getStone() != null) {
+          out.writeByte(encodeStone(cell.getStone()));
+        }
+      }
+    } else if (info instanceof BagInfo) {
+      out.header(BAG, id);
+      out.writeInt(((BagInfo) info).getSize());
+    } else if (info instanceof HandSizesInfo) {
+      out.header(HAND_SIZES, id);
+      List<Integer> sizes = ((HandSizesInfo) info).getHandSizes();
+      out.writeLength(sizes.size());
+      for (int size : sizes) {
+        out.writeInt(size);
+      }
+    } else if (info instanceof PlayerNamesInfo) {
+      out.header(PLAYER_NAMES, id);
+      List<String> names = ((PlayerNamesInfo) info).getNames();
+      out.writeLength(names.size());
+      for (String name : names) {
+        out.writeString(name);
+      }
+    } else if (info instanceof CurrentPlayerInfo) {
+      out.header(CURRENT_PLAYER, id);
+      out.writeInt(((CurrentPlayerInfo) info).getPlayerID());
+    } else if (info instanceof ErrorInfo) {
+      out.header(ERROR, id);
+      out.writeString(((ErrorInfo) info).getErrorMessage());
+    } else if (info instanceof GameStartInfo) {
+      out.header(GAME_START, id);
+    } else if (info instanceof GameIPAddress) {
+      out.header(IP_ADDRESS, id);
+      out.writeString(((GameIPAddress) info).getIpAddress());
+    } else if (info instanceof GameUsernames) {
+      out.header(USERNAME, id);
+      out.writeString(((GameUsernames) info).getUsername());
+      out.writeInt(((GameUsernames) info).getId());
+    } else if (info instanceof RankInfo) {
+      out.header(RANK, id);
+      Map<String, Integer> rank = ((RankInfo) info).getFinalRank();
+      out.writeLength(rank.size());
+      for (Map.Entry<String, Integer> entry : rank.entrySet()) {
+        out.writeString(entry.getKey());
+        out.writeInt(entry.getValue());
+      }
+    } else if (info instanceof InvalidSetsInfo) {
+      out.header(INVALID_SETS, id);
+      int[] rows = ((InvalidSetsInfo) info).getInvalidRows();
+      out.writeLength(rows.length);
+      for (int row : rows) {
+        out.writeInt(row);
+      }
+    } else if (info instanceof RoomsInfo) {
+      out.header(ROOMS, id);
+      List<RoomsInfo.Room> rooms = ((RoomsInfo) info).getRooms();
+      out.writeLength(rooms.size());
+      for (RoomsInfo.Room room : rooms) {
+        out.writeInt(room.getId());
+        out.writeString(room.getName());
+        out.writeInt(room.getPlayers());
+        out.writeLength(room.isGameOn() ? 1 : 0);
+      }
+    } else if (info instanceof RoomJoinedInfo) {
+      out.header(ROOM_JOINED, id);
+      out.writeInt(((RoomJoinedInfo) info).getRoomID());
+    } else if (info instanceof SessionInfo) {
+      out.header(SESSION, id);
+      out.writeString(((SessionInfo) info).getToken());
+    } else if (info instanceof SimpleGameInfo) {
+      out.header(SIMPLE_INFO, id);
+    } else {
+      throw new IllegalArgumentException("No binary encoding of " + info.getClass().getName());
+    }
+    return out.toByteArray();
+  }
+
+  /**
+   * Decodes a GameInfo.
+   *
+   * @param bytes the encoded info
+   * @return the info
+   * @throws IllegalArgumentException if the bytes are not an encoded info
+   */
+  public GameInfo decodeInfo(byte[] bytes) throws IllegalArgumentException {
+    return decodeInfo(bytes, bytes.length);
+  }
+
+  /**
+   * Decodes a GameInfo from the start of a buffer, which may be reused afterwards.
+   *
+   * @param bytes  the buffer
+   * @param length the number of bytes of the encoded info
+   * @return the info
+   * @throws IllegalArgumentException if the bytes are not an encoded info
+   */
+  public GameInfo decodeInfo(byte[] bytes, int length) throws IllegalArgumentException {
+    Input in = new Input(bytes, length);
+    int tag = in.readTag();
+    GameInfoID id = in.readEnum(INFO_IDS);
+    GameInfo info;
+    switch (tag) {
+      case SIMPLE_INFO:
+        info = new SimpleGameInfo(id);
+        break;
+      case GRID:
+        int version = in.readInt();
+        info = new GridInfo(id, in.readGrid(), version);
+        break;
+      case GRID_DELTA:
+        int baseVersion = in.readInt();
+        int deltaVersion = in.readInt();
+        int changed = in.readLength();
+        List<GridDeltaInfo.Cell> cells = new ArrayList<>(changed);
+        for (int i = 0; i < changed; i++) {
+          int column = in.readLength();
+          int row = in.readLength();
+          StoneInfo stone = (row & 1) == 0 ? null : decodeStone(in.readByte());
+          cells.add(new GridDeltaInfo.Cell(column, row >>> 1, stone));
+        }
+        info = new GridDeltaInfo(id, baseVersion, deltaVersion, cells);
+        break;
+      case BAG:
+        info = new BagInfo(in.readInt());
+        break;
+      case HAND_SIZES:
+        Integer[] sizes = new Integer[in.readLength()];
+        for (int i = 0; i < sizes.length; i++) {
+          sizes[i] = in.readInt();
+        }
+        info = new HandSizesInfo(Arrays.asList(sizes));
+        break;
+      case PLAYER_NAMES:
+        String[] names = new String[in.readLength()];
+        for (int i = 0; i < names.length; i++) {
+          names[i] = in.readString();
+        }
+        info = new PlayerNamesInfo(Arrays.asList(names));
+        break;
+      case CURRENT_PLAYER:
+        info = new CurrentPlayerInfo(in.readInt());
+        break;
+      case ERROR:
+        info = new ErrorInfo(in.readString());
+        break;
+      case GAME_START:
+        info = new GameStartInfo(id);
+        break;
+      case IP_ADDRESS:
+        info = new GameIPAddress(in.readString());
+        break;
+      case USERNAME:
+        info = new GameUsernames(in.readString(), in.readInt());
+        break;
+      case RANK:
+        int ranked = in.readLength();
+        Map<String, Integer> rank = new LinkedHashMap<>();
+        for (int i = 0; i < ranked; i++) {
+          rank.put(in.readString(), in.readInt());
+        }
+        info = new RankInfo(rank);
+        break;
+      case INVALID_SETS:
+        int[] rows = new int[in.readLength()];
+        for (int i = 0; i < rows.length; i++) {
+          rows[i] = in.readInt();
+        }
+        info = new InvalidSetsInfo(rows);
+        break;
+      case ROOMS:
+        int size = in.readLength();
+        List<RoomsInfo.Room> rooms = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+          rooms.add(new RoomsInfo.Room(in.readInt(), in.readString(), in.readInt(),
+              in.readLength() != 0));
+        }
+        info = new RoomsInfo(rooms);
+        break;
+      case ROOM_JOINED:
+        info = new RoomJoinedInfo(in.readInt());
+        break;
+      case SESSION:
+        info = new SessionInfo(in.readString());
+        break;
+      default:
+        throw new IllegalArgumentException("Unknown info tag " + tag);
+    }
+    in.checkEnd();
+    return info;
+  }
+
+  /**
+   * Returns the frame of a message, the message prefixed with its length as varint.
+   *
+   * @param message the encoded message
+   * @return the frame
+   */
+  public static byte[] frame(byte[] message) {
+    int length = message.length;
+    int prefix = 1;
+    while ((length >>>= 7) != 0) {
+      prefix++;
+    }
+    byte[] frame = new byte[prefix + message.length];
+    length = message.length;
+    for (int i = 0; i < prefix - 1; i++) {
+      frame[i] = (byte) ((length & 0x7F) | 0x80);
+      length >>>= 7;
+    }
+    frame[prefix - 1] = (byte) length;
+    System.arraycopy(message, 0, frame, prefix, message.length);
+    return frame;
+  }
+
+  /**
+   * Writes a frame, the message prefixed with its length as varint.
+   *
+   * @param out     the stream, which is not flushed
+   * @param message the encoded message
+   * @throws IOException if the stream fails
+   */
+  public static void writeFrame(OutputStream out, byte[] message) throws IOException {
+    int length = message.length;
+    while ((length & ~0x7F) != 0) {
+      out.write((length & 0x7F) | 0x80);
+      length >>>= 7;
+    }
+    out.write(length);
+    out.write(message);
+  }
+
+  /**
+   * Reads a frame written by writeFrame.
+   *
+   * @param in the stream
+   * @return the message, null at the end of the stream
+   * @throws IOException if the stream fails, ends within a frame or the frame is too long
+   */
+  public static byte[] readFrame(InputStream in) throws IOException {
+    int length = 0;
+    for (int shift = 0; ; shift += 7) {
+      int b = in.read();
+      if (b < 0) {
+        if (shift == 0) {
+          return null;
+        }
+        throw new EOFException();
+      }
+      length |= (b & 0x7F) << shift;
+      if ((b & 0x80) == 0) {
+        break;
+      }
+      if (shift > 21) {
+        throw new IOException("Frame length too long");
+      }
+    }
+    if (length > MAX_FRAME_LENGTH) {
+      throw new IOException("Frame of " + length + " bytes too long");
+    }
+    byte[] message = new byte[length];
+    int read = 0;
+    while (read < length) {
+      int n = in.read(message, read, length - read);
+      if (n < 0) {
+        throw new EOFException();
+      }
+      read += n;
+    }
+    return message;
+  }
+
+  /**
+   * Returns the byte of a stone, its color in the upper three bits and its number in the
+   * lower five bits.
+   */
+  static int encodeStone(StoneInfo stone) {
+    int number = stone.getNumber();
+    if (number < 0 || number >= 1 << NUMBER_BITS) {
+      throw new IllegalArgumentException("No binary encoding of the number " + number);
+    }
+    int color = stone.getColor() == null ? NO_COLOR : Color.valueOf(stone.getColor()).ordinal();
+    return color << NUMBER_BITS | number;
+  }
+
+  static StoneInfo decodeStone(int code) {
+    int color = code >>> NUMBER_BITS;
+    if (color != NO_COLOR && color >= COLORS.length) {
+      throw new IllegalArgumentException("Unknown color " + color);
+    }
+    return new StoneInfo(color == NO_COLOR ? null : COLORS[color].toString(),
+        code & ((1 << NUMBER_BITS) - 1));
+  }
+
+  /**
+   * Growing buffer the messages are encoded into.
+   */
+  private static final class Output {
+    private byte[] bytes = new byte[64];
+    private int size;
+
+    private void write(int b) {
+      if (size == bytes.length) {
+        bytes = Arrays.copyOf(bytes, size * 2);
+      }
+      bytes[size++] = (byte) b;
+    }
+
+    void header(int tag, int id) {
+      writeLength(tag);
+      writeLength(id);
+    }
+
+    void writeLength(int value) {
+      while ((value & ~0x7F) != 0) {
+        write((value & 0x7F) | 0x80);
+        value >>>= 7;
+      }
+      write(value);
+    }
+
+    void writeByte(int value) {
+      write(value);
+    }
+
+    void writeInt(int value) {
+      writeLength((value << 1) ^ (value >> 31));
+    }
+
+    void writeLong(long value) {
+      long zigzag = (value << 1) ^ (value >> 63);
+      while ((zigzag & ~0x7FL) != 0) {
+        write((int) (zigzag & 0x7F) | 0x80);
+        zigzag >>>= 7;
+      }
+      write((int) zigzag);
+    }
+
+    void writeString(String value) {
+      if (value == null) {
+        writeLength(0);
+        return;
+      }
+      byte[] utf8 = value.getBytes(StandardCharsets.UTF_8);
+      writeLength(utf8.length + 1);
+      for (byte b : utf8) {
+        write(b);
+      }
+    }
+
+    void writeGrid(StoneInfo[][] grid) {
+      int width = grid.length;
+      int height = width == 0 ? 0 : grid[0].length;
+      writeLength(width);
+      writeLength(height);
+      int occupancy = size;
+      for (int i = (width * height + 7) / 8; i > 0; i--) {
+        write(0);
+      }
+      int cell = 0;
+      for (StoneInfo[] column : grid) {
+        for (StoneInfo stone : column) {
+          if (stone != null) {
+            bytes[occupancy + cell / 8] |= 1 << (cell % 8);
+            write(encodeStone(stone));
+          }
+          cell++;
+        }
+      }
+    }
+
+    byte[] toByteArray() {
+      return Arrays.copyOf(bytes, size);
+    }
+  }
+
+  /**
+   * Reads the fields of an encoded message in the order they were written.
+   */
+  private static final class Input {
+    private final byte[] bytes;
+    private final int limit;
+    private int position;
+
+    Input(byte[] bytes, int length) {
+      this.bytes = bytes;
+      limit = length;
+    }
+
+    private int read() {
+      if (position == limit) {
+        throw new IllegalArgumentException("Message ends too early");
+      }
+      return bytes[position++] & 0xFF;
+    }
+
+    int readByte() {
+      return read();
+    }
+
+    int readTag() {
+      return readLength();
+    }
+
+    <E> E readEnum(E[] values) {
+      int ordinal = readLength();
+      if (ordinal >= values.length) {
+        throw new IllegalArgumentException("Unknown id " + ordinal);
+      }
+      return values[ordinal];
+    }
+
+    int readLength() {
+      int value = 0;
+      for (int shift = 0; shift < 35; shift += 7) {
+        int b = read();
+        value |= (b & 0x7F) << shift;
+        if ((b & 0x80) == 0) {
+          if (value < 0 || value > limit * 8 + 1) {
+            throw new IllegalArgumentException("Length " + value + " out of range");
+          }
+          return value;
+        }
+      }
+      throw new IllegalArgumentException("Varint too long");
+    }
+
+    int readInt() {
+      int value = 0;
+      for (int shift = 0; shift < 35; shift += 7) {
+        int b = read();
+        value |= (b & 0x7F) << shift;
+        if ((b & 0x80) == 0) {
+          return (value >>> 1) ^ -(value & 1);
+        }
+      }
+      throw new IllegalArgumentException("Varint too long");
+    }
+
+    long readLong() {
+      long value = 0;
+      for (int shift = 0; shift < 70; shift += 7) {
+        int b = read();
+        value |= (long) (b & 0x7F) << shift;
+        if ((b & 0x80) == 0) {
+          return (value >>> 1) ^ -(value & 1);
+        }
+      }
+      throw new IllegalArgumentException("Varint too long");
+    }
+
+    String readString() {
+      int length = readLength();
+      if (length == 0) {
+        return null;
+      }
+      length--;
+      if (length > limit - position) {
+        throw new IllegalArgumentException("Message ends too early");
+      }
+      String value = new String(bytes, position, length, StandardCharsets.UTF_8);
+      position += length;
+      return value;
+    }
+
+    StoneInfo[][] readGrid() {
+      int width = readLength();
+      int height = readLength();
+      if (width != 0 && height > (limit - position) * 8 / width) {
+        throw new IllegalArgumentException("Grid of " + width + "x" + height + " too large");
+      }
+      int cells = width * height;
+      int occupancy = position;
+      position += (cells + 7) / 8;
+      if (position > limit) {
+        throw new IllegalArgumentException("Message ends too early");
+      }
+      StoneInfo[][] grid = new StoneInfo[width][height];
+      for (int cell = 0; cell < cells; cell++) {
+        if ((bytes[occupancy + cell / 8] & 1 << (cell % 8)) != 0) {
+          grid[cell / height][cell % height] = decodeStone(read());
+        }
+      }
+      return grid;
+    }
+
+    void checkEnd() {
+      if (position != limit) {
+        throw new IllegalArgumentException("Message has " + (limit - position)
+            + " bytes too many");
+      }
+    }
+  }
+}
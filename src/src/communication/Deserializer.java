@@ -1,16 +1,15 @@
 package communication;
 
 import com.google.gson.Gson;
-import com.google.gson.GsonBuilder;
 import communication.gameinfo.GameInfo;
 import communication.request.Request;
 
 /**
  * Class deserializing Request- and GameInfo-Objects from Json.
+ * All Deserializers share the Gson of the MessageAdapters, which is built only once.
  */
 public class Deserializer {
-
-  private Gson gson;
+  private static final Gson GSON = MessageAdapters.GSON;
 
   /**
    * Deserializes GameInfo's from JSON.
@@ -19,10 +18,7 @@ public class Deserializer {
    * @return a GameInfo
    */
   public GameInfo deserializeInfo(String json) {
-    GsonBuilder builder = new GsonBuilder();
-    builder.registerTypeAdapter(GameInfo.class, new InterfaceAdapter<GameInfo>());
-    gson = builder.create();
-    return gson.fromJson(json, GameInfo.class);
+    return GSON.fromJson(json, GameInfo.class);
   }
 
   /**
@@ -32,9 +28,6 @@ public class Deserializer {
    * @return a GameInfo
    */
   public Request deserializeRequest(String json) {
-    GsonBuilder builder = new GsonBuilder();
-    builder.registerTypeAdapter(Request.class, new InterfaceAdapter<Request>());
-    gson = builder.create();
-    return gson.fromJson(json, Request.class);
+    return GSON.fromJson(json, Request.class);
   }
 }
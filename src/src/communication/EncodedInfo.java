@@ -0,0 +1,94 @@
+package communication;
+
+import communication.gameinfo.GameInfo;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * A GameInfo on its way to many clients, which is encoded at most once per protocol
+ * no matter how many clients it is sent to.
+ * The clients share the bytes on the wire, a line of JSON or a frame of the BinaryCodec,
+ * which are never changed once encoded. GameInfos which differ per client, like the rotated
+ * HandSizesInfo, are separate EncodedInfos.
+ */
+public final class EncodedInfo {
+  private final GameInfo info;
+  private volatile String json;
+  private volatile byte[] binary;
+  private volatile byte[] line;
+  private volatile byte[] frame;
+
+  public EncodedInfo(GameInfo info) {
+    this.info = info;
+  }
+
+  public GameInfo getInfo() {
+    return info;
+  }
+
+  /**
+   * Returns the info as JSON, encoding it on the first call.
+   *
+   * @return the JSON of the info
+   */
+  public String toJson() {
+    String encoded = json;
+    if (encoded == null) {
+      // two threads may both encode it, they get equal results
+      encoded = new Serializer().serialize(info);
+      json = encoded;
+    }
+    return encoded;
+  }
+
+  /**
+   * Returns the info in the binary protocol, encoding it on the first call.
+   *
+   * @return the encoded info, which must not be changed
+   */
+  public byte[] toBinary() {
+    byte[] encoded = binary;
+    if (encoded == null) {
+      encoded = new BinaryCodec().encode(info);
+      binary = encoded;
+    }
+    return encoded;
+  }
+
+  /**
+   * Returns the bytes of the info on the wire, encoding them on the first call.
+   *
+   * @param binaryProtocol true for a frame of the binary protocol, false for a line of JSON
+   * @return a read-only buffer of the bytes, with a position of its own
+   */
+  public ByteBuffer toBuffer(boolean binaryProtocol) {
+    return ByteBuffer.wrap(wireBytes(binaryProtocol)).asReadOnlyBuffer();
+  }
+
+  /**
+   * Writes the bytes of the info on the wire to a stream, encoding them on the first call.
+   *
+   * @param out            the stream
+   * @param binaryProtocol true for a frame of the binary protocol, false for a line of JSON
+   * @throws IOException if the stream can not be written
+   */
+  public void writeTo(OutputStream out, boolean binaryProtocol) throws IOException {
+    out.write(wireBytes(binaryProtocol));
+  }
+
+  private byte[] wireBytes(boolean binaryProtocol) {
+    byte[] encoded = binaryProtocol ? frame : line;
+    if (encoded == null) {
+      if (binaryProtocol) {
+        encoded = BinaryCodec.frame(toBinary());
+        frame = encoded;
+      } else {
+        encoded = (toJson() + '\n').getBytes(StandardCharsets.UTF_8);
+        line = encoded;
+      }
+    }
+    return encoded;
+  }
+}
@@ -0,0 +1,187 @@
+package communication;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Reads the messages of a blocking connection, lines of JSON or frames of the BinaryCodec,
+ * into a buffer which is reused for every message.
+ * A message is bounded by the largest length the reader accepts: a longer line or a frame
+ * announcing a longer length fails before anything of it is deserialized, so that a client
+ * can not make the other side buffer an unbounded message.
+ * The reader buffers the stream itself, it must not be wrapped into a BufferedInputStream.
+ */
+public final class FrameReader {
+  private static final int BUFFER_SIZE = 8192;
+  private static final int MAX_PREFIX_SHIFT = 21;
+
+  private final InputStream in;
+  private final int maxLength;
+  private final byte[] buffer = new byte[BUFFER_SIZE];
+  private int position;
+  private int limit;
+  private byte[] message = new byte[BUFFER_SIZE];
+  private int length;
+
+  /**
+   * Creates a reader accepting messages up to the largest frame of the BinaryCodec.
+   *
+   * @param in the stream of the connection
+   */
+  public FrameReader(InputStream in) {
+    this(in, BinaryCodec.MAX_FRAME_LENGTH);
+  }
+
+  /**
+   * Creates a reader.
+   *
+   * @param in        the stream of the connection
+   * @param maxLength the largest message in bytes which is accepted
+   */
+  public FrameReader(InputStream in, int maxLength) {
+    this.in = in;
+    this.maxLength = maxLength;
+  }
+
+  /**
+   * Consumes the next byte if it is the given one, the first byte of a client chooses
+   * its protocol.
+   *
+   * @param expected the byte
+   * @return true if the next byte was the given one
+   * @throws IOException if the stream fails
+   */
+  public boolean skip(int expected) throws IOException {
+    if (!fill() || (buffer[position] & 0xFF) != expected) {
+      return false;
+    }
+    position++;
+    return true;
+  }
+
+  /**
+   * Reads the next line which is not blank, without its line break.
+   *
+   * @return the line, null at the end of the stream
+   * @throws IOException if the stream fails, ends within a line or the line is too long
+   */
+  public String readLine() throws IOException {
+    while (true) {
+      length = 0;
+      boolean complete = false;
+      while (!complete) {
+        if (!fill()) {
+          if (length == 0) {
+            return null;
+          }
+          throw new EOFException();
+        }
+        int end = position;
+        while (end < limit && buffer[end] != '\n') {
+          end++;
+        }
+        append(end - position);
+        complete = end < limit;
+        position = complete ? end + 1 : end;
+      }
+      String line = new String(message, 0, length, StandardCharsets.UTF_8).trim();
+      if (!line.isEmpty()) {
+        return line;
+      }
+    }
+  }
+
+  /**
+   * Reads the next frame of the BinaryCodec, a message prefixed with its length as varint.
+   * The message is at the start of the buffer until the next read.
+   *
+   * @return the length of the message, -1 at the end of the stream
+   * @throws IOException if the stream fails, ends within a frame or the frame is too long
+   */
+  public int readFrame() throws IOException {
+    int frameLength = 0;
+    for (int shift = 0; ; shift += 7) {
+      if (!fill()) {
+        if (shift == 0) {
+          return -1;
+        }
+        throw new EOFException();
+      }
+      int b = buffer[position++] & 0xFF;
+      frameLength |= (b & 0x7F) << shift;
+      if ((b & 0x80) == 0) {
+        break;
+      }
+      if (shift >= MAX_PREFIX_SHIFT) {
+        throw new IOException("Frame length too long");
+      }
+    }
+    if (frameLength > maxLength) {
+      throw new IOException("Frame of " + frameLength + " bytes too long");
+    }
+    length = 0;
+    while (length < frameLength) {
+      if (!fill()) {
+        throw new EOFException();
+      }
+      int count = Math.min(frameLength - length, limit - position);
+      append(count);
+      position += count;
+    }
+    return frameLength;
+  }
+
+  /**
+   * Returns the buffer holding the last frame, it is overwritten by the next read.
+   *
+   * @return the buffer
+   */
+  public byte[] getBuffer() {
+    return message;
+  }
+
+  /**
+   * Closes the stream.
+   *
+   * @throws IOException if the stream fails
+   */
+  public void close() throws IOException {
+    in.close();
+  }
+
+  /**
+   * Makes sure the buffer holds unread bytes.
+   *
+   * @return false at the end of the stream
+   */
+  private boolean fill() throws IOException {
+    if (position < limit) {
+      return true;
+    }
+    int read = in.read(buffer, 0, buffer.length);
+    if (read <= 0) {
+      return false;
+    }
+    position = 0;
+    limit = read;
+    return true;
+  }
+
+  /**
+   * Appends unread bytes of the buffer to the message, without consuming them.
+   */
+  private void append(int count) throws IOException {
+    if (length + count > maxLength) {
+      throw new IOException("Message of more than " + maxLength + " bytes");
+    }
+    if (length + count > message.length) {
+      message = Arrays.copyOf(message,
+          (int) Math.min(maxLength, Math.max(length + count, 2L * message.length)));
+    }
+    System.arraycopy(buffer, position, message, length, count);
+    length += count;
+  }
+}
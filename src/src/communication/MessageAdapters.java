@@ -0,0 +1,422 @@
+package communication;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonParseException;
+import com.google.gson.TypeAdapter;
+import com.google.gson.TypeAdapterFactory;
+import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+import communication.gameinfo.GameInfo;
+import communication.gameinfo.GameInfoID;
+import communication.gameinfo.GridInfo;
+import communication.gameinfo.SimpleGameInfo;
+import communication.gameinfo.StoneInfo;
+import communication.request.ConcreteMove;
+import communication.request.ConcreteSetPlayer;
+import communication.request.ConcreteStart;
+import communication.request.Request;
+import communication.request.RequestID;
+import communication.request.SimpleRequest;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The Gson instance of the protocol, built once and shared by all threads.
+ * The messages sent most often have hand-written TypeAdapters, which write the same JSON
+ * as the reflective adapters of Gson did, so that the JSON on the wire does not change.
+ * Every message is wrapped as {"type": class name, "data": message}, the type is looked up in
+ * the MessageRegistry.
+ */
+final class MessageAdapters {
+  /** The Gson of the protocol, which is thread-safe. */
+  static final Gson GSON = new GsonBuilder()
+      .registerTypeAdapterFactory(new EnvelopeFactory())
+      .registerTypeAdapter(ConcreteMove.class, new MoveAdapter())
+      .registerTypeAdapter(SimpleRequest.class, new SimpleRequestAdapter())
+      .registerTypeAdapter(ConcreteSetPlayer.class, new SetPlayerAdapter())
+      .registerTypeAdapter(ConcreteStart.class, new StartAdapter())
+      .registerTypeAdapter(GridInfo.class, new GridAdapter())
+      .registerTypeAdapter(SimpleGameInfo.class, new SimpleInfoAdapter())
+      .create();
+
+  private static final String TYPE = "type";
+  private static final String DATA = "data";
+
+  private MessageAdapters() {
+  }
+
+  /**
+   * Writes an enum field like Gson, which leaves out null fields.
+   */
+  private static void writeEnum(JsonWriter out, String name, Enum<?> value) throws IOException {
+    if (value != null) {
+      out.name(name).value(value.name());
+    }
+  }
+
+  /**
+   * Creates the adapters of the envelopes of Requests and GameInfos.
+   */
+  private static final class EnvelopeFactory implements TypeAdapterFactory {
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> TypeAdapter<T> create(Gson gson, TypeToken<T> type) {
+      if (type.getRawType() == Request.class) {
+        return (TypeAdapter<T>) new EnvelopeAdapter<Request>(gson, true);
+      }
+      if (type.getRawType() == GameInfo.class) {
+        return (TypeAdapter<T>) new EnvelopeAdapter<GameInfo>(gson, false);
+      }
+      return null;
+    }
+  }
+
+  /**
+   * Adapter of the envelope naming the class of the message.
+   *
+   * @param <T> Request or GameInfo
+   */
+  private static final class EnvelopeAdapter<T> extends TypeAdapter<T> {
+    private final Gson gson;
+    private final boolean request;
+
+    EnvelopeAdapter(Gson gson, boolean request) {
+      this.gson = gson;
+      this.request = request;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public void write(JsonWriter out, T message) throws IOException {
+      if (message == null) {
+        out.nullValue();
+        return;
+      }
+      TypeAdapter<T> adapter = (TypeAdapter<T>) gson.getAdapter(message.getClass());
+      out.beginObject();
+      out.name(TYPE).value(message.getClass().getName());
+      out.name(DATA);
+      adapter.write(out, message);
+      out.endObject();
+    }
+
+    @Override
+    public T read(JsonReader in) throws IOException {
+      if (in.peek() == JsonToken.NULL) {
+        in.nextNull();
+        return null;
+      }
+      Class<?> type = null;
+      T message = null;
+      JsonElement early = null;
+      in.beginObject();
+      while (in.hasNext()) {
+        String name = in.nextName();
+        if (TYPE.equals(name)) {
+          type = typeForName(in.nextString());
+        } else if (DATA.equals(name) && type != null) {
+          message = read(in, type);
+        } else if (DATA.equals(name)) {
+          // the data before its type is parsed as tree first
+          early = gson.getAdapter(JsonElement.class).read(in);
+        } else {
+          in.skipValue();
+        }
+      }
+      in.endObject();
+      if (type == null) {
+        throw new JsonParseException("no 'type' member found in the envelope of a message");
+      }
+      if (early != null) {
+        return fromTree(early, type);
+      }
+      if (message == null) {
+        throw new JsonParseException("no 'data' member found in the envelope of a message");
+      }
+      return message;
+    }
+
+    @SuppressWarnings("unchecked")
+    private T read(JsonReader in, Class<?> type) throws IOException {
+      return (T) gson.getAdapter(type).read(in);
+    }
+
+    @SuppressWarnings("unchecked")
+    private T fromTree(JsonElement data, Class<?> type) {
+      return (T) gson.fromJson(data, type);
+    }
+
+    private Class<?> typeForName(String name) {
+      Class<?> type = request ? MessageRegistry.requestClass(name)
+          : MessageRegistry.infoClass(name);
+      if (type == null) {
+        throw new JsonParseException("unknown message type " + name);
+      }
+      return type;
+    }
+  }
+
+  private static final class MoveAdapter extends TypeAdapter<ConcreteMove> {
+    @Override
+    public void write(JsonWriter out, ConcreteMove move) throws IOException {
+      out.beginObject();
+      writeEnum(out, "id", move.getRequestID());
+      out.name("initCol").value(move.getInitCol());
+      out.name("initRow").value(move.getInitRow());
+      out.name("targetCol").value(move.getTargetCol());
+      out.name("targetRow").value(move.getTargetRow());
+      out.endObject();
+    }
+
+    @Override
+    public ConcreteMove read(JsonReader in) throws IOException {
+      RequestID id = null;
+      int[] positions = new int[4];
+      in.beginObject();
+      while (in.hasNext()) {
+        switch (in.nextName()) {
+          case "id":
+            id = RequestID.valueOf(in.nextString());
+            break;
+          case "initCol":
+            positions[0] = in.nextInt();
+            break;
+          case "initRow":
+            positions[1] = in.nextInt();
+            break;
+          case "targetCol":
+            positions[2] = in.nextInt();
+            break;
+          case "targetRow":
+            positions[3] = in.nextInt();
+            break;
+          default:
+            in.skipValue();
+        }
+      }
+      in.endObject();
+      return new ConcreteMove(id, positions[0], positions[1], positions[2], positions[3]);
+    }
+  }
+
+  private static final class SimpleRequestAdapter extends TypeAdapter<SimpleRequest> {
+    @Override
+    public void write(JsonWriter out, SimpleRequest request) throws IOException {
+      out.beginObject();
+      writeEnum(out, "id", request.getRequestID());
+      out.endObject();
+    }
+
+    @Override
+    public SimpleRequest read(JsonReader in) throws IOException {
+      RequestID id = null;
+      in.beginObject();
+      while (in.hasNext()) {
+        if ("id".equals(in.nextName())) {
+          id = RequestID.valueOf(in.nextString());
+        } else {
+          in.skipValue();
+        }
+      }
+      in.endObject();
+      return new SimpleRequest(id);
+    }
+  }
+
+  private static final class SetPlayerAdapter extends TypeAdapter<ConcreteSetPlayer> {
+    @Override
+    public void write(JsonWriter out, ConcreteSetPlayer setPlayer) throws IOException {
+      out.beginObject();
+      if (setPlayer.getName() != null) {
+        out.name("name").value(setPlayer.getName());
+      }
+      out.name("age").value(setPlayer.getAge());
+      out.endObject();
+    }
+
+    @Override
+    public ConcreteSetPlayer read(JsonReader in) throws IOException {
+      String name = null;
+      int age = 0;
+      in.beginObject();
+      while (in.hasNext()) {
+        switch (in.nextName()) {
+          case "name":
+            name = in.nextString();
+            break;
+          case "age":
+            age = in.nextInt();
+            break;
+          default:
+            in.skipValue();
+        }
+      }
+      in.endObject();
+      return new ConcreteSetPlayer(name, age);
+    }
+  }
+
+  private static final class StartAdapter extends TypeAdapter<ConcreteStart> {
+    @Override
+    public void write(JsonWriter out, ConcreteStart start) throws IOException {
+      out.beginObject();
+      out.name("seed").value(start.getSeed());
+      out.endObject();
+    }
+
+    @Override
+    public ConcreteStart read(JsonReader in) throws IOException {
+      long seed = 0;
+      in.beginObject();
+      while (in.hasNext()) {
+        if ("seed".equals(in.nextName())) {
+          seed = in.nextLong();
+        } else {
+          in.skipValue();
+        }
+      }
+      in.endObject();
+      return new ConcreteStart(seed);
+    }
+  }
+
+  private static final class GridAdapter extends TypeAdapter<GridInfo> {
+    @Override
+    public void write(JsonWriter out, GridInfo info) throws IOException {
+      out.beginObject();
+      if (info.getGrid() != null) {
+        out.name("grid");
+        out.beginArray();
+        for (StoneInfo[] column : info.getGrid()) {
+          writeColumn(out, column);
+        }
+        out.endArray();
+      }
+      writeEnum(out, "gameInfoID", info.getGameInfoID());
+      if (info.getVersion() != 0) {
+        out.name("version").value(info.getVersion());
+      }
+      out.endObject();
+    }
+
+    private static void writeColumn(JsonWriter out, StoneInfo[] column) throws IOException {
+      if (column == null) {
+        out.nullValue();
+        return;
+      }
+      out.beginArray();
+      for (StoneInfo stone : column) {
+        if (stone == null) {
+          out.nullValue();
+          continue;
+        }
+        out.beginObject();
+        if (stone.getColor() != null) {
+          out.name("color").value(stone.getColor());
+        }
+        out.name("number").value(stone.getNumber());
+        out.endObject();
+      }
+      out.endArray();
+    }
+
+    @Override
+    public GridInfo read(JsonReader in) throws IOException {
+      StoneInfo[][] grid = null;
+      GameInfoID id = null;
+      int version = 0;
+      in.beginObject();
+      while (in.hasNext()) {
+        switch (in.nextName()) {
+          case "grid":
+            grid = readGrid(in);
+            break;
+          case "gameInfoID":
+            id = GameInfoID.valueOf(in.nextString());
+            break;
+          case "version":
+            version = in.nextInt();
+            break;
+          default:
+            in.skipValue();
+        }
+      }
+      in.endObject();
+      return new GridInfo(id, grid, version);
+    }
+
+    private static StoneInfo[][] readGrid(JsonReader in) throws IOException {
+      List<StoneInfo[]> columns = new ArrayList<>();
+      in.beginArray();
+      while (in.hasNext()) {
+        if (in.peek() == JsonToken.NULL) {
+          in.nextNull();
+          columns.add(null);
+          continue;
+        }
+        List<StoneInfo> column = new ArrayList<>();
+        in.beginArray();
+        while (in.hasNext()) {
+          column.add(readStone(in));
+        }
+        in.endArray();
+        columns.add(column.toArray(new StoneInfo[0]));
+      }
+      in.endArray();
+      return columns.toArray(new StoneInfo[0][]);
+    }
+
+    private static StoneInfo readStone(JsonReader in) throws IOException {
+      if (in.peek() == JsonToken.NULL) {
+        in.nextNull();
+        return null;
+      }
+      String color = null;
+      int number = 0;
+      in.beginObject();
+      while (in.hasNext()) {
+        switch (in.nextName()) {
+          case "color":
+            color = in.nextString();
+            break;
+          case "number":
+            number = in.nextInt();
+            break;
+          default:
+            in.skipValue();
+        }
+      }
+      in.endObject();
+      return new StoneInfo(color, number);
+    }
+  }
+
+  private static final class SimpleInfoAdapter extends TypeAdapter<SimpleGameInfo> {
+    @Override
+    public void write(JsonWriter out, SimpleGameInfo info) throws IOException {
+      out.beginObject();
+      writeEnum(out, "gameInfoID", info.getGameInfoID());
+      out.endObject();
+    }
+
+    @Override
+    public SimpleGameInfo read(JsonReader in) throws IOException {
+      GameInfoID id = null;
+      in.beginObject();
+      while (in.hasNext()) {
+        if ("gameInfoID".equals(in.nextName())) {
+          id = GameInfoID.valueOf(in.nextString());
+        } else {
+          in.skipValue();
+        }
+      }
+      in.endObject();
+      return new SimpleGameInfo(id);
+    }
+  }
+}
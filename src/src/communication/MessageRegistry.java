@@ -0,0 +1,143 @@
+package communication;
+
+import communication.gameinfo.BagInfo;
+import communication.gameinfo.CurrentPlayerInfo;
+import communication.gameinfo.ErrorInfo;
+import communication.gameinfo.GameIPAddress;
+import communication.gameinfo.GameInfo;
+import communication.gameinfo.GameInfoID;
+import communication.gameinfo.GameStartInfo;
+import communication.gameinfo.GameUsernames;
+import communication.gameinfo.GridDeltaInfo;
+import communication.gameinfo.GridInfo;
+import communication.gameinfo.HandSizesInfo;
+import communication.gameinfo.InvalidSetsInfo;
+import communication.gameinfo.PlayerNamesInfo;
+import communication.gameinfo.RankInfo;
+import communication.gameinfo.RoomJoinedInfo;
+import communication.gameinfo.RoomsInfo;
+import communication.gameinfo.SessionInfo;
+import communication.gameinfo.SimpleGameInfo;
+import communication.request.ConcreteCreateRoom;
+import communication.request.ConcreteJoinRoom;
+import communication.request.ConcreteMove;
+import communication.request.ConcreteResume;
+import communication.request.ConcreteSetPlayer;
+import communication.request.ConcreteSpectateRoom;
+import communication.request.ConcreteStart;
+import communication.request.Request;
+import communication.request.RequestID;
+import communication.request.SimpleRequest;
+import communication.request.UpdatePlayersRequest;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Registry of the classes of all Requests and GameInfos of the protocol.
+ * The JSON of a message names its class as type, which is looked up here instead of being
+ * loaded with Class.forName, so that a client can only ever create the classes of the protocol.
+ * It also knows which class carries the messages of each RequestID and GameInfoID.
+ */
+final class MessageRegistry {
+  private static final Map<String, Class<? extends Request>> REQUESTS = new HashMap<>();
+  private static final Map<String, Class<? extends GameInfo>> INFOS = new HashMap<>();
+  private static final Map<RequestID, Class<? extends Request>> REQUEST_CLASSES =
+      new EnumMap<>(RequestID.class);
+  private static final Map<GameInfoID, Class<? extends GameInfo>> INFO_CLASSES =
+      new EnumMap<>(GameInfoID.class);
+
+  static {
+    // requests of ids without a class of their own are simple requests
+    for (RequestID id : RequestID.values()) {
+      REQUEST_CLASSES.put(id, SimpleRequest.class);
+    }
+    register(SimpleRequest.class);
+    register(UpdatePlayersRequest.class, RequestID.UPDATE_PLAYERS);
+    register(ConcreteMove.class, RequestID.HAND_MOVE, RequestID.TABLE_MOVE, RequestID.PUT_STONE,
+        RequestID.TABLE_SET_MOVE, RequestID.HAND_SET_MOVE, RequestID.PUT_SET);
+    register(ConcreteSetPlayer.class, RequestID.JOIN);
+    register(ConcreteStart.class, RequestID.START);
+    register(ConcreteCreateRoom.class, RequestID.CREATE_ROOM);
+    register(ConcreteJoinRoom.class, RequestID.JOIN_ROOM);
+    register(ConcreteSpectateRoom.class, RequestID.SPECTATE_ROOM);
+    register(ConcreteResume.class, RequestID.RESUME);
+
+    for (GameInfoID id : GameInfoID.values()) {
+      INFO_CLASSES.put(id, SimpleGameInfo.class);
+    }
+    register(SimpleGameInfo.class);
+    register(GridInfo.class, GameInfoID.TABLE, GameInfoID.HAND);
+    register(GridDeltaInfo.class, GameInfoID.TABLE_DELTA, GameInfoID.HAND_DELTA);
+    register(BagInfo.class, GameInfoID.BAG);
+    register(HandSizesInfo.class, GameInfoID.HAND_SIZES);
+    register(PlayerNamesInfo.class, GameInfoID.PLAYER_NAMES);
+    register(CurrentPlayerInfo.class, GameInfoID.CURRENT_PLAYER);
+    register(ErrorInfo.class, GameInfoID.ERROR);
+    register(GameStartInfo.class, GameInfoID.GAME_START);
+    register(GameIPAddress.class, GameInfoID.IP_ADDRESS);
+    register(GameUsernames.class, GameInfoID.USERNAME);
+    register(RankInfo.class, GameInfoID.RANK);
+    register(InvalidSetsInfo.class, GameInfoID.INVALID_SETS);
+    register(RoomsInfo.class, GameInfoID.ROOMS);
+    register(RoomJoinedInfo.class, GameInfoID.ROOM_JOINED);
+    register(SessionInfo.class, GameInfoID.SESSION);
+  }
+
+  private MessageRegistry() {
+  }
+
+  private static void register(Class<? extends Request> type, RequestID... ids) {
+    REQUESTS.put(type.getName(), type);
+    for (RequestID id : ids) {
+      REQUEST_CLASSES.put(id, type);
+    }
+  }
+
+  private static void register(Class<? extends GameInfo> type, GameInfoID... ids) {
+    INFOS.put(type.getName(), type);
+    for (GameInfoID id : ids) {
+      INFO_CLASSES.put(id, type);
+    }
+  }
+
+  /**
+   * Returns the class of the requests with the given type name.
+   *
+   * @param name the name of the class
+   * @return the class, null if it is not a request of the protocol
+   */
+  static Class<? extends Request> requestClass(String name) {
+    return REQUESTS.get(name);
+  }
+
+  /**
+   * Returns the class of the infos with the given type name.
+   *
+   * @param name the name of the class
+   * @return the class, null if it is not an info of the protocol
+   */
+  static Class<? extends GameInfo> infoClass(String name) {
+    return INFOS.get(name);
+  }
+
+  /**
+   * Returns the class carrying the requests of the given id.
+   *
+   * @param id of the request
+   * @return the class
+   */
+  static Class<? extends Request> requestClass(RequestID id) {
+    return REQUEST_CLASSES.get(id);
+  }
+
+  /**
+   * Returns the class carrying the infos of the given id.
+   *
+   * @param id of the info
+   * @return the class
+   */
+  static Class<? extends GameInfo> infoClass(GameInfoID id) {
+    return INFO_CLASSES.get(id);
+  }
+}
@@ -1,19 +1,15 @@
 package communication;
 
 import com.google.gson.Gson;
-import com.google.gson.GsonBuilder;
 import communication.gameinfo.GameInfo;
-import communication.gameinfo.GameUsernames;
-import communication.gameinfo.GridInfo;
-import communication.gameinfo.StoneInfo;
-import communication.request.ConcreteMove;
 import communication.request.Request;
-import communication.request.RequestID;
 
 /**
  * Class serializing Request- and GameInfo-Objects to JSON.
+ * All Serializers share the Gson of the MessageAdapters, which is built only once.
  */
 public class Serializer {
+  private static final Gson GSON = MessageAdapters.GSON;
 
   /**
    * Serializes a Request to JSON.
@@ -22,13 +18,7 @@ public class Serializer {
    * @return serialized representation of the Request
    */
   public String serialize(Request request) {
-
-    Gson gson;
-    GsonBuilder builder = new GsonBuilder();
-    builder.registerTypeAdapter(Request.class, new InterfaceAdapter<Request>());
-    gson = builder.create();
-
-    return gson.toJson(request, Request.class);
+    return GSON.toJson(request, Request.class);
   }
 
   /**
@@ -38,12 +28,6 @@ public class Serializer {
    * @return serialized representation of the GameInfo
    */
   public String serialize(GameInfo gameInfo) {
-
-    Gson gson;
-    GsonBuilder builder = new GsonBuilder();
-    builder.registerTypeAdapter(GameInfo.class, new InterfaceAdapter<GameInfo>());
-    gson = builder.create();
-
-    return gson.toJson(gameInfo, GameInfo.class);
+    return GSON.toJson(gameInfo, GameInfo.class);
   }
 }
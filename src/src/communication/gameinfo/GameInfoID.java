@@ -20,5 +20,11 @@ public enum GameInfoID {
   USERNAME,
   SERVER_NOT_AVAILABLE,
   RANK,
-  TOO_MANY_CLIENTS
+  TOO_MANY_CLIENTS,
+  INVALID_SETS,
+  ROOMS,
+  ROOM_JOINED,
+  TABLE_DELTA,
+  HAND_DELTA,
+  SESSION
 }
@@ -0,0 +1,90 @@
+package communication.gameinfo;
+
+import java.io.Serializable;
+import java.util.List;
+
+/**
+ * Info for the cells of the Game Table or Player Hand that changed since a version of it.
+ * It can only be applied to the grid of its base version, which it turns into its version.
+ */
+public final class GridDeltaInfo implements GameInfo, Serializable {
+  private final GameInfoID gameInfoID;
+  private final int baseVersion;
+  private final int version;
+  private final List<Cell> cells;
+
+  public GridDeltaInfo(GameInfoID gameInfoID, int baseVersion, int version, List<Cell> cells) {
+    this.gameInfoID = gameInfoID;
+    this.baseVersion = baseVersion;
+    this.version = version;
+    this.cells = cells;
+  }
+
+  @Override
+  public GameInfoID getGameInfoID() {
+    return gameInfoID;
+  }
+
+  public int getBaseVersion() {
+    return baseVersion;
+  }
+
+  public int getVersion() {
+    return version;
+  }
+
+  public List<Cell> getCells() {
+    return cells;
+  }
+
+  /**
+   * Writes the changed cells into a grid of the base version.
+   *
+   * @param grid the grid of the base version
+   * @throws IllegalArgumentException if a cell is outside of the grid
+   */
+  public void applyTo(StoneInfo[][] grid) throws IllegalArgumentException {
+    for (Cell cell : cells) {
+      if (cell.getColumn() < 0 || cell.getColumn() >= grid.length || cell.getRow() < 0
+          || cell.getRow() >= grid[cell.getColumn()].length) {
+        throw new IllegalArgumentException("Cell " + cell.getColumn() + "," + cell.getRow()
+            + " is outside of the grid");
+      }
+      grid[cell.getColumn()][cell.getRow()] = cell.getStone();
+    }
+  }
+
+  /**
+   * A changed cell of the grid.
+   */
+  public static final class Cell implements Serializable {
+    private final int column;
+    private final int row;
+    private final StoneInfo stone;
+
+    /**
+     * Creates a changed cell.
+     *
+     * @param column of the cell
+     * @param row    of the cell
+     * @param stone  now in the cell, null if it is empty now
+     */
+    public Cell(int column, int row, StoneInfo stone) {
+      this.column = column;
+      this.row = row;
+      this.stone = stone;
+    }
+
+    public int getColumn() {
+      return column;
+    }
+
+    public int getRow() {
+      return row;
+    }
+
+    public StoneInfo getStone() {
+      return stone;
+    }
+  }
+}
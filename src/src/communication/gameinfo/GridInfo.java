@@ -4,20 +4,31 @@ import java.io.Serializable;
 
 /**
  * Info for Game Table or Player Hand.
+ * The version numbers the states of the grid, GridDeltaInfos are based on it.
  */
 public final class GridInfo implements GameInfo, Serializable {
   private final StoneInfo[][] grid;
   private final GameInfoID gameInfoID;
+  private final int version;
 
   public GridInfo(GameInfoID gameInfoID, StoneInfo[][] grid) {
+    this(gameInfoID, grid, 0);
+  }
+
+  public GridInfo(GameInfoID gameInfoID, StoneInfo[][] grid, int version) {
     this.gameInfoID = gameInfoID;
     this.grid = grid;
+    this.version = version;
   }
 
   public StoneInfo[][] getGrid() {
     return grid;
   }
 
+  public int getVersion() {
+    return version;
+  }
+
   @Override
   public GameInfoID getGameInfoID() {
     return gameInfoID;
@@ -0,0 +1,36 @@
+package communication.gameinfo;
+
+import java.io.Serializable;
+
+/**
+ * Game info that marks the stones on the table which do not belong to a valid set.
+ * Each row of the table is a bitmask, the bit of a column is set if the stone
+ * in this column is part of an invalid set.
+ */
+public final class InvalidSetsInfo implements GameInfo, Serializable {
+  private final int[] invalidRows;
+
+  public InvalidSetsInfo(int[] invalidRows) {
+    this.invalidRows = invalidRows;
+  }
+
+  @Override
+  public GameInfoID getGameInfoID() {
+    return GameInfoID.INVALID_SETS;
+  }
+
+  public int[] getInvalidRows() {
+    return invalidRows;
+  }
+
+  /**
+   * Checks if the stone at the given column and row is part of an invalid set.
+   *
+   * @param col the column of the stone
+   * @param row the row of the stone
+   * @return true if only if the stone is part of an invalid set
+   */
+  public boolean isInvalid(int col, int row) {
+    return row >= 0 && row < invalidRows.length && (invalidRows[row] & (1 << col)) != 0;
+  }
+}
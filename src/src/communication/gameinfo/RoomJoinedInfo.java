@@ -0,0 +1,23 @@
+package communication.gameinfo;
+
+import java.io.Serializable;
+
+/**
+ * Game info that tells a client the id of the room it joined.
+ */
+public final class RoomJoinedInfo implements GameInfo, Serializable {
+  private final int roomID;
+
+  public RoomJoinedInfo(int roomID) {
+    this.roomID = roomID;
+  }
+
+  @Override
+  public GameInfoID getGameInfoID() {
+    return GameInfoID.ROOM_JOINED;
+  }
+
+  public int getRoomID() {
+    return roomID;
+  }
+}
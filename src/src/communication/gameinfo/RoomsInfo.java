@@ -0,0 +1,57 @@
+package communication.gameinfo;
+
+import java.io.Serializable;
+import java.util.List;
+
+/**
+ * Game info that stores the rooms in the lobby of the server.
+ */
+public final class RoomsInfo implements GameInfo, Serializable {
+  private final List<Room> rooms;
+
+  public RoomsInfo(List<Room> rooms) {
+    this.rooms = rooms;
+  }
+
+  @Override
+  public GameInfoID getGameInfoID() {
+    return GameInfoID.ROOMS;
+  }
+
+  public List<Room> getRooms() {
+    return rooms;
+  }
+
+  /**
+   * A room in the lobby.
+   */
+  public static final class Room implements Serializable {
+    private final int id;
+    private final String name;
+    private final int players;
+    private final boolean gameOn;
+
+    public Room(int id, String name, int players, boolean gameOn) {
+      this.id = id;
+      this.name = name;
+      this.players = players;
+      this.gameOn = gameOn;
+    }
+
+    public int getId() {
+      return id;
+    }
+
+    public String getName() {
+      return name;
+    }
+
+    public int getPlayers() {
+      return players;
+    }
+
+    public boolean isGameOn() {
+      return gameOn;
+    }
+  }
+}
@@ -0,0 +1,24 @@
+package communication.gameinfo;
+
+import java.io.Serializable;
+
+/**
+ * Game info that gives a player the token of its session, with which it can resume its seat
+ * and hand on a new connection after losing its connection to the server.
+ */
+public final class SessionInfo implements GameInfo, Serializable {
+  private final String token;
+
+  public SessionInfo(String token) {
+    this.token = token;
+  }
+
+  @Override
+  public GameInfoID getGameInfoID() {
+    return GameInfoID.SESSION;
+  }
+
+  public String getToken() {
+    return token;
+  }
+}
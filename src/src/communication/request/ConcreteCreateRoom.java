@@ -0,0 +1,23 @@
+package communication.request;
+
+import java.io.Serializable;
+
+/**
+ * Request to open a new room with a game in the lobby of the server and to join it.
+ */
+public final class ConcreteCreateRoom implements Request, Serializable {
+  private final String name;
+
+  public ConcreteCreateRoom(String name) {
+    this.name = name;
+  }
+
+  @Override
+  public RequestID getRequestID() {
+    return RequestID.CREATE_ROOM;
+  }
+
+  public String getName() {
+    return name;
+  }
+}
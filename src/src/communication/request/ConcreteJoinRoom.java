@@ -0,0 +1,23 @@
+package communication.request;
+
+import java.io.Serializable;
+
+/**
+ * Request to join the room with the given id in the lobby of the server.
+ */
+public final class ConcreteJoinRoom implements Request, Serializable {
+  private final int roomID;
+
+  public ConcreteJoinRoom(int roomID) {
+    this.roomID = roomID;
+  }
+
+  @Override
+  public RequestID getRequestID() {
+    return RequestID.JOIN_ROOM;
+  }
+
+  public int getRoomID() {
+    return roomID;
+  }
+}
@@ -0,0 +1,24 @@
+package communication.request;
+
+import java.io.Serializable;
+
+/**
+ * Request of a new connection to take over the seat of the session with the given token,
+ * which was held for the player since its connection was lost.
+ */
+public final class ConcreteResume implements Request, Serializable {
+  private final String token;
+
+  public ConcreteResume(String token) {
+    this.token = token;
+  }
+
+  @Override
+  public RequestID getRequestID() {
+    return RequestID.RESUME;
+  }
+
+  public String getToken() {
+    return token;
+  }
+}
@@ -0,0 +1,24 @@
+package communication.request;
+
+import java.io.Serializable;
+
+/**
+ * Request to watch the game of the room with the given id in the lobby of the server
+ * as a spectator, who does not take a seat and never sees a hand.
+ */
+public final class ConcreteSpectateRoom implements Request, Serializable {
+  private final int roomID;
+
+  public ConcreteSpectateRoom(int roomID) {
+    this.roomID = roomID;
+  }
+
+  @Override
+  public RequestID getRequestID() {
+    return RequestID.SPECTATE_ROOM;
+  }
+
+  public int getRoomID() {
+    return roomID;
+  }
+}
@@ -0,0 +1,23 @@
+package communication.request;
+
+import java.io.Serializable;
+
+/**
+ * Request to start a game with a given seed of the bag, so that the game can be played again.
+ */
+public final class ConcreteStart implements Request, Serializable {
+  private final long seed;
+
+  public ConcreteStart(long seed) {
+    this.seed = seed;
+  }
+
+  @Override
+  public RequestID getRequestID() {
+    return RequestID.START;
+  }
+
+  public long getSeed() {
+    return seed;
+  }
+}
@@ -20,5 +20,11 @@ public enum RequestID {
   HAND_SET_MOVE,
   PUT_SET,
   UNDO,
-  UPDATE_PLAYERS
+  UPDATE_PLAYERS,
+  CREATE_ROOM,
+  JOIN_ROOM,
+  LIST_ROOMS,
+  RESYNC,
+  SPECTATE_ROOM,
+  RESUME
 }
@@ -1,11 +1,25 @@
 package game;
 
-import java.util.Objects;
+import globalconstants.Constants;
 
 /**
  * coordinate for a stone on game table or player hand.
+ * Coordinates are immutable, the ones inside of the table (which also covers every hand)
+ * are shared instances that should be obtained with {@link #of(int, int)}.
  */
 public final class Coordinate {
+  private static final int CACHED_COLS = Math.max(Constants.TABLE_WIDTH, Constants.HAND_WIDTH);
+  private static final int CACHED_ROWS = Math.max(Constants.TABLE_HEIGHT, Constants.HAND_HEIGHT);
+  private static final Coordinate[] CACHE = new Coordinate[CACHED_COLS * CACHED_ROWS];
+
+  static {
+    for (int row = 0; row < CACHED_ROWS; row++) {
+      for (int col = 0; col < CACHED_COLS; col++) {
+        CACHE[row * CACHED_COLS + col] = new Coordinate(col, row);
+      }
+    }
+  }
+
   private final int col;
   private final int row;
 
@@ -14,8 +28,27 @@ public final class Coordinate {
     this.row = row;
   }
 
+  /**
+   * Returns the coordinate with the given col and row.
+   * Coordinates on the table or a hand are taken from a pre-built table of shared instances,
+   * all other coordinates are created.
+   *
+   * @param col the column of the coordinate
+   * @param row the row of the coordinate
+   * @return the coordinate with the given col and row
+   */
+  public static Coordinate of(int col, int row) {
+    if (col >= 0 && col < CACHED_COLS && row >= 0 && row < CACHED_ROWS) {
+      return CACHE[row * CACHED_COLS + col];
+    }
+    return new Coordinate(col, row);
+  }
+
   @Override
   public boolean equals(Object other) {
+    if (this == other) {
+      return true;
+    }
     if (!(other instanceof Coordinate)) {
       return false;
     }
@@ -25,14 +58,15 @@ public final class Coordinate {
 
   @Override
   public int hashCode() {
-    return Objects.hash(col, row);
+    // same value as Objects.hash(col, row) without boxing into a varargs array
+    return 31 * (31 + col) + row;
   }
 
-  int getCol() {
+  public int getCol() {
     return col;
   }
 
-  int getRow() {
+  public int getRow() {
     return row;
   }
 }
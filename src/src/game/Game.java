@@ -27,6 +27,22 @@ public interface Game {
    */
   void start() throws IllegalStateException;
 
+  /**
+   * Attempts to start this Game with a Bag which gives out its stones
+   * in the same order for the same seed, so that a game can be played again.
+   *
+   * @param seed the seed of the Bag
+   * @throws IllegalStateException if it is not yet able to start
+   */
+  void start(long seed) throws IllegalStateException;
+
+  /**
+   * Returns the seed of the Bag of the last start of this Game.
+   *
+   * @return the seed of the Bag
+   */
+  long getSeed();
+
   /**
    * Moves a group of stones on the Table of this Game from the given sourcePosition
    * to the given targetPosition.
@@ -112,6 +128,14 @@ public interface Game {
    */
   void undo();
 
+  /**
+   * Undoes the given number of last moves of stones that had been done on and to the Table
+   * of this Game at once.
+   *
+   * @param steps the number of moves to be undone
+   */
+  void undo(int steps);
+
   /**
    * Checks if there is a winner of this Game.
    *
@@ -136,6 +160,14 @@ public interface Game {
    */
   Map<Coordinate, Stone> getPlayerStones(int playerID);
 
+  /**
+   * Gives for each row of the Table of this Game a bitmask of the stones
+   * which are not part of a valid set.
+   *
+   * @return a bitmask of the stones in invalid sets for each row of the Table
+   */
+  int[] getInvalidTableSets();
+
   /**
    * Gives all of Players' Hand-sizes in this Game.
    *
@@ -199,6 +231,14 @@ public interface Game {
    */
   void timeOut(int playerID);
 
+  /**
+   * Returns true if the Player with the given playerID has already played their first move.
+   *
+   * @param playerID the id of the subject Player
+   * @return true if the Player has played their first move
+   */
+  boolean hasPlayedFirstMove(int playerID);
+
   /**
    * Returns true if this Game is on going.
    *
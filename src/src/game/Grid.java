@@ -60,10 +60,10 @@ public interface Grid {
   default Coordinate getFirstCoordOfStonesAt(Coordinate coordinate) {
     int col = coordinate.getCol();
     // find the first stone for a potential set
-    while (getStones().containsKey(new Coordinate(col - 1, coordinate.getRow()))) {
+    while (getStones().containsKey(Coordinate.of(col - 1, coordinate.getRow()))) {
       col--;
     }
-    return new Coordinate(col, coordinate.getRow());
+    return Coordinate.of(col, coordinate.getRow());
   }
 
   /**
@@ -78,7 +78,7 @@ public interface Grid {
     int row = coordinate.getRow();
     Map<Coordinate, Stone> stones = getStones();
     int size = 0;
-    while (stones.containsKey(new Coordinate(col++, row))) {
+    while (stones.containsKey(Coordinate.of(col++, row))) {
       size++;
     }
     return size;
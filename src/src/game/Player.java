@@ -60,7 +60,7 @@ class Player {
     Coordinate coordinate;
     for (int row = 0; row < hand.getHeight(); row++) {
       for (int col = 0; col < hand.getWidth(); col++) {
-        coordinate = new Coordinate(col, row);
+        coordinate = Coordinate.of(col, row);
         if (!stones.containsKey(coordinate)) {
           return coordinate;
         }
@@ -92,7 +92,18 @@ class Player {
    * @return the wanted stone
    */
   Stone popStone(Coordinate sourcePosition) {
-    return hand.getStones().remove(sourcePosition);
+    return hand.removeStone(sourcePosition);
+  }
+
+  /**
+   * Puts the given stone back at the given position of this Player's Hand,
+   * or at the next free position if the given one was taken meanwhile.
+   *
+   * @param position the position of the stone before it left the hand
+   * @param stone    the stone to be put back
+   */
+  void returnStone(Coordinate position, Stone stone) {
+    hand.setStone(hand.getStones().containsKey(position) ? nextFreeCoordinate() : position, stone);
   }
 
   /**
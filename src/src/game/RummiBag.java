@@ -1,10 +1,10 @@
 package game;
 
-import game.Stone.Color;
-
-import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
-import java.util.Random;
+import java.util.Collections;
+import java.util.List;
+import java.util.SplittableRandom;
 
 /**
  * Class representing a bag of Stones.
@@ -13,11 +13,17 @@ import java.util.Random;
  * Each type of Stone (defined by a color and a numerical value)
  * is present twice.
  * There are to Jokers in the bag.
+ *
+ * <p>The stones are shuffled once when the bag is filled (Fisher-Yates),
+ * so that drawing a stone only takes the last one. Stones put back are shuffled in
+ * at a random position one by one. A bag with a seed gives out the same stones in the
+ * same order for the same draws and put backs.
  */
 public class RummiBag {
   private static final int MAX_BAG_SIZE = 106;
-  private ArrayList<Stone> stones;
-  private Random randomGenerator;
+  private Stone[] stones;
+  private int size;
+  private SplittableRandom randomGenerator;
 
 
   /**
@@ -25,18 +31,29 @@ public class RummiBag {
    * and a randomGenerator in order to remove stones randomly.
    */
   RummiBag() {
-    stones = new ArrayList<>(MAX_BAG_SIZE);
-    for (Color color : Color.values()) {
-      if (color != Color.JOKER) {
-        for (int i = Stone.MIN_VALUE; i <= Stone.MAX_VALUE; i++) {
-          stones.add(new Stone(color, i));
-          stones.add(new Stone(color, i));
-        }
-      }
+    this(new SplittableRandom());
+  }
+
+  /**
+   * Initializes all Stones with a randomGenerator of the given seed,
+   * so that the stones are drawn in the same order for the same seed.
+   *
+   * @param seed the seed of the randomGenerator
+   */
+  RummiBag(long seed) {
+    this(new SplittableRandom(seed));
+  }
+
+  private RummiBag(SplittableRandom randomGenerator) {
+    this.randomGenerator = randomGenerator;
+    stones = new Stone[MAX_BAG_SIZE];
+    for (int id = 0; id < MAX_BAG_SIZE; id++) {
+      stones[id] = Stone.of(id);
+    }
+    size = MAX_BAG_SIZE;
+    for (int i = size - 1; i > 0; i--) {
+      swap(i, randomGenerator.nextInt(i + 1));
     }
-    stones.add(new Stone());
-    stones.add(new Stone());
-    randomGenerator = new Random();
   }
 
   /**
@@ -45,11 +62,13 @@ public class RummiBag {
    * @return the removed stone
    */
   Stone removeStone() {
-    return stones.remove(randomGenerator.nextInt(size()));
+    Stone stone = stones[--size];
+    stones[size] = null;
+    return stone;
   }
 
   int size() {
-    return stones.size();
+    return size;
   }
 
   /**
@@ -58,11 +77,29 @@ public class RummiBag {
    * @param extraStones the stones to be put into this Bag
    */
   void addStones(Collection<Stone> extraStones) {
-    this.stones.addAll(extraStones);
+    if (size + extraStones.size() > stones.length) {
+      stones = Arrays.copyOf(stones, size + extraStones.size());
+    }
+    for (Stone stone : extraStones) {
+      stones[size] = stone;
+      swap(size, randomGenerator.nextInt(size + 1));
+      size++;
+    }
+  }
+
+  private void swap(int i, int j) {
+    Stone stone = stones[i];
+    stones[i] = stones[j];
+    stones[j] = stone;
   }
 
-  ArrayList<Stone> getStones() {
-    return stones;
+  /**
+   * Returns the stones in this Bag, the next stone to be drawn is the last one.
+   *
+   * @return an unmodifiable list of the stones in this Bag
+   */
+  List<Stone> getStones() {
+    return Collections.unmodifiableList(Arrays.asList(stones).subList(0, size));
   }
 
   // for test
@@ -70,7 +107,7 @@ public class RummiBag {
   public String toString() {
     StringBuilder stringBuilder = new StringBuilder();
     stringBuilder.append("bag size: ").append(size()).append('\n');
-    for (Stone stone : stones) {
+    for (Stone stone : getStones()) {
       stringBuilder.append('(').append(stone.getColor()).append(", ").append(stone.getNumber())
               .append(")\n");
     }
@@ -2,14 +2,15 @@ package game;
 
 import globalconstants.Constants;
 import globalconstants.ErrorMessages;
+import java.util.ArrayList;
 import java.util.Comparator;
 import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
-import java.util.Objects;
 import java.util.Stack;
+import java.util.concurrent.ThreadLocalRandom;
 import java.util.stream.Collectors;
 
 /**
@@ -22,9 +23,12 @@ public class RummiGame implements Game {
   private HashMap<Integer, Player> players;
   private RummiBag bag; // bag where all stones are filled
   private Stack<Trace> trace; // history of the current Player's each move
+  // the table before each move of the current Player, the snapshots share their unchanged rows
+  private final ArrayList<RummiTable.Snapshot> tableBefore = new ArrayList<>();
   private boolean gameOn; // the state of game that tells if it is on going or not
   private int currentPlayerID; // the id of the current player
   private int tablePoints; // the points of stones on the Table
+  private long seed; // the seed of the bag of the last start
 
   /**
    * Initializes the RummiGame for Rummikub board game.
@@ -69,6 +73,9 @@ public class RummiGame implements Game {
       throw new IllegalStateException(ErrorMessages.GAME_DID_NOT_START_YET_ERROR);
     }
 
+    // the moves of the last player can not be undone anymore
+    trace.clear();
+    tableBefore.clear();
     // the ID of the current player will be updated (0 follows after 3)
     do {
       currentPlayerID = (currentPlayerID + 1) % Constants.MAX_PLAYERS;
@@ -119,17 +126,31 @@ public class RummiGame implements Game {
    */
   @Override
   public void start() throws IllegalStateException {
+    start(ThreadLocalRandom.current().nextLong());
+  }
+
+  /**
+   * Starts the game like {@link #start()} with a bag which gives out its stones
+   * in the same order for the same seed.
+   *
+   * @param seed the seed of the bag
+   * @throws IllegalStateException if game has already started or
+   *     if there are lesser than one or bigger than 4 players
+   */
+  @Override
+  public void start(long seed) throws IllegalStateException {
     if (gameOn) {
       throw new IllegalStateException(ErrorMessages.GAME_HAS_ALREADY_STARTED_ERROR);
     }
     if (players.size() < Constants.MIN_PLAYERS) {
       throw new IllegalStateException(ErrorMessages.NOT_ENOUGH_PLAYERS_ERROR);
     }
-    if (players.size() >= Constants.MAX_PLAYERS) {
+    if (players.size() > Constants.MAX_PLAYERS) {
       throw new IllegalStateException(ErrorMessages.GAME_IS_FULL_ERROR);
     }
     gameOn = true;
-    bag = new RummiBag();
+    this.seed = seed;
+    bag = new RummiBag(seed);
     table.clear();
     handOutStones();
     setStartPlayer();
@@ -203,12 +224,12 @@ public class RummiGame implements Game {
     if (trgCol > srcCol) {
       // move stones starting from right
       for (int i = setSize - 1; i >= 0; i--) {
-        stoneMove.moveStone(new Coordinate(srcCol + i, srcRow), new Coordinate(trgCol + i, trgRow));
+        stoneMove.moveStone(Coordinate.of(srcCol + i, srcRow), Coordinate.of(trgCol + i, trgRow));
       }
     } else {
       // move stones starting from left
       for (int i = 0; i < setSize; i++) {
-        stoneMove.moveStone(new Coordinate(srcCol + i, srcRow), new Coordinate(trgCol + i, trgRow));
+        stoneMove.moveStone(Coordinate.of(srcCol + i, srcRow), Coordinate.of(trgCol + i, trgRow));
       }
     }
     return true;
@@ -239,7 +260,7 @@ public class RummiGame implements Game {
       stoneSize = s;
     }
     for (int i = 0; i < stoneSize; i++) {
-      if (targetStones.containsKey(new Coordinate(trgCol + i, trgRow))) {
+      if (targetStones.containsKey(Coordinate.of(trgCol + i, trgRow))) {
         return false;
       }
     }
@@ -267,12 +288,25 @@ public class RummiGame implements Game {
    *
    * @param sourcePosition the position of the subject stone before moving
    * @param targetPosition the position of the subject stone after moving
+   * @throws IllegalArgumentException if a position is not on the table
    */
   @Override
   public void moveStoneOnTable(Coordinate sourcePosition, Coordinate targetPosition) {
+    RummiTable.Snapshot before = table.snapshot();
     swapStoneOnTable(sourcePosition, targetPosition);
     // store this move.
-    trace.push(new Trace(TraceMove.MOVE_STONE_ON_TABLE, sourcePosition, targetPosition));
+    traceMove(new Trace(TraceMove.MOVE_STONE_ON_TABLE, sourcePosition, targetPosition), before);
+  }
+
+  /**
+   * Stores a move of the current player with the snapshot of the table before it,
+   * which an undo of the move and all later ones restores at once.
+   * The snapshot shares its rows with the table, so taking it does not copy any stones,
+   * only the rows the move changes are copied.
+   */
+  private void traceMove(Trace move, RummiTable.Snapshot before) {
+    trace.push(move);
+    tableBefore.add(before);
   }
 
   /**
@@ -282,14 +316,15 @@ public class RummiGame implements Game {
    * @param targetPosition the position of a stone or null to be swapped
    */
   private void swapStoneOnTable(Coordinate sourcePosition, Coordinate targetPosition) {
+    if (!table.isOnTable(sourcePosition) || !table.isOnTable(targetPosition)) {
+      throw new IllegalArgumentException(ErrorMessages.OUT_OF_TABLE_ERROR);
+    }
     // save stone for swap
     Stone chosenStone = table.removeStone(sourcePosition);
     // move stone from targetPosition to sourcePosition
     table.setStone(sourcePosition, table.removeStone(targetPosition));
     // move the chosen stone to targetPosition
     table.setStone(targetPosition, chosenStone);
-    // it seems like maps are not deleting value pairs. The just overwrite the value with null.
-    table.getStones().values().removeIf(Objects::isNull);
   }
 
   /**
@@ -312,13 +347,19 @@ public class RummiGame implements Game {
    *
    * @param sourcePosition the position of the subject Stone before moving it
    * @param targetPosition the position of the subject Stone after moving it
+   * @return the moved Stone
    * @throws IllegalArgumentException if a stone is already at the targetPosition
    */
-  private void moveStoneToTable(Coordinate sourcePosition, Coordinate targetPosition) throws IllegalArgumentException {
+  private Stone moveStoneToTable(Coordinate sourcePosition, Coordinate targetPosition) throws IllegalArgumentException {
+    if (!table.isOnTable(targetPosition)) {
+      throw new IllegalArgumentException(ErrorMessages.OUT_OF_TABLE_ERROR);
+    }
     if (table.getStones().containsKey(targetPosition)) {
       throw new IllegalArgumentException(ErrorMessages.SPOT_ALREADY_TAKEN_ERROR);
     }
-    table.setStone(targetPosition, currentPlayer().popStone(sourcePosition));
+    Stone stone = currentPlayer().popStone(sourcePosition);
+    table.setStone(targetPosition, stone);
+    return stone;
   }
 
   /**
@@ -331,8 +372,10 @@ public class RummiGame implements Game {
    */
   @Override
   public void putStone(Coordinate sourcePosition, Coordinate targetPosition) throws IllegalArgumentException {
-    moveStoneToTable(sourcePosition, targetPosition);
-    trace.push(new Trace(TraceMove.MOVE_STONE_FROM_HAND, sourcePosition, targetPosition));
+    RummiTable.Snapshot before = table.snapshot();
+    Stone stone = moveStoneToTable(sourcePosition, targetPosition);
+    traceMove(new Trace(TraceMove.MOVE_STONE_FROM_HAND, sourcePosition, targetPosition, stone),
+        before);
   }
 
   /**
@@ -379,6 +422,10 @@ public class RummiGame implements Game {
       players.remove(playerID);
       return;
     }
+    // take back the stones the player has put on the table in this turn
+    if (currentPlayerID == playerID) {
+      reset();
+    }
     // remove the player with the playerID and reset their hand into the bag
     bag.addStones(players.remove(playerID).getStones().values());
     if (players.size() < Constants.MIN_PLAYERS) {
@@ -392,12 +439,12 @@ public class RummiGame implements Game {
 
   /**
    * Resets all moves of the current player on this table and from their hand.
+   * The table is restored to the snapshot taken before their first move and the stones
+   * they put on the table go back to their hand, which keeps its own arrangement.
    */
   @Override
   public void reset() {
-    while (!trace.empty()) {
-      undo();
-    }
+    undo(trace.size());
   }
 
   /**
@@ -405,25 +452,33 @@ public class RummiGame implements Game {
    */
   @Override
   public void undo() {
-    if (trace.empty()) {
+    undo(1);
+  }
+
+  /**
+   * Undoes the given number of last moves of the current player.
+   * The table jumps to the snapshot taken before the first of them at once, only the stones
+   * put on the table from the hand by these moves go back to the hand one by one.
+   *
+   * @param steps the number of moves to be undone
+   */
+  @Override
+  public void undo(int steps) {
+    if (steps <= 0 || trace.empty()) {
       return;
     }
-
-    Trace lastCommand = trace.pop();
-    Coordinate sourcePosition = lastCommand.getInitialPosition();
-    Coordinate targetPosition = lastCommand.getTargetPosition();
-    TraceMove command = lastCommand.getCommand();
-
-    switch (command) {
-      case MOVE_STONE_ON_TABLE:
-        // swap back stones on the table
-        swapStoneOnTable(targetPosition, sourcePosition);
-        break;
-      case MOVE_STONE_FROM_HAND:
-        // get back stone from the table to the player hand
-        Stone stone = table.removeStone(targetPosition);
-        currentPlayer().pushStone(stone);
+    int step = Math.max(0, trace.size() - steps);
+    // one copy instead of a synchronized access of the Stack per move
+    Trace[] moves = trace.toArray(new Trace[0]);
+    // the latest stone first, so that every stone finds its position as it was
+    for (int i = moves.length - 1; i >= step; i--) {
+      if (moves[i].getCommand() == TraceMove.MOVE_STONE_FROM_HAND) {
+        currentPlayer().returnStone(moves[i].getInitialPosition(), moves[i].getStone());
+      }
     }
+    table.restore(tableBefore.get(step));
+    trace.setSize(step);
+    tableBefore.subList(step, tableBefore.size()).clear();
   }
 
   /**
@@ -468,7 +523,6 @@ public class RummiGame implements Game {
       gameOn = false;
     } else {
       nextTurn();
-      trace.clear();
     }
   }
 
@@ -477,6 +531,11 @@ public class RummiGame implements Game {
     return table.getStones();
   }
 
+  @Override
+  public int[] getInvalidTableSets() {
+    return table.getInvalidSets();
+  }
+
   @Override
   public Map<Coordinate, Stone> getPlayerStones(int playerID) {
     return players.get(playerID).getStones();
@@ -517,6 +576,16 @@ public class RummiGame implements Game {
     players.get(playerID).sortHandByRun();
   }
 
+  @Override
+  public long getSeed() {
+    return seed;
+  }
+
+  @Override
+  public boolean hasPlayedFirstMove(int playerID) {
+    return players.get(playerID).hasPlayedFirstMove();
+  }
+
   @Override
   public boolean isGameOn() {
     return gameOn;
@@ -2,10 +2,12 @@ package game;
 
 import game.Stone.Color;
 
+import java.util.Collections;
 import java.util.Comparator;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.Map;
+import java.util.stream.Collectors;
 
 /**
  * Class representing the hand of a player.
@@ -15,10 +17,12 @@ public class RummiHand implements Grid {
   private static final int HEIGHT = 3;
   private static final int WIDTH = 20;
 
-  private Map<Coordinate, Stone> stones;
+  private final Map<Coordinate, Stone> stones;
+  private final Map<Coordinate, Stone> view; // read-only view of the stones
 
   RummiHand() {
     stones = new HashMap<>();
+    view = Collections.unmodifiableMap(stones);
   }
 
   @Override
@@ -51,12 +55,13 @@ public class RummiHand implements Grid {
 
   /**
    * Returns all stones with their associated Coordinates on this Hand.
+   * The stones are changed only by the methods of this Hand.
    *
-   * @return all stones with their associated Coordinates on this Hand
+   * @return a read-only view of all stones with their associated Coordinates on this Hand
    */
   @Override
   public Map<Coordinate, Stone> getStones() {
-    return stones;
+    return view;
   }
 
   @Override
@@ -115,16 +120,17 @@ public class RummiHand implements Grid {
       return;
     }
     // get iterator of the sorted stream of all stones on this hand with the given comparator
-    Iterator<Stone> iterator = stones.values().stream().sorted(comparator).iterator();
+    Iterator<Stone> iterator = stones.values().stream().sorted(comparator)
+        .collect(Collectors.toList()).iterator();
     // reset stones
-    stones = new HashMap<>();
+    stones.clear();
     for (int row = 0; row < HEIGHT; row++) {
       for (int col = 0; col < WIDTH; col++) {
         // check if there is no stone left to be replaced
         if (!iterator.hasNext()) {
           return;
         }
-        stones.put(new Coordinate(col, row), iterator.next());
+        stones.put(Coordinate.of(col, row), iterator.next());
       }
     }
   }
@@ -136,7 +142,7 @@ public class RummiHand implements Grid {
     Coordinate coordinate;
     for (int row = 0; row < HEIGHT; row++) {
       for (int col = 0; col < WIDTH; col++) {
-        if (stones.containsKey((coordinate = new Coordinate(col, row)))) {
+        if (stones.containsKey((coordinate = Coordinate.of(col, row)))) {
           stringBuilder.append("Coordinate: ").append(coordinate)
                   .append(", Stone: ").append(stones.get(coordinate)).append('\n');
         }
@@ -2,25 +2,63 @@ package game;
 
 
 import game.Stone.Color;
+import globalconstants.ErrorMessages;
 
-import java.util.HashMap;
-import java.util.HashSet;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Iterator;
 import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
 
+/**
+ * Table of the game, stored as a packed grid.
+ * Every row holds the stones themselves and a short code of their color and number per cell.
+ * Every row additionally has a bitmask of its occupied cells, so that sets can be found
+ * with bit scans instead of map lookups.
+ * Stones are immutable, the numbers the jokers stand for are bound on this table
+ * by the validation of their sets.
+ * The verdict of the validation is cached per row, only rows that were changed since
+ * the last validation are checked again.
+ * The rows can be shared with snapshots of this table, a shared row is copied
+ * before it is changed.
+ */
 public class RummiTable implements Grid {
   private static final int WIDTH = 26;
   private static final int HEIGHT = 8;
   private static final int MIN_SET_SIZE = 3;
   private static final int MAX_GROUP_SIZE = 4;
+  private static final int ALL_ROWS = (1 << HEIGHT) - 1;
+  private static final int COLOR_SHIFT = 8;
+  private static final int NUMBER_MASK = 0xFF;
+  private static final Color[] COLORS = Color.values();
 
-  private Map<Coordinate, Stone> stones;
+  private Stone[][] cells; // stones of this table, cells[row][col]
+  private short[][] codes; // (color + 1) << COLOR_SHIFT | number for each cell, 0 if empty
+  private byte[][] jokerNumbers; // the number a joker in the cell stands for, 0 if unbound
+  private int[] rowMasks; // bit col of rowMasks[row] is set if the cell is occupied
+  private int[] rowPoints; // the points of each row at its last validation
+  private int[] invalidMasks; // bit col is set if the stone is in an invalid set
+  private int dirtyRows; // bit row is set if the row was changed since its last validation
+  private int invalidRows; // bit row is set if the row was not valid at its last validation
+  private int sharedRows; // bit row is set if the row is shared with a snapshot
+  private int size;
+  private final Map<Coordinate, Stone> stones;
 
   RummiTable() {
-    stones = new HashMap<>(WIDTH * HEIGHT);
+    cells = new Stone[HEIGHT][WIDTH];
+    codes = new short[HEIGHT][WIDTH];
+    jokerNumbers = new byte[HEIGHT][WIDTH];
+    rowMasks = new int[HEIGHT];
+    rowPoints = new int[HEIGHT];
+    invalidMasks = new int[HEIGHT];
+    stones = new StoneMap();
   }
 
   /**
    * Returns all stones with their associated Coordinates on this Table.
+   * The returned map is a live view of this Table, changes on it are written through.
    *
    * @return all stones with their associated Coordinates on this Table
    */
@@ -29,10 +67,17 @@ public class RummiTable implements Grid {
     return stones;
   }
 
+  /**
+   * Puts a new Stone on the table, a stone at the given coordinate will be overwritten.
+   *
+   * @param coordinate the Stone will be put on on table.
+   * @param stone      to be put on the table.
+   * @throws IllegalArgumentException if the coordinate is not on this table
+   */
   @Override
-  public void setStone(Coordinate coordinate, Stone stone) {
+  public void setStone(Coordinate coordinate, Stone stone) throws IllegalArgumentException {
     if (stone != null) {
-      stones.put(coordinate, stone);
+      put(coordinate.getCol(), coordinate.getRow(), stone);
     }
   }
 
@@ -44,7 +89,7 @@ public class RummiTable implements Grid {
    */
   @Override
   public Stone removeStone(Coordinate coordinate) {
-    return stones.remove(coordinate);
+    return remove(coordinate.getCol(), coordinate.getRow());
   }
 
   @Override
@@ -59,150 +104,305 @@ public class RummiTable implements Grid {
 
   @Override
   public void clear() {
-    stones.clear();
+    for (int row = 0; row < HEIGHT; row++) {
+      own(row);
+      Arrays.fill(cells[row], null);
+      Arrays.fill(codes[row], (short) 0);
+      Arrays.fill(jokerNumbers[row], (byte) 0);
+      rowMasks[row] = 0;
+      rowPoints[row] = 0;
+      invalidMasks[row] = 0;
+    }
+    dirtyRows = 0;
+    invalidRows = 0;
+    size = 0;
   }
 
   public int size() {
-    return stones.size();
+    return size;
+  }
+
+  /**
+   * Checks if the given coordinate is a cell of this table.
+   *
+   * @param coordinate the coordinate to be checked
+   * @return true if only if the coordinate lies on this table
+   */
+  boolean isOnTable(Coordinate coordinate) {
+    return isOnTable(coordinate.getCol(), coordinate.getRow());
+  }
+
+  private static boolean isOnTable(int col, int row) {
+    return col >= 0 && col < WIDTH && row >= 0 && row < HEIGHT;
+  }
+
+  /**
+   * Takes a snapshot of the current state of this table.
+   * The rows are shared between the snapshot and this table until this table changes them,
+   * so taking a snapshot does not copy any stones.
+   *
+   * @return the snapshot of this table
+   */
+  Snapshot snapshot() {
+    sharedRows = ALL_ROWS;
+    return new Snapshot(this);
+  }
+
+  /**
+   * Sets this table back to the state of the given snapshot.
+   * The rows of the snapshot are shared, so the snapshot can be restored again.
+   *
+   * @param snapshot the snapshot of this table to be restored
+   */
+  void restore(Snapshot snapshot) {
+    cells = snapshot.cells.clone();
+    codes = snapshot.codes.clone();
+    jokerNumbers = snapshot.jokerNumbers.clone();
+    rowMasks = snapshot.rowMasks.clone();
+    rowPoints = snapshot.rowPoints.clone();
+    invalidMasks = snapshot.invalidMasks.clone();
+    dirtyRows = snapshot.dirtyRows;
+    invalidRows = snapshot.invalidRows;
+    size = snapshot.size;
+    sharedRows = ALL_ROWS;
+  }
+
+  /**
+   * Copies the given row before it is changed if it is shared with a snapshot.
+   *
+   * @param row the row to be changed
+   */
+  private void own(int row) {
+    if ((sharedRows & (1 << row)) != 0) {
+      cells[row] = cells[row].clone();
+      codes[row] = codes[row].clone();
+      jokerNumbers[row] = jokerNumbers[row].clone();
+      sharedRows &= ~(1 << row);
+    }
+  }
+
+  @Override
+  public Coordinate getFirstCoordOfStonesAt(Coordinate coordinate) {
+    int col = coordinate.getCol();
+    int row = coordinate.getRow();
+    if (!isOnTable(col, row)) {
+      return coordinate;
+    }
+    // the free cells left from col, the highest of them is the left border of the set
+    int freeLeft = ~rowMasks[row] & ((1 << col) - 1);
+    int firstCol = freeLeft == 0 ? 0 : 32 - Integer.numberOfLeadingZeros(freeLeft);
+    return Coordinate.of(firstCol, row);
+  }
+
+  @Override
+  public int getNeighborStonesSize(Coordinate coordinate) {
+    int col = coordinate.getCol();
+    int row = coordinate.getRow();
+    if (!isOnTable(col, row)) {
+      return 0;
+    }
+    return Integer.numberOfTrailingZeros(~(rowMasks[row] >>> col));
+  }
+
+  /**
+   * Returns the number the stone at the given coordinate stands for.
+   * For jokers this is the number bound by the last validation of their set,
+   * or their points if they are not bound yet.
+   *
+   * @param coordinate the coordinate of the stone
+   * @return the number of the stone at the given coordinate, 0 if there is no stone
+   */
+  int getNumberAt(Coordinate coordinate) {
+    int col = coordinate.getCol();
+    int row = coordinate.getRow();
+    return isOnTable(col, row) ? numberAt(col, row) : 0;
   }
 
-//  public Coordinate getFirstCoordOfStonesAt(Coordinate coordinate) {
-//    int col = coordinate.getCol();
-//    // find the first stone for a potential set
-//    while (stones.containsKey(new Coordinate(col - 1, coordinate.getRow()))) {
-//      col--;
-//    }
-//    return new Coordinate(col, coordinate.getRow());
-//  }
+  /**
+   * Returns the sum of the numbers of all stones, jokers count as the number they are bound to.
+   *
+   * @return the points of this table
+   */
+  @Override
+  public int getPoints() {
+    int points = 0;
+    for (int row = 0; row < HEIGHT; row++) {
+      points += isDirty(row) ? countPoints(row) : rowPoints[row];
+    }
+    return points;
+  }
+
+  private int countPoints(int row) {
+    int points = 0;
+    for (int col = 0; col < WIDTH; col++) {
+      points += numberAt(col, row);
+    }
+    return points;
+  }
+
+  private int numberAt(int col, int row) {
+    Stone stone = cells[row][col];
+    if (stone == null) {
+      return 0;
+    }
+    byte jokerNumber = jokerNumbers[row][col];
+    return jokerNumber != 0 ? jokerNumber : stone.getNumber();
+  }
 
   /**
    * checks if all horizontally grouped stones on the table are valid sets.
    * Valid sets are out of at least three stones and called
    * Group (same number and different colors) or
    * Run (same color and sorted number, hereby 1 should come after 13).
+   * Only rows changed since the last call are validated again.
    *
    * @return true if only if all horizontally grouped stones are valid group or run
    */
   boolean isConsistent() {
-
-    if (stones.size() == 0) {
-      return true;
+    while (dirtyRows != 0) {
+      int row = Integer.numberOfTrailingZeros(dirtyRows);
+      if (isValidRow(row)) {
+        invalidRows &= ~(1 << row);
+      } else {
+        invalidRows |= 1 << row;
+      }
+      rowPoints[row] = countPoints(row);
+      dirtyRows &= ~(1 << row);
     }
-    // make a copy of all coordinates of stones, in order to remove checked coordinate safely
-    HashSet<Coordinate> checkingList = new HashSet<>(stones.keySet());
-    int col;
-    int setSize = 0;
+    return invalidRows == 0;
+  }
 
-    for (Coordinate coordinate : stones.keySet()) {
-      // check if all coordinates of stones in stones are confirmed (also the current coordinate)
-      if (checkingList.isEmpty()) {
-        return true;
-      }
-      // check if the first(current) coordinate of the potential set is already confirmed
-      if (checkingList.contains(coordinate)) {
-        // the coordinate of the first stone in a potential set
-        coordinate = this.getFirstCoordOfStonesAt(coordinate);
-        col = coordinate.getCol();
-        // count the number of neighbors of the first stone of a potential set
-        while (col < WIDTH && checkingList.remove(new Coordinate(col++, coordinate.getRow()))) {
-          setSize++;
-        }
-        // check the minimal condition and the consistency of the potential set
-        if (setSize < MIN_SET_SIZE || !isValidSet(setSize, coordinate)) {
-          return false;
-        }
-        setSize = 0; // reset setSize to 0
+  /**
+   * Returns for each row a bitmask of the stones which are part of an invalid set.
+   * Only rows changed since the last validation are validated again.
+   *
+   * @return a bitmask of the stones in invalid sets for each row
+   */
+  int[] getInvalidSets() {
+    isConsistent();
+    return invalidMasks.clone();
+  }
+
+  private boolean isDirty(int row) {
+    return (dirtyRows & (1 << row)) != 0;
+  }
+
+  /**
+   * checks if all horizontally grouped stones in the given row are valid sets
+   * and binds the jokers of the row.
+   *
+   * @param row the row to be checked
+   * @return true if only if all horizontally grouped stones in the row are valid sets
+   */
+  private boolean isValidRow(int row) {
+    int mask = rowMasks[row];
+    invalidMasks[row] = 0;
+    own(row);
+    Arrays.fill(jokerNumbers[row], (byte) 0);
+    while (mask != 0) {
+      // the first stone of a potential set and the number of its neighbors
+      int col = Integer.numberOfTrailingZeros(mask);
+      int setSize = Integer.numberOfTrailingZeros(~(mask >>> col));
+      // check the minimal condition and the consistency of the potential set
+      int setMask = ((1 << setSize) - 1) << col;
+      if (setSize < MIN_SET_SIZE || !isValidSet(setSize, col, row)) {
+        invalidMasks[row] |= setMask;
       }
+      mask &= ~setMask;
     }
-    return false;
+    return invalidMasks[row] == 0;
   }
 
   /**
    * checks the consistency of a potential set on this table
-   * starting with the given coordinate until the given setSize.
+   * starting with the given column until the given setSize.
    *
-   * @param setSize    the approved size of a potential set to be used for both group- and run-set
-   * @param coordinate the coordinate of the first stone of a potential set
+   * @param setSize the approved size of a potential set to be used for both group- and run-set
+   * @param first   the column of the first stone of a potential set
+   * @param row     the row of the potential set
    * @return true if only if a valid group-set or run-set is confirmed
    */
-  private boolean isValidSet(int setSize, Coordinate coordinate) {
-    Stone stone = stones.get(coordinate);
+  private boolean isValidSet(int setSize, int first, int row) {
+    short[] rowCodes = codes[row];
     int countJoker = 0;
 
     // find a non-joker stone
-    for (int i = 0; i < MIN_SET_SIZE; i++) {
-      // leave the loop as soon as the stone is not a joker
-      if (stone.getColor() != Color.JOKER) {
-        break;
-      }
-      stone = stones.get(new Coordinate(coordinate.getCol() + i + 1, coordinate.getRow()));
+    while (countJoker < setSize && colorOf(rowCodes[first + countJoker]) == Color.JOKER) {
       countJoker++;
     }
+    if (countJoker == setSize) {
+      // jokers only can stand for any set
+      return true;
+    }
+    short code = rowCodes[first + countJoker];
+    int number = numberOf(code);
+    // the number of the first stone of a potential run, 1 should come after 13
+    int firstNumber = Math.floorMod(number - countJoker - Stone.MIN_VALUE, Stone.MAX_VALUE)
+        + Stone.MIN_VALUE;
     // check the consistency with the name and the color of the non-joker stone
-    return isValidGroup(setSize, coordinate, stone.getNumber())
-            || isValidRun(setSize, coordinate, stone.getColor(), stone.getNumber() - countJoker);
+    if (isValidGroup(setSize, first, rowCodes, number)) {
+      bindJokers(setSize, first, row, number, 0);
+      return true;
+    }
+    if (isValidRun(setSize, first, rowCodes, colorOf(code), firstNumber)) {
+      bindJokers(setSize, first, row, firstNumber, 1);
+      return true;
+    }
+    return false;
   }
 
   /**
-   * checks if neighbored stones on this table from the given coordinate for the given setSize
+   * checks if neighbored stones on this table from the given column for the given setSize
    * are Group (same number and different color) with the given expectedNumber.
    *
    * @param setSize        the number of stones to be check for the validity of a potential Group
-   * @param coordinate     the coordinate of the first stone of the potential Group
+   * @param first          the column of the first stone of the potential Group
+   * @param rowCodes       the codes of the row of the potential Group
    * @param expectedNumber the number, which stones should share in order to be valid
-   * @return true if only if stones from the given coordinate are identified as a valid Group
+   * @return true if only if stones from the given column are identified as a valid Group
    */
-  private boolean isValidGroup(int setSize, Coordinate coordinate, int expectedNumber) {
+  private static boolean isValidGroup(int setSize, int first, short[] rowCodes,
+      int expectedNumber) {
     if (setSize > MAX_GROUP_SIZE) {
       return false;
     }
-    Stone stone;
-    int col = coordinate.getCol();
-    int row = coordinate.getRow();
-    Color color;
-    // checked colors will be stored and compared with next color
-    HashSet<Color> checkedColors = new HashSet<>();
+    // checked colors will be stored as bits and compared with next color
+    int checkedColors = 0;
 
-    for (int i = 0; i < setSize; i++) {
-      stone = stones.get(new Coordinate(col + i, row));
-      color = stone.getColor();
+    for (int col = first; col < first + setSize; col++) {
+      Color color = colorOf(rowCodes[col]);
       if (color == Color.JOKER) {
-        stone.setNumber(expectedNumber);
-        // check if it's a Joker or it has expectedNumber and its color is unique
-      } else if (!(stone.getNumber() == expectedNumber && checkedColors.add(color))) {
+        continue;
+      }
+      int colorBit = 1 << color.ordinal();
+      // check if it has expectedNumber and its color is unique
+      if (numberOf(rowCodes[col]) != expectedNumber || (checkedColors & colorBit) != 0) {
         return false;
       }
+      checkedColors |= colorBit;
     }
     return true;
   }
 
   /**
-   * checks if neighbored stones on this table from the given coordinate for the given setSize
+   * checks if neighbored stones on this table from the given column for the given setSize
    * are Run (same color and sorted number, hereby 1 should come after 13)
    * with the given expectedColor.
    *
    * @param setSize        the number of stones to be check for the validity of a potential Run
-   * @param coordinate     the coordinate of the first stone of this potential Run
+   * @param first          the column of the first stone of this potential Run
+   * @param rowCodes       the codes of the row of this potential Run
    * @param expectedColor  the color, which stones should share in order to be valid
-   * @param expectedNumber the number the first non-Joker-stone of this potential Run should have
-   * @return true if only if stones from the given coordinate are identified as a valid Run
+   * @param expectedNumber the number the first stone of this potential Run should have
+   * @return true if only if stones from the given column are identified as a valid Run
    */
-  private boolean isValidRun(int setSize, Coordinate coordinate, Color expectedColor, int expectedNumber) {
-    Stone stone;
-    Color color;
-    int number;
-    int col = coordinate.getCol();
-    int row = coordinate.getRow();
-
-    for (int i = 0; i < setSize; i++) {
-      stone = stones.get(new Coordinate(col + i, row));
-      color = stone.getColor();
-      number = stone.getNumber();
-      // skip it if it's a Joker
-      if (color == Color.JOKER) {
-        stone.setNumber(expectedNumber);
-        // check if it's the first to be checked or its number matches the expected (previous) number
-      } else if (!(color == expectedColor && number == expectedNumber)) {
+  private static boolean isValidRun(int setSize, int first, short[] rowCodes,
+      Color expectedColor, int expectedNumber) {
+    for (int col = first; col < first + setSize; col++) {
+      Color color = colorOf(rowCodes[col]);
+      // skip it if it's a Joker, otherwise its number has to match the expected number
+      if (color != Color.JOKER
+          && !(color == expectedColor && numberOf(rowCodes[col]) == expectedNumber)) {
         return false;
       }
       // count up the expectedNumber, 1 (min value) should be followed after 13 (max value)
@@ -211,19 +411,237 @@ public class RummiTable implements Grid {
     return true;
   }
 
+  /**
+   * Binds the jokers of a valid set to the numbers they stand for.
+   *
+   * @param setSize the size of the valid set
+   * @param first   the column of the first stone of the valid set
+   * @param row     the row of the valid set
+   * @param number  the number the first stone of the set stands for
+   * @param step    0 for a Group, 1 for a Run
+   */
+  private void bindJokers(int setSize, int first, int row, int number, int step) {
+    for (int col = first; col < first + setSize; col++) {
+      if (colorOf(codes[row][col]) == Color.JOKER) {
+        jokerNumbers[row][col] = (byte) number;
+      }
+      number += step;
+      number = (number > Stone.MAX_VALUE) ? Stone.MIN_VALUE : number;
+    }
+  }
+
+  private static short encode(Stone stone) {
+    return (short) ((stone.getColor().ordinal() + 1) << COLOR_SHIFT
+        | (stone.getNumber() & NUMBER_MASK));
+  }
+
+  private static Color colorOf(short code) {
+    return COLORS[(code >>> COLOR_SHIFT) - 1];
+  }
+
+  private static int numberOf(short code) {
+    return (byte) (code & NUMBER_MASK);
+  }
+
+  /**
+   * Puts the given stone into the cell with the given column and row.
+   *
+   * @param col   the column of the cell
+   * @param row   the row of the cell
+   * @param stone the stone to be put
+   * @return the stone which was in the cell before
+   * @throws IllegalArgumentException if the cell is not on this table
+   */
+  private Stone put(int col, int row, Stone stone) throws IllegalArgumentException {
+    if (!isOnTable(col, row)) {
+      throw new IllegalArgumentException(ErrorMessages.OUT_OF_TABLE_ERROR);
+    }
+    own(row);
+    Stone old = cells[row][col];
+    if (old == null) {
+      size++;
+      rowMasks[row] |= 1 << col;
+    }
+    cells[row][col] = stone;
+    codes[row][col] = encode(stone);
+    jokerNumbers[row][col] = 0;
+    dirtyRows |= 1 << row;
+    return old;
+  }
+
+  private Stone remove(int col, int row) {
+    if (!isOnTable(col, row) || cells[row][col] == null) {
+      return null;
+    }
+    own(row);
+    Stone old = cells[row][col];
+    size--;
+    rowMasks[row] &= ~(1 << col);
+    dirtyRows |= 1 << row;
+    cells[row][col] = null;
+    codes[row][col] = 0;
+    jokerNumbers[row][col] = 0;
+    return old;
+  }
+
+  /**
+   * State of a table at the moment of its snapshot.
+   * The rows are shared with the table, the table copies a row before it changes it.
+   */
+  static final class Snapshot {
+    private final Stone[][] cells;
+    private final short[][] codes;
+    private final byte[][] jokerNumbers;
+    private final int[] rowMasks;
+    private final int[] rowPoints;
+    private final int[] invalidMasks;
+    private final int dirtyRows;
+    private final int invalidRows;
+    private final int size;
+
+    private Snapshot(RummiTable table) {
+      cells = table.cells.clone();
+      codes = table.codes.clone();
+      jokerNumbers = table.jokerNumbers.clone();
+      rowMasks = table.rowMasks.clone();
+      rowPoints = table.rowPoints.clone();
+      invalidMasks = table.invalidMasks.clone();
+      dirtyRows = table.dirtyRows;
+      invalidRows = table.invalidRows;
+      size = table.size;
+    }
+  }
+
+  /**
+   * Map view of the cells of this table.
+   */
+  private final class StoneMap extends AbstractMap<Coordinate, Stone> {
+
+    @Override
+    public int size() {
+      return size;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+      return get(key) != null;
+    }
+
+    @Override
+    public Stone get(Object key) {
+      if (!(key instanceof Coordinate)) {
+        return null;
+      }
+      Coordinate coordinate = (Coordinate) key;
+      int col = coordinate.getCol();
+      int row = coordinate.getRow();
+      return isOnTable(col, row) ? cells[row][col] : null;
+    }
+
+    @Override
+    public Stone put(Coordinate coordinate, Stone stone) {
+      if (stone == null) {
+        return remove(coordinate);
+      }
+      return RummiTable.this.put(coordinate.getCol(), coordinate.getRow(), stone);
+    }
+
+    @Override
+    public Stone remove(Object key) {
+      if (!(key instanceof Coordinate)) {
+        return null;
+      }
+      Coordinate coordinate = (Coordinate) key;
+      return RummiTable.this.remove(coordinate.getCol(), coordinate.getRow());
+    }
+
+    @Override
+    public void clear() {
+      RummiTable.this.clear();
+    }
+
+    @Override
+    public Set<Entry<Coordinate, Stone>> entrySet() {
+      return new AbstractSet<Entry<Coordinate, Stone>>() {
+        @Override
+        public Iterator<Entry<Coordinate, Stone>> iterator() {
+          return new CellIterator();
+        }
+
+        @Override
+        public int size() {
+          return size;
+        }
+      };
+    }
+  }
+
+  /**
+   * Iterator over the occupied cells of this table in row-major order.
+   */
+  private final class CellIterator implements Iterator<Map.Entry<Coordinate, Stone>> {
+    private static final int CELLS = WIDTH * HEIGHT;
+    private static final int NO_CELL = -1;
+
+    private int next = advance(0);
+    private int last = NO_CELL;
+
+    private int advance(int from) {
+      while (from < CELLS && cells[from / WIDTH][from % WIDTH] == null) {
+        from++;
+      }
+      return from;
+    }
+
+    @Override
+    public boolean hasNext() {
+      return next < CELLS;
+    }
+
+    @Override
+    public Map.Entry<Coordinate, Stone> next() {
+      if (!hasNext()) {
+        throw new NoSuchElementException();
+      }
+      last = next;
+      next = advance(next + 1);
+      final int col = last % WIDTH;
+      final int row = last / WIDTH;
+      return new AbstractMap.SimpleEntry<Coordinate, Stone>(
+          Coordinate.of(col, row), cells[row][col]) {
+        @Override
+        public Stone setValue(Stone stone) {
+          super.setValue(stone);
+          // like put of the map, null clears the cell
+          return stone == null ? RummiTable.this.remove(col, row)
+              : RummiTable.this.put(col, row, stone);
+        }
+      };
+    }
+
+    @Override
+    public void remove() {
+      if (last == NO_CELL) {
+        throw new IllegalStateException();
+      }
+      RummiTable.this.remove(last % WIDTH, last / WIDTH);
+      last = NO_CELL;
+    }
+  }
+
   @Override
   public String toString() {
     StringBuilder stringBuilder = new StringBuilder();
     Coordinate coordinate;
     for (int row = 0; row < HEIGHT; row++) {
       for (int col = 0; col < WIDTH; col++) {
-        if (stones.containsKey((coordinate = new Coordinate(col, row)))) {
+        if (stones.containsKey((coordinate = Coordinate.of(col, row)))) {
           stringBuilder.append("Coordinate: ").append(coordinate)
                   .append(", Stone: ").append(stones.get(coordinate)).append('\n');
         }
       }
     }
-    stringBuilder.append(stones.size());
+    stringBuilder.append(size);
     return stringBuilder.toString();
   }
 }
@@ -6,18 +6,59 @@ import globalconstants.Constants;
  * Class representing a stone.
  * Each Stone has one of four colors and a value between 1 and 13.
  * There are two special Stones, the jokers.
+ * Stones are immutable, the number a joker stands for on the table is held by the table.
+ * The 106 stones of a game exist once and can be addressed by their id with {@link #of(int)}.
  */
-public class Stone {
+public final class Stone {
   public enum Color {RED, BLACK, YELLOW, BLUE, JOKER}
 
   public static final int MAX_VALUE = 13;
   public static final int MIN_VALUE = 1;
+  public static final int COPIES = 2;
+  public static final int NO_ID = -1;
 
-  private final int JOKER_POINTS = 20;
+  private static final Stone[] STONES = new Stone[Constants.MAX_BAG_SIZE];
+
+  static {
+    for (Color color : Color.values()) {
+      if (color != Color.JOKER) {
+        for (int number = MIN_VALUE; number <= MAX_VALUE; number++) {
+          for (int copy = 0; copy < COPIES; copy++) {
+            int id = idOf(color, number, copy);
+            STONES[id] = new Stone(id, color, number);
+          }
+        }
+      }
+    }
+    for (int copy = 0; copy < COPIES; copy++) {
+      int id = idOf(Color.JOKER, Constants.JOKER_POINTS, copy);
+      STONES[id] = new Stone(id, Color.JOKER, Constants.JOKER_POINTS);
+    }
+  }
+
+  private final int id;
   private final Color color;
-  private int number;
+  private final int number;
 
+  /**
+   * Creates a stone which is not one of the 106 stones of a game.
+   *
+   * @param color  the color of the stone
+   * @param number the number of the stone, ignored for jokers
+   */
   public Stone(Color color, int number) {
+    this(NO_ID, color, number);
+  }
+
+  /**
+   * Creates a joker which is not one of the 106 stones of a game.
+   */
+  public Stone() {
+    this(NO_ID, Color.JOKER, Constants.JOKER_POINTS);
+  }
+
+  private Stone(int id, Color color, int number) {
+    this.id = id;
     this.color = color;
     if (color.equals(Color.JOKER)) {
       this.number = Constants.JOKER_POINTS;
@@ -26,9 +67,44 @@ public class Stone {
     }
   }
 
-  public Stone() {
-    color = Color.JOKER;
-    number = Constants.JOKER_POINTS;
+  /**
+   * Returns the stone of a game with the given id.
+   *
+   * @param id the id of the stone between 0 and 105
+   * @return the stone with the given id
+   * @throws IllegalArgumentException if there is no stone with the given id
+   */
+  public static Stone of(int id) throws IllegalArgumentException {
+    if (id < 0 || id >= STONES.length) {
+      throw new IllegalArgumentException("There is no stone with the id " + id);
+    }
+    return STONES[id];
+  }
+
+  /**
+   * Returns the id of the given copy of the stone with the given color and number.
+   * Stones of the four colors get the ids 0 to 103 ordered by color, number and copy,
+   * the jokers get the last two ids.
+   *
+   * @param color  the color of the stone
+   * @param number the number of the stone, ignored for jokers
+   * @param copy   0 for the first and 1 for the second copy
+   * @return the id of the stone
+   */
+  public static int idOf(Color color, int number, int copy) {
+    if (color == Color.JOKER) {
+      return Color.JOKER.ordinal() * MAX_VALUE * COPIES + copy;
+    }
+    return (color.ordinal() * MAX_VALUE + number - MIN_VALUE) * COPIES + copy;
+  }
+
+  /**
+   * Returns the id of this stone or NO_ID if it is not one of the 106 stones of a game.
+   *
+   * @return the id of this stone
+   */
+  public int getId() {
+    return id;
   }
 
   public Color getColor() {
@@ -39,13 +115,9 @@ public class Stone {
     return number;
   }
 
-  public void setNumber(int number) {
-    this.number = number;
-  }
-
   // Testmethods
   @Override
   public String toString() {
     return "(Color: " + color + ", " + "Number: " + " " + number + ")";
   }
-}
\ No newline at end of file
+}
@@ -4,11 +4,17 @@ class Trace {
   private TraceMove command;
   private Coordinate sourcePosition;
   private Coordinate targetPosition;
+  private Stone stone; // the stone put from the hand, null for a move on the table
 
   Trace(TraceMove command, Coordinate sourcePosition, Coordinate targetPosition) {
+    this(command, sourcePosition, targetPosition, null);
+  }
+
+  Trace(TraceMove command, Coordinate sourcePosition, Coordinate targetPosition, Stone stone) {
     this.command = command;
     this.sourcePosition = sourcePosition;
     this.targetPosition = targetPosition;
+    this.stone = stone;
   }
 
   TraceMove getCommand() {
@@ -23,4 +29,8 @@ class Trace {
     return targetPosition;
   }
 
+  Stone getStone() {
+    return stone;
+  }
+
 }
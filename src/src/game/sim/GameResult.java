@@ -0,0 +1,49 @@
+package game.sim;
+
+/**
+ * The outcome of a single simulated game.
+ */
+public final class GameResult {
+  public static final int NO_WINNER = -1;
+
+  private final int winner;
+  private final int turns;
+  private final int[] handPoints;
+
+  GameResult(int winner, int turns, int[] handPoints) {
+    this.winner = winner;
+    this.turns = turns;
+    this.handPoints = handPoints;
+  }
+
+  /**
+   * Returns the seat of the player who laid all their stones.
+   *
+   * @return the seat of the winner, NO_WINNER if the game ended because nobody could go on
+   */
+  public int getWinner() {
+    return winner;
+  }
+
+  /**
+   * Returns the number of turns played, drawing a stone counts as a turn.
+   *
+   * @return the number of turns
+   */
+  public int getTurns() {
+    return turns;
+  }
+
+  /**
+   * Returns the points of the stones left on the hand of each seat, jokers count 20.
+   *
+   * @return the points left on the hands by seat
+   */
+  public int[] getHandPoints() {
+    return handPoints.clone();
+  }
+
+  int handPoints(int seat) {
+    return handPoints[seat];
+  }
+}
@@ -0,0 +1,128 @@
+package game.sim;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Statistics of the games of a simulation.
+ * Reports of parts of a simulation are merged into the report of the whole simulation.
+ */
+public final class SimulationReport {
+  /** Points left on a hand are counted in buckets of this size. */
+  public static final int BUCKET_POINTS = 10;
+  /** The last bucket counts all hands with more points. */
+  public static final int BUCKETS = 31;
+
+  private final int seats;
+  private long games;
+  private long turns;
+  private long noWinner;
+  private final long[] wins;
+  private final long[] handPoints;
+  private final long[][] histograms;
+  private long nanos;
+
+  SimulationReport(int seats) {
+    this.seats = seats;
+    wins = new long[seats];
+    handPoints = new long[seats];
+    histograms = new long[seats][BUCKETS];
+  }
+
+  void add(GameResult result) {
+    games++;
+    turns += result.getTurns();
+    if (result.getWinner() == GameResult.NO_WINNER) {
+      noWinner++;
+    } else {
+      wins[result.getWinner()]++;
+    }
+    for (int seat = 0; seat < seats; seat++) {
+      int points = result.handPoints(seat);
+      handPoints[seat] += points;
+      histograms[seat][Math.min(points / BUCKET_POINTS, BUCKETS - 1)]++;
+    }
+  }
+
+  void merge(SimulationReport other) {
+    games += other.games;
+    turns += other.turns;
+    noWinner += other.noWinner;
+    for (int seat = 0; seat < seats; seat++) {
+      wins[seat] += other.wins[seat];
+      handPoints[seat] += other.handPoints[seat];
+      for (int bucket = 0; bucket < BUCKETS; bucket++) {
+        histograms[seat][bucket] += other.histograms[seat][bucket];
+      }
+    }
+  }
+
+  void setNanos(long nanos) {
+    this.nanos = nanos;
+  }
+
+  public long getGames() {
+    return games;
+  }
+
+  /**
+   * Returns how many games were played per second of the simulation.
+   *
+   * @return the games per second
+   */
+  public double getGamesPerSecond() {
+    return nanos == 0 ? 0 : games * (double) TimeUnit.SECONDS.toNanos(1) / nanos;
+  }
+
+  public double getAverageTurns() {
+    return games == 0 ? 0 : (double) turns / games;
+  }
+
+  /**
+   * Returns the share of the games won by the given seat.
+   *
+   * @param seat the seat of the player
+   * @return the win rate between 0 and 1
+   */
+  public double getWinRate(int seat) {
+    return games == 0 ? 0 : (double) wins[seat] / games;
+  }
+
+  /**
+   * Returns the share of the games which ended because nobody could go on.
+   *
+   * @return the rate of games without winner between 0 and 1
+   */
+  public double getNoWinnerRate() {
+    return games == 0 ? 0 : (double) noWinner / games;
+  }
+
+  public double getAverageHandPoints(int seat) {
+    return games == 0 ? 0 : (double) handPoints[seat] / games;
+  }
+
+  /**
+   * Returns how many games the given seat ended with the points of each bucket on their hand.
+   * Bucket i counts the hands with i * BUCKET_POINTS up to (i + 1) * BUCKET_POINTS - 1 points.
+   *
+   * @param seat the seat of the player
+   * @return the number of games by bucket
+   */
+  public long[] getHandPointsHistogram(int seat) {
+    return histograms[seat].clone();
+  }
+
+  @Override
+  public String toString() {
+    StringBuilder builder = new StringBuilder();
+    builder.append(String.format("games: %d, %.1f games/s, %.1f turns on average, "
+        + "%.1f%% without winner%n", games, getGamesPerSecond(), getAverageTurns(),
+        getNoWinnerRate() * 100));
+    for (int seat = 0; seat < seats; seat++) {
+      builder.append(String.format("seat %d: %.1f%% won, %.1f points left on average, "
+          + "histogram %s%n", seat, getWinRate(seat) * 100, getAverageHandPoints(seat),
+          Arrays.toString(histograms[seat])));
+    }
+    return builder.toString();
+  }
+}
@@ -0,0 +1,194 @@
+package game.sim;
+
+import game.Coordinate;
+import game.RummiGame;
+import game.Stone;
+import game.solver.MeldSolution;
+import globalconstants.Constants;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Plays complete RummiGames between strategies without server and view.
+ * The games run in parallel on a fork-join pool. Every game gets its own seed for its bag,
+ * taken from a random generator which is split along with the games,
+ * so that a simulation with the same seed plays the same games on any number of threads.
+ *
+ * <p>A checked simulation also checks the game after every turn and throws an
+ * IllegalStateException if a stone got lost, the table is not valid after a turn,
+ * a play of a strategy is not accepted or a game does not end.
+ */
+public class Simulator {
+  private static final int MAX_TURNS = 10_000;
+  private static final int GAMES_PER_TASK = 4;
+
+  private final List<Strategy> strategies;
+  private final boolean checked;
+
+  /**
+   * Creates a simulator.
+   *
+   * @param strategies the strategy of each seat, the player of seat 0 starts
+   * @param checked    true to check the game after every turn
+   * @throws IllegalArgumentException if there are less than 2 or more than 3 seats
+   */
+  public Simulator(List<Strategy> strategies, boolean checked) throws IllegalArgumentException {
+    // a RummiGame can not start with the maximum number of players
+    if (strategies.size() < Constants.MIN_PLAYERS || strategies.size() >= Constants.MAX_PLAYERS) {
+      throw new IllegalArgumentException("A simulation needs 2 or 3 strategies.");
+    }
+    this.strategies = new ArrayList<>(strategies);
+    this.checked = checked;
+  }
+
+  /**
+   * Plays the given number of games on the common fork-join pool.
+   *
+   * @param games the number of games
+   * @param seed  the seed of the games
+   * @return the statistics of the games
+   */
+  public SimulationReport run(int games, long seed) {
+    return run(games, seed, ForkJoinPool.commonPool());
+  }
+
+  /**
+   * Plays the given number of games on the given pool.
+   *
+   * @param games the number of games
+   * @param seed  the seed of the games
+   * @param pool  the pool the games run on
+   * @return the statistics of the games
+   */
+  public SimulationReport run(int games, long seed, ForkJoinPool pool) {
+    long start = System.nanoTime();
+    SimulationReport report = pool.invoke(new Games(games, new SplittableRandom(seed)));
+    report.setNanos(System.nanoTime() - start);
+    return report;
+  }
+
+  /**
+   * Plays the given number of games split into halves until they are small enough.
+   */
+  private final class Games extends RecursiveTask<SimulationReport> {
+    private static final long serialVersionUID = 1L;
+
+    private final int games;
+    private final SplittableRandom random;
+
+    private Games(int games, SplittableRandom random) {
+      this.games = games;
+      this.random = random;
+    }
+
+    @Override
+    protected SimulationReport compute() {
+      if (games <= GAMES_PER_TASK) {
+        SimulationReport report = new SimulationReport(strategies.size());
+        for (int i = 0; i < games; i++) {
+          report.add(play(random.nextLong()));
+        }
+        return report;
+      }
+      Games second = new Games(games / 2, random.split());
+      Games first = new Games(games - games / 2, random);
+      second.fork();
+      SimulationReport report = first.compute();
+      report.merge(second.join());
+      return report;
+    }
+  }
+
+  /**
+   * Plays a single game.
+   *
+   * @param seed the seed of the bag
+   * @return the result of the game
+   * @throws IllegalStateException if the game is checked and breaks a rule
+   */
+  public GameResult play(long seed) throws IllegalStateException {
+    RummiGame game = new RummiGame();
+    for (int seat = 0; seat < strategies.size(); seat++) {
+      // the youngest player starts
+      game.join(seat, "player" + seat, seat);
+    }
+    game.start(seed);
+
+    int winner = GameResult.NO_WINNER;
+    int turns = 0;
+    int passes = 0;
+    while (game.isGameOn() && passes < strategies.size()) {
+      if (turns++ >= MAX_TURNS) {
+        throw new IllegalStateException("The game did not end after " + MAX_TURNS + " turns.");
+      }
+      int seat = game.getCurrentPlayerID();
+      int bagSize = game.getBagSize();
+      if (playTurn(game, seat)) {
+        passes = 0;
+        if (!game.isGameOn()) {
+          winner = seat;
+        }
+      } else if (game.getBagSize() == bagSize) {
+        // nobody can go on if all players pass one after the other
+        passes++;
+      }
+      if (checked) {
+        check(game);
+      }
+    }
+
+    int[] handPoints = new int[strategies.size()];
+    for (int seat = 0; seat < handPoints.length; seat++) {
+      for (Stone stone : game.getPlayerStones(seat).values()) {
+        handPoints[seat] += stone.getNumber();
+      }
+    }
+    return new GameResult(winner, turns, handPoints);
+  }
+
+  /**
+   * Lays the play of the strategy of the given seat, or draws a stone if there is none.
+   *
+   * @return true if a play was laid
+   */
+  private boolean playTurn(RummiGame game, int seat) {
+    Map<Coordinate, Stone> hand = new HashMap<>(game.getPlayerStones(seat));
+    Map<Coordinate, Stone> table = new HashMap<>(game.getTableStones());
+    MeldSolution solution =
+        strategies.get(seat).play(hand, table, !game.hasPlayedFirstMove(seat));
+    if (solution != null) {
+      try {
+        solution.applyTo(game);
+        game.confirmMove(seat);
+        return true;
+      } catch (IllegalArgumentException | IllegalStateException e) {
+        if (checked) {
+          throw new IllegalStateException("The play of seat " + seat + " was not accepted.", e);
+        }
+      }
+    }
+    // draws a stone, or passes if the bag is empty
+    game.timeOut(seat);
+    return false;
+  }
+
+  private static void check(RummiGame game) {
+    int stones = game.getTableStones().size() + game.getBagSize();
+    for (int handSize : game.getPlayerHandSizes()) {
+      stones += handSize;
+    }
+    if (stones != Constants.MAX_BAG_SIZE) {
+      throw new IllegalStateException("There are " + stones + " stones in the game.");
+    }
+    for (int invalid : game.getInvalidTableSets()) {
+      if (invalid != 0) {
+        throw new IllegalStateException("The table is not valid after a turn.");
+      }
+    }
+  }
+}
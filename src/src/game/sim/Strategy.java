@@ -0,0 +1,47 @@
+package game.sim;
+
+import game.Coordinate;
+import game.Stone;
+import game.solver.MeldSolver;
+import game.solver.MeldSolver.Objective;
+import game.solver.MeldSolution;
+import java.util.Map;
+
+/**
+ * How a simulated player plays their turns.
+ * A strategy is shared by all games of a simulation, which run in parallel,
+ * so it must not keep any state of a game.
+ */
+@FunctionalInterface
+public interface Strategy {
+
+  /**
+   * Chooses the play of a turn.
+   *
+   * @param hand      the stones of the hand of the player, may be changed by the strategy
+   * @param table     the stones of the table, may be changed by the strategy
+   * @param firstMove true if the player has not played their first move yet
+   * @return the play to be laid, null to draw a stone instead
+   */
+  MeldSolution play(Map<Coordinate, Stone> hand, Map<Coordinate, Stone> table,
+      boolean firstMove);
+
+  /**
+   * Returns a strategy which lays the play the MeldSolver finds.
+   *
+   * @param objective what the plays maximize
+   * @return the strategy
+   */
+  static Strategy solver(Objective objective) {
+    return new MeldSolver(objective)::solve;
+  }
+
+  /**
+   * Returns a strategy which always draws a stone.
+   *
+   * @return the strategy
+   */
+  static Strategy drawing() {
+    return (hand, table, firstMove) -> null;
+  }
+}
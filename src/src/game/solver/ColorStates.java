@@ -0,0 +1,407 @@
+package game.solver;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * The states of the runs of one color between two numbers of the search of
+ * {@link MeldSolver}.
+ * A state holds the open runs of the color and the closed runs from 1 on, which runs open
+ * at 13 may wrap around to.
+ * Runs are only known by the class of their length and their jokers, which is all
+ * that is needed to decide if they can be closed.
+ * Every state has an index of 12 bits, so four colors fit into a long.
+ *
+ * <p>A run wrapping around from 13 to 1 only has to be searched if one of its two parts
+ * can not be a run on its own, otherwise both parts are laid as two runs with the same points.
+ * So a run which started at 1 is closed either as a short part, which has to be joined with
+ * a run open at 13, or as a full run, which a short run open at 13 may be joined with.
+ */
+final class ColorStates {
+  static final int MAX_OPEN_RUNS = 2; // at most two runs of a color are open at the same time
+  static final int MAX_FROM_FIRST = 2; // at most two runs of a color start at 1
+
+  // the classes of open runs, by their length and their number of jokers
+  static final int NONE = 0;
+  static final int LEN1 = 1;
+  static final int LEN1_JOKER = 2;
+  static final int LEN2 = 3;
+  static final int LEN2_JOKER = 4;
+  static final int LEN2_JOKERS = 5;
+  static final int LEN3_JOKERS = 6; // a real stone and two jokers, a group for the table
+  static final int CLOSABLE = 7; // at least three stones with at least two real stones
+  static final int FROM_FIRST = 8; // added to the class of an open run which started at 1
+  private static final int RUN_CODES = 2 * FROM_FIRST;
+  private static final int CLOSED_CODES = FROM_FIRST; // closed runs from 1 keep their class
+
+  // the actions on an open run
+  static final int CLOSE = 0;
+  static final int REAL = 1;
+  static final int JOKER = 2;
+
+  private static final int[] LENGTHS = {0, 1, 1, 2, 2, 2, 3, 4};
+  private static final int[] JOKERS = {0, 0, 1, 0, 1, 2, 2, 0};
+
+  static final int STATES;
+  private static final int[][] OPEN_RUNS;
+  private static final int[][] CLOSED_RUNS;
+  private static final int[] INDEX_OF; // index of a state by its packed codes
+  private static final boolean[] COMPLETE;
+
+  static {
+    List<int[]> runLists = listsOf(RUN_CODES, MAX_OPEN_RUNS);
+    List<int[]> closedLists = listsOf(CLOSED_CODES, MAX_FROM_FIRST);
+    List<int[][]> states = new ArrayList<>();
+    for (int[] runs : runLists) {
+      for (int[] closed : closedLists) {
+        if (isState(runs, closed)) {
+          states.add(new int[][] {runs, closed});
+        }
+      }
+    }
+    STATES = states.size();
+    OPEN_RUNS = new int[STATES][];
+    CLOSED_RUNS = new int[STATES][];
+    INDEX_OF = new int[1 << 14];
+    Arrays.fill(INDEX_OF, -1);
+    COMPLETE = new boolean[STATES];
+    for (int index = 0; index < STATES; index++) {
+      OPEN_RUNS[index] = states.get(index)[0];
+      CLOSED_RUNS[index] = states.get(index)[1];
+      INDEX_OF[pack(OPEN_RUNS[index], CLOSED_RUNS[index])] = index;
+      COMPLETE[index] = pairing(OPEN_RUNS[index], CLOSED_RUNS[index]) != null;
+    }
+  }
+
+  private static final Outcomes[] OUTCOMES = new Outcomes[STATES * 2 * 27];
+
+  private ColorStates() {
+  }
+
+  /**
+   * Lists all ascending lists of the codes from 1 to codes - 1 up to the given size.
+   */
+  private static List<int[]> listsOf(int codes, int maxSize) {
+    List<int[]> lists = new ArrayList<>();
+    lists.add(new int[0]);
+    for (int first = 1; first < codes; first++) {
+      lists.add(new int[] {first});
+      for (int second = first; second < codes && maxSize > 1; second++) {
+        lists.add(new int[] {first, second});
+      }
+    }
+    return lists;
+  }
+
+  private static boolean isState(int[] runs, int[] closed) {
+    int fromFirst = closed.length;
+    for (int run : runs) {
+      if (run == FROM_FIRST) {
+        return false;
+      }
+      fromFirst += isFromFirst(run) ? 1 : 0;
+    }
+    for (int code : closed) {
+      if (!isClosedCode(code)) {
+        return false;
+      }
+    }
+    return fromFirst <= MAX_FROM_FIRST;
+  }
+
+  /**
+   * Returns if a run from 1 on can be closed with the given class.
+   * Short parts made of jokers only are left out, the jokers are worth
+   * at least as much before the run open at 13.
+   */
+  private static boolean isClosedCode(int code) {
+    return code == LEN1 || code == LEN2 || code == LEN2_JOKER || code == LEN3_JOKERS
+        || code == CLOSABLE;
+  }
+
+  private static int pack(int[] runs, int[] closed) {
+    int packed = 0;
+    for (int i = 0; i < MAX_OPEN_RUNS; i++) {
+      packed = packed << 4 | (i < runs.length ? runs[i] : NONE);
+    }
+    for (int i = 0; i < MAX_FROM_FIRST; i++) {
+      packed = packed << 3 | (i < closed.length ? closed[i] : NONE);
+    }
+    return packed;
+  }
+
+  static int indexOf(int[] runs, int[] closed) {
+    return INDEX_OF[pack(runs, closed)];
+  }
+
+  static boolean isFromFirst(int code) {
+    return code > FROM_FIRST;
+  }
+
+  /**
+   * Returns the class of the given open run without its start at 1.
+   */
+  static int classOf(int code) {
+    return code & (FROM_FIRST - 1);
+  }
+
+  /**
+   * Returns if all runs of the given state can be finished after the number 13.
+   *
+   * @param state the index of the state after the number 13
+   * @return true if only if the runs of the state can be finished
+   */
+  static boolean isComplete(int state) {
+    return COMPLETE[state];
+  }
+
+  /**
+   * Finds the closed run from 1 on each open run is joined with after the number 13.
+   * Open runs are closed on their own or joined with a closed run from 1 on,
+   * every short closed run from 1 on has to be joined. A run open since 1 went
+   * around all numbers, it can not be joined.
+   *
+   * @param runs   the codes of the open runs
+   * @param closed the codes of the closed runs from 1 on
+   * @return the index of the closed run for every open run or -1 if it is closed on its own,
+   *     null if the runs can not be finished
+   */
+  static int[] pairing(int[] runs, int[] closed) {
+    int[] pairs = new int[runs.length];
+    return pair(runs, closed, 0, 0, pairs) ? pairs : null;
+  }
+
+  /**
+   * Pairs the runs from the given one on, returns if all short closed runs were joined.
+   */
+  private static boolean pair(int[] runs, int[] closed, int run, int used, int[] pairs) {
+    if (run == runs.length) {
+      for (int i = 0; i < closed.length; i++) {
+        if (closed[i] != CLOSABLE && (used & (1 << i)) == 0) {
+          return false;
+        }
+      }
+      return true;
+    }
+    if (classOf(runs[run]) == CLOSABLE) {
+      pairs[run] = -1;
+      if (pair(runs, closed, run + 1, used, pairs)) {
+        return true;
+      }
+    }
+    if (isFromFirst(runs[run])) {
+      return false;
+    }
+    for (int i = 0; i < closed.length; i++) {
+      if ((used & (1 << i)) == 0 && canJoin(runs[run], closed[i])) {
+        pairs[run] = i;
+        if (pair(runs, closed, run + 1, used | (1 << i), pairs)) {
+          return true;
+        }
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Checks if a run open at 13 and a closed run from 1 on form a valid run together.
+   */
+  private static boolean canJoin(int run, int closed) {
+    return closed == CLOSABLE
+        || isClosable(LENGTHS[run] + LENGTHS[closed], JOKERS[run] + JOKERS[closed]);
+  }
+
+  private static boolean isClosable(int length, int jokers) {
+    return length >= 4 || (length == 3 && jokers <= 1);
+  }
+
+  /**
+   * Returns the class of an open run after it is extended by another stone.
+   *
+   * @param code  the class of the open run
+   * @param joker true if it is extended by a joker
+   * @return the new class of the run, NONE if it would have more than two jokers
+   */
+  static int extendRun(int code, boolean joker) {
+    if (code == CLOSABLE) {
+      return CLOSABLE;
+    }
+    int length = LENGTHS[code] + 1;
+    int jokers = JOKERS[code] + (joker ? 1 : 0);
+    if (jokers > 2) {
+      return NONE;
+    }
+    if (isClosable(length, jokers)) {
+      return CLOSABLE;
+    }
+    return length == 3 ? LEN3_JOKERS : codeOf(length, jokers);
+  }
+
+  private static int codeOf(int length, int jokers) {
+    return length == 1 ? LEN1 + jokers : LEN2 + jokers;
+  }
+
+  /**
+   * Returns all ways the given state of a color can go on at a number.
+   * The outcomes are computed once and shared, racing threads compute equal outcomes.
+   *
+   * @param state       the index of the state before the number
+   * @param first       true if runs start at 1 here and may be joined with runs open at 13
+   * @param available   the number of stones of the color and the number which can be used
+   * @param mandatory   the number of these stones which have to be used
+   * @param jokersLeft  the number of jokers which can still be used
+   * @return the outcomes for the color at the number
+   */
+  static Outcome[] outcomes(int state, boolean first, int available, int mandatory,
+      int jokersLeft) {
+    int index = ((state * 2 + (first ? 1 : 0)) * 3 + available) * 9 + mandatory * 3 + jokersLeft;
+    Outcomes outcomes = OUTCOMES[index];
+    if (outcomes == null) {
+      outcomes = new Outcomes(computeOutcomes(state, first, available, mandatory, jokersLeft));
+      OUTCOMES[index] = outcomes;
+    }
+    return outcomes.outcomes;
+  }
+
+  private static Outcome[] computeOutcomes(int state, boolean first, int available,
+      int mandatory, int jokersLeft) {
+    int[] runs = OPEN_RUNS[state];
+    List<Outcome> outcomes = new ArrayList<>();
+    Set<Long> seen = new HashSet<>();
+    int[] actions = new int[runs.length];
+    int choices = pow3(runs.length);
+    for (int choice = 0; choice < choices; choice++) {
+      int rest = choice;
+      for (int i = 0; i < actions.length; i++, rest /= 3) {
+        actions[i] = rest % 3;
+      }
+      addOutcomes(outcomes, seen, runs, CLOSED_RUNS[state], actions, first, available,
+          mandatory, jokersLeft);
+    }
+    return outcomes.toArray(new Outcome[0]);
+  }
+
+  private static void addOutcomes(List<Outcome> outcomes, Set<Long> seen, int[] runs,
+      int[] closed, int[] actions, boolean first, int available, int mandatory,
+      int jokersLeft) {
+    List<Integer> newRuns = new ArrayList<>();
+    List<Integer> newClosed = new ArrayList<>();
+    for (int code : closed) {
+      newClosed.add(code);
+    }
+    int reals = 0;
+    int jokers = 0;
+    for (int i = 0; i < runs.length; i++) {
+      int code = classOf(runs[i]);
+      boolean fromFirst = isFromFirst(runs[i]);
+      if (actions[i] == CLOSE) {
+        if (fromFirst && isClosedCode(code)) {
+          newClosed.add(code);
+        } else if (code != CLOSABLE) {
+          return;
+        }
+        continue;
+      }
+      code = extendRun(code, actions[i] == JOKER);
+      if (code == NONE) {
+        return;
+      }
+      newRuns.add(fromFirst ? code + FROM_FIRST : code);
+      reals += actions[i] == REAL ? 1 : 0;
+      jokers += actions[i] == JOKER ? 1 : 0;
+    }
+    int offset = first ? FROM_FIRST : 0;
+    for (int startReal = 0; startReal <= available; startReal++) {
+      for (int startJoker = 0; startJoker <= jokersLeft; startJoker++) {
+        int usedReals = reals + startReal;
+        int usedJokers = jokers + startJoker;
+        int starts = startReal + startJoker;
+        if (usedReals > available || usedJokers > jokersLeft
+            || newRuns.size() + starts > MAX_OPEN_RUNS) {
+          continue;
+        }
+        int[] nextRuns = sorted(newRuns, startReal, LEN1 + offset, startJoker,
+            LEN1_JOKER + offset);
+        int[] nextClosed = sorted(newClosed, 0, NONE, 0, NONE);
+        int next = indexOf(nextRuns, nextClosed);
+        if (next < 0) {
+          continue;
+        }
+        for (int used = Math.max(mandatory, usedReals); used <= available; used++) {
+          int groupReals = used - usedReals;
+          long key = ((long) next * 3 + used) * 3 * 3 + groupReals * 3 + usedJokers;
+          if (seen.add(key)) {
+            outcomes.add(new Outcome(next, used, groupReals, usedJokers, actions.clone(),
+                startReal, startJoker, first));
+          }
+        }
+      }
+    }
+  }
+
+  private static int[] sorted(List<Integer> codes, int reals, int realCode, int jokers,
+      int jokerCode) {
+    int[] sorted = new int[codes.size() + reals + jokers];
+    int i = 0;
+    for (int code : codes) {
+      sorted[i++] = code;
+    }
+    for (int j = 0; j < reals; j++) {
+      sorted[i++] = realCode;
+    }
+    for (int j = 0; j < jokers; j++) {
+      sorted[i++] = jokerCode;
+    }
+    Arrays.sort(sorted);
+    return sorted;
+  }
+
+  private static int pow3(int exponent) {
+    int power = 1;
+    for (int i = 0; i < exponent; i++) {
+      power *= 3;
+    }
+    return power;
+  }
+
+  /**
+   * Holder of shared outcomes, the final field publishes them safely to other threads.
+   */
+  private static final class Outcomes {
+    private final Outcome[] outcomes;
+
+    private Outcomes(Outcome[] outcomes) {
+      this.outcomes = outcomes;
+    }
+  }
+
+  /**
+   * One way a color goes on at a number.
+   * The actions refer to the open runs in the ascending order of their codes.
+   */
+  static final class Outcome {
+    final int state; // the index of the state after the number
+    final int reals; // the stones of the color and the number used in runs and groups
+    final int groupReals; // the stones of them used in groups
+    final int jokers; // the jokers used in runs of the color
+    final int[] runActions;
+    final int startReal;
+    final int startJoker;
+    final boolean fromFirst; // true if the started runs may be joined with runs open at 13
+
+    private Outcome(int state, int reals, int groupReals, int jokers, int[] runActions,
+        int startReal, int startJoker, boolean fromFirst) {
+      this.state = state;
+      this.reals = reals;
+      this.groupReals = groupReals;
+      this.jokers = jokers;
+      this.runActions = runActions;
+      this.startReal = startReal;
+      this.startJoker = startJoker;
+      this.fromFirst = fromFirst;
+    }
+  }
+}
@@ -0,0 +1,136 @@
+package game.solver;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The ways to lay stones of the same number as groups.
+ * A group has three or four stones of different colors, at least one of them is no joker.
+ * For every count of stones per color (0 to 2 of each of the four colors) and
+ * of jokers (0 to 2) one partition into groups is computed once.
+ */
+final class Groups {
+  static final int COLORS = 4;
+  static final int JOKER = COLORS; // the color of jokers in a group
+  static final int COUNTS = 81; // 3 ^ COLORS
+  private static final int MAX_JOKERS = 2;
+  private static final int MIN_SIZE = 3;
+  private static final int MAX_SIZE = 4;
+  private static final int MAX_GROUPS = 3;
+
+  private static final int[][][][] PARTITIONS = new int[COUNTS][MAX_JOKERS + 1][][];
+
+  static {
+    for (int counts = 0; counts < COUNTS; counts++) {
+      for (int jokers = 0; jokers <= MAX_JOKERS; jokers++) {
+        PARTITIONS[counts][jokers] = partition(countsOf(counts), jokers);
+      }
+    }
+  }
+
+  private Groups() {
+  }
+
+  /**
+   * Returns groups of the stones with the given counts.
+   *
+   * @param counts the counts of the stones per color, color c is the digit c in base 3
+   * @param jokers the number of jokers
+   * @return the colors of the stones of each group, null if there is no partition into groups
+   */
+  static int[][] partitionOf(int counts, int jokers) {
+    return PARTITIONS[counts][jokers];
+  }
+
+  static boolean canPartition(int counts, int jokers) {
+    return PARTITIONS[counts][jokers] != null;
+  }
+
+  private static int[] countsOf(int counts) {
+    int[] perColor = new int[COLORS];
+    for (int color = 0; color < COLORS; color++, counts /= 3) {
+      perColor[color] = counts % 3;
+    }
+    return perColor;
+  }
+
+  private static int[][] partition(int[] counts, int jokers) {
+    int stones = jokers;
+    for (int count : counts) {
+      stones += count;
+    }
+    if (stones == 0) {
+      return new int[0][];
+    }
+    for (int groups = 1; groups <= MAX_GROUPS; groups++) {
+      List<List<Integer>> partition = new ArrayList<>();
+      for (int i = 0; i < groups; i++) {
+        partition.add(new ArrayList<>());
+      }
+      if (assign(counts, jokers, 0, partition)) {
+        int[][] result = new int[groups][];
+        for (int i = 0; i < groups; i++) {
+          result[i] = partition.get(i).stream().mapToInt(Integer::intValue).toArray();
+        }
+        return result;
+      }
+    }
+    return null;
+  }
+
+  /**
+   * Assigns the stones from the given color on to the groups, the jokers last.
+   */
+  private static boolean assign(int[] counts, int jokers, int color,
+      List<List<Integer>> partition) {
+    if (color == COLORS) {
+      return assignJokers(jokers, 0, partition);
+    }
+    int groups = partition.size();
+    // the copies of a color go to different groups, given as a bitmask of groups
+    for (int mask = 0; mask < (1 << groups); mask++) {
+      if (Integer.bitCount(mask) != counts[color]) {
+        continue;
+      }
+      for (int i = 0; i < groups; i++) {
+        if ((mask & (1 << i)) != 0) {
+          partition.get(i).add(color);
+        }
+      }
+      boolean assigned = assign(counts, jokers, color + 1, partition);
+      if (assigned) {
+        return true;
+      }
+      for (int i = 0; i < groups; i++) {
+        if ((mask & (1 << i)) != 0) {
+          List<Integer> group = partition.get(i);
+          group.remove(group.size() - 1);
+        }
+      }
+    }
+    return false;
+  }
+
+  private static boolean assignJokers(int jokers, int from, List<List<Integer>> partition) {
+    if (jokers == 0) {
+      for (List<Integer> group : partition) {
+        if (group.size() < MIN_SIZE || group.size() > MAX_SIZE || group.get(0) == JOKER) {
+          return false;
+        }
+      }
+      return true;
+    }
+    for (int i = from; i < partition.size(); i++) {
+      List<Integer> group = partition.get(i);
+      if (group.isEmpty() || group.size() >= MAX_SIZE) {
+        continue;
+      }
+      group.add(JOKER);
+      if (assignJokers(jokers - 1, i, partition)) {
+        return true;
+      }
+      group.remove(group.size() - 1);
+    }
+    return false;
+  }
+}
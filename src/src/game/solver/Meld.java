@@ -0,0 +1,37 @@
+package game.solver;
+
+/**
+ * A group or a run found by the {@link MeldSolver}, in the order it is laid on the table.
+ * Its stones are given by their kinds, see {@link MeldSolver#kindOf(game.Stone)}.
+ */
+final class Meld {
+  private final int[] kinds;
+  private final int[] numbers; // the number each stone stands for, also for jokers
+  private final boolean group;
+
+  Meld(int[] kinds, int[] numbers, boolean group) {
+    this.kinds = kinds;
+    this.numbers = numbers;
+    this.group = group;
+  }
+
+  int[] getKinds() {
+    return kinds;
+  }
+
+  int size() {
+    return kinds.length;
+  }
+
+  boolean isGroup() {
+    return group;
+  }
+
+  int getPoints() {
+    int points = 0;
+    for (int number : numbers) {
+      points += number;
+    }
+    return points;
+  }
+}
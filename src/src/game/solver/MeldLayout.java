@@ -0,0 +1,303 @@
+package game.solver;
+
+import game.Coordinate;
+import game.Stone;
+import game.TraceMove;
+import globalconstants.Constants;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Lays the melds of a play out on the table and finds the moves of stones to get there.
+ * Melds which already lie on the table stay where they are, the others are put into free
+ * space of the rows with an empty cell between them.
+ */
+final class MeldLayout {
+  private static final int WIDTH = Constants.TABLE_WIDTH;
+  private static final int HEIGHT = Constants.TABLE_HEIGHT;
+  private static final int NO_CELL = -1;
+
+  private final List<Meld> melds;
+  private final Map<Coordinate, Stone> hand;
+  private final Map<Coordinate, Stone> table;
+  private final boolean firstMove;
+  private final List<List<Coordinate>> segments = new ArrayList<>();
+
+  private MeldLayout(List<Meld> melds, Map<Coordinate, Stone> hand,
+      Map<Coordinate, Stone> table, boolean firstMove) {
+    this.melds = melds;
+    this.hand = hand;
+    this.table = table;
+    this.firstMove = firstMove;
+  }
+
+  /**
+   * Lays the given melds out on the given table.
+   *
+   * @param melds     the melds of the play
+   * @param hand      the stones of the hand of the player
+   * @param table     the stones of the table at the start of the turn
+   * @param firstMove true if the stones of the table are not part of the melds
+   * @return the solution with the table after the play and its moves, null if it does not fit
+   */
+  static MeldSolution layout(List<Meld> melds, Map<Coordinate, Stone> hand,
+      Map<Coordinate, Stone> table, boolean firstMove) {
+    return new MeldLayout(melds, hand, table, firstMove).layout();
+  }
+
+  private MeldSolution layout() {
+    findSegments();
+    // the segment each meld keeps, null if it is put into free space
+    List<List<Coordinate>> kept = keepSegments();
+    int[][] cells = place(kept);
+    if (cells == null && !firstMove) {
+      kept = noSegments();
+      cells = place(kept);
+    }
+    return cells == null ? null : solution(kept, cells);
+  }
+
+  /**
+   * Finds all horizontally neighbored stones on the table.
+   */
+  private void findSegments() {
+    for (int row = 0; row < HEIGHT; row++) {
+      List<Coordinate> segment = new ArrayList<>();
+      for (int col = 0; col <= WIDTH; col++) {
+        Coordinate coordinate = Coordinate.of(col, row);
+        if (col < WIDTH && table.containsKey(coordinate)) {
+          segment.add(coordinate);
+        } else if (!segment.isEmpty()) {
+          segments.add(segment);
+          segment = new ArrayList<>();
+        }
+      }
+    }
+  }
+
+  /**
+   * Finds for each meld a segment of the table with the same stones in the same order
+   * (any order for groups), which can stay where it is.
+   */
+  private List<List<Coordinate>> keepSegments() {
+    List<List<Coordinate>> kept = noSegments();
+    if (firstMove) {
+      return kept;
+    }
+    boolean[] used = new boolean[segments.size()];
+    for (int i = 0; i < melds.size(); i++) {
+      Meld meld = melds.get(i);
+      for (int j = 0; j < segments.size(); j++) {
+        if (!used[j] && matches(meld, segments.get(j))) {
+          used[j] = true;
+          kept.set(i, segments.get(j));
+          break;
+        }
+      }
+    }
+    return kept;
+  }
+
+  /**
+   * Returns the kept segments of melds which are all put into free space.
+   */
+  private List<List<Coordinate>> noSegments() {
+    return new ArrayList<>(Collections.nCopies(melds.size(), (List<Coordinate>) null));
+  }
+
+  private boolean matches(Meld meld, List<Coordinate> segment) {
+    if (meld.size() != segment.size()) {
+      return false;
+    }
+    int[] kinds = meld.getKinds().clone();
+    int[] segmentKinds = new int[segment.size()];
+    for (int i = 0; i < segmentKinds.length; i++) {
+      segmentKinds[i] = MeldSolver.kindOf(table.get(segment.get(i)));
+    }
+    if (meld.isGroup()) {
+      Arrays.sort(kinds);
+      Arrays.sort(segmentKinds);
+    }
+    return Arrays.equals(kinds, segmentKinds);
+  }
+
+  /**
+   * Places the melds which are not kept into free space, the longest first.
+   *
+   * @param kept the segments kept by the melds
+   * @return the first cell (row * WIDTH + col) of each meld, null if they do not fit
+   */
+  private int[][] place(List<List<Coordinate>> kept) {
+    boolean[][] occupied = new boolean[HEIGHT][WIDTH];
+    int[][] cells = new int[melds.size()][];
+    if (firstMove) {
+      for (Coordinate coordinate : table.keySet()) {
+        occupied[coordinate.getRow()][coordinate.getCol()] = true;
+      }
+    }
+    for (int i = 0; i < melds.size(); i++) {
+      if (kept.get(i) != null) {
+        cells[i] = new int[kept.get(i).size()];
+        for (int j = 0; j < cells[i].length; j++) {
+          Coordinate coordinate = kept.get(i).get(j);
+          occupied[coordinate.getRow()][coordinate.getCol()] = true;
+          cells[i][j] = coordinate.getRow() * WIDTH + coordinate.getCol();
+        }
+      }
+    }
+    Integer[] order = new Integer[melds.size()];
+    for (int i = 0; i < order.length; i++) {
+      order[i] = i;
+    }
+    Arrays.sort(order, (meld1, meld2) -> melds.get(meld2).size() - melds.get(meld1).size());
+    for (int i : order) {
+      if (kept.get(i) == null) {
+        int first = freeSpace(occupied, melds.get(i).size());
+        if (first == NO_CELL) {
+          return null;
+        }
+        cells[i] = new int[melds.get(i).size()];
+        for (int j = 0; j < cells[i].length; j++) {
+          cells[i][j] = first + j;
+          occupied[first / WIDTH][first % WIDTH + j] = true;
+        }
+      }
+    }
+    return cells;
+  }
+
+  /**
+   * Finds the first free space for the given number of stones, which does not touch
+   * other stones of its row.
+   *
+   * @return the first cell of the space, NO_CELL if there is none
+   */
+  private static int freeSpace(boolean[][] occupied, int size) {
+    for (int row = 0; row < HEIGHT; row++) {
+      for (int col = 0; col + size <= WIDTH; col++) {
+        boolean free = true;
+        for (int c = Math.max(0, col - 1); c <= Math.min(WIDTH - 1, col + size) && free; c++) {
+          free = !occupied[row][c];
+        }
+        if (free) {
+          return row * WIDTH + col;
+        }
+      }
+    }
+    return NO_CELL;
+  }
+
+  /**
+   * Takes the stones for the melds and finds the moves to lay them.
+   * Stones of the table are moved (swapped) to their cells first, then stones
+   * of the hand are put into the remaining cells.
+   */
+  private MeldSolution solution(List<List<Coordinate>> kept, int[][] cells) {
+    // the stones which can be taken for each kind, the ones of the table first
+    List<Deque<Coordinate>> tableStones = new ArrayList<>();
+    List<Deque<Coordinate>> handStones = new ArrayList<>();
+    for (int kind = 0; kind <= MeldSolver.JOKER; kind++) {
+      tableStones.add(new ArrayDeque<>());
+      handStones.add(new ArrayDeque<>());
+    }
+    boolean[] keptCells = new boolean[WIDTH * HEIGHT];
+    for (List<Coordinate> segment : kept) {
+      if (segment != null) {
+        for (Coordinate coordinate : segment) {
+          keptCells[coordinate.getRow() * WIDTH + coordinate.getCol()] = true;
+        }
+      }
+    }
+    if (!firstMove) {
+      for (List<Coordinate> segment : segments) {
+        for (Coordinate coordinate : segment) {
+          if (!keptCells[coordinate.getRow() * WIDTH + coordinate.getCol()]) {
+            tableStones.get(MeldSolver.kindOf(table.get(coordinate))).add(coordinate);
+          }
+        }
+      }
+    }
+    for (Map.Entry<Coordinate, Stone> entry : hand.entrySet()) {
+      handStones.get(MeldSolver.kindOf(entry.getValue())).add(entry.getKey());
+    }
+
+    Map<Coordinate, Stone> layout = firstMove ? new HashMap<>(table) : new HashMap<>();
+    List<List<Stone>> meldStones = new ArrayList<>();
+    int[] tableTargets = new int[WIDTH * HEIGHT]; // the source cell of the stone for a cell
+    Arrays.fill(tableTargets, NO_CELL);
+    List<MeldStep> puts = new ArrayList<>();
+    int points = 0;
+    for (int i = 0; i < melds.size(); i++) {
+      Meld meld = melds.get(i);
+      List<Stone> stones = new ArrayList<>();
+      for (int j = 0; j < meld.size(); j++) {
+        Coordinate target = Coordinate.of(cells[i][j] % WIDTH, cells[i][j] / WIDTH);
+        Stone stone;
+        if (kept.get(i) != null) {
+          stone = table.get(target);
+        } else if (!tableStones.get(meld.getKinds()[j]).isEmpty()) {
+          Coordinate source = tableStones.get(meld.getKinds()[j]).poll();
+          stone = table.get(source);
+          tableTargets[cells[i][j]] = source.getRow() * WIDTH + source.getCol();
+        } else {
+          Coordinate source = handStones.get(meld.getKinds()[j]).poll();
+          stone = hand.get(source);
+          puts.add(new MeldStep(TraceMove.MOVE_STONE_FROM_HAND, source, target));
+        }
+        stones.add(stone);
+        layout.put(target, stone);
+      }
+      meldStones.add(stones);
+      points += meld.getPoints();
+    }
+    List<MeldStep> steps = swapsTo(tableTargets);
+    steps.addAll(puts);
+    return new MeldSolution(meldStones, layout, steps, points, puts.size());
+  }
+
+  /**
+   * Finds the swaps of stones on the table which bring every stone to its target.
+   *
+   * @param sources the source cell of the stone for each target cell, NO_CELL if none
+   * @return the moves of stones on the table
+   */
+  private static List<MeldStep> swapsTo(int[] sources) {
+    int[] stoneAt = new int[WIDTH * HEIGHT]; // the source cell of the stone in a cell
+    int[] cellOf = new int[WIDTH * HEIGHT]; // the current cell of the stone of a source cell
+    Arrays.fill(stoneAt, NO_CELL);
+    for (int cell = 0; cell < sources.length; cell++) {
+      if (sources[cell] != NO_CELL) {
+        stoneAt[sources[cell]] = sources[cell];
+        cellOf[sources[cell]] = sources[cell];
+      }
+    }
+    List<MeldStep> steps = new ArrayList<>();
+    for (int target = 0; target < sources.length; target++) {
+      if (sources[target] == NO_CELL) {
+        continue;
+      }
+      int stone = sources[target];
+      int current = cellOf[stone];
+      if (current == target) {
+        continue;
+      }
+      steps.add(new MeldStep(TraceMove.MOVE_STONE_ON_TABLE,
+          Coordinate.of(current % WIDTH, current / WIDTH),
+          Coordinate.of(target % WIDTH, target / WIDTH)));
+      int other = stoneAt[target];
+      stoneAt[target] = stone;
+      cellOf[stone] = target;
+      stoneAt[current] = other;
+      if (other != NO_CELL) {
+        cellOf[other] = current;
+      }
+    }
+    return steps;
+  }
+}
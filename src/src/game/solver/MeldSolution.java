@@ -0,0 +1,85 @@
+package game.solver;
+
+import game.Coordinate;
+import game.Game;
+import game.Stone;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The play found by the {@link MeldSolver} for a hand and a table.
+ * It holds the melds to be laid, the table after the play and the moves to get there.
+ */
+public final class MeldSolution {
+  private final List<List<Stone>> melds;
+  private final Map<Coordinate, Stone> table;
+  private final List<MeldStep> steps;
+  private final int points;
+  private final int playedStones;
+
+  MeldSolution(List<List<Stone>> melds, Map<Coordinate, Stone> table, List<MeldStep> steps,
+      int points, int playedStones) {
+    this.melds = melds;
+    this.table = table;
+    this.steps = steps;
+    this.points = points;
+    this.playedStones = playedStones;
+  }
+
+  /**
+   * Returns the melds of this solution, each in the order it is laid on the table.
+   * For a first move these are only the new melds out of the hand, the table stays as it is.
+   *
+   * @return the melds of this solution
+   */
+  public List<List<Stone>> getMelds() {
+    return melds;
+  }
+
+  /**
+   * Returns all stones on the table after this solution is played.
+   *
+   * @return the stones with their coordinates on the table after the play
+   */
+  public Map<Coordinate, Stone> getTable() {
+    return table;
+  }
+
+  /**
+   * Returns the moves of stones from the hand and on the table which lay down this solution.
+   *
+   * @return the moves in the order they have to be done
+   */
+  public List<MeldStep> getSteps() {
+    return steps;
+  }
+
+  /**
+   * Returns the points of the melds of this solution, jokers count as the number they stand for.
+   *
+   * @return the points of the melds
+   */
+  public int getPoints() {
+    return points;
+  }
+
+  /**
+   * Returns the number of stones which are put from the hand to the table.
+   *
+   * @return the number of stones played from the hand
+   */
+  public int getPlayedStones() {
+    return playedStones;
+  }
+
+  /**
+   * Does all moves of this solution in the given game for its current player.
+   *
+   * @param game the game whose table and current hand the solution was found for
+   */
+  public void applyTo(Game game) {
+    for (MeldStep step : steps) {
+      step.applyTo(game);
+    }
+  }
+}
@@ -0,0 +1,1058 @@
+package game.solver;
+
+import game.Coordinate;
+import game.Grid;
+import game.Stone;
+import game.Stone.Color;
+import game.solver.ColorStates.Outcome;
+import globalconstants.Constants;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Finds the best play of a hand on a table, the table may be rearranged.
+ * All stones of the table have to stay on it in valid groups and runs, with the same rules
+ * as the RummiTable: runs may go on from 13 to 1 and jokers stand for the number of
+ * their position (a real stone with two jokers counts as a group).
+ * A first move has to lay at least 30 points out of the hand and leaves the table as it is.
+ *
+ * <p>The stones are only counted per color and number (0 to 2 copies) and jokers (0 to 2).
+ * The search goes through the numbers from 1 to 13 and keeps for every color
+ * only the classes of its open runs, so that all plays which continue the same way
+ * meet in one state (dynamic programming). At most two runs of the same color are open
+ * at the same number. The best way on from every state is memoized, and states which can not
+ * reach the best play known are not followed (branch and bound). What a state can reach is
+ * bounded by the best plays of each color on its own. A beam search, which only follows
+ * the 128 states with the best bounds at every step, finds the first play known fast.
+ *
+ * <p>A search may be given a deadline. If the exact search does not end before it or would
+ * need more than about two million states, the play of the beam search is taken, which is
+ * good but maybe not the best.
+ */
+public class MeldSolver {
+
+  /**
+   * What the solver maximizes, the other one breaks ties.
+   */
+  public enum Objective {
+    POINTS, STONES
+  }
+
+  static final int COLORS = 4;
+  static final int KINDS = COLORS * Stone.MAX_VALUE; // kinds of real stones
+  static final int JOKER = KINDS; // the kind of jokers
+
+  private static final int STATE_BITS = 12;
+  private static final long STATE_MASK = (1L << STATE_BITS) - 1;
+  private static final int JOKERS_SHIFT = COLORS * STATE_BITS;
+  private static final int ONE_GROUP_SHIFT = JOKERS_SHIFT + 2;
+  private static final int TWO_GROUP_SHIFT = ONE_GROUP_SHIFT + 3;
+  private static final int GROUP_COUNT_MASK = 7;
+  private static final long GROUP_MASK = (1L << 6) - 1;
+  private static final int PLAYED_SHIFT = TWO_GROUP_SHIFT + 3;
+  private static final long PLAYED = 1L << PLAYED_SHIFT;
+  private static final int CAP_SHIFT = PLAYED_SHIFT + 1;
+  private static final int STEPS_PER_NUMBER = COLORS + 1; // each color and then the groups
+  private static final int STEPS = Stone.MAX_VALUE * STEPS_PER_NUMBER;
+  private static final int POINT_WEIGHT = 128; // a point outweighs all stones of a game
+  private static final int STONE_WEIGHT = 2048; // a stone outweighs all points of a game
+  private static final int NO_SCORE = Integer.MIN_VALUE;
+  private static final int ANY_SCORE = NO_SCORE + 1;
+  private static final int UNKNOWN = Integer.MAX_VALUE;
+  private static final int BEAM_WIDTH = 128;
+  private static final int DEADLINE_CHECK = (1 << 10) - 1; // states between checks, minus 1
+  private static final int MAX_STATES = 1 << 21; // about 64 MB of memo
+
+  private final Objective objective;
+
+  public MeldSolver(Objective objective) {
+    this.objective = objective;
+  }
+
+  /**
+   * Finds the best play of the given hand on the given table.
+   *
+   * @param hand      the hand of the player
+   * @param table     the table at the start of the turn
+   * @param firstMove true if the player has not played their first move yet
+   * @return the play found, null if the player can not lay any stone
+   */
+  public MeldSolution solve(Grid hand, Grid table, boolean firstMove) {
+    return solve(hand.getStones(), table.getStones(), firstMove);
+  }
+
+  /**
+   * Finds the best play of the given stones of a hand on the given stones of a table.
+   *
+   * @param hand      the stones of the hand of the player
+   * @param table     the stones of the table at the start of the turn
+   * @param firstMove true if the player has not played their first move yet
+   * @return the play found, null if the player can not lay any stone
+   * @throws IllegalArgumentException if there are more than two copies of a stone
+   */
+  public MeldSolution solve(Map<Coordinate, Stone> hand, Map<Coordinate, Stone> table,
+      boolean firstMove) throws IllegalArgumentException {
+    return solve(hand, table, firstMove, Long.MAX_VALUE);
+  }
+
+  /**
+   * Finds the best play of the given stones of a hand on the given stones of a table
+   * until the given deadline. The beam search always runs to its end, the exact search
+   * stops at the deadline and the play of the beam search is taken instead.
+   *
+   * @param hand      the stones of the hand of the player
+   * @param table     the stones of the table at the start of the turn
+   * @param firstMove true if the player has not played their first move yet
+   * @param deadline  the time in milliseconds of System.currentTimeMillis when the search stops
+   * @return the best play found until the deadline, null if the player can not lay any stone
+   * @throws IllegalArgumentException if there are more than two copies of a stone
+   */
+  public MeldSolution solve(Map<Coordinate, Stone> hand, Map<Coordinate, Stone> table,
+      boolean firstMove, long deadline) throws IllegalArgumentException {
+    int[] available = new int[KINDS + 1];
+    int[] mandatory = new int[KINDS + 1];
+    for (Stone stone : hand.values()) {
+      available[kindOf(stone)]++;
+    }
+    if (!firstMove) {
+      for (Stone stone : table.values()) {
+        available[kindOf(stone)]++;
+        mandatory[kindOf(stone)]++;
+      }
+    }
+    for (int count : available) {
+      if (count > Stone.COPIES) {
+        throw new IllegalArgumentException("There are more than two copies of a stone.");
+      }
+    }
+    // a play has to raise the points of the table
+    int minPoints = firstMove ? Constants.MIN_FIRST_MOVE_POINTS : tablePoints(table) + 1;
+    List<Meld> melds = search(available, mandatory, firstMove, minPoints, deadline);
+    if (melds == null) {
+      return null;
+    }
+    return MeldLayout.layout(melds, hand, table, firstMove);
+  }
+
+  /**
+   * Finds the melds of a play with a beam search and then the exact search,
+   * which stops at the given deadline.
+   *
+   * @return the melds of the best play found, null if there is none
+   */
+  private List<Meld> search(int[] available, int[] mandatory, boolean firstMove,
+      int minPoints, long deadline) {
+    // the play of the beam search bounds the exact search
+    Search beam = new Search(objective, available, mandatory, firstMove, minPoints,
+        BEAM_WIDTH, NO_SCORE, Long.MAX_VALUE);
+    List<Meld> beamMelds = beam.run();
+    List<Meld> melds = new Search(objective, available, mandatory, firstMove, minPoints,
+        0, beam.bestScore(), deadline).runExact();
+    return melds == null ? beamMelds : melds;
+  }
+
+  /**
+   * Returns the points of the sets on the given table as the RummiTable counts them,
+   * jokers count as the number they stand for.
+   *
+   * @param table the stones of the table
+   * @return the points of the table
+   */
+  static int tablePoints(Map<Coordinate, Stone> table) {
+    int points = 0;
+    List<Stone> set = new ArrayList<>();
+    for (int row = 0; row < Constants.TABLE_HEIGHT; row++) {
+      for (int col = 0; col <= Constants.TABLE_WIDTH; col++) {
+        Stone stone = col < Constants.TABLE_WIDTH ? table.get(Coordinate.of(col, row)) : null;
+        if (stone != null) {
+          set.add(stone);
+        } else if (!set.isEmpty()) {
+          points += setPoints(set);
+          set.clear();
+        }
+      }
+    }
+    return points;
+  }
+
+  /**
+   * Returns the points of a set, the first real stone tells the numbers of the jokers.
+   */
+  private static int setPoints(List<Stone> set) {
+    int jokers = 0;
+    while (jokers < set.size() && set.get(jokers).getColor() == Color.JOKER) {
+      jokers++;
+    }
+    if (jokers == set.size()) {
+      return jokers * Constants.JOKER_POINTS;
+    }
+    int number = set.get(jokers).getNumber();
+    boolean group = true;
+    for (Stone stone : set) {
+      group &= stone.getColor() == Color.JOKER || stone.getNumber() == number;
+    }
+    if (group) {
+      return number * set.size();
+    }
+    // 1 comes after 13
+    int first = Math.floorMod(number - jokers - Stone.MIN_VALUE, Stone.MAX_VALUE);
+    int points = 0;
+    for (int i = 0; i < set.size(); i++) {
+      points += (first + i) % Stone.MAX_VALUE + Stone.MIN_VALUE;
+    }
+    return points;
+  }
+
+  /**
+   * Returns the kind of the given stone, 0 to 51 by color and number or JOKER.
+   *
+   * @param stone the stone
+   * @return the kind of the stone
+   */
+  static int kindOf(Stone stone) {
+    if (stone.getColor() == Color.JOKER) {
+      return JOKER;
+    }
+    return stone.getColor().ordinal() * Stone.MAX_VALUE + stone.getNumber() - Stone.MIN_VALUE;
+  }
+
+  static int kindOf(int color, int number) {
+    return color * Stone.MAX_VALUE + number - Stone.MIN_VALUE;
+  }
+
+  /**
+   * One search for the best melds.
+   * A state is a long with the state of each color, the used jokers, the numbers of colors
+   * with one and with two stones set aside for groups of the current number, if a stone
+   * of the hand was laid and, if the objective are stones, the points laid beyond the real
+   * stones of the table up to the points the play needs.
+   *
+   * <p>States whose bound is below the given bound are not followed (branch and bound). The exact search goes depth first and memoizes
+   * the best way on from every state. A beam search goes breadth first and keeps the states
+   * of all steps to follow the best back, it only follows the given number of states with
+   * the best bounds at every step and finds a good play fast but maybe not the best.
+   */
+  private final class Search {
+    private final int[] available;
+    private final int[] mandatory;
+    private final int jokers;
+    private final int mandatoryJokers;
+    private final boolean byPoints;
+    private final boolean firstMove;
+    private final int minPoints;
+    private final int width;
+    private final int bound;
+    private final long deadline;
+    private boolean expired;
+    private final int pointScore;
+    private final int stoneScore;
+    private final int pointsCap;
+    private final boolean[] wraps = new boolean[COLORS];
+    // the most score each color can add from each number on, by the jokers it may use
+    // and the state of the color before the number, see colorBound
+    private final int[][][] colorBounds = new int[COLORS][Stone.MAX_VALUE + 1][];
+    // the most score of the colors bounded so far, by the jokers they use
+    private final int[] jokerSplits = new int[Stone.COPIES + 1];
+    private final int[] nextSplits = new int[Stone.COPIES + 1];
+    private final boolean[][] groupable = new boolean[COLORS][Stone.MAX_VALUE + 1];
+    private final int jokerBound;
+    // the states of every step by their index, with the way they were reached
+    private final long[][] keys = new long[STEPS + 1][];
+    private final int[][] previous = new int[STEPS + 1][];
+    private final int[][] ways = new int[STEPS + 1][];
+    private StateMap from = new StateMap();
+    private StateMap to = new StateMap();
+    private int[] bounds = new int[0];
+    // the states of every step of the exact search
+    private final Memo[] memos = new Memo[STEPS];
+    // the next states of every step of the exact search while it is followed
+    private final long[][] nextKeys = new long[STEPS][];
+    private final int[][] nextScores = new int[STEPS][];
+    private final int[][] nextReaches = new int[STEPS][];
+    private final int[][] nextOrders = new int[STEPS][]; // the ways in the order they are taken
+    private int visits;
+    private int states;
+    private int bestScore = NO_SCORE;
+
+    /**
+     * Creates a search.
+     *
+     * @param objective what the search maximizes
+     * @param available the number of stones of each kind which can be used
+     * @param mandatory the number of stones of each kind which have to be used
+     * @param firstMove true if the play has to be a first move
+     * @param minPoints the points the melds of a play have at least
+     * @param width     the number of states the beam search follows at every step,
+     *                  0 to follow all
+     * @param bound     the score the best play reaches at least, NO_SCORE if unknown
+     * @param deadline  the time in milliseconds when the search stops without a play
+     */
+    private Search(Objective objective, int[] available, int[] mandatory, boolean firstMove,
+        int minPoints, int width, int bound, long deadline) {
+      this.byPoints = objective == Objective.POINTS;
+      this.available = available;
+      this.mandatory = mandatory;
+      this.jokers = available[JOKER];
+      this.mandatoryJokers = mandatory[JOKER];
+      this.firstMove = firstMove;
+      this.minPoints = minPoints;
+      this.width = width;
+      this.bound = bound;
+      this.deadline = deadline;
+      pointScore = byPoints ? POINT_WEIGHT : 1;
+      stoneScore = byPoints ? 1 : STONE_WEIGHT;
+      // the play with the most points has enough points if any play has,
+      // but the play with the most stones maybe not
+      int mandatoryPoints = 0;
+      for (int kind = 0; kind < KINDS; kind++) {
+        mandatoryPoints += mandatory[kind] * (kind % Stone.MAX_VALUE + Stone.MIN_VALUE);
+      }
+      // at most 30 for a first move or one more than the jokers of the table stand for
+      pointsCap = byPoints ? 0 : Math.max(0, minPoints - mandatoryPoints);
+      // a run of a color can only wrap around if it can hold a 13 and a real stone from 1 on
+      for (int color = 0; color < COLORS; color++) {
+        wraps[color] = (available[kindOf(color, Stone.MAX_VALUE)] > 0 || jokers > 0)
+            && (available[kindOf(color, Stone.MIN_VALUE)] > 0
+            || (jokers > 0 && available[kindOf(color, Stone.MIN_VALUE + 1)] > 0)
+            || (jokers > 1 && available[kindOf(color, Stone.MIN_VALUE + 2)] > 0));
+      }
+      // a stone can only be in a group if two other colors or jokers can join it
+      for (int number = Stone.MIN_VALUE; number <= Stone.MAX_VALUE; number++) {
+        for (int color = 0; color < COLORS; color++) {
+          int others = jokers;
+          for (int other = 0; other < COLORS; other++) {
+            others += other != color && available[kindOf(other, number)] > 0 ? 1 : 0;
+          }
+          groupable[color][number] = others >= 2;
+        }
+      }
+      jokerBound = Stone.MAX_VALUE * pointScore;
+    }
+
+    /**
+     * Returns if runs starting at the given color and number may be joined with runs
+     * open at 13.
+     */
+    private boolean startsFirst(int color, int number) {
+      return number == Stone.MIN_VALUE && wraps[color];
+    }
+
+    /**
+     * Runs the search and returns the melds of the best play.
+     *
+     * @return the melds of the best play, null if there is none or the deadline passed
+     */
+    private List<Meld> run() {
+      from.put(0L, 0, 0, 0);
+      keep(0);
+      for (int step = 1; step <= STEPS; step++) {
+        if (isExpired()) {
+          return null;
+        }
+        int number = (step - 1) / STEPS_PER_NUMBER + Stone.MIN_VALUE;
+        int color = (step - 1) % STEPS_PER_NUMBER;
+        int least = leastBound(step);
+        to.clear();
+        if (color < COLORS) {
+          colorStep(number, color, least);
+        } else {
+          groupStep(number, least);
+        }
+        if (expired) {
+          return null;
+        }
+        StateMap done = from;
+        from = to;
+        to = done;
+        keep(step);
+      }
+      int best = bestFinalState();
+      return best < 0 ? null : melds(best);
+    }
+
+    /**
+     * Returns if the deadline of the search has passed, it is not checked again once it has.
+     */
+    private boolean isExpired() {
+      if (!expired && deadline != Long.MAX_VALUE && System.currentTimeMillis() > deadline) {
+        expired = true;
+      }
+      return expired;
+    }
+
+    /**
+     * Returns the score of the best play found by the search.
+     *
+     * @return the best score, NO_SCORE if no play was found
+     */
+    private int bestScore() {
+      return bestScore;
+    }
+
+    /**
+     * Keeps the states of the given step, which are in the map from, to follow them back.
+     */
+    private void keep(int step) {
+      keys[step] = new long[from.size()];
+      previous[step] = new int[from.size()];
+      ways[step] = new int[from.size()];
+      for (int index = 0; index < from.size(); index++) {
+        keys[step][index] = from.keyAt(index);
+        previous[step][index] = from.previousAt(index);
+        ways[step][index] = from.wayAt(index);
+      }
+    }
+
+    /**
+     * Computes the bound of every state before the given step, the most score it can reach.
+     * Returns the least bound a state needs to be followed.
+     */
+    private int leastBound(int step) {
+      if (bounds.length < from.size()) {
+        bounds = new int[from.size() * 2];
+      }
+      for (int index = 0; index < from.size(); index++) {
+        int reach = bound(step - 1, from.keyAt(index));
+        bounds[index] = reach == NO_SCORE ? NO_SCORE : from.scoreAt(index) + reach;
+      }
+      // states which can not be finished are never followed
+      if (width == 0 || from.size() <= width) {
+        return Math.max(bound, ANY_SCORE);
+      }
+      return Math.max(Math.max(bound, ANY_SCORE), largest(bounds, from.size(), width));
+    }
+
+    private void colorStep(int number, int color, int least) {
+      int kind = kindOf(color, number);
+      for (int index = 0; index < from.size(); index++) {
+        if ((index & DEADLINE_CHECK) == DEADLINE_CHECK && isExpired()) {
+          return;
+        }
+        if (bounds[index] < least) {
+          continue;
+        }
+        long key = from.keyAt(index);
+        int score = from.scoreAt(index);
+        Outcome[] outcomes = outcomes(key, color, number);
+        for (int way = 0; way < outcomes.length; way++) {
+          to.put(colorKey(key, color, number, outcomes[way]),
+              score + colorScore(number, kind, outcomes[way]), index, way);
+        }
+      }
+    }
+
+    private void groupStep(int number, int least) {
+      for (int index = 0; index < from.size(); index++) {
+        if ((index & DEADLINE_CHECK) == DEADLINE_CHECK && isExpired()) {
+          return;
+        }
+        if (bounds[index] < least) {
+          continue;
+        }
+        long key = from.keyAt(index);
+        int score = from.scoreAt(index);
+        int counts = groupCounts(key);
+        for (int groupJokers = 0; groupJokers <= jokers - usedJokers(key); groupJokers++) {
+          if (Groups.canPartition(counts, groupJokers)) {
+            to.put(groupKey(key, number, groupJokers),
+                score + groupScore(key, number, groupJokers), index, groupJokers);
+          }
+        }
+      }
+    }
+
+    /**
+     * Finds the best state after the number 13 whose runs can all be finished.
+     *
+     * @return the index of the best final state, -1 if there is none
+     */
+    private int bestFinalState() {
+      int best = -1;
+      for (int index = 0; index < from.size(); index++) {
+        int jokerScore = finalScore(from.keyAt(index));
+        if (jokerScore == NO_SCORE) {
+          continue;
+        }
+        int score = from.scoreAt(index) + jokerScore;
+        if (score > bestScore && isPlay(score)) {
+          bestScore = score;
+          best = index;
+        }
+      }
+      return best;
+    }
+
+    /**
+     * Returns if the given score of a play lays enough points.
+     */
+    private boolean isPlay(int score) {
+      return (byPoints ? score / pointScore : score % stoneScore) >= minPoints;
+    }
+
+    /**
+     * Returns the score the jokers add to the given state after the number 13.
+     *
+     * @return the score of the jokers, NO_SCORE if the state is no play
+     */
+    private int finalScore(long key) {
+      int usedJokers = usedJokers(key);
+      boolean played = (key & PLAYED) != 0 || usedJokers > mandatoryJokers;
+      if (!played || usedJokers < mandatoryJokers || !isComplete(key)
+          || (int) (key >>> CAP_SHIFT) < pointsCap) {
+        return NO_SCORE;
+      }
+      return (usedJokers - mandatoryJokers) * stoneScore;
+    }
+
+    private boolean isComplete(long key) {
+      for (int color = 0; color < COLORS; color++) {
+        if (!ColorStates.isComplete(stateOf(key, color))) {
+          return false;
+        }
+      }
+      return true;
+    }
+
+    /**
+     * Returns the most score the given state after the given step can reach in the steps
+     * after it. Each color is bounded on its own, see colorBound, with the jokers left
+     * split between them in the best way. A joker left over counts as a 13.
+     *
+     * @return the bound, NO_SCORE if the state can not be finished
+     */
+    private int bound(int step, long key) {
+      int number = step / STEPS_PER_NUMBER + Stone.MIN_VALUE;
+      int done = step % STEPS_PER_NUMBER; // the colors done with the number
+      int left = jokers - usedJokers(key);
+      int fixed = (jokers - mandatoryJokers) * stoneScore + groupStones(key) * number * pointScore;
+      if (left == 0) {
+        for (int color = 0; color < COLORS; color++) {
+          int colorBound = colorBound(color, color < done ? number + 1 : number,
+              stateOf(key, color), 0);
+          if (colorBound == NO_SCORE) {
+            return NO_SCORE;
+          }
+          fixed += colorBound;
+        }
+        return fixed;
+      }
+      Arrays.fill(jokerSplits, NO_SCORE);
+      jokerSplits[0] = 0;
+      for (int color = 0; color < COLORS; color++) {
+        int colorNumber = color < done ? number + 1 : number;
+        int state = stateOf(key, color);
+        Arrays.fill(nextSplits, NO_SCORE);
+        for (int used = 0; used <= left; used++) {
+          for (int own = 0; own <= left - used && jokerSplits[used] != NO_SCORE; own++) {
+            int colorBound = colorBound(color, colorNumber, state, own);
+            if (colorBound != NO_SCORE) {
+              nextSplits[used + own] = Math.max(nextSplits[used + own],
+                  jokerSplits[used] + colorBound);
+            }
+          }
+        }
+        System.arraycopy(nextSplits, 0, jokerSplits, 0, nextSplits.length);
+      }
+      int best = NO_SCORE;
+      for (int used = 0; used <= left; used++) {
+        if (jokerSplits[used] != NO_SCORE) {
+          best = Math.max(best, jokerSplits[used] + (left - used) * jokerBound);
+        }
+      }
+      return best == NO_SCORE ? NO_SCORE : best + fixed;
+    }
+
+    /**
+     * Returns the most score the real stones and the jokers of the runs of a color can add
+     * from the given number on, if the color has the given state before it and may use
+     * the given number of jokers. The other colors are left out: every stone which may be
+     * in a group at all counts as if it were. The stones of the table have to be laid and
+     * the runs finished all the same, so states which can not be finished are found here.
+     *
+     * @return the bound, NO_SCORE if the color can not be finished from the state
+     */
+    private int colorBound(int color, int number, int state, int jokersLeft) {
+      if (number > Stone.MAX_VALUE) {
+        return ColorStates.isComplete(state) ? 0 : NO_SCORE;
+      }
+      int[] known = colorBounds[color][number];
+      if (known == null) {
+        known = new int[(Stone.COPIES + 1) * ColorStates.STATES];
+        Arrays.fill(known, UNKNOWN);
+        colorBounds[color][number] = known;
+      }
+      int index = jokersLeft * ColorStates.STATES + state;
+      if (known[index] == UNKNOWN) {
+        int kind = kindOf(color, number);
+        int best = NO_SCORE;
+        for (Outcome outcome : ColorStates.outcomes(state, startsFirst(color, number),
+            available[kind], mandatory[kind], jokersLeft)) {
+          int next = colorBound(color, number + 1, outcome.state,
+              jokersLeft - outcome.jokers);
+          if (next != NO_SCORE && (outcome.groupReals == 0 || groupable[color][number])) {
+            best = Math.max(best, next + number * (outcome.reals + outcome.jokers) * pointScore
+                + (outcome.reals - mandatory[kind]) * stoneScore);
+          }
+        }
+        known[index] = best;
+      }
+      return known[index];
+    }
+
+    /**
+     * Returns the state after the given outcome of a color at a number.
+     */
+    private long colorKey(long key, int color, int number, Outcome outcome) {
+      int kind = kindOf(color, number);
+      int shift = color * STATE_BITS;
+      long next = (key & ~(STATE_MASK << shift)) | ((long) outcome.state << shift);
+      next += (long) outcome.jokers << JOKERS_SHIFT;
+      if (outcome.groupReals > 0) {
+        next += 1L << (outcome.groupReals == 1 ? ONE_GROUP_SHIFT : TWO_GROUP_SHIFT);
+      }
+      if (outcome.reals > mandatory[kind]) {
+        next |= PLAYED;
+      }
+      // the stones set aside for groups are counted here and their jokers in the group step
+      return addPoints(next, number * (outcome.reals - mandatory[kind] + outcome.jokers));
+    }
+
+    private int colorScore(int number, int kind, Outcome outcome) {
+      int points = number * (outcome.reals - outcome.groupReals + outcome.jokers);
+      return points * pointScore + (outcome.reals - mandatory[kind]) * stoneScore;
+    }
+
+    private long groupKey(long key, int number, int groupJokers) {
+      long next = (key & ~(GROUP_MASK << ONE_GROUP_SHIFT)) + ((long) groupJokers << JOKERS_SHIFT);
+      return addPoints(next, number * groupJokers);
+    }
+
+    private int groupScore(long key, int number, int groupJokers) {
+      return number * (groupStones(key) + groupJokers) * pointScore;
+    }
+
+    /**
+     * Adds the given points beyond the real stones of the table, up to the cap.
+     */
+    private long addPoints(long key, int points) {
+      if (pointsCap == 0) {
+        return key;
+      }
+      int capped = Math.min(pointsCap, (int) (key >>> CAP_SHIFT) + points);
+      return (key & ~(-1L << CAP_SHIFT)) | ((long) capped << CAP_SHIFT);
+    }
+
+    /**
+     * Runs the exact search, the bound of the search is the score a play has to reach.
+     * The search first asks for the most score any play can reach and then halves the gap
+     * to the bound until a play reaches what is asked for. The less is asked the more states
+     * have to be followed, and the upper bounds the memo learned on the way stay valid.
+     *
+     * @return the melds of the best play, null if it does not reach the bound
+     *         or the deadline passed
+     */
+    private List<Meld> runExact() {
+      for (int step = 0; step < STEPS; step++) {
+        memos[step] = new Memo();
+      }
+      int least = Math.max(bound, byPoints ? minPoints * pointScore : stoneScore);
+      int most = bound(0, 0L);
+      int score = NO_SCORE;
+      for (int need = most; need >= least; need = least + (most - least + 1) / 2) {
+        score = best(0, 0L, need);
+        if (expired || score >= need) {
+          break;
+        }
+        most = score; // an upper bound now, NO_SCORE if there is no play at all
+        if (most < least) {
+          break;
+        }
+      }
+      if (expired || score < least || !isPlay(score)) {
+        return null;
+      }
+      bestScore = score;
+      MeldBuilder builder = new MeldBuilder();
+      long key = 0L;
+      for (int step = 0; step < STEPS; step++) {
+        int number = step / STEPS_PER_NUMBER + Stone.MIN_VALUE;
+        int color = step % STEPS_PER_NUMBER;
+        int way = memos[step].wayAt(memos[step].find(key));
+        if (color < COLORS) {
+          Outcome outcome = outcomes(key, color, number)[way];
+          builder.apply(color, number, outcome);
+          key = colorKey(key, color, number, outcome);
+        } else {
+          builder.group(number, way);
+          key = groupKey(key, number, way);
+        }
+      }
+      return builder.finish();
+    }
+
+    private Outcome[] outcomes(long key, int color, int number) {
+      int kind = kindOf(color, number);
+      return ColorStates.outcomes(stateOf(key, color), startsFirst(color, number),
+          available[kind], mandatory[kind], jokers - usedJokers(key));
+    }
+
+    /**
+     * Returns the most score the steps after the given one add to the given state,
+     * if it reaches the given need. Otherwise an upper bound below the need is returned,
+     * the state is not followed further than it takes to show that.
+     *
+     * @param step the number of steps done
+     * @param key  the state after them
+     * @param need the score the state has to reach
+     * @return the best score, an upper bound below need or NO_SCORE if there is no play
+     */
+    private int best(int step, long key, int need) {
+      if (step == STEPS) {
+        return finalScore(key);
+      }
+      int reach = bound(step, key);
+      if (reach < need) {
+        return reach;
+      }
+      if ((++visits & DEADLINE_CHECK) == 0 && isExpired() || expired) {
+        return NO_SCORE;
+      }
+      Memo memo = memos[step];
+      int slot = memo.find(key);
+      if (slot != Memo.NONE && (memo.isExactAt(slot) || memo.scoreAt(slot) < need)) {
+        return memo.scoreAt(slot);
+      }
+      if (slot == Memo.NONE && ++states > MAX_STATES) {
+        // the memo is full, the search stops as if the deadline had passed
+        expired = true;
+        return NO_SCORE;
+      }
+      int count = nextStates(step, key);
+      long[] targets = nextKeys[step];
+      int[] scores = nextScores[step];
+      int[] reaches = nextReaches[step];
+      int best = NO_SCORE;
+      int bestWay = Memo.NONE;
+      int least = need; // a way on has to beat the best one found
+      // the ways with the best bounds first, they find good plays early
+      int[] order = nextOrders[step];
+      for (int i = 0; i < count; i++) {
+        order[i] = i;
+      }
+      for (int i = 0; i < count; i++) {
+        int first = i;
+        for (int j = i + 1; j < count; j++) {
+          if (reaches[order[j]] > reaches[order[first]]) {
+            first = j;
+          }
+        }
+        int way = order[first];
+        order[first] = order[i];
+        order[i] = way;
+        if (reaches[way] == NO_SCORE) {
+          break;
+        }
+        int score = scores[way];
+        if (reaches[way] < least) {
+          // no way left can beat the need or the best way
+          best = Math.max(best, reaches[way]);
+          break;
+        }
+        int next = best(step + 1, targets[way], lessNeed(least, score));
+        if (next != NO_SCORE && next + score > best) {
+          best = next + score;
+          bestWay = way;
+          least = Math.max(least, best + 1);
+        }
+      }
+      if (expired) {
+        return NO_SCORE;
+      }
+      memo.put(key, best, best >= need, bestWay);
+      return best;
+    }
+
+    /**
+     * Puts the states after the given one into the arrays of the next step with the score
+     * of the way to them and the most score they can reach.
+     *
+     * @return the number of next states
+     */
+    private int nextStates(int step, long key) {
+      int number = step / STEPS_PER_NUMBER + Stone.MIN_VALUE;
+      int color = step % STEPS_PER_NUMBER;
+      int count = 0;
+      if (color < COLORS) {
+        int kind = kindOf(color, number);
+        Outcome[] outcomes = outcomes(key, color, number);
+        growNext(step, outcomes.length);
+        for (Outcome outcome : outcomes) {
+          putNext(step, count++, colorKey(key, color, number, outcome),
+              colorScore(number, kind, outcome));
+        }
+      } else {
+        int counts = groupCounts(key);
+        growNext(step, jokers + 1);
+        for (int groupJokers = 0; groupJokers <= jokers - usedJokers(key); groupJokers++) {
+          // a way which can not be taken can not reach any score
+          putNext(step, count++, groupKey(key, number, groupJokers),
+              Groups.canPartition(counts, groupJokers) ? groupScore(key, number, groupJokers)
+                  : NO_SCORE);
+        }
+      }
+      return count;
+    }
+
+    private void growNext(int step, int count) {
+      if (nextKeys[step] == null || nextKeys[step].length < count) {
+        nextKeys[step] = new long[count];
+        nextScores[step] = new int[count];
+        nextReaches[step] = new int[count];
+        nextOrders[step] = new int[count];
+      }
+    }
+
+    private void putNext(int step, int way, long next, int score) {
+      int reach = score == NO_SCORE ? NO_SCORE
+          : step + 1 == STEPS ? finalScore(next) : bound(step + 1, next);
+      nextKeys[step][way] = next;
+      nextScores[step][way] = score;
+      nextReaches[step][way] = reach == NO_SCORE ? NO_SCORE : score + reach;
+    }
+
+    /**
+     * Returns the need of the next state, if the way to it adds the given score.
+     */
+    private int lessNeed(int need, int score) {
+      return (int) Math.max(ANY_SCORE, (long) need - score);
+    }
+
+    /**
+     * Follows the best final state back to the start and builds the melds on the way.
+     *
+     * @param best the index of the best final state
+     * @return the melds of the best play
+     */
+    private List<Meld> melds(int best) {
+      int[] path = new int[STEPS + 1]; // the index of the state of each step
+      path[STEPS] = best;
+      for (int step = STEPS; step > 0; step--) {
+        path[step - 1] = previous[step][path[step]];
+      }
+      MeldBuilder builder = new MeldBuilder();
+      for (int step = 1; step <= STEPS; step++) {
+        int number = (step - 1) / STEPS_PER_NUMBER + Stone.MIN_VALUE;
+        int color = (step - 1) % STEPS_PER_NUMBER;
+        long key = keys[step - 1][path[step - 1]];
+        int way = ways[step][path[step]];
+        if (color < COLORS) {
+          builder.apply(color, number, outcomes(key, color, number)[way]);
+        } else {
+          builder.group(number, way);
+        }
+      }
+      return builder.finish();
+    }
+  }
+
+  /**
+   * Returns the k-th largest of the first values, the values are reordered.
+   */
+  static int largest(int[] values, int size, int k) {
+    int low = 0;
+    int high = size - 1;
+    int target = k - 1;
+    while (low < high) {
+      int pivot = values[(low + high) >>> 1];
+      int i = low;
+      int j = high;
+      while (i <= j) {
+        while (values[i] > pivot) {
+          i++;
+        }
+        while (values[j] < pivot) {
+          j--;
+        }
+        if (i <= j) {
+          int value = values[i];
+          values[i++] = values[j];
+          values[j--] = value;
+        }
+      }
+      if (target <= j) {
+        high = j;
+      } else if (target >= i) {
+        low = i;
+      } else {
+        break;
+      }
+    }
+    return values[target];
+  }
+
+  private static int stateOf(long key, int color) {
+    return (int) ((key >>> (color * STATE_BITS)) & STATE_MASK);
+  }
+
+  private static int usedJokers(long key) {
+    return (int) (key >>> JOKERS_SHIFT) & 3;
+  }
+
+  /**
+   * Returns the number of stones set aside for groups of the current number.
+   */
+  private static int groupStones(long key) {
+    int ones = (int) (key >>> ONE_GROUP_SHIFT) & GROUP_COUNT_MASK;
+    int twos = (int) (key >>> TWO_GROUP_SHIFT) & GROUP_COUNT_MASK;
+    return ones + 2 * twos;
+  }
+
+  /**
+   * Returns the counts of stones set aside for groups as in {@link Groups}, the colors
+   * with two stones first. Only the numbers of colors with one and two stones matter for
+   * groups, the colors are the same for all of them.
+   */
+  private static int groupCounts(long key) {
+    int ones = (int) (key >>> ONE_GROUP_SHIFT) & GROUP_COUNT_MASK;
+    int twos = (int) (key >>> TWO_GROUP_SHIFT) & GROUP_COUNT_MASK;
+    int counts = 0;
+    for (int color = COLORS - 1; color >= 0; color--) {
+      counts = counts * 3 + (color < twos ? 2 : color < twos + ones ? 1 : 0);
+    }
+    return counts;
+  }
+
+  /**
+   * Builds the melds of a play by following the outcomes of its colors number by number.
+   */
+  private static final class MeldBuilder {
+    private final List<Meld> melds = new ArrayList<>();
+    private final List<List<Run>> openRuns = new ArrayList<>();
+    private final List<List<Run>> closedRuns = new ArrayList<>(); // closed runs from 1 on
+    private final int[] groupReals = new int[COLORS];
+
+    private MeldBuilder() {
+      for (int color = 0; color < COLORS; color++) {
+        openRuns.add(new ArrayList<>());
+        closedRuns.add(new ArrayList<>());
+      }
+    }
+
+    private void apply(int color, int number, Outcome outcome) {
+      int kind = kindOf(color, number);
+      List<Run> runs = openRuns.get(color);
+      runs.sort(Comparator.comparingInt(run -> run.code));
+      List<Run> nextRuns = new ArrayList<>();
+      for (int i = 0; i < runs.size(); i++) {
+        Run run = runs.get(i);
+        int action = outcome.runActions[i];
+        int code = ColorStates.classOf(run.code);
+        if (action == ColorStates.CLOSE) {
+          if (ColorStates.isFromFirst(run.code)) {
+            run.code = code;
+            closedRuns.get(color).add(run);
+          } else {
+            melds.add(run.toMeld());
+          }
+          continue;
+        }
+        boolean joker = action == ColorStates.JOKER;
+        run.add(joker ? JOKER : kind, number);
+        run.code = ColorStates.extendRun(code, joker) + (run.code - code);
+        nextRuns.add(run);
+      }
+      int offset = outcome.fromFirst ? ColorStates.FROM_FIRST : 0;
+      start(nextRuns, outcome.startReal, kind, number, ColorStates.LEN1 + offset);
+      start(nextRuns, outcome.startJoker, JOKER, number, ColorStates.LEN1_JOKER + offset);
+      openRuns.set(color, nextRuns);
+      groupReals[color] = outcome.groupReals;
+    }
+
+    private static void start(List<Run> runs, int count, int kind, int number, int code) {
+      for (int i = 0; i < count; i++) {
+        Run run = new Run(code);
+        run.add(kind, number);
+        runs.add(run);
+      }
+    }
+
+    private void group(int number, int jokers) {
+      int counts = 0;
+      for (int color = COLORS - 1; color >= 0; color--) {
+        counts = counts * 3 + groupReals[color];
+      }
+      for (int[] colors : Groups.partitionOf(counts, jokers)) {
+        int[] kinds = new int[colors.length];
+        int[] numbers = new int[colors.length];
+        for (int i = 0; i < colors.length; i++) {
+          kinds[i] = colors[i] == Groups.JOKER ? JOKER : kindOf(colors[i], number);
+          numbers[i] = number;
+        }
+        melds.add(new Meld(kinds, numbers, true));
+      }
+    }
+
+    /**
+     * Finishes the runs open after 13, joins them with the closed runs from 1 on.
+     *
+     * @return all melds of the play
+     */
+    private List<Meld> finish() {
+      for (int color = 0; color < COLORS; color++) {
+        List<Run> runs = openRuns.get(color);
+        List<Run> closed = closedRuns.get(color);
+        runs.sort(Comparator.comparingInt(run -> run.code));
+        closed.sort(Comparator.comparingInt(run -> run.code));
+        int[] runCodes = runs.stream().mapToInt(run -> run.code).toArray();
+        int[] closedCodes = closed.stream().mapToInt(run -> run.code).toArray();
+        int[] pairs = ColorStates.pairing(runCodes, closedCodes);
+        boolean[] joined = new boolean[closed.size()];
+        for (int i = 0; i < runs.size(); i++) {
+          Run run = runs.get(i);
+          if (pairs[i] >= 0) {
+            run.append(closed.get(pairs[i]));
+            joined[pairs[i]] = true;
+          }
+          melds.add(run.toMeld());
+        }
+        for (int i = 0; i < closed.size(); i++) {
+          if (!joined[i]) {
+            melds.add(closed.get(i).toMeld());
+          }
+        }
+      }
+      return melds;
+    }
+  }
+
+  /**
+   * A run while it is built.
+   */
+  private static final class Run {
+    private int code;
+    private final List<Integer> kinds = new ArrayList<>();
+    private final List<Integer> numbers = new ArrayList<>();
+
+    private Run(int code) {
+      this.code = code;
+    }
+
+    private void add(int kind, int number) {
+      kinds.add(kind);
+      numbers.add(number);
+    }
+
+    private void append(Run next) {
+      kinds.addAll(next.kinds);
+      numbers.addAll(next.numbers);
+    }
+
+    private Meld toMeld() {
+      return new Meld(kinds.stream().mapToInt(Integer::intValue).toArray(),
+          numbers.stream().mapToInt(Integer::intValue).toArray(), false);
+    }
+  }
+}
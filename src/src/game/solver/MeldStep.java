@@ -0,0 +1,52 @@
+package game.solver;
+
+import game.Coordinate;
+import game.Game;
+import game.TraceMove;
+
+/**
+ * A single move of a stone to lay down a {@link MeldSolution}.
+ * Stones are put from the hand to a free cell of the table, or moved on the table
+ * where a stone at the target position is swapped to the source position.
+ */
+public final class MeldStep {
+  private final TraceMove command;
+  private final Coordinate sourcePosition;
+  private final Coordinate targetPosition;
+
+  MeldStep(TraceMove command, Coordinate sourcePosition, Coordinate targetPosition) {
+    this.command = command;
+    this.sourcePosition = sourcePosition;
+    this.targetPosition = targetPosition;
+  }
+
+  public TraceMove getCommand() {
+    return command;
+  }
+
+  public Coordinate getSourcePosition() {
+    return sourcePosition;
+  }
+
+  public Coordinate getTargetPosition() {
+    return targetPosition;
+  }
+
+  /**
+   * Does this move in the given game for its current player.
+   *
+   * @param game the game whose table and current hand the solution was found for
+   */
+  public void applyTo(Game game) {
+    if (command == TraceMove.MOVE_STONE_FROM_HAND) {
+      game.putStone(sourcePosition, targetPosition);
+    } else {
+      game.moveStoneOnTable(sourcePosition, targetPosition);
+    }
+  }
+
+  @Override
+  public String toString() {
+    return command + " " + sourcePosition + " -> " + targetPosition;
+  }
+}
@@ -0,0 +1,108 @@
+package game.solver;
+
+/**
+ * Memo of the states of one step of the exact search.
+ * Every state remembers the best score the steps after it can add and the way to its best
+ * next state. The score may also be only an upper bound, if the search stopped following
+ * the state once it could not reach the score it was searched for.
+ * Keys are non-negative longs, stored with open addressing in a primitive array with
+ * the score and the way of each state next to its key.
+ */
+final class Memo {
+  static final int NONE = -1;
+  private static final long EMPTY = -1L;
+  private static final int MIN_CAPACITY = 16;
+  private static final long EXACT = 1L << 32;
+  private static final int WAY_SHIFT = 33;
+
+  private long[] entries; // the key of each slot and then its score, if it is exact and way
+  private int size;
+  private int shift; // 64 - log2 of the capacity
+
+  Memo() {
+    allocate(MIN_CAPACITY);
+  }
+
+  private void allocate(int capacity) {
+    entries = new long[capacity * 2];
+    for (int slot = 0; slot < entries.length; slot += 2) {
+      entries[slot] = EMPTY;
+    }
+    size = 0;
+    shift = Long.numberOfLeadingZeros(capacity) + 1;
+  }
+
+  /**
+   * Returns the slot of the given state.
+   *
+   * @param key the state
+   * @return the slot of the state, NONE if it is not in the memo
+   */
+  int find(long key) {
+    int slot = slotOf(key);
+    return entries[slot] == EMPTY ? NONE : slot;
+  }
+
+  /**
+   * Puts the given state or replaces what was known of it.
+   *
+   * @param key   the state
+   * @param score the best score the steps after the state add or an upper bound of it
+   * @param exact true if the score is the best score
+   * @param way   how the best next state is reached
+   */
+  void put(long key, int score, boolean exact, int way) {
+    int slot = slotOf(key);
+    if (entries[slot] == EMPTY) {
+      if ((size + 1) * 4 > entries.length) {
+        grow();
+        slot = slotOf(key);
+      }
+      entries[slot] = key;
+      size++;
+    }
+    entries[slot + 1] = (score & 0xFFFFFFFFL) | (exact ? EXACT : 0) | ((long) way << WAY_SHIFT);
+  }
+
+  private int slotOf(long key) {
+    int mask = entries.length - 1;
+    // the high bits of the product depend on all bits of the key (Fibonacci hashing)
+    int slot = (int) ((key * 0x9E3779B97F4A7C15L) >>> shift) * 2;
+    while (entries[slot] != EMPTY && entries[slot] != key) {
+      slot = (slot + 2) & mask;
+    }
+    return slot;
+  }
+
+  private void grow() {
+    long[] old = entries;
+    allocate(old.length);
+    for (int slot = 0; slot < old.length; slot += 2) {
+      if (old[slot] != EMPTY) {
+        int to = slotOf(old[slot]);
+        entries[to] = old[slot];
+        entries[to + 1] = old[slot + 1];
+        size++;
+      }
+    }
+  }
+
+  int size() {
+    return size;
+  }
+
+  int scoreAt(int slot) {
+    return (int) entries[slot + 1];
+  }
+
+  /**
+   * Returns if the score at the given slot is exact and not only an upper bound.
+   */
+  boolean isExactAt(int slot) {
+    return (entries[slot + 1] & EXACT) != 0;
+  }
+
+  int wayAt(int slot) {
+    return (int) (entries[slot + 1] >> WAY_SHIFT);
+  }
+}
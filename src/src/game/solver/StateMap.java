@@ -0,0 +1,119 @@
+package game.solver;
+
+import java.util.Arrays;
+
+/**
+ * Map of the states of one step of the search to their best score.
+ * Every state remembers the index of the state of the previous step it was reached from
+ * and how, so that the best play can be followed back.
+ * Keys are non-negative longs, stored with open addressing in primitive arrays.
+ * The states are indexed in the order they were put, so that all work on a map is
+ * proportional to its number of states, even if it is reused for many steps.
+ */
+final class StateMap {
+  private static final long EMPTY = -1L;
+  private static final int MIN_CAPACITY = 16;
+
+  private long[] keys;
+  private int[] scores;
+  private int[] previous;
+  private int[] ways;
+  private int[] slots; // the slot of each index
+  private int size;
+  private int shift; // 64 - log2 of the capacity
+
+  StateMap() {
+    allocate(MIN_CAPACITY);
+  }
+
+  private void allocate(int capacity) {
+    keys = new long[capacity];
+    Arrays.fill(keys, EMPTY);
+    scores = new int[capacity];
+    previous = new int[capacity];
+    ways = new int[capacity];
+    slots = new int[capacity / 2 + 1];
+    size = 0;
+    shift = Long.numberOfLeadingZeros(capacity) + 1;
+  }
+
+  /**
+   * Removes all states.
+   */
+  void clear() {
+    for (int index = 0; index < size; index++) {
+      keys[slots[index]] = EMPTY;
+    }
+    size = 0;
+  }
+
+  /**
+   * Puts the given state if it is new or has a better score than before.
+   *
+   * @param key   the state
+   * @param score the score of the state
+   * @param from  the index of the state of the previous step
+   * @param way   how the state was reached from the previous state
+   */
+  void put(long key, int score, int from, int way) {
+    int slot = slotOf(key);
+    if (keys[slot] == EMPTY) {
+      keys[slot] = key;
+      scores[slot] = score;
+      previous[slot] = from;
+      ways[slot] = way;
+      slots[size] = slot;
+      if (++size * 2 > keys.length) {
+        grow();
+      }
+    } else if (score > scores[slot]) {
+      scores[slot] = score;
+      previous[slot] = from;
+      ways[slot] = way;
+    }
+  }
+
+  private int slotOf(long key) {
+    int mask = keys.length - 1;
+    // the high bits of the product depend on all bits of the key (Fibonacci hashing)
+    int slot = (int) ((key * 0x9E3779B97F4A7C15L) >>> shift);
+    while (keys[slot] != EMPTY && keys[slot] != key) {
+      slot = (slot + 1) & mask;
+    }
+    return slot;
+  }
+
+  private void grow() {
+    long[] oldKeys = keys;
+    int[] oldScores = scores;
+    int[] oldPrevious = previous;
+    int[] oldWays = ways;
+    int[] oldSlots = slots;
+    int oldSize = size;
+    allocate(oldKeys.length * 2);
+    for (int index = 0; index < oldSize; index++) {
+      int slot = oldSlots[index];
+      put(oldKeys[slot], oldScores[slot], oldPrevious[slot], oldWays[slot]);
+    }
+  }
+
+  int size() {
+    return size;
+  }
+
+  long keyAt(int index) {
+    return keys[slots[index]];
+  }
+
+  int scoreAt(int index) {
+    return scores[slots[index]];
+  }
+
+  int previousAt(int index) {
+    return previous[slots[index]];
+  }
+
+  int wayAt(int index) {
+    return ways[slots[index]];
+  }
+}
@@ -16,6 +16,13 @@ public class ErrorMessages {
   public static final String CLIENT_CANNOT_START_GAME_ERROR = "Clients cannot start the game. Please wait for the host to start the game.";
   public static final String SPOT_ALREADY_TAKEN_ERROR = "You cannot put down two stones at the same spot.";
   public static final String TABLE_NOT_CONSISTENT_ERROR = "You cannot go on because the table configuration is not valid.";
+  public static final String OUT_OF_TABLE_ERROR = "You cannot put stones outside of the table.";
+  public static final String ROOM_NOT_FOUND_ERROR = "There is no room with this id in the lobby.";
+  public static final String ALREADY_IN_ROOM_ERROR = "You cannot join another room before leaving your room.";
+  public static final String SERVER_DRAINING_ERROR = "The server is shutting down and does not start new games.";
+  public static final String SESSION_EXPIRED_ERROR = "Your seat was given up. Join the game again.";
+  public static final String TOO_MANY_REQUESTS_ERROR = "You sent too many requests at once. Your last request was dropped.";
+  public static final String SPECTATOR_CANNOT_PLAY_ERROR = "Spectators cannot play. Join a room to play.";
   public static final String NO_STONES_PUT_DOWN_ERROR = "Before confirming a move you need to put at least one stone on the table";
 
 }
@@ -1,23 +1,27 @@
 package network.client;
 
+import communication.BinaryCodec;
 import communication.Deserializer;
+import communication.FrameReader;
 import communication.gameinfo.GameInfo;
 
+import java.io.IOException;
 import java.io.InputStream;
-import java.util.NoSuchElementException;
-import java.util.Scanner;
 
 /**
  * ClientListener listens to the Server
  * and when the Server sends an object to the Client
  * the Client Listener receives it, decrypts it and
- * forwards it to RummiClient
+ * forwards it to RummiClient.
+ * The messages are read by a FrameReader, a message which is too long or
+ * can not be decoded is handled like a closed connection.
  */
 class ClientListener extends Thread {
   //THE CLIENT THAT THE LISTENER LISTENS FOR..
   private InputStream serverIn;
   private RummiClient client;
   private boolean connected;
+  private boolean binary;
   private Deserializer deserializer;
 
   /**
@@ -26,10 +30,12 @@ class ClientListener extends Thread {
    *
    * @param serverIn the port that listens to
    * @param client   the client that reports the receiving objects to
+   * @param binary   true if the server sends frames of the binary protocol instead of JSON
    */
-  ClientListener(InputStream serverIn, RummiClient client) {
+  ClientListener(InputStream serverIn, RummiClient client, boolean binary) {
     this.serverIn = serverIn;
     this.client = client;
+    this.binary = binary;
     connected = true;
     deserializer = new Deserializer();
   }
@@ -41,28 +47,67 @@ class ClientListener extends Thread {
    */
   @Override
   public void run() {
-    try (Scanner scanner = new Scanner(serverIn)) {
+    if (binary) {
+      runBinary();
+      return;
+    }
+    FrameReader in = new FrameReader(serverIn);
+    try {
       String json;
-      while (connected) {
-        json = scanner.nextLine();
-        if (json != null) {
-          GameInfo info = deserializer.deserializeInfo(json);
-          if (info != null) {
-            client.applyGameInfoHandler(info);
-          }
+      while (connected && (json = in.readLine()) != null) {
+        GameInfo info = deserializer.deserializeInfo(json);
+        if (info != null) {
+          client.applyGameInfoHandler(info);
         }
       }
-    } catch (NoSuchElementException e) {
-      if (connected) {
-        System.out.println("*****-----***** Sever closed ******------*******");
-        client.notifyServerClose();
-        System.out.println("From Run scanner ClientListener: notifyDisconnection Client");
-        client.disconnect();
+    } catch (IOException | RuntimeException e) {
+      // handled like the end of the stream
+    }
+    closeQuietly(in);
+    serverClosed();
+    System.out.println("From ClientListener: ClientListener terminates..");
+  }
+
+  /**
+   * Receives the frames of the binary protocol until the connection is closed.
+   */
+  private void runBinary() {
+    BinaryCodec codec = new BinaryCodec();
+    FrameReader in = new FrameReader(serverIn);
+    try {
+      int length;
+      while (connected && (length = in.readFrame()) >= 0) {
+        client.applyGameInfoHandler(codec.decodeInfo(in.getBuffer(), length));
       }
+    } catch (IOException | IllegalArgumentException e) {
+      // handled like the end of the stream
     }
+    closeQuietly(in);
+    serverClosed();
     System.out.println("From ClientListener: ClientListener terminates..");
   }
 
+  private static void closeQuietly(FrameReader in) {
+    try {
+      in.close();
+    } catch (IOException e) {
+      // the socket is closed anyway
+    }
+  }
+
+  private void serverClosed() {
+    if (connected && client.resume()) {
+      // a new listener listens to the new connection
+      return;
+    }
+    if (connected) {
+      System.out.println("*****-----***** Sever closed ******------*******");
+      client.notifyServerClose();
+      System.out.println("From Run scanner ClientListener: notifyDisconnection Client");
+      client.disconnect();
+    }
+  }
+
 
   void notifyDisconnection() {
     connected = false;
@@ -1,6 +1,9 @@
 package network.client;
 
 import communication.gameinfo.*;
+import communication.request.RequestID;
+import communication.request.SimpleRequest;
+import globalconstants.ErrorMessages;
 import view.Controller;
 
 /**
@@ -10,6 +13,9 @@ import view.Controller;
 public class GameInfoHandler {
 
   private Controller controller;
+  private RummiClient client;
+  private final GridModel table = new GridModel();
+  private final GridModel hand = new GridModel();
 
   /**
    * Creates a new GameInfoHandler that contains a controller.
@@ -20,6 +26,16 @@ public class GameInfoHandler {
     this.controller = controller;
   }
 
+  /**
+   * Sets the client which asks the server for snapshots of the grids
+   * if an update of them was missed.
+   *
+   * @param client the client receiving the gameinfos
+   */
+  void setClient(RummiClient client) {
+    this.client = client;
+  }
+
   /**
    * Main method of the class: forwards the received information to the controller
    * accordingly it's GameInfoID.
@@ -29,13 +45,29 @@ public class GameInfoHandler {
   void applyGameInfo(Object gameInfo) {
     switch (((GameInfo) gameInfo).getGameInfoID()) {
       case HAND:
-        controller.setPlayerHand(((GridInfo) gameInfo).getGrid());
+        hand.set((GridInfo) gameInfo);
+        controller.setPlayerHand(hand.getGrid());
         break;
       case TABLE:
-        controller.setTable(((GridInfo) gameInfo).getGrid());
+        table.set((GridInfo) gameInfo);
+        controller.setTable(table.getGrid());
+        break;
+      case HAND_DELTA:
+        if (applyDelta(hand, (GridDeltaInfo) gameInfo)) {
+          controller.setPlayerHand(hand.getGrid());
+        }
+        break;
+      case TABLE_DELTA:
+        if (applyDelta(table, (GridDeltaInfo) gameInfo)) {
+          controller.setTable(table.getGrid());
+        }
         break;
       case ERROR:
-        controller.showError(((ErrorInfo) gameInfo).getErrorMessage());
+        String message = ((ErrorInfo) gameInfo).getErrorMessage();
+        if (ErrorMessages.SESSION_EXPIRED_ERROR.equals(message)) {
+          forgetSession();
+        }
+        controller.showError(message);
         break;
       case BAG:
         controller.setBagSize(((BagInfo) gameInfo).getSize());
@@ -62,14 +94,47 @@ public class GameInfoHandler {
       case RANK:
         controller.showRank(((RankInfo) gameInfo).getFinalRank());
         break;
+      case INVALID_SETS:
+        controller.setInvalidSets(((InvalidSetsInfo) gameInfo).getInvalidRows());
+        break;
       case TOO_MANY_CLIENTS:
         controller.connectionRejected();
         break;
+      case SESSION:
+        if (client != null) {
+          client.setSessionToken(((SessionInfo) gameInfo).getToken());
+        }
+        break;
+      case SERVER_NOT_AVAILABLE:
+        // the game is over, there is no seat to resume
+        forgetSession();
+        break;
       default:
     }
     System.out.println("Info handled");
   }
 
+  private void forgetSession() {
+    if (client != null) {
+      client.setSessionToken(null);
+    }
+  }
+
+  /**
+   * Applies a delta to a grid, and asks for snapshots of the grids if a version was missed.
+   */
+  private boolean applyDelta(GridModel grid, GridDeltaInfo delta) {
+    boolean hadGrid = grid.hasGrid();
+    if (grid.apply(delta)) {
+      return true;
+    }
+    // without a grid the snapshot is already on its way
+    if (hadGrid && client != null) {
+      client.sendRequest(new SimpleRequest(RequestID.RESYNC));
+    }
+    return false;
+  }
+
   /**
    * Notify the user that the Server is not available anymore.
    */
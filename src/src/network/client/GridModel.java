@@ -0,0 +1,71 @@
+package network.client;
+
+import communication.gameinfo.GridDeltaInfo;
+import communication.gameinfo.GridInfo;
+import communication.gameinfo.StoneInfo;
+
+/**
+ * The local copy of the table or the hand, kept up to date with the snapshots and deltas
+ * sent by the server.
+ */
+final class GridModel {
+  private StoneInfo[][] grid;
+  private int version;
+
+  /**
+   * Replaces the grid with a snapshot.
+   *
+   * @param snapshot sent by the server
+   */
+  void set(GridInfo snapshot) {
+    grid = copy(snapshot.getGrid());
+    version = snapshot.getVersion();
+  }
+
+  /**
+   * Applies a delta to the grid, if it is based on the version of the grid.
+   * Otherwise a version was missed, and the grid is dropped until the next snapshot.
+   *
+   * @param delta sent by the server
+   * @return true if the delta was applied
+   */
+  boolean apply(GridDeltaInfo delta) {
+    if (grid == null || delta.getBaseVersion() != version) {
+      grid = null;
+      return false;
+    }
+    try {
+      delta.applyTo(grid);
+    } catch (IllegalArgumentException e) {
+      grid = null;
+      return false;
+    }
+    version = delta.getVersion();
+    return true;
+  }
+
+  boolean hasGrid() {
+    return grid != null;
+  }
+
+  int getVersion() {
+    return version;
+  }
+
+  /**
+   * Returns a copy of the grid, which is not changed by later deltas.
+   *
+   * @return the copy, null if there is no grid
+   */
+  StoneInfo[][] getGrid() {
+    return grid == null ? null : copy(grid);
+  }
+
+  private static StoneInfo[][] copy(StoneInfo[][] grid) {
+    StoneInfo[][] copy = new StoneInfo[grid.length][];
+    for (int column = 0; column < grid.length; column++) {
+      copy[column] = grid[column].clone();
+    }
+    return copy;
+  }
+}
@@ -2,6 +2,7 @@ package network.client;
 
 import communication.request.ConcreteMove;
 import communication.request.ConcreteSetPlayer;
+import communication.request.ConcreteStart;
 import communication.request.RequestID;
 import communication.request.SimpleRequest;
 
@@ -29,6 +30,16 @@ public class RequestBuilder {
     client.sendRequest(new SimpleRequest(RequestID.START));
   }
 
+  /**
+   * Sends a request to Server to start the game with the given seed of the bag,
+   * to play a game again.
+   *
+   * @param seed the seed of the bag
+   */
+  public void sendStartRequest(long seed) {
+    client.sendRequest(new ConcreteStart(seed));
+  }
+
   /**
    * Sends a request to the Server that the user
    * wants to draw a new stone on the hand.
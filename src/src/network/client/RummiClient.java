@@ -1,27 +1,47 @@
 package network.client;
 
+import communication.BinaryCodec;
 import communication.Serializer;
+import communication.request.ConcreteResume;
 import communication.request.Request;
 
+import java.io.BufferedOutputStream;
 import java.io.IOException;
-import java.io.PrintWriter;
+import java.io.OutputStream;
 import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
 
 /**
  * RummiClient Class creates a client-object which
  * creates a ClientListener that listens to the server.\
  * At the same time it waits until it gets a Request object so it
  * can send it direct to the server
+ * It talks the binary protocol of the BinaryCodec, or lines of JSON
+ * if the system property PROTOCOL_PROPERTY is "json", which is easier to debug
+ * If the connection is lost, it connects again and resumes the session of the player,
+ * as long as the server holds the seat of the player
  */
 public class RummiClient {
+  /** System property choosing the protocol, "json" for JSON instead of the binary protocol. */
+  public static final String PROTOCOL_PROPERTY = "rummikub.protocol";
+
   private static final int port = 48410;
+  // a bit shorter than the seat is held by the server
+  private static final long RESUME_WINDOW = TimeUnit.SECONDS.toMillis(55);
+  private static final long FIRST_RESUME_PAUSE = 250;
+  private static final long MAX_RESUME_PAUSE = TimeUnit.SECONDS.toMillis(8);
 
   //Connection variables
   private Socket serverSocket;
-  private PrintWriter outToServer;
+  private OutputStream outToServer;
   private ClientListener listener;
   private Serializer serializer;
+  private BinaryCodec codec;
+  private boolean binary;
   private GameInfoHandler gameInfoHandler;
+  private final String serverIPAddress;
+  private volatile String sessionToken;
 
   /**
    * Creates a new client that is able to send objects to
@@ -32,8 +52,20 @@ public class RummiClient {
    */
   public RummiClient(String serverIPAddress) throws IOException {
     serializer = new Serializer();
+    codec = new BinaryCodec();
+    binary = !"json".equalsIgnoreCase(System.getProperty(PROTOCOL_PROPERTY));
+    this.serverIPAddress = serverIPAddress;
+    connect();
+  }
+
+  private synchronized void connect() throws IOException {
     serverSocket = new Socket(serverIPAddress, port);
-    outToServer = new PrintWriter(serverSocket.getOutputStream());
+    outToServer = new BufferedOutputStream(serverSocket.getOutputStream());
+    if (binary) {
+      // chooses the protocol before the first request
+      outToServer.write(BinaryCodec.MAGIC);
+      outToServer.flush();
+    }
   }
 
   /**
@@ -44,6 +76,7 @@ public class RummiClient {
    */
   public void setGameInfoHandler(GameInfoHandler gameInfoHandler) {
     this.gameInfoHandler = gameInfoHandler;
+    gameInfoHandler.setClient(this);
   }
 
   /**
@@ -54,7 +87,7 @@ public class RummiClient {
    */
   public void start() throws IOException {
     // Add a listener to this Client
-    listener = new ClientListener(serverSocket.getInputStream(), this);
+    listener = new ClientListener(serverSocket.getInputStream(), this, binary);
     listener.start();
   }
 
@@ -78,9 +111,56 @@ public class RummiClient {
    *
    * @param request the object that we want to send to the server
    */
-  public void sendRequest(Object request) {
-    outToServer.println(serializer.serialize((Request) request));
-    outToServer.flush();
+  public synchronized void sendRequest(Object request) {
+    byte[] message = binary ? BinaryCodec.frame(codec.encode((Request) request))
+        : (serializer.serialize((Request) request) + '\n').getBytes(StandardCharsets.UTF_8);
+    try {
+      outToServer.write(message);
+      outToServer.flush();
+    } catch (IOException e) {
+      // the listener notices the closed connection
+    }
+  }
+
+  /**
+   * Keeps the token of the session of the player, which is resumed if the connection is lost.
+   *
+   * @param token the token of the session
+   */
+  void setSessionToken(String token) {
+    sessionToken = token;
+  }
+
+  /**
+   * Connects to the server again after the connection was lost and resumes the session
+   * of the player, trying again with growing pauses while the server holds the seat.
+   * The server sends the whole state of the game on the new connection.
+   *
+   * @return true if a new connection was opened, false if there is no session to resume
+   */
+  boolean resume() {
+    String token = sessionToken;
+    if (token == null) {
+      return false;
+    }
+    long deadline = System.currentTimeMillis() + RESUME_WINDOW;
+    long pause = FIRST_RESUME_PAUSE;
+    while (System.currentTimeMillis() + pause < deadline) {
+      try {
+        Thread.sleep(pause);
+        connect();
+        sendRequest(new ConcreteResume(token));
+        start();
+        System.out.println("From RummiClient: session resumed");
+        return true;
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        return false;
+      } catch (IOException e) {
+        pause = Math.min(2 * pause, MAX_RESUME_PAUSE);
+      }
+    }
+    return false;
   }
 
   /**
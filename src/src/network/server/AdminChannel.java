@@ -0,0 +1,142 @@
+package network.server;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintWriter;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Local channel administering a headless server, listening on the loopback interface only.
+ * An administrator connects with a line-based tool like netcat and sends one command per line,
+ * each answered with one line:
+ * status describes the server, drain lets the running games end before the server stops,
+ * stop closes all games at once.
+ * bot ROOM DIFFICULTY [THINK_TIME] seats a bot in a room, fill DIFFICULTY [THINK_TIME] lets bots
+ * take the empty seats of every room whose game starts, fill off stops that. The think time is in
+ * milliseconds, Bot.DEFAULT_THINK_TIME if it is left out.
+ */
+final class AdminChannel implements Runnable {
+  static final String STATUS = "status";
+  static final String DRAIN = "drain";
+  static final String STOP = "stop";
+  static final String BOT = "bot";
+  static final String FILL = "fill";
+  static final String OFF = "off";
+
+  private final NioRummiServer server;
+  private final ServerSocket socket;
+
+  /**
+   * Opens the channel on the given port of the loopback interface.
+   *
+   * @param server the server which is administered
+   * @param port   the port, 0 for any free port
+   * @throws IOException if the port can not be opened
+   */
+  AdminChannel(NioRummiServer server, int port) throws IOException {
+    this.server = server;
+    socket = new ServerSocket(port, 1, InetAddress.getLoopbackAddress());
+  }
+
+  /**
+   * Starts accepting administrators on a daemon thread.
+   */
+  void start() {
+    Thread thread = new Thread(this, "rummi-admin");
+    thread.setDaemon(true);
+    thread.start();
+  }
+
+  int getPort() {
+    return socket.getLocalPort();
+  }
+
+  /**
+   * Serves one administrator after the other until the channel is closed.
+   */
+  @Override
+  public void run() {
+    while (!socket.isClosed()) {
+      try (Socket admin = socket.accept()) {
+        serve(admin);
+      } catch (IOException e) {
+        // the channel was closed, or the administrator left
+      }
+    }
+  }
+
+  private void serve(Socket admin) throws IOException {
+    BufferedReader in = new BufferedReader(
+        new InputStreamReader(admin.getInputStream(), StandardCharsets.UTF_8));
+    PrintWriter out = new PrintWriter(admin.getOutputStream(), true);
+    String command;
+    while ((command = in.readLine()) != null) {
+      out.println(execute(command.trim()));
+      if (STOP.equals(command.trim())) {
+        close();
+        return;
+      }
+    }
+  }
+
+  /**
+   * Executes a command of an administrator.
+   *
+   * @param command the command
+   * @return the answer to the administrator
+   */
+  String execute(String command) {
+    String[] words = command.split("\\s+");
+    try {
+      if (BOT.equals(words[0]) && (words.length == 3 || words.length == 4)) {
+        int room = Integer.parseInt(words[1]);
+        int seat = server.addBot(room, Bot.Difficulty.parse(words[2]), thinkTime(words, 3));
+        return "bot seated at " + seat + " in room " + room;
+      }
+      if (FILL.equals(words[0]) && words.length == 2 && OFF.equals(words[1])) {
+        server.fillWithBots(null, 0);
+        return "empty seats stay empty";
+      }
+      if (FILL.equals(words[0]) && (words.length == 2 || words.length == 3)) {
+        Bot.Difficulty difficulty = Bot.Difficulty.parse(words[1]);
+        server.fillWithBots(difficulty, thinkTime(words, 2));
+        return "empty seats are filled with " + difficulty + " bots";
+      }
+    } catch (IllegalArgumentException | IllegalStateException e) {
+      // a number which can not be parsed is an IllegalArgumentException as well
+      return "failed: " + e.getMessage();
+    }
+    switch (command) {
+      case STATUS:
+        return server.status();
+      case DRAIN:
+        server.drain();
+        return "draining, " + server.status();
+      case STOP:
+        server.stop();
+        return "stopped";
+      default:
+        return "unknown command '" + command + "', use " + STATUS + ", " + DRAIN + ", " + STOP
+            + ", " + BOT + " or " + FILL;
+    }
+  }
+
+  private static long thinkTime(String[] words, int index) {
+    return words.length > index ? Long.parseLong(words[index]) : Bot.DEFAULT_THINK_TIME;
+  }
+
+  /**
+   * Closes the channel.
+   */
+  void close() {
+    try {
+      socket.close();
+    } catch (IOException e) {
+      e.printStackTrace();
+    }
+  }
+}
@@ -0,0 +1,233 @@
+package network.server;
+
+import communication.gameinfo.GameInfo;
+import communication.gameinfo.GameInfoID;
+import communication.request.ConcreteMove;
+import communication.request.ConcreteSetPlayer;
+import communication.request.RequestID;
+import communication.request.SimpleRequest;
+import game.Coordinate;
+import game.Game;
+import game.Stone;
+import game.TraceMove;
+import game.solver.MeldSolver;
+import game.solver.MeldSolver.Objective;
+import game.solver.MeldSolution;
+import game.solver.MeldStep;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Player of the server filling a seat which has no client.
+ * It takes a client slot without a socket and plays by posting the same requests
+ * as a client would to the GameMailbox. It reads the game only in tasks of the mailbox
+ * and searches its play in between on its own executor.
+ * The turns of all bots run on a shared executor with a fixed number of threads,
+ * so that bots on many tables do not need a thread each.
+ * The think time is the budget of a turn: the search stops when it is over and the bot plays
+ * the best play found so far, so that slow searches can not tie up the executor.
+ */
+public class Bot {
+
+  /**
+   * How well a bot plays.
+   */
+  public enum Difficulty {
+    EASY(0.5, Objective.POINTS),
+    MEDIUM(0.8, Objective.POINTS),
+    HARD(1, Objective.STONES);
+
+    private final double playChance;
+    private final Objective objective;
+
+    /**
+     * Returns the difficulty with the given name, in any case.
+     *
+     * @param name the name, like easy
+     * @return the difficulty
+     * @throws IllegalArgumentException if there is no difficulty with the name
+     */
+    public static Difficulty parse(String name) throws IllegalArgumentException {
+      return valueOf(name.trim().toUpperCase(Locale.ROOT));
+    }
+
+    /**
+     * Creates a difficulty.
+     *
+     * @param playChance the chance that the bot looks for a play in a turn instead of drawing
+     * @param objective  what the plays of the bot maximize
+     */
+    Difficulty(double playChance, Objective objective) {
+      this.playChance = playChance;
+      this.objective = objective;
+    }
+  }
+
+  /** Milliseconds a bot takes for a turn unless it is given another think time. */
+  public static final long DEFAULT_THINK_TIME = 1000;
+
+  private static final int AGE = 0;
+  private static final ScheduledExecutorService SHARED_EXECUTOR =
+      Executors.newScheduledThreadPool(Runtime.getRuntime().availableProcessors(), task -> {
+        Thread thread = new Thread(task, "bot");
+        thread.setDaemon(true);
+        return thread;
+      });
+
+  private final int id;
+  private final String name;
+  private final Game game;
+  private final RequestHandler requestHandler;
+  private final GameMailbox mailbox;
+  private final Difficulty difficulty;
+  private final long thinkTime;
+  private final ScheduledExecutorService executor;
+  private final MeldSolver solver;
+  private final Random random = new Random();
+
+  /**
+   * Creates a bot running on the shared executor of all bots.
+   *
+   * @param id             the id of the client slot of the bot
+   * @param name           the name of the bot in the game
+   * @param game           the game the bot plays
+   * @param requestHandler the RequestHandler the requests of the bot are applied to
+   * @param mailbox        the mailbox of the game
+   * @param difficulty     how well the bot plays
+   * @param thinkTime      the milliseconds the bot takes for a turn, its search stops after them
+   */
+  Bot(int id, String name, Game game, RequestHandler requestHandler, GameMailbox mailbox,
+      Difficulty difficulty, long thinkTime) {
+    this(id, name, game, requestHandler, mailbox, difficulty, thinkTime, SHARED_EXECUTOR);
+  }
+
+  /**
+   * Creates a bot running on the given executor.
+   *
+   * @param id             the id of the client slot of the bot
+   * @param name           the name of the bot in the game
+   * @param game           the game the bot plays
+   * @param requestHandler the RequestHandler the requests of the bot are applied to
+   * @param mailbox        the mailbox of the game
+   * @param difficulty     how well the bot plays
+   * @param thinkTime      the milliseconds the bot takes for a turn, its search stops after them
+   * @param executor       the executor the turns of the bot run on
+   */
+  Bot(int id, String name, Game game, RequestHandler requestHandler, GameMailbox mailbox,
+      Difficulty difficulty, long thinkTime, ScheduledExecutorService executor) {
+    if (thinkTime < 0) {
+      throw new IllegalArgumentException("The think time of a bot cannot be negative.");
+    }
+    this.id = id;
+    this.name = name;
+    this.game = game;
+    this.requestHandler = requestHandler;
+    this.mailbox = mailbox;
+    this.difficulty = difficulty;
+    this.thinkTime = thinkTime;
+    this.executor = executor;
+    this.solver = new MeldSolver(difficulty.objective);
+  }
+
+  int getId() {
+    return id;
+  }
+
+  /**
+   * Joins the game with the name of the bot.
+   */
+  void join() {
+    mailbox.post(new ConcreteSetPlayer(name, AGE), id);
+  }
+
+  /**
+   * Receives a GameInfo sent to the slot of the bot.
+   * The bot plays its turn on the executor when its think time is over,
+   * never on the calling thread.
+   *
+   * @param info GameInfo sent to the bot
+   */
+  void receive(GameInfo info) {
+    if (info.getGameInfoID() == GameInfoID.YOUR_TURN) {
+      long deadline = System.currentTimeMillis() + thinkTime;
+      executor.execute(() -> playTurn(deadline));
+    }
+  }
+
+  /**
+   * Takes a snapshot of the hand and the table on the thread of the game,
+   * if it is still the turn of the bot.
+   *
+   * @param deadline the time in milliseconds when the think time of the turn is over
+   */
+  private void playTurn(long deadline) {
+    mailbox.execute(() -> {
+      if (!isMyTurn()) {
+        return;
+      }
+      Map<Coordinate, Stone> hand = new HashMap<>(game.getPlayerStones(id));
+      Map<Coordinate, Stone> table = new HashMap<>(game.getTableStones());
+      boolean firstMove = !game.hasPlayedFirstMove(id);
+      executor.execute(() -> solve(hand, table, firstMove, deadline));
+    });
+  }
+
+  /**
+   * Searches a play for the snapshot without blocking the game until the deadline,
+   * and lays it when the think time is over.
+   */
+  private void solve(Map<Coordinate, Stone> hand, Map<Coordinate, Stone> table,
+      boolean firstMove, long deadline) {
+    MeldSolution solution = null;
+    if (random.nextDouble() < difficulty.playChance) {
+      solution = solver.solve(hand, table, firstMove, deadline);
+    }
+    MeldSolution play = solution;
+    long wait = deadline - System.currentTimeMillis();
+    executor.schedule(() -> mailbox.execute(() -> play(table, play)), Math.max(0, wait),
+        TimeUnit.MILLISECONDS);
+  }
+
+  /**
+   * Lays the play and confirms it, or draws a stone if there is none.
+   * Runs on the thread of the game, so that no other request comes in between.
+   *
+   * @param table    the table the play was searched for
+   * @param solution the play, null to draw
+   */
+  private void play(Map<Coordinate, Stone> table, MeldSolution solution) {
+    if (!isMyTurn() || !table.equals(game.getTableStones())) {
+      return;
+    }
+    if (solution != null) {
+      for (MeldStep step : solution.getSteps()) {
+        RequestID requestID = step.getCommand() == TraceMove.MOVE_STONE_FROM_HAND
+            ? RequestID.PUT_STONE : RequestID.TABLE_MOVE;
+        apply(new ConcreteMove(requestID,
+            step.getSourcePosition().getCol(), step.getSourcePosition().getRow(),
+            step.getTargetPosition().getCol(), step.getTargetPosition().getRow()));
+      }
+      apply(new SimpleRequest(RequestID.CONFIRM_MOVE));
+      if (!isMyTurn()) {
+        return;
+      }
+      // the play was not accepted
+      apply(new SimpleRequest(RequestID.RESET));
+    }
+    // passes the turn if the bag is empty
+    apply(new SimpleRequest(game.getBagSize() > 0 ? RequestID.DRAW : RequestID.TIME_OUT));
+  }
+
+  private boolean isMyTurn() {
+    return game.isGameOn() && game.getCurrentPlayerID() == id;
+  }
+
+  private void apply(Object request) {
+    requestHandler.applyRequest(request, id);
+  }
+}
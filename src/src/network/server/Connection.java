@@ -0,0 +1,36 @@
+package network.server;
+
+import communication.EncodedInfo;
+import java.util.List;
+
+/**
+ * A connection to a client of a room, which can be written from any thread.
+ */
+interface Connection {
+
+  /**
+   * Sends a GameInfo to the client in the protocol of the client.
+   *
+   * @param info the GameInfo, which may be sent to other clients as well
+   */
+  void send(EncodedInfo info);
+
+  /**
+   * Sends GameInfos to the client in the protocol of the client with a single write.
+   *
+   * @param infos the GameInfos, which may be sent to other clients as well
+   */
+  void send(List<EncodedInfo> infos);
+
+  /**
+   * Returns the number of messages sent to the client which are not written yet.
+   *
+   * @return the number of waiting messages
+   */
+  int backlog();
+
+  /**
+   * Closes the connection as soon as all messages sent so far are written.
+   */
+  void disconnect();
+}
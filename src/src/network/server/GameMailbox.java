@@ -0,0 +1,149 @@
+package network.server;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Mailbox of a game, the only way in which clients and bots reach its RequestHandler.
+ * Any thread may post requests, they are queued and applied one after another by a single
+ * thread at a time, so that the game is never touched by two threads at once without any lock.
+ * The mailboxes of all games share a small executor, a mailbox occupies one of its threads only
+ * while it drains a batch of its queue.
+ * The GameInfos sent by a task go out together after the task, if the game sends to an
+ * OutboundBatch. A hook run after every task may publish state of the game for other threads.
+ * A task which fails is logged, the hook and the flush run anyway, and a mailbox whose task
+ * threw an Error still drains the tasks queued after it.
+ */
+class GameMailbox {
+  private static final int BATCH_SIZE = 64;
+  private static final Logger LOG = Logger.getLogger(GameMailbox.class.getName());
+  private static final Executor SHARED_EXECUTOR =
+      Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors(), task -> {
+        Thread thread = new Thread(task, "rummi-game");
+        thread.setDaemon(true);
+        return thread;
+      });
+
+  private final RequestHandler requestHandler;
+  private final OutboundBatch outbound;
+  private final Runnable afterTask;
+  private final Executor executor;
+  private final Queue<Runnable> tasks = new ConcurrentLinkedQueue<>();
+  private final AtomicBoolean scheduled = new AtomicBoolean();
+
+  /**
+   * Creates a mailbox draining on the shared executor of all games.
+   *
+   * @param requestHandler the RequestHandler of the game
+   */
+  GameMailbox(RequestHandler requestHandler) {
+    this(requestHandler, null, null, SHARED_EXECUTOR);
+  }
+
+  /**
+   * Creates a mailbox draining on the shared executor of all games, which flushes the
+   * GameInfos of the game after every task.
+   *
+   * @param requestHandler the RequestHandler of the game
+   * @param outbound       the batch the RequestHandler sends to
+   */
+  GameMailbox(RequestHandler requestHandler, OutboundBatch outbound) {
+    this(requestHandler, outbound, null, SHARED_EXECUTOR);
+  }
+
+  /**
+   * Creates a mailbox draining on the shared executor of all games, which flushes the
+   * GameInfos of the game and runs the given hook after every task.
+   *
+   * @param requestHandler the RequestHandler of the game
+   * @param outbound       the batch the RequestHandler sends to
+   * @param afterTask      run on the thread of the game after every task
+   */
+  GameMailbox(RequestHandler requestHandler, OutboundBatch outbound, Runnable afterTask) {
+    this(requestHandler, outbound, afterTask, SHARED_EXECUTOR);
+  }
+
+  /**
+   * Creates a mailbox draining on the given executor.
+   *
+   * @param requestHandler the RequestHandler of the game
+   * @param outbound       the batch the RequestHandler sends to, null if it sends directly
+   * @param afterTask      run on the thread of the game after every task, may be null
+   * @param executor       the executor the mailbox is drained on
+   */
+  GameMailbox(RequestHandler requestHandler, OutboundBatch outbound, Runnable afterTask,
+      Executor executor) {
+    this.requestHandler = requestHandler;
+    this.outbound = outbound;
+    this.afterTask = afterTask;
+    this.executor = executor;
+  }
+
+  /**
+   * Queues a request to be applied to the game, from any thread.
+   *
+   * @param request  the request
+   * @param playerID identifier of the client issuing the request
+   */
+  void post(Object request, int playerID) {
+    execute(() -> requestHandler.applyRequest(request, playerID));
+  }
+
+  /**
+   * Queues a task which is run on the thread of the game, from any thread.
+   * Tasks may read the game and apply requests directly to the RequestHandler.
+   *
+   * @param task the task
+   */
+  void execute(Runnable task) {
+    tasks.add(task);
+    if (scheduled.compareAndSet(false, true)) {
+      executor.execute(this::drain);
+    }
+  }
+
+  /**
+   * Runs a batch of the queued tasks, the rest is drained in a later turn of the executor
+   * so that busy games do not starve the others.
+   */
+  private void drain() {
+    try {
+      Runnable task;
+      for (int i = 0; i < BATCH_SIZE && (task = tasks.poll()) != null; i++) {
+        try {
+          task.run();
+        } catch (RuntimeException e) {
+          LOG.log(Level.SEVERE, "task of the game failed", e);
+        } finally {
+          finishTask();
+        }
+      }
+    } finally {
+      scheduled.set(false);
+      // a task may have been queued after the last poll, while the mailbox was still scheduled
+      if (!tasks.isEmpty() && scheduled.compareAndSet(false, true)) {
+        executor.execute(this::drain);
+      }
+    }
+  }
+
+  /**
+   * Publishes the state of the game and sends the GameInfos of a task, even if it failed.
+   */
+  private void finishTask() {
+    try {
+      if (afterTask != null) {
+        afterTask.run();
+      }
+    } finally {
+      if (outbound != null) {
+        outbound.flush();
+      }
+    }
+  }
+}
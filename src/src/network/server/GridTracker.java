@@ -0,0 +1,163 @@
+package network.server;
+
+import communication.gameinfo.GameInfo;
+import communication.gameinfo.GameInfoID;
+import communication.gameinfo.GridDeltaInfo;
+import communication.gameinfo.GridInfo;
+import communication.gameinfo.StoneInfo;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Tracks the versions of a grid and which version each of its recipients has,
+ * so that recipients which have the last version only get the changed cells.
+ * The connections deliver the infos in order, a recipient has a version once it was sent to it.
+ * Recipients without the last version, after a reconnect or a lost info, get a snapshot.
+ */
+final class GridTracker {
+  /** Version of a recipient which has no grid. */
+  static final int UNKNOWN = -1;
+
+  private final GameInfoID snapshotID;
+  private final GameInfoID deltaID;
+  private final int[] versions;
+  private StoneInfo[][] grid;
+  private int version;
+  private GridDeltaInfo delta;
+
+  /**
+   * Creates a tracker of a grid.
+   *
+   * @param snapshotID the id of the snapshots of the grid
+   * @param deltaID    the id of the deltas of the grid
+   * @param recipients the number of recipients
+   */
+  GridTracker(GameInfoID snapshotID, GameInfoID deltaID, int recipients) {
+    this.snapshotID = snapshotID;
+    this.deltaID = deltaID;
+    versions = new int[recipients];
+    Arrays.fill(versions, UNKNOWN);
+  }
+
+  /**
+   * Makes the given grid the next version.
+   *
+   * @param next the grid, which must not be changed afterwards
+   */
+  void update(StoneInfo[][] next) {
+    delta = diff(grid, next);
+    grid = next;
+    version++;
+  }
+
+  /**
+   * Returns the info bringing a recipient to the last version, and records it as sent.
+   *
+   * @param recipient the recipient
+   * @return a delta if the recipient has the version before, a snapshot otherwise
+   */
+  GameInfo infoFor(int recipient) {
+    GameInfo info = hasBase(recipient) ? delta : snapshot();
+    versions[recipient] = version;
+    return info;
+  }
+
+  /**
+   * Returns the info bringing all of the first recipients to the last version if it is the same
+   * for all of them, and records it as sent.
+   *
+   * @param recipients the number of recipients
+   * @return a delta if all recipients have the version before, a snapshot if none has,
+   *     null if the recipients need different infos
+   */
+  GameInfo infoForAll(int recipients) {
+    int withBase = 0;
+    for (int recipient = 0; recipient < recipients; recipient++) {
+      if (hasBase(recipient)) {
+        withBase++;
+      }
+    }
+    GameInfo info;
+    if (recipients > 0 && withBase == recipients) {
+      info = delta;
+    } else if (withBase == 0) {
+      info = snapshot();
+    } else {
+      return null;
+    }
+    for (int recipient = 0; recipient < recipients; recipient++) {
+      versions[recipient] = version;
+    }
+    return info;
+  }
+
+  /**
+   * Returns the info bringing recipients which are not tracked to the last version.
+   *
+   * @return a delta if there is one, a snapshot otherwise
+   */
+  GameInfo infoForUntracked() {
+    return delta != null ? delta : snapshot();
+  }
+
+  /**
+   * Forgets the version of a recipient, which gets a snapshot next.
+   *
+   * @param recipient the recipient
+   */
+  void forget(int recipient) {
+    versions[recipient] = UNKNOWN;
+  }
+
+  int getVersion() {
+    return version;
+  }
+
+  private boolean hasBase(int recipient) {
+    return delta != null && versions[recipient] == version - 1;
+  }
+
+  /**
+   * Returns the last version of the grid.
+   *
+   * @return the snapshot of the last version
+   */
+  GridInfo snapshot() {
+    return new GridInfo(snapshotID, grid, version);
+  }
+
+  /**
+   * Returns the delta between two grids, or null if a snapshot is not larger.
+   */
+  private GridDeltaInfo diff(StoneInfo[][] previous, StoneInfo[][] next) {
+    if (previous == null || next.length == 0 || previous.length != next.length) {
+      return null;
+    }
+    List<GridDeltaInfo.Cell> cells = new ArrayList<>();
+    for (int column = 0; column < next.length; column++) {
+      if (previous[column].length != next[column].length) {
+        return null;
+      }
+      for (int row = 0; row < next[column].length; row++) {
+        if (!sameStone(previous[column][row], next[column][row])) {
+          cells.add(new GridDeltaInfo.Cell(column, row, next[column][row]));
+        }
+      }
+    }
+    // a changed cell costs about as much as three cells of a snapshot
+    if (cells.size() * 3 > next.length * next[0].length) {
+      return null;
+    }
+    return new GridDeltaInfo(deltaID, version, version + 1, cells);
+  }
+
+  private static boolean sameStone(StoneInfo first, StoneInfo second) {
+    if (first == null || second == null) {
+      return first == second;
+    }
+    return first.getNumber() == second.getNumber()
+        && Objects.equals(first.getColor(), second.getColor());
+  }
+}
@@ -0,0 +1,41 @@
+package network.server;
+
+import java.io.IOException;
+
+/**
+ * Main class of a standalone server without a GUI, which hosts many games for a long time.
+ * It runs a NioRummiServer whose rooms have no host, so that every player may leave a game
+ * without ending it for the others, and an AdminChannel through which it is drained or stopped.
+ * Usage: java network.server.HeadlessServer [port [admin port]]
+ */
+public final class HeadlessServer {
+  /** Default port of the AdminChannel, on the loopback interface. */
+  public static final int ADMIN_PORT = NioRummiServer.PORT + 1;
+
+  private HeadlessServer() {
+  }
+
+  /**
+   * Starts the server and waits until it is stopped.
+   *
+   * @param args the port of the server and the port of the admin channel, both optional
+   * @throws IOException          if a port can not be opened
+   * @throws InterruptedException if the main thread is interrupted while the server runs
+   */
+  public static void main(String[] args) throws IOException, InterruptedException {
+    int port = args.length > 0 ? Integer.parseInt(args[0]) : NioRummiServer.PORT;
+    int adminPort = args.length > 1 ? Integer.parseInt(args[1]) : ADMIN_PORT;
+    NioRummiServer server = new NioRummiServer(port, NioRummiServer.IO_THREADS,
+        NioRummiServer.IDLE_TIMEOUT, true);
+    AdminChannel admin = new AdminChannel(server, adminPort);
+    server.start();
+    admin.start();
+    // a SIGTERM closes the games like the stop command
+    Runtime.getRuntime().addShutdownHook(new Thread(server::stop, "rummi-shutdown"));
+    System.out.println("From HeadlessServer: serving on port " + server.getPort()
+        + ", admin channel on localhost:" + admin.getPort());
+    server.awaitStop();
+    admin.close();
+    System.out.println("From HeadlessServer: stopped");
+  }
+}
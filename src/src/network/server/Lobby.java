@@ -0,0 +1,210 @@
+package network.server;
+
+import communication.gameinfo.RoomsInfo;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.LongSupplier;
+
+/**
+ * The rooms of a server, each with its own game.
+ * Clients which do not ask for a room are seated in the default room,
+ * so that a server with a lobby plays like a server with a single game for them.
+ * Rooms in which nothing happens for a while are closed.
+ * The rooms of a hostless lobby have no host, any player may start their games and they are
+ * only closed once their last player left.
+ * If the lobby fills its rooms with bots, the seats which are empty when a game starts are
+ * taken by bots of the configured difficulty.
+ */
+class Lobby {
+  static final int DEFAULT_ROOM_ID = 0;
+  private static final String DEFAULT_ROOM_NAME = "default";
+
+  private final Map<Integer, Room> rooms = new ConcurrentHashMap<>();
+  private final AtomicInteger nextID = new AtomicInteger(DEFAULT_ROOM_ID + 1);
+  private final long idleTimeout;
+  private final LongSupplier clock;
+  private final boolean hostless;
+  private volatile BotFill botFill;
+
+  /**
+   * Constructor creating an empty lobby.
+   *
+   * @param idleTimeout the milliseconds after which a room without requests is closed
+   * @param clock       the current time in milliseconds
+   */
+  Lobby(long idleTimeout, LongSupplier clock) {
+    this(idleTimeout, clock, false);
+  }
+
+  /**
+   * Constructor creating an empty lobby.
+   *
+   * @param idleTimeout the milliseconds after which a room without requests is closed
+   * @param clock       the current time in milliseconds
+   * @param hostless    true if the rooms have no host
+   */
+  Lobby(long idleTimeout, LongSupplier clock, boolean hostless) {
+    this.idleTimeout = idleTimeout;
+    this.clock = clock;
+    this.hostless = hostless;
+  }
+
+  boolean isHostless() {
+    return hostless;
+  }
+
+  long now() {
+    return clock.getAsLong();
+  }
+
+  /**
+   * Lets bots take the empty seats of a room when its game starts, or stops doing so.
+   *
+   * @param difficulty how well the bots play, null if the seats stay empty
+   * @param thinkTime  the milliseconds the bots take for a turn
+   * @throws IllegalArgumentException if the think time is negative
+   */
+  void setBotFill(Bot.Difficulty difficulty, long thinkTime) throws IllegalArgumentException {
+    if (thinkTime < 0) {
+      throw new IllegalArgumentException("The think time of a bot cannot be negative.");
+    }
+    botFill = difficulty == null ? null : new BotFill(difficulty, thinkTime);
+  }
+
+  /**
+   * Returns the bots which take the empty seats of a room when its game starts.
+   *
+   * @return the bots, null if the seats stay empty
+   */
+  BotFill getBotFill() {
+    return botFill;
+  }
+
+  /**
+   * Opens a new room.
+   *
+   * @param name of the room
+   * @return the new room
+   */
+  Room create(String name) {
+    int id = nextID.getAndIncrement();
+    Room room = new Room(id, name, this);
+    rooms.put(id, room);
+    return room;
+  }
+
+  /**
+   * Returns the room with the given id.
+   *
+   * @param id of the room
+   * @return the room, null if there is none
+   */
+  Room get(int id) {
+    return rooms.get(id);
+  }
+
+  /**
+   * Returns the default room, which is opened again after it was closed.
+   *
+   * @return the default room
+   */
+  Room getDefaultRoom() {
+    return rooms.computeIfAbsent(DEFAULT_ROOM_ID, id -> new Room(id, DEFAULT_ROOM_NAME, this));
+  }
+
+  /**
+   * Removes the given room, its clients have to be disconnected by the room.
+   *
+   * @param room the room to be removed
+   */
+  void remove(Room room) {
+    rooms.remove(room.getId(), room);
+  }
+
+  Collection<Room> getRooms() {
+    return rooms.values();
+  }
+
+  /**
+   * Lists the rooms ordered by their ids.
+   *
+   * @return the rooms
+   */
+  RoomsInfo list() {
+    List<RoomsInfo.Room> list = new ArrayList<>();
+    for (Room room : rooms.values()) {
+      list.add(room.describe());
+    }
+    list.sort(Comparator.comparingInt(RoomsInfo.Room::getId));
+    return new RoomsInfo(list);
+  }
+
+  /**
+   * Closes all rooms in which nothing happened for the idle timeout.
+   *
+   * @return the number of closed rooms
+   */
+  int evictIdle() {
+    long now = now();
+    int evicted = 0;
+    for (Room room : rooms.values()) {
+      if (room.isIdle(now, idleTimeout) && rooms.remove(room.getId(), room)) {
+        room.close();
+        evicted++;
+      }
+    }
+    return evicted;
+  }
+
+  /**
+   * Closes all rooms without a running game.
+   *
+   * @return the number of closed rooms
+   */
+  int closeWithoutGame() {
+    int closed = 0;
+    for (Room room : rooms.values()) {
+      if (!room.isGameOn() && rooms.remove(room.getId(), room)) {
+        room.close();
+        closed++;
+      }
+    }
+    return closed;
+  }
+
+  /**
+   * Closes all rooms.
+   */
+  void close() {
+    for (Room room : rooms.values()) {
+      remove(room);
+      room.close();
+    }
+  }
+
+  /**
+   * The bots taking the empty seats of a room when its game starts.
+   */
+  static final class BotFill {
+    private final Bot.Difficulty difficulty;
+    private final long thinkTime;
+
+    private BotFill(Bot.Difficulty difficulty, long thinkTime) {
+      this.difficulty = difficulty;
+      this.thinkTime = thinkTime;
+    }
+
+    Bot.Difficulty getDifficulty() {
+      return difficulty;
+    }
+
+    long getThinkTime() {
+      return thinkTime;
+    }
+  }
+}
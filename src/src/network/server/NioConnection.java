@@ -0,0 +1,481 @@
+package network.server;
+
+import communication.BinaryCodec;
+import communication.Deserializer;
+import communication.EncodedInfo;
+import communication.gameinfo.GameInfoID;
+import communication.request.Request;
+import communication.request.RequestID;
+import communication.request.SimpleRequest;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * A client connection of the non-blocking server.
+ * Messages are lines of JSON like the ones of the blocking server, so that clients work with both,
+ * or frames of the BinaryCodec if the first byte of the client is its MAGIC byte.
+ * Reading, writing and closing only happen on the NioLoop of the connection,
+ * messages from other threads wait in its write queue.
+ * The write queue is bounded like the queue of a ServerSender and a full queue is handled by
+ * the same overflow policy: KEEP_LATEST drops the queued states of the table and the hand but
+ * their latest snapshots and lets the game resend a grid whose latest state was a delta,
+ * DISCONNECT closes the connection.
+ * A connection is seated in at most one Room of the lobby, or watches its game as spectator.
+ * The requests of a seated connection reach the game through the RequestThrottle of its seat.
+ */
+class NioConnection implements Connection {
+  private static final int BUFFER_SIZE = 8192;
+  private static final int MAX_LINE_LENGTH = 1 << 20;
+  private static final byte NEW_LINE = '\n';
+  private static final int UNKNOWN = 0;
+  private static final int JSON = 1;
+  private static final int BINARY = 2;
+  /** Number of messages which may wait for a client. */
+  static final int DEFAULT_CAPACITY = ServerSender.DEFAULT_CAPACITY;
+
+  private final NioRummiServer server;
+  private final NioLoop loop;
+  private final SocketChannel channel;
+  private final ByteBuffer readBuffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+  private final ByteBuffer writeBuffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+  private final ByteArrayOutputStream line = new ByteArrayOutputStream();
+  private final Deserializer deserializer = new Deserializer();
+  private final BinaryCodec codec = new BinaryCodec();
+  private final int capacity;
+  private final ServerSender.Overflow overflow;
+  private final ReentrantLock writeLock = new ReentrantLock();
+  private final Deque<Message> writeQueue = new ArrayDeque<>();
+  private final boolean[] lagging = new boolean[2];
+  private final AtomicBoolean flushScheduled = new AtomicBoolean();
+  private SelectionKey key;
+  private volatile boolean closeAfterFlush;
+  private boolean overflowed; // the queue overflowed and the connection is closed
+  private boolean closed;
+  private volatile int protocol = UNKNOWN;
+  private int frameLength = -1;
+  private int lengthShift;
+  private Room room;
+  private int seat = Room.NO_SEAT;
+  private RequestThrottle throttle;
+
+  /**
+   * Constructor setting the necessary instance variables.
+   *
+   * @param server  the server the connection belongs to
+   * @param loop    the loop the connection is handled on
+   * @param channel the non-blocking channel of the connection
+   */
+  NioConnection(NioRummiServer server, NioLoop loop, SocketChannel channel) {
+    this(server, loop, channel, DEFAULT_CAPACITY, ServerSender.Overflow.configured());
+  }
+
+  /**
+   * Constructor setting the necessary instance variables.
+   *
+   * @param server   the server the connection belongs to
+   * @param loop     the loop the connection is handled on
+   * @param channel  the non-blocking channel of the connection
+   * @param capacity the number of messages which may wait for the client
+   * @param overflow what happens if the write queue is full
+   */
+  NioConnection(NioRummiServer server, NioLoop loop, SocketChannel channel, int capacity,
+      ServerSender.Overflow overflow) {
+    this.server = server;
+    this.loop = loop;
+    this.channel = channel;
+    this.capacity = capacity;
+    this.overflow = overflow;
+    writeBuffer.flip();
+  }
+
+  /**
+   * Seats the connection in a room, only called on the loop of the connection.
+   *
+   * @param room the room
+   * @param seat the seat in the room, Room.NO_SEAT for a spectator
+   */
+  void enter(Room room, int seat) {
+    this.room = room;
+    this.seat = seat;
+    if (seat != Room.NO_SEAT) {
+      throttle = new RequestThrottle(request -> room.apply(request, seat));
+    }
+  }
+
+  /**
+   * Hands a request of the seated client to the game of its room, through its throttle.
+   *
+   * @param request the request
+   * @return false if the request was dropped because the client sent too many
+   */
+  boolean apply(Request request) {
+    return throttle.offer(request);
+  }
+
+  Room getRoom() {
+    return room;
+  }
+
+  int getSeat() {
+    return seat;
+  }
+
+  boolean isSpectator() {
+    return room != null && seat == Room.NO_SEAT;
+  }
+
+  void register(Selector selector) throws IOException {
+    key = channel.register(selector, SelectionKey.OP_READ, this);
+    // messages may have been sent before the registration
+    flush();
+  }
+
+  /**
+   * Sends a GameInfo to the client in its protocol, from any thread.
+   *
+   * @param info the GameInfo
+   */
+  @Override
+  public void send(EncodedInfo info) {
+    send(Collections.singletonList(info));
+  }
+
+  /**
+   * Sends GameInfos to the client in its protocol, from any thread.
+   * They are queued together and written with as few writes as the write buffer allows.
+   *
+   * @param infos the GameInfos
+   */
+  @Override
+  public void send(List<EncodedInfo> infos) {
+    boolean binary = protocol == BINARY;
+    boolean resync = false;
+    writeLock.lock();
+    try {
+      if (overflowed) {
+        return;
+      }
+      for (EncodedInfo info : infos) {
+        if (writeQueue.size() >= capacity) {
+          if (overflow == ServerSender.Overflow.DISCONNECT || !dropGrids()) {
+            overflowed = true;
+            writeQueue.clear();
+            loop.execute(this::closeAndNotify);
+            return;
+          }
+          resync |= lagging[0] || lagging[1];
+        }
+        GameInfoID infoID = info.getInfo().getGameInfoID();
+        int grid = ServerSender.gridOf(infoID);
+        if (grid >= 0 && lagging[grid]) {
+          if (!ServerSender.isSnapshot(infoID)) {
+            // the client misses the state this delta is based on, a snapshot replaces it
+            continue;
+          }
+          lagging[grid] = false;
+        }
+        writeQueue.add(new Message(grid, ServerSender.isSnapshot(infoID), info.toBuffer(binary)));
+      }
+    } finally {
+      writeLock.unlock();
+    }
+    if (resync) {
+      loop.execute(this::resync);
+    }
+    scheduleFlush();
+  }
+
+  @Override
+  public int backlog() {
+    writeLock.lock();
+    try {
+      return writeQueue.size();
+    } finally {
+      writeLock.unlock();
+    }
+  }
+
+  /**
+   * Drops the queued states of the grids, called with the write lock held.
+   * The last state of a grid is kept if it is a snapshot, otherwise the grid is lagging until
+   * the game resent it. A message which is partly written is kept as well.
+   *
+   * @return false if there were none to drop
+   */
+  private boolean dropGrids() {
+    Message[] latest = new Message[lagging.length];
+    for (Message message : writeQueue) {
+      if (message.grid >= 0) {
+        latest[message.grid] = message;
+      }
+    }
+    int before = writeQueue.size();
+    Iterator<Message> messages = writeQueue.iterator();
+    while (messages.hasNext()) {
+      Message message = messages.next();
+      if (message.grid < 0 || message.bytes.position() > 0
+          || message == latest[message.grid] && message.snapshot) {
+        continue;
+      }
+      messages.remove();
+      if (!latest[message.grid].snapshot) {
+        lagging[message.grid] = true;
+      }
+    }
+    return writeQueue.size() < before;
+  }
+
+  /**
+   * Lets the game resend the grids the client missed, on the loop of the connection.
+   */
+  private void resync() {
+    if (closed || room == null) {
+      return;
+    }
+    if (seat == Room.NO_SEAT) {
+      room.resync(this);
+    } else {
+      room.apply(new SimpleRequest(RequestID.RESYNC), seat);
+    }
+  }
+
+  private void scheduleFlush() {
+    if (flushScheduled.compareAndSet(false, true)) {
+      loop.execute(this::flush);
+    }
+  }
+
+  /**
+   * Closes the connection as soon as all messages sent so far are written.
+   */
+  @Override
+  public void disconnect() {
+    closeAfterFlush = true;
+    loop.execute(this::flush);
+  }
+
+  /**
+   * Reads all bytes available and hands every complete message to the server.
+   */
+  void read() {
+    int read;
+    try {
+      read = channel.read(readBuffer);
+    } catch (IOException e) {
+      read = -1;
+    }
+    if (read < 0) {
+      closeAndNotify();
+      return;
+    }
+    readBuffer.flip();
+    if (protocol == UNKNOWN && readBuffer.hasRemaining()) {
+      if (readBuffer.get(readBuffer.position()) == BinaryCodec.MAGIC) {
+        readBuffer.get();
+        protocol = BINARY;
+      } else {
+        protocol = JSON;
+      }
+    }
+    if (protocol == BINARY ? readFrames() : readLines()) {
+      readBuffer.clear();
+    }
+  }
+
+  /**
+   * Reads lines of JSON.
+   *
+   * @return false if the connection was closed
+   */
+  private boolean readLines() {
+    while (readBuffer.hasRemaining()) {
+      byte b = readBuffer.get();
+      if (b != NEW_LINE) {
+        line.write(b);
+        if (line.size() > MAX_LINE_LENGTH) {
+          closeAndNotify();
+          return false;
+        }
+        continue;
+      }
+      String message = new String(line.toByteArray(), StandardCharsets.UTF_8).trim();
+      line.reset();
+      if (!message.isEmpty() && !deliver(message, null)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Reads frames of the binary protocol, each prefixed with its length as varint.
+   *
+   * @return false if the connection was closed
+   */
+  private boolean readFrames() {
+    while (readBuffer.hasRemaining()) {
+      if (frameLength < 0) {
+        int b = readBuffer.get() & 0xFF;
+        line.write(b);
+        if ((b & 0x80) != 0) {
+          lengthShift += 7;
+          if (lengthShift > 21) {
+            closeAndNotify();
+            return false;
+          }
+          continue;
+        }
+        frameLength = 0;
+        byte[] prefix = line.toByteArray();
+        for (int i = 0; i < prefix.length; i++) {
+          frameLength |= (prefix[i] & 0x7F) << (7 * i);
+        }
+        line.reset();
+        lengthShift = 0;
+        if (frameLength > BinaryCodec.MAX_FRAME_LENGTH) {
+          closeAndNotify();
+          return false;
+        }
+      }
+      while (line.size() < frameLength && readBuffer.hasRemaining()) {
+        line.write(readBuffer.get());
+      }
+      if (line.size() == frameLength) {
+        byte[] frame = line.toByteArray();
+        line.reset();
+        frameLength = -1;
+        if (!deliver(null, frame)) {
+          return false;
+        }
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Decodes a message and hands it to the server, a client sending garbage is disconnected.
+   *
+   * @return false if the connection was closed
+   */
+  private boolean deliver(String json, byte[] frame) {
+    Request request;
+    try {
+      request = json != null ? deserializer.deserializeRequest(json) : codec.decodeRequest(frame);
+    } catch (RuntimeException e) {
+      request = null;
+    }
+    if (request == null) {
+      closeAndNotify();
+      return false;
+    }
+    server.received(this, request);
+    return !closed;
+  }
+
+  /**
+   * Writes the queued messages as far as the channel takes them,
+   * the rest is written when the channel is writable again.
+   */
+  void flush() {
+    if (closed || key == null) {
+      return;
+    }
+    flushScheduled.set(false);
+    try {
+      while (true) {
+        if (!writeBuffer.hasRemaining()) {
+          writeBuffer.clear();
+          fillWriteBuffer();
+          writeBuffer.flip();
+          if (!writeBuffer.hasRemaining()) {
+            break;
+          }
+        }
+        channel.write(writeBuffer);
+        if (writeBuffer.hasRemaining()) {
+          key.interestOps(SelectionKey.OP_READ | SelectionKey.OP_WRITE);
+          return;
+        }
+      }
+    } catch (IOException e) {
+      closeAndNotify();
+      return;
+    }
+    key.interestOps(SelectionKey.OP_READ);
+    if (closeAfterFlush) {
+      close();
+    }
+  }
+
+  /**
+   * Copies queued messages into the write buffer as far as it takes them.
+   */
+  private void fillWriteBuffer() {
+    writeLock.lock();
+    try {
+      Message next;
+      while (writeBuffer.hasRemaining() && (next = writeQueue.peek()) != null) {
+        ByteBuffer message = next.bytes;
+        int length = Math.min(writeBuffer.remaining(), message.remaining());
+        int limit = message.limit();
+        message.limit(message.position() + length);
+        writeBuffer.put(message);
+        message.limit(limit);
+        if (!message.hasRemaining()) {
+          writeQueue.poll();
+        }
+      }
+    } finally {
+      writeLock.unlock();
+    }
+  }
+
+  private void closeAndNotify() {
+    if (!closed) {
+      close();
+      server.closed(this);
+    }
+  }
+
+  /**
+   * Closes the channel without notifying the server.
+   */
+  void close() {
+    closed = true;
+    if (throttle != null) {
+      throttle.close();
+    }
+    try {
+      channel.close();
+    } catch (IOException e) {
+      e.printStackTrace();
+    }
+  }
+
+  /**
+   * A queued message with the grid whose state it holds.
+   */
+  private static final class Message {
+    private final int grid; // -1 if the message holds no state of a grid
+    private final boolean snapshot;
+    private final ByteBuffer bytes;
+
+    private Message(int grid, boolean snapshot, ByteBuffer bytes) {
+      this.grid = grid;
+      this.snapshot = snapshot;
+      this.bytes = bytes;
+    }
+  }
+}
@@ -0,0 +1,138 @@
+package network.server;
+
+import java.io.IOException;
+import java.nio.channels.CancelledKeyException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Thread selecting the channels of many connections of the non-blocking server.
+ * Only this thread touches its selector and the keys registered with it, other threads
+ * hand it tasks with execute.
+ */
+class NioLoop extends Thread {
+  private final NioRummiServer server;
+  private final Selector selector;
+  private final Queue<Runnable> tasks = new ConcurrentLinkedQueue<>();
+  private volatile boolean running = true;
+
+  /**
+   * Constructor setting the necessary instance variables.
+   *
+   * @param server the server the loop belongs to
+   * @param id     of the loop, used in the name of the thread
+   * @throws IOException if the selector can not be opened
+   */
+  NioLoop(NioRummiServer server, int id) throws IOException {
+    super("rummi-io-" + id);
+    this.server = server;
+    this.selector = Selector.open();
+    setDaemon(true);
+  }
+
+  /**
+   * Runs the given task on this loop.
+   *
+   * @param task the task to be run
+   */
+  void execute(Runnable task) {
+    tasks.add(task);
+    selector.wakeup();
+  }
+
+  /**
+   * Registers the server channel to accept new connections on this loop.
+   *
+   * @param serverChannel the non-blocking server channel
+   */
+  void accept(ServerSocketChannel serverChannel) {
+    execute(() -> {
+      try {
+        serverChannel.register(selector, SelectionKey.OP_ACCEPT);
+      } catch (IOException e) {
+        e.printStackTrace();
+      }
+    });
+  }
+
+  /**
+   * Registers the channel of the given connection to be read on this loop.
+   *
+   * @param connection the connection
+   */
+  void register(NioConnection connection) {
+    execute(() -> {
+      try {
+        connection.register(selector);
+      } catch (IOException e) {
+        connection.close();
+      }
+    });
+  }
+
+  /**
+   * Selects the ready channels until the loop is stopped.
+   */
+  @Override
+  public void run() {
+    try {
+      while (running) {
+        selector.select();
+        Runnable task;
+        while ((task = tasks.poll()) != null) {
+          task.run();
+        }
+        Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+        while (keys.hasNext()) {
+          SelectionKey key = keys.next();
+          keys.remove();
+          handle(key);
+        }
+      }
+    } catch (IOException e) {
+      e.printStackTrace();
+    } finally {
+      // connections which are not seated in a room are closed with the loop
+      for (SelectionKey key : selector.keys()) {
+        if (key.attachment() instanceof NioConnection) {
+          ((NioConnection) key.attachment()).close();
+        }
+      }
+      try {
+        selector.close();
+      } catch (IOException e) {
+        e.printStackTrace();
+      }
+    }
+  }
+
+  private void handle(SelectionKey key) {
+    try {
+      if (key.isAcceptable()) {
+        server.accept((ServerSocketChannel) key.channel());
+        return;
+      }
+      NioConnection connection = (NioConnection) key.attachment();
+      if (key.isReadable()) {
+        connection.read();
+      }
+      if (key.isValid() && key.isWritable()) {
+        connection.flush();
+      }
+    } catch (CancelledKeyException e) {
+      // the connection was closed meanwhile
+    }
+  }
+
+  /**
+   * Stops the loop and closes the connections still registered with it.
+   */
+  void shutdown() {
+    running = false;
+    selector.wakeup();
+  }
+}
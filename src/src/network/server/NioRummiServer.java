@@ -0,0 +1,454 @@
+package network.server;
+
+import communication.EncodedInfo;
+import communication.gameinfo.ErrorInfo;
+import communication.gameinfo.GameInfo;
+import communication.gameinfo.GameInfoID;
+import communication.gameinfo.RoomJoinedInfo;
+import communication.gameinfo.RoomsInfo;
+import communication.gameinfo.SimpleGameInfo;
+import communication.request.ConcreteCreateRoom;
+import communication.request.ConcreteJoinRoom;
+import communication.request.ConcreteResume;
+import communication.request.ConcreteSpectateRoom;
+import communication.request.Request;
+import communication.request.RequestID;
+import globalconstants.ErrorMessages;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.UnknownHostException;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Non-blocking server of Rummikub, a replacement of the RummiServer which needs
+ * two threads per client.
+ * All connections are handled by a small fixed number of NioLoops, each selecting the channels
+ * of its share of the connections, so that the number of threads does not grow with the number
+ * of connections.
+ * The server hosts many games at once in the rooms of its Lobby. Clients create, list and join
+ * rooms with requests of their own, clients which just send game requests are seated in the
+ * default room and talk the same protocol to both servers. Clients may also watch the game of
+ * a room as spectators, which get its GameInfos but can not play.
+ * A player whose connection was lost resumes its seat with the token of its session as first
+ * request of a new connection.
+ * Every connection talks JSON or the binary protocol of the BinaryCodec, which the client
+ * chooses with its first byte.
+ * Run by the HeadlessServer, its rooms have no host and it can be drained: it stops seating
+ * players and closes the rooms without a running game, and stops once all games are over.
+ * Bots join a room when the administrator adds them, or fill the empty seats when its game
+ * starts, if the system property BOTS_PROPERTY or the administrator chose their difficulty.
+ */
+public class NioRummiServer implements Server {
+  /** System property which is true if the non-blocking server is used instead of RummiServer. */
+  public static final String ENABLED_PROPERTY = "rummikub.server.nio";
+  /** System property with the difficulty of the bots filling the empty seats, none if unset. */
+  static final String BOTS_PROPERTY = "rummikub.server.bots";
+
+  static final int PORT = 48410;
+  static final int IO_THREADS =
+      Math.max(1, Math.min(4, Runtime.getRuntime().availableProcessors()));
+  static final long IDLE_TIMEOUT = TimeUnit.MINUTES.toMillis(30);
+  private static final long DRAIN_PERIOD = TimeUnit.SECONDS.toMillis(1);
+
+  private final ServerSocketChannel serverChannel;
+  private final NioLoop[] loops;
+  private final Lobby lobby;
+  private final long idleTimeout;
+  private final ScheduledExecutorService evictor;
+  private final CountDownLatch stopped = new CountDownLatch(1);
+  private int nextLoop;
+  private boolean running = true;
+  private volatile boolean draining;
+
+  /**
+   * Constructor creating a new Server on the port of the game, including all other classes
+   * needed server-side to play the game.
+   *
+   * @throws IOException if the port can not be opened
+   */
+  public NioRummiServer() throws IOException {
+    this(PORT, IO_THREADS, IDLE_TIMEOUT);
+  }
+
+  /**
+   * Constructor creating a new Server on the given port.
+   *
+   * @param port        the port, 0 for any free port
+   * @param ioThreads   the number of threads handling the connections
+   * @param idleTimeout the milliseconds after which a room without requests is closed
+   * @throws IOException if the port can not be opened
+   */
+  NioRummiServer(int port, int ioThreads, long idleTimeout) throws IOException {
+    this(port, ioThreads, idleTimeout, false);
+  }
+
+  /**
+   * Constructor creating a new Server on the given port.
+   *
+   * @param port        the port, 0 for any free port
+   * @param ioThreads   the number of threads handling the connections
+   * @param idleTimeout the milliseconds after which a room without requests is closed
+   * @param hostless    true if the rooms have no host
+   * @throws IOException if the port can not be opened
+   */
+  NioRummiServer(int port, int ioThreads, long idleTimeout, boolean hostless)
+      throws IOException {
+    serverChannel = ServerSocketChannel.open();
+    serverChannel.bind(new InetSocketAddress(port));
+    serverChannel.configureBlocking(false);
+    loops = new NioLoop[ioThreads];
+    for (int i = 0; i < ioThreads; i++) {
+      loops[i] = new NioLoop(this, i);
+    }
+    this.idleTimeout = idleTimeout;
+    lobby = new Lobby(idleTimeout, System::currentTimeMillis, hostless);
+    String bots = System.getProperty(BOTS_PROPERTY);
+    if (bots != null) {
+      lobby.setBotFill(Bot.Difficulty.parse(bots), Bot.DEFAULT_THINK_TIME);
+    }
+    evictor = Executors.newSingleThreadScheduledExecutor(task -> {
+      Thread thread = new Thread(task, "rummi-lobby");
+      thread.setDaemon(true);
+      return thread;
+    });
+  }
+
+  /**
+   * Starts the server.
+   * The first loop accepts the connections and hands them to all loops in turn.
+   */
+  public void start() {
+    for (NioLoop loop : loops) {
+      loop.start();
+    }
+    loops[0].accept(serverChannel);
+    long period = Math.max(1, idleTimeout / 10);
+    evictor.scheduleWithFixedDelay(lobby::evictIdle, period, period, TimeUnit.MILLISECONDS);
+  }
+
+  int getPort() {
+    return serverChannel.socket().getLocalPort();
+  }
+
+  /**
+   * Accepts a new connection, which is seated in a room by its first request.
+   *
+   * @param channel the server channel which is ready to accept
+   */
+  void accept(ServerSocketChannel channel) {
+    SocketChannel client;
+    try {
+      client = channel.accept();
+      if (client == null) {
+        return;
+      }
+      client.configureBlocking(false);
+    } catch (IOException e) {
+      e.printStackTrace();
+      return;
+    }
+    NioLoop loop = loops[nextLoop];
+    nextLoop = (nextLoop + 1) % loops.length;
+    synchronized (this) {
+      if (running) {
+        loop.register(new NioConnection(this, loop, client));
+        return;
+      }
+    }
+    try {
+      client.close();
+    } catch (IOException e) {
+      e.printStackTrace();
+    }
+  }
+
+  /**
+   * Applies a request received from a client, either to the lobby or to the game of its room.
+   *
+   * @param connection the connection of the client
+   * @param request    the request
+   */
+  void received(NioConnection connection, Request request) {
+    switch (request.getRequestID()) {
+      case CREATE_ROOM:
+        if (checkNoRoom(connection) && checkNotDraining(connection)) {
+          enter(connection, lobby.create(((ConcreteCreateRoom) request).getName()));
+        }
+        return;
+      case JOIN_ROOM:
+        if (checkNoRoom(connection) && checkNotDraining(connection)) {
+          Room room = lobby.get(((ConcreteJoinRoom) request).getRoomID());
+          if (room == null) {
+            sendError(connection, ErrorMessages.ROOM_NOT_FOUND_ERROR);
+          } else {
+            enter(connection, room);
+          }
+        }
+        return;
+      case SPECTATE_ROOM:
+        if (checkNoRoom(connection)) {
+          Room room = lobby.get(((ConcreteSpectateRoom) request).getRoomID());
+          if (room == null) {
+            sendError(connection, ErrorMessages.ROOM_NOT_FOUND_ERROR);
+          } else {
+            watch(connection, room);
+          }
+        }
+        return;
+      case RESUME:
+        if (checkNoRoom(connection)) {
+          resume(connection, (ConcreteResume) request);
+        }
+        return;
+      case LIST_ROOMS:
+        connection.send(new EncodedInfo(lobby.list()));
+        return;
+      default:
+        break;
+    }
+    if (connection.isSpectator()) {
+      if (request.getRequestID() == RequestID.RESYNC) {
+        connection.getRoom().resync(connection);
+      } else {
+        sendError(connection, ErrorMessages.SPECTATOR_CANNOT_PLAY_ERROR);
+      }
+      return;
+    }
+    if (connection.getRoom() == null && !enterDefaultRoom(connection)) {
+      return;
+    }
+    if (!connection.apply(request)) {
+      sendError(connection, ErrorMessages.TOO_MANY_REQUESTS_ERROR);
+    }
+  }
+
+  private boolean checkNoRoom(NioConnection connection) {
+    if (connection.getRoom() != null) {
+      sendError(connection, ErrorMessages.ALREADY_IN_ROOM_ERROR);
+      return false;
+    }
+    return true;
+  }
+
+  private boolean checkNotDraining(NioConnection connection) {
+    if (draining) {
+      sendError(connection, ErrorMessages.SERVER_DRAINING_ERROR);
+      return false;
+    }
+    return true;
+  }
+
+  private void enter(NioConnection connection, Room room) {
+    int seat = room.seat(connection);
+    if (seat == Room.NO_SEAT) {
+      sendError(connection, ErrorMessages.GAME_IS_FULL_ERROR);
+      return;
+    }
+    connection.enter(room, seat);
+    connection.send(new EncodedInfo(new RoomJoinedInfo(room.getId())));
+  }
+
+  private void resume(NioConnection connection, ConcreteResume resume) {
+    for (Room room : lobby.getRooms()) {
+      int seat = room.resume(connection, resume);
+      if (seat != Room.NO_SEAT) {
+        connection.enter(room, seat);
+        return;
+      }
+    }
+    sendError(connection, ErrorMessages.SESSION_EXPIRED_ERROR);
+  }
+
+  private void watch(NioConnection connection, Room room) {
+    // the room is joined before the spectator gets the state of its game
+    connection.send(new EncodedInfo(new RoomJoinedInfo(room.getId())));
+    if (!room.watch(connection)) {
+      sendError(connection, ErrorMessages.ROOM_NOT_FOUND_ERROR);
+      return;
+    }
+    connection.enter(room, Room.NO_SEAT);
+  }
+
+  private boolean enterDefaultRoom(NioConnection connection) {
+    if (!checkNotDraining(connection)) {
+      connection.disconnect();
+      return false;
+    }
+    Room room = lobby.getDefaultRoom();
+    int seat = room.seat(connection);
+    if (seat == Room.NO_SEAT) {
+      // notifies the client that it has been rejected
+      connection.send(new EncodedInfo(new SimpleGameInfo(GameInfoID.TOO_MANY_CLIENTS)));
+      connection.disconnect();
+      return false;
+    }
+    connection.enter(room, seat);
+    return true;
+  }
+
+  private void sendError(NioConnection connection, String message) {
+    connection.send(new EncodedInfo(new ErrorInfo(message)));
+  }
+
+  /**
+   * Removes a client whose connection was closed from its room.
+   *
+   * @param connection the closed connection
+   */
+  void closed(NioConnection connection) {
+    Room room = connection.getRoom();
+    if (room == null) {
+      return;
+    }
+    if (connection.isSpectator()) {
+      room.unwatch(connection);
+    } else {
+      room.leave(connection.getSeat(), connection);
+    }
+  }
+
+  /**
+   * Sends a GameInfo to the clients of all rooms.
+   *
+   * @param info GameInfo to be sent
+   */
+  @Override
+  public void sendToAll(GameInfo info) {
+    for (Room room : lobby.getRooms()) {
+      room.sendToAll(info);
+    }
+  }
+
+  /**
+   * Sends a GameInfo to a specified player of the default room.
+   *
+   * @param playerID id of the player (0-n)
+   * @param info     GameInfo getting sent to the player
+   */
+  @Override
+  public void sendToPlayer(int playerID, GameInfo info) {
+    lobby.getDefaultRoom().sendToPlayer(playerID, info);
+  }
+
+  /**
+   * Returns the IP-address of the server.
+   *
+   * @return String representing the IP-address
+   * @throws UnknownHostException whenever the IP-address could not be determined
+   */
+  @Override
+  public String getIP() throws UnknownHostException {
+    return InetAddress.getLocalHost().getHostAddress();
+  }
+
+  /**
+   * Drains the server: no more players are seated, the rooms without a running game are closed
+   * and the server stops once the last game is over.
+   * The players of the running games can still resume their seats.
+   */
+  public synchronized void drain() {
+    if (!running || draining) {
+      return;
+    }
+    draining = true;
+    evictor.scheduleWithFixedDelay(() -> {
+      lobby.closeWithoutGame();
+      if (lobby.getRooms().isEmpty()) {
+        stop();
+      }
+    }, 0, DRAIN_PERIOD, TimeUnit.MILLISECONDS);
+  }
+
+  /**
+   * Lets a bot take the next free seat of a room.
+   *
+   * @param roomID     the id of the room
+   * @param difficulty how well the bot plays
+   * @param thinkTime  the milliseconds the bot takes for a turn
+   * @return the seat of the bot
+   * @throws IllegalArgumentException if there is no such room or the think time is negative
+   * @throws IllegalStateException    if the game of the room is on or the room is full
+   */
+  public int addBot(int roomID, Bot.Difficulty difficulty, long thinkTime)
+      throws IllegalArgumentException, IllegalStateException {
+    Room room = lobby.get(roomID);
+    if (room == null) {
+      throw new IllegalArgumentException(ErrorMessages.ROOM_NOT_FOUND_ERROR);
+    }
+    return room.addBot(difficulty, thinkTime);
+  }
+
+  /**
+   * Lets bots take the empty seats of a room when its game starts, or stops doing so.
+   *
+   * @param difficulty how well the bots play, null if the seats stay empty
+   * @param thinkTime  the milliseconds the bots take for a turn
+   * @throws IllegalArgumentException if the think time is negative
+   */
+  public void fillWithBots(Bot.Difficulty difficulty, long thinkTime)
+      throws IllegalArgumentException {
+    lobby.setBotFill(difficulty, thinkTime);
+  }
+
+  /**
+   * Describes the state of the server in one line.
+   *
+   * @return the numbers of rooms, running games, players and spectators
+   */
+  public String status() {
+    int rooms = 0;
+    int games = 0;
+    int players = 0;
+    int spectators = 0;
+    for (Room room : lobby.getRooms()) {
+      RoomsInfo.Room description = room.describe();
+      rooms++;
+      games += description.isGameOn() ? 1 : 0;
+      players += description.getPlayers();
+      spectators += room.getSpectators();
+    }
+    return "rooms=" + rooms + " games=" + games + " players=" + players
+        + " spectators=" + spectators + " draining=" + draining + " running=" + isRunning();
+  }
+
+  private synchronized boolean isRunning() {
+    return running;
+  }
+
+  /**
+   * Waits until the server is stopped.
+   *
+   * @throws InterruptedException if the thread is interrupted while waiting
+   */
+  public void awaitStop() throws InterruptedException {
+    stopped.await();
+  }
+
+  /**
+   * Closes all rooms, their connections after their last messages, and stops the loops.
+   */
+  public synchronized void stop() {
+    if (!running) {
+      return;
+    }
+    running = false;
+    evictor.shutdownNow();
+    lobby.close();
+    try {
+      serverChannel.close();
+    } catch (IOException e) {
+      e.printStackTrace();
+    }
+    // the loops stop after the disconnections they were handed
+    for (NioLoop loop : loops) {
+      loop.execute(loop::shutdown);
+    }
+    stopped.countDown();
+  }
+}
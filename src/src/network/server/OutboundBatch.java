@@ -0,0 +1,100 @@
+package network.server;
+
+import communication.EncodedInfo;
+import communication.gameinfo.GameInfo;
+import globalconstants.Constants;
+import java.net.UnknownHostException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Collects the GameInfos a game sends while it handles one request, and hands them to its server
+ * when the request is done, all GameInfos of a player at once.
+ * The server writes them with one write and one flush per player instead of one per GameInfo.
+ * A GameInfo sent to all players is encoded only once for all of them.
+ * Only used on the thread of the game, which flushes it after every task of its GameMailbox.
+ */
+final class OutboundBatch implements Server {
+  private final Target target;
+  private final List<List<EncodedInfo>> queued = new ArrayList<>(Constants.MAX_PLAYERS);
+
+  /**
+   * A server which can send several GameInfos to a player at once.
+   */
+  interface Target extends Server {
+
+    /**
+     * Sends GameInfos to a player with a single write.
+     *
+     * @param playerID id of the player (0-n)
+     * @param infos    the GameInfos in the order they were sent, the list is not changed later
+     */
+    void sendBatch(int playerID, List<EncodedInfo> infos);
+
+    /**
+     * Returns whether a player is seated, only seated players get the GameInfos sent to all.
+     *
+     * @param playerID id of the player (0-n)
+     * @return true if the player is seated
+     */
+    default boolean isSeated(int playerID) {
+      return true;
+    }
+  }
+
+  /**
+   * Creates a batch sending to the given server.
+   *
+   * @param target the server the GameInfos are sent with
+   */
+  OutboundBatch(Target target) {
+    this.target = target;
+    for (int playerID = 0; playerID < Constants.MAX_PLAYERS; playerID++) {
+      queued.add(new ArrayList<>());
+    }
+  }
+
+  /**
+   * Queues a GameInfo for all seated players, a player seated before the flush does not get it.
+   */
+  @Override
+  public void sendToAll(GameInfo info) {
+    EncodedInfo encoded = new EncodedInfo(info);
+    for (int playerID = 0; playerID < queued.size(); playerID++) {
+      if (target.isSeated(playerID)) {
+        queued.get(playerID).add(encoded);
+      }
+    }
+  }
+
+  @Override
+  public void sendToPlayer(int playerID, GameInfo info) {
+    queued.get(playerID).add(new EncodedInfo(info));
+  }
+
+  /**
+   * Hands a GameInfo to the spectators right away, they are sent to on their own executor.
+   */
+  @Override
+  public void sendToSpectators(GameInfo info, GameInfo snapshot) {
+    target.sendToSpectators(info, snapshot);
+  }
+
+  /**
+   * Sends all collected GameInfos.
+   */
+  void flush() {
+    for (int playerID = 0; playerID < queued.size(); playerID++) {
+      List<EncodedInfo> infos = queued.get(playerID);
+      if (!infos.isEmpty()) {
+        queued.set(playerID, new ArrayList<>());
+        target.sendBatch(playerID, infos);
+      }
+    }
+  }
+
+  @Override
+  public String getIP() throws UnknownHostException {
+    return target.getIP();
+  }
+}
@@ -4,25 +4,31 @@ package network.server;
 import communication.gameinfo.BagInfo;
 import communication.gameinfo.CurrentPlayerInfo;
 import communication.gameinfo.ErrorInfo;
+import communication.gameinfo.GameInfo;
 import communication.gameinfo.GameInfoID;
 import communication.gameinfo.GameStartInfo;
-import communication.gameinfo.GridInfo;
 import communication.gameinfo.HandSizesInfo;
+import communication.gameinfo.InvalidSetsInfo;
 import communication.gameinfo.PlayerNamesInfo;
 import communication.gameinfo.RankInfo;
+import communication.gameinfo.SessionInfo;
 import communication.gameinfo.SimpleGameInfo;
 import communication.gameinfo.StoneInfo;
 import communication.request.ConcreteMove;
 import communication.request.ConcreteSetPlayer;
+import communication.request.ConcreteStart;
 import communication.request.Request;
 import game.Coordinate;
 import game.Game;
 import game.Stone;
+import globalconstants.Constants;
 import globalconstants.ErrorMessages;
 
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import java.util.logging.Logger;
 
 /**
  * Class that can take Request-Objects and transform the into method-calls for a Game.
@@ -31,10 +37,24 @@ import java.util.Map;
  */
 class RequestHandler {
 
+  /**
+   * System property which is true if the seed a client sends with START is used, to play a game
+   * again. Otherwise the seed is ignored, as it would tell the player the whole bag.
+   */
+  static final String REPLAY_PROPERTY = "rummikub.server.replay";
+
   private static final String NOT_ALLOWED_MOVE = "not allowed to move stones like that!";
+  private static final Logger LOG = Logger.getLogger(RequestHandler.class.getName());
 
   private Game game;
   private Server server;
+  // the players only get the cells of the table and their hands which changed
+  private final GridTracker table =
+      new GridTracker(GameInfoID.TABLE, GameInfoID.TABLE_DELTA, Constants.MAX_PLAYERS);
+  private final GridTracker[] hands = new GridTracker[Constants.MAX_PLAYERS];
+  private final Sessions sessions;
+  private final boolean hostless;
+  private boolean replay = Boolean.getBoolean(REPLAY_PROPERTY);
 
   /**
    * Constructor establishing the connection server-requesthandler-game.
@@ -43,8 +63,45 @@ class RequestHandler {
    * @param game   to be connected to
    */
   RequestHandler(Server server, Game game) {
+    this(server, game, new Sessions());
+  }
+
+  /**
+   * Constructor establishing the connection server-requesthandler-game.
+   *
+   * @param server   to be connected to
+   * @param game     to be connected to
+   * @param sessions the sessions of the players, which the server resumes
+   */
+  RequestHandler(Server server, Game game, Sessions sessions) {
+    this(server, game, sessions, false);
+  }
+
+  /**
+   * Constructor establishing the connection server-requesthandler-game.
+   *
+   * @param server   to be connected to
+   * @param game     to be connected to
+   * @param sessions the sessions of the players, which the server resumes
+   * @param hostless true if any player may start the game, not only the host
+   */
+  RequestHandler(Server server, Game game, Sessions sessions, boolean hostless) {
     this.server = server;
     this.game = game;
+    this.sessions = sessions;
+    this.hostless = hostless;
+    for (int playerID = 0; playerID < hands.length; playerID++) {
+      hands[playerID] = new GridTracker(GameInfoID.HAND, GameInfoID.HAND_DELTA, 1);
+    }
+  }
+
+  /**
+   * Lets the seed a client sends with START be used, like the system property REPLAY_PROPERTY.
+   *
+   * @param replay true if the seed of the client is used
+   */
+  void setReplay(boolean replay) {
+    this.replay = replay;
   }
 
   private static StoneInfo[][] parseStoneInfoGrid(int width, int height, Map<Coordinate, Stone> stones) {
@@ -52,7 +109,7 @@ class RequestHandler {
     Stone stone;
     for (int i = 0; i < width; i++) {
       for (int j = 0; j < height; j++) {
-        if ((stone = stones.get(new Coordinate(i, j))) != null) {
+        if ((stone = stones.get(Coordinate.of(i, j))) != null) {
           grid[i][j] = new StoneInfo(stone.getColor().toString(), stone.getNumber());
         }
       }
@@ -72,34 +129,43 @@ class RequestHandler {
     try {
       switch (((Request) request).getRequestID()) {
         case START:
-          if (playerID != 0) {
+          if (!hostless && playerID != Constants.HOST_ID) {
             sendErrorToPlayer(playerID, ErrorMessages.CLIENT_CANNOT_START_GAME_ERROR);
             break;
           }
-          game.start();
+          if (replay && request instanceof ConcreteStart) {
+            game.start(((ConcreteStart) request).getSeed());
+          } else {
+            game.start();
+          }
+          // the seed lets the game be played again, it is only logged on the server
+          LOG.info("game started with seed " + game.getSeed());
           notifyGameStartToAll();
           break;
 
         case JOIN:
           ConcreteSetPlayer setPlayer = (ConcreteSetPlayer) request;
           game.join(playerID, setPlayer.getName(), setPlayer.getAge());
+          // the seat may have had another connection before
+          forgetGrids(playerID);
+          server.sendToPlayer(playerID, new SessionInfo(sessions.issue(playerID)));
         case UPDATE_PLAYERS:
-          server.sendToAll(new PlayerNamesInfo(game.getPlayerNames()));
+          broadcast(new PlayerNamesInfo(game.getPlayerNames()));
           break;
 
         case HAND_MOVE:
           ConcreteMove handMove = (ConcreteMove) request;
           game.moveStoneOnHand(playerID,
-              new Coordinate(handMove.getInitCol(), handMove.getInitRow()),
-              new Coordinate(handMove.getTargetCol(), handMove.getTargetRow()));
+              Coordinate.of(handMove.getInitCol(), handMove.getInitRow()),
+              Coordinate.of(handMove.getTargetCol(), handMove.getTargetRow()));
           sendHandToPlayer(playerID);
           break;
 
         case HAND_SET_MOVE:
           ConcreteMove handSetMove = (ConcreteMove) request;
           if (!game.moveSetOnHand(playerID,
-              new Coordinate(handSetMove.getInitCol(), handSetMove.getInitRow()),
-              new Coordinate(handSetMove.getTargetCol(), handSetMove.getTargetRow()))) {
+              Coordinate.of(handSetMove.getInitCol(), handSetMove.getInitRow()),
+              Coordinate.of(handSetMove.getTargetCol(), handSetMove.getTargetRow()))) {
             sendErrorToPlayer(playerID, NOT_ALLOWED_MOVE);
           }
           sendHandToPlayer(playerID);
@@ -108,8 +174,8 @@ class RequestHandler {
         case TABLE_MOVE:
           if (isCurrentPlayer(playerID)) {
             ConcreteMove tableMove = (ConcreteMove) request;
-            game.moveStoneOnTable(new Coordinate(tableMove.getInitCol(), tableMove.getInitRow()),
-                new Coordinate(tableMove.getTargetCol(), tableMove.getTargetRow()));
+            game.moveStoneOnTable(Coordinate.of(tableMove.getInitCol(), tableMove.getInitRow()),
+                Coordinate.of(tableMove.getTargetCol(), tableMove.getTargetRow()));
           }
           sendTableToAll();
           break;
@@ -117,8 +183,8 @@ class RequestHandler {
         case TABLE_SET_MOVE:
           if (isCurrentPlayer(playerID)) {
             ConcreteMove tableMove = (ConcreteMove) request;
-            if (!game.moveSetOnTable(new Coordinate(tableMove.getInitCol(), tableMove.getInitRow()),
-                new Coordinate(tableMove.getTargetCol(), tableMove.getTargetRow()))) {
+            if (!game.moveSetOnTable(Coordinate.of(tableMove.getInitCol(), tableMove.getInitRow()),
+                Coordinate.of(tableMove.getTargetCol(), tableMove.getTargetRow()))) {
               sendErrorToPlayer(playerID, NOT_ALLOWED_MOVE);
             }
           }
@@ -128,8 +194,8 @@ class RequestHandler {
         case PUT_STONE:
           if (isCurrentPlayer(playerID)) {
             ConcreteMove putStone = (ConcreteMove) request;
-            game.putStone(new Coordinate(putStone.getInitCol(), putStone.getInitRow()),
-                new Coordinate(putStone.getTargetCol(), putStone.getTargetRow()));
+            game.putStone(Coordinate.of(putStone.getInitCol(), putStone.getInitRow()),
+                Coordinate.of(putStone.getTargetCol(), putStone.getTargetRow()));
             sendHandSizesToAll();
           }
           sendTableToAll();
@@ -139,8 +205,8 @@ class RequestHandler {
         case PUT_SET:
           if (isCurrentPlayer(playerID)) {
             ConcreteMove putSet = (ConcreteMove) request;
-            if (!game.putSet(new Coordinate(putSet.getInitCol(), putSet.getInitRow()),
-                new Coordinate(putSet.getTargetCol(), putSet.getTargetRow()))) {
+            if (!game.putSet(Coordinate.of(putSet.getInitCol(), putSet.getInitRow()),
+                Coordinate.of(putSet.getTargetCol(), putSet.getTargetRow()))) {
               sendErrorToPlayer(playerID, NOT_ALLOWED_MOVE);
             }
             sendHandSizesToAll();
@@ -178,15 +244,7 @@ class RequestHandler {
           break;
 
         case TIME_OUT:
-          // sends original table
-          sendTableToAll();
-          sendHandToPlayer(playerID);
-          // draw stone cause table not consistent and the time is out
-          game.timeOut(playerID);
-          sendHandToPlayer(playerID);
-          sendTableToAll();
-          sendHandSizesToAll();
-          sendBagSizeToAll();
+          timeOut(playerID);
           notifyTurnToPlayer();
           break;
 
@@ -208,6 +266,21 @@ class RequestHandler {
           }
           break;
 
+        case RESYNC:
+          // the client missed a version of a grid
+          forgetGrids(playerID);
+          if (game.isGameOn()) {
+            sendTableToPlayer(playerID);
+            sendHandToPlayer(playerID);
+          }
+          break;
+
+        case RESUME:
+          // the server moved a new connection to the seat of the player
+          forgetGrids(playerID);
+          sendStateToPlayer(playerID);
+          break;
+
         default:
       }
 
@@ -221,26 +294,85 @@ class RequestHandler {
   }
 
   private void sendTableToPlayer(int playerID) {
-    server.sendToPlayer(playerID, new GridInfo(GameInfoID.TABLE, parseStoneInfoGrid(game.getTableWidth(), game.getTableHeight(), game.getTableStones())));
+    server.sendToPlayer(playerID, table.infoFor(playerID));
+  }
+
+  private void forgetGrids(int playerID) {
+    table.forget(playerID);
+    hands[playerID].forget(0);
+  }
+
+  private void timeOut(int playerID) {
+    // sends original table
+    sendTableToAll();
+    sendHandToPlayer(playerID);
+    // draw stone cause table not consistent and the time is out
+    game.timeOut(playerID);
+    sendHandToPlayer(playerID);
+    sendTableToAll();
+    sendHandSizesToAll();
+    sendBagSizeToAll();
+  }
+
+  /**
+   * Times out the turn of the current player if its seat is held, called once the seat of a
+   * player whose connection was lost is held. The grace period keeps the hand of the player,
+   * but the other players do not wait for it.
+   */
+  void skipHeldTurn() {
+    if (game.isGameOn() && sessions.isHeld(game.getCurrentPlayerID())) {
+      notifyTurnToPlayer();
+    }
   }
 
   /**
    * Notifies the currently playing player that it is his turn.
+   * The turns of players whose seats are held are timed out before.
    */
   private void notifyTurnToPlayer() {
+    for (int skipped = 0; skipped < Constants.MAX_PLAYERS && game.isGameOn()
+        && sessions.isHeld(game.getCurrentPlayerID()); skipped++) {
+      timeOut(game.getCurrentPlayerID());
+    }
 
     int currentPlayerID = game.getCurrentPlayerID();
 
     for (int i = 0; i < 4; i++) {
-      if (i == currentPlayerID) {
-        // Tells player that it is his turn
-        server.sendToPlayer(i, new SimpleGameInfo(GameInfoID.YOUR_TURN));
-      } else {
-        // Tells other players whose turn it is
-        int relativeID = calculateRelativeID(i, currentPlayerID);
-        server.sendToPlayer(i, new CurrentPlayerInfo(relativeID));
-      }
+      sendTurnToPlayer(i, currentPlayerID);
     }
+    // spectators see the game like player 0
+    GameInfo spectatorInfo = new CurrentPlayerInfo(calculateRelativeID(0, currentPlayerID));
+    server.sendToSpectators(spectatorInfo, spectatorInfo);
+  }
+
+  private void sendTurnToPlayer(int playerID, int currentPlayerID) {
+    if (playerID == currentPlayerID) {
+      // Tells player that it is his turn
+      server.sendToPlayer(playerID, new SimpleGameInfo(GameInfoID.YOUR_TURN));
+    } else {
+      // Tells other players whose turn it is
+      int relativeID = calculateRelativeID(playerID, currentPlayerID);
+      server.sendToPlayer(playerID, new CurrentPlayerInfo(relativeID));
+    }
+  }
+
+  /**
+   * Sends the whole state of the game to a player which resumed its seat, all at once
+   * with snapshots of the grids.
+   */
+  private void sendStateToPlayer(int playerID) {
+    List<String> names = game.getPlayerNames();
+    Collections.rotate(names, -playerID);
+    server.sendToPlayer(playerID, new PlayerNamesInfo(names));
+    if (!game.isGameOn()) {
+      return;
+    }
+    sendTableToPlayer(playerID);
+    server.sendToPlayer(playerID, new InvalidSetsInfo(game.getInvalidTableSets()));
+    sendHandToPlayer(playerID);
+    sendHandSizesToPlayer(playerID);
+    server.sendToPlayer(playerID, new BagInfo(game.getBagSize()));
+    sendTurnToPlayer(playerID, game.getCurrentPlayerID());
   }
 
   /**
@@ -272,7 +404,7 @@ class RequestHandler {
    * Notifies all clients that the game has started.
    */
   private void notifyGameStartToAll() {
-    server.sendToAll(new GameStartInfo(GameInfoID.GAME_START));
+    broadcast(new GameStartInfo(GameInfoID.GAME_START));
     // send table first to all
     sendTableToAll();
     // send to each player their hand
@@ -289,33 +421,61 @@ class RequestHandler {
   }
 
   private void sendBagSizeToAll() {
-    server.sendToAll(new BagInfo(game.getBagSize()));
+    broadcast(new BagInfo(game.getBagSize()));
   }
 
+  /**
+   * Sends a GameInfo to all clients and the spectators.
+   */
+  private void broadcast(GameInfo info) {
+    server.sendToAll(info);
+    server.sendToSpectators(info, info);
+  }
+
+  /**
+   * Sends the table and the stones which are not part of a valid set on it to all clients.
+   */
   private void sendTableToAll() {
-    server.sendToAll(new GridInfo(GameInfoID.TABLE, parseStoneInfoGrid(game.getTableWidth(), game.getTableHeight(), game.getTableStones())));
+    table.update(parseStoneInfoGrid(game.getTableWidth(), game.getTableHeight(), game.getTableStones()));
+    GameInfo info = table.infoForAll(game.getNumberOfPlayers());
+    if (info != null) {
+      server.sendToAll(info);
+    } else {
+      // some players missed the last version
+      for (int playerID = 0; playerID < game.getNumberOfPlayers(); playerID++) {
+        sendTableToPlayer(playerID);
+      }
+    }
+    server.sendToSpectators(table.infoForUntracked(), table.snapshot());
+    broadcast(new InvalidSetsInfo(game.getInvalidTableSets()));
   }
 
   private void sendHandToPlayer(int playerID) {
-    server.sendToPlayer(playerID, new GridInfo(GameInfoID.HAND, parseStoneInfoGrid(game.getPlayerHandWidth(playerID),
-            game.getPlayerHandHeight(playerID), game.getPlayerStones(playerID))));
+    hands[playerID].update(parseStoneInfoGrid(game.getPlayerHandWidth(playerID),
+        game.getPlayerHandHeight(playerID), game.getPlayerStones(playerID)));
+    server.sendToPlayer(playerID, hands[playerID].infoFor(0));
   }
 
   private void sendHandSizesToAll() {
     List<Integer> handSizes = game.getPlayerHandSizes();
-    server.sendToPlayer(0, new HandSizesInfo(handSizes));
+    GameInfo firstInfo = new HandSizesInfo(new ArrayList<>(handSizes));
+    server.sendToPlayer(0, firstInfo);
+    server.sendToSpectators(firstInfo, firstInfo);
+    // every info gets a copy, as they are encoded after the list is rotated again
     for (int playerID = 1; playerID < game.getNumberOfPlayers(); playerID++) {
       Collections.rotate(handSizes, -1);
-      server.sendToPlayer(playerID, new HandSizesInfo(handSizes));
+      server.sendToPlayer(playerID, new HandSizesInfo(new ArrayList<>(handSizes)));
     }
   }
 
   private void sendPlayerNamesToAll() {
     List<String> names = game.getPlayerNames();
-    server.sendToPlayer(0, new PlayerNamesInfo(names));
+    GameInfo firstInfo = new PlayerNamesInfo(new ArrayList<>(names));
+    server.sendToPlayer(0, firstInfo);
+    server.sendToSpectators(firstInfo, firstInfo);
     for (int playerID = 1; playerID < game.getNumberOfPlayers(); playerID++) {
       Collections.rotate(names, -1);
-      server.sendToPlayer(playerID, new PlayerNamesInfo(names));
+      server.sendToPlayer(playerID, new PlayerNamesInfo(new ArrayList<>(names)));
     }
   }
 
@@ -327,7 +487,7 @@ class RequestHandler {
 
   private boolean hasGameWinner() {
     if (game.hasWinner()) {
-      server.sendToAll(new RankInfo(game.getFinalRank()));
+      broadcast(new RankInfo(game.getFinalRank()));
       return true;
     }
     return false;
@@ -346,6 +506,6 @@ class RequestHandler {
       sendHandSizesToAll();
       notifyTurnToPlayer();
     }
-    server.sendToAll(new PlayerNamesInfo(game.getPlayerNames()));
+    broadcast(new PlayerNamesInfo(game.getPlayerNames()));
   }
 }
@@ -0,0 +1,219 @@
+package network.server;
+
+import communication.request.ConcreteMove;
+import communication.request.Request;
+import communication.request.RequestID;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.LongSupplier;
+
+/**
+ * Limits the requests of a connection which reach the game, in their order.
+ * A token bucket lets a burst of requests through at once and then a steady rate, the requests
+ * beyond wait in a short queue, and a connection which fills the queue loses its requests.
+ * Dragging a stone sends a move for every cell the stone passes. While the bucket throttles the
+ * connection, consecutive moves of the same stone within a window are coalesced into one net move
+ * from its first to its last cell, which also drops the swaps with the stones it passed. The
+ * window starts when the first move of the net move arrives, a later move is never coalesced into
+ * it, even if it still waits for the bucket. A move is never held back for its window, a
+ * connection below its rate gets every move through at once.
+ */
+final class RequestThrottle {
+  /** Requests which are let through at once. */
+  static final int DEFAULT_BURST = 20;
+  /** Requests per second which are let through after a burst. */
+  static final double DEFAULT_RATE = 10;
+  /** Milliseconds in which moves of the same stone waiting for the bucket are coalesced. */
+  static final long DEFAULT_WINDOW = 30;
+  /** Requests which may wait for the bucket. */
+  static final int MAX_QUEUED = 64;
+
+  private static final ScheduledExecutorService SHARED_TIMER =
+      Executors.newSingleThreadScheduledExecutor(task -> {
+        Thread thread = new Thread(task, "rummi-throttle");
+        thread.setDaemon(true);
+        return thread;
+      });
+
+  private final Consumer<Request> sink;
+  private final int burst;
+  private final double rate;
+  private final long window;
+  private final LongSupplier clock;
+  private final ScheduledExecutorService timer;
+  private final Deque<Waiting> queue = new ArrayDeque<>();
+  private double tokens;
+  private long refilled;
+  private ScheduledFuture<?> scheduled;
+  private boolean closed;
+  private long coalesced;
+  private long dropped;
+
+  /**
+   * Creates the throttle of a connection with the default limits.
+   *
+   * @param sink takes the requests which are let through, like the mailbox of the game
+   */
+  RequestThrottle(Consumer<Request> sink) {
+    this(sink, DEFAULT_BURST, DEFAULT_RATE, DEFAULT_WINDOW, System::currentTimeMillis,
+        SHARED_TIMER);
+  }
+
+  /**
+   * Creates the throttle of a connection.
+   *
+   * @param sink   takes the requests which are let through
+   * @param burst  the requests which are let through at once
+   * @param rate   the requests per second which are let through after a burst
+   * @param window the milliseconds in which moves of the same stone are coalesced
+   * @param clock  the current time in milliseconds
+   * @param timer  the executor letting waiting requests through
+   */
+  RequestThrottle(Consumer<Request> sink, int burst, double rate, long window,
+      LongSupplier clock, ScheduledExecutorService timer) {
+    this.sink = sink;
+    this.burst = burst;
+    this.rate = rate;
+    this.window = window;
+    this.clock = clock;
+    this.timer = timer;
+    tokens = burst;
+    refilled = clock.getAsLong();
+  }
+
+  /**
+   * Queues a request of the connection, from the thread reading the connection.
+   *
+   * @param request the request
+   * @return false if the queue is full and the request was dropped
+   */
+  synchronized boolean offer(Request request) {
+    if (closed) {
+      return true;
+    }
+    long now = clock.getAsLong();
+    Waiting last = queue.peekLast();
+    if (last != null && now - last.arrival <= window && continues(last.request, request)) {
+      ConcreteMove first = (ConcreteMove) last.request;
+      ConcreteMove next = (ConcreteMove) request;
+      last.request = new ConcreteMove(first.getRequestID(), first.getInitCol(),
+          first.getInitRow(), next.getTargetCol(), next.getTargetRow());
+      coalesced++;
+      return true;
+    }
+    if (queue.size() >= MAX_QUEUED) {
+      dropped++;
+      return false;
+    }
+    queue.addLast(new Waiting(request, now));
+    release();
+    return true;
+  }
+
+  /**
+   * Lets the waiting requests through as far as the bucket allows,
+   * and schedules the next try for the rest.
+   */
+  synchronized void release() {
+    if (closed) {
+      return;
+    }
+    while (!queue.isEmpty()) {
+      refill(clock.getAsLong());
+      if (tokens < 1) {
+        schedule((long) Math.ceil((1 - tokens) * 1000 / rate));
+        return;
+      }
+      tokens--;
+      sink.accept(queue.poll().request);
+    }
+  }
+
+  /**
+   * Drops the waiting requests, the connection is closed.
+   */
+  synchronized void close() {
+    closed = true;
+    queue.clear();
+    if (scheduled != null) {
+      scheduled.cancel(false);
+      scheduled = null;
+    }
+  }
+
+  synchronized int getQueued() {
+    return queue.size();
+  }
+
+  /**
+   * Returns how many moves were coalesced into an earlier move.
+   *
+   * @return the number of coalesced moves
+   */
+  synchronized long getCoalesced() {
+    return coalesced;
+  }
+
+  /**
+   * Returns how many requests were dropped because the queue was full.
+   *
+   * @return the number of dropped requests
+   */
+  synchronized long getDropped() {
+    return dropped;
+  }
+
+  private void refill(long now) {
+    tokens = Math.min(burst, tokens + (now - refilled) * rate / 1000);
+    refilled = now;
+  }
+
+  private void schedule(long delay) {
+    // a scheduled try is never later than needed, the queue only waits longer meanwhile
+    if (scheduled == null) {
+      scheduled = timer.schedule(this::retry, delay, TimeUnit.MILLISECONDS);
+    }
+  }
+
+  private synchronized void retry() {
+    scheduled = null;
+    release();
+  }
+
+  private static boolean isCoalesced(Request request) {
+    RequestID id = request.getRequestID();
+    return request instanceof ConcreteMove
+        && (id == RequestID.HAND_MOVE || id == RequestID.TABLE_MOVE);
+  }
+
+  /**
+   * Returns whether a move continues the waiting move of the same stone from its last cell.
+   */
+  private static boolean continues(Request waiting, Request request) {
+    if (!isCoalesced(waiting) || request.getRequestID() != waiting.getRequestID()
+        || !(request instanceof ConcreteMove)) {
+      return false;
+    }
+    ConcreteMove first = (ConcreteMove) waiting;
+    ConcreteMove next = (ConcreteMove) request;
+    return first.getTargetCol() == next.getInitCol() && first.getTargetRow() == next.getInitRow();
+  }
+
+  /**
+   * A request waiting for the bucket, with the time the first of its moves arrived.
+   */
+  private static final class Waiting {
+    private Request request;
+    private final long arrival;
+
+    private Waiting(Request request, long arrival) {
+      this.request = request;
+      this.arrival = arrival;
+    }
+  }
+}
@@ -0,0 +1,455 @@
+package network.server;
+
+import communication.EncodedInfo;
+import communication.gameinfo.GameInfo;
+import communication.gameinfo.GameInfoID;
+import communication.gameinfo.RoomsInfo;
+import communication.gameinfo.SimpleGameInfo;
+import communication.request.ConcreteResume;
+import communication.request.Request;
+import communication.request.RequestID;
+import game.Game;
+import game.RummiGame;
+import globalconstants.Constants;
+import globalconstants.ErrorMessages;
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.util.List;
+
+/**
+ * A room of the Lobby, holding one game with its own RequestHandler
+ * and the connections of its players.
+ * The connections are seated like the clients of the RummiServer, the first one is the host.
+ * The game sends to an OutboundBatch, each client gets the GameInfos of a request at once.
+ * Any number of spectators may watch the game without taking a seat.
+ * Without a host, which a hostless lobby does not have, the room is only closed once the last
+ * player left.
+ * The seat of a player whose connection is lost is held for it, until it resumes its session
+ * on a new connection or the grace period of the Sessions is over.
+ * Only the thread of the game reads the game, the lobby and the connections read the state
+ * it publishes after every task of the mailbox.
+ * Bots take seats like clients, through a connection which hands them the GameInfos of their
+ * seat. They are added by the administrator or fill the empty seats when the game starts, if the
+ * lobby fills its rooms with bots. A room is closed once its last client which is no bot left.
+ */
+class Room implements OutboundBatch.Target {
+  static final int NO_SEAT = -1;
+
+  private static final int MAX_CLIENTS = Constants.MAX_PLAYERS;
+  private static final String BOT_NAME = "bot";
+
+  private final int id;
+  private final String name;
+  private final Lobby lobby;
+  private final Connection[] clients = new Connection[MAX_CLIENTS];
+  private final Game game;
+  private final RequestHandler requestHandler;
+  private final GameMailbox mailbox;
+  private final Spectators spectators = new Spectators();
+  private final Sessions sessions = new Sessions();
+  private final boolean hostless;
+  private int numOfClients;
+  private int numOfBots;
+  private boolean open = true;
+  private volatile long lastActivity;
+  private volatile boolean gameOn; // published by the thread of the game
+
+  /**
+   * Constructor creating a room with a new game.
+   *
+   * @param id    of the room in the lobby
+   * @param name  of the room
+   * @param lobby the room belongs to
+   */
+  Room(int id, String name, Lobby lobby) {
+    this.id = id;
+    this.name = name;
+    this.lobby = lobby;
+    hostless = lobby.isHostless();
+    game = new RummiGame();
+    OutboundBatch outbound = new OutboundBatch(this);
+    requestHandler = new RequestHandler(outbound, game, sessions, hostless);
+    mailbox = new GameMailbox(requestHandler, outbound, this::publish);
+    lastActivity = lobby.now();
+  }
+
+  int getId() {
+    return id;
+  }
+
+  /**
+   * Gives the connection the next free seat of the room.
+   *
+   * @param connection the connection of the client
+   * @return the seat, which is the id of the player, NO_SEAT if the room is full or closed
+   */
+  synchronized int seat(Connection connection) {
+    lastActivity = lobby.now();
+    for (int seat = 0; open && seat < MAX_CLIENTS; seat++) {
+      if (clients[seat] == null && !sessions.isHeld(seat)) {
+        clients[seat] = connection;
+        numOfClients++;
+        return seat;
+      }
+    }
+    return NO_SEAT;
+  }
+
+  /**
+   * Lets a bot take the next free seat of the room and join the game.
+   * The seat of the host is never taken by a bot.
+   *
+   * @param difficulty how well the bot plays
+   * @param thinkTime  the milliseconds the bot takes for a turn, its search stops after them
+   * @return the seat of the bot
+   * @throws IllegalStateException    if the game is on or there is no free seat
+   * @throws IllegalArgumentException if the think time is negative
+   */
+  int addBot(Bot.Difficulty difficulty, long thinkTime) throws IllegalStateException {
+    if (gameOn) {
+      throw new IllegalStateException(ErrorMessages.GAME_HAS_ALREADY_STARTED_ERROR);
+    }
+    Bot bot = null;
+    synchronized (this) {
+      for (int seat = hostless ? 0 : Constants.HOST_ID + 1; open && seat < MAX_CLIENTS; seat++) {
+        if (clients[seat] == null && !sessions.isHeld(seat)) {
+          bot = new Bot(seat, BOT_NAME + seat, game, requestHandler, mailbox, difficulty,
+              thinkTime);
+          clients[seat] = new BotConnection(bot);
+          numOfClients++;
+          numOfBots++;
+          lastActivity = lobby.now();
+          break;
+        }
+      }
+    }
+    if (bot == null) {
+      throw new IllegalStateException(ErrorMessages.GAME_IS_FULL_ERROR);
+    }
+    bot.join();
+    return bot.getId();
+  }
+
+  /**
+   * Gives the connection the seat of the session with the given token, whose former connection
+   * is closed if it is still open. The player gets the whole state of the game.
+   *
+   * @param connection the new connection of the player
+   * @param resume     the request with the token of the session
+   * @return the seat, NO_SEAT if there is no session with the token in this room
+   */
+  int resume(Connection connection, ConcreteResume resume) {
+    int seat;
+    Connection former;
+    synchronized (this) {
+      seat = open ? sessions.resume(resume.getToken()) : NO_SEAT;
+      if (seat == NO_SEAT) {
+        return NO_SEAT;
+      }
+      lastActivity = lobby.now();
+      former = clients[seat];
+      clients[seat] = connection;
+    }
+    if (former != null) {
+      // its leave is ignored, as it does not have the seat anymore
+      former.disconnect();
+    }
+    mailbox.post(resume, seat);
+    return seat;
+  }
+
+  /**
+   * Lets the connection watch the game as spectator.
+   *
+   * @param connection the connection of the spectator
+   * @return false if the room is closed
+   */
+  boolean watch(Connection connection) {
+    synchronized (this) {
+      if (!open) {
+        return false;
+      }
+    }
+    spectators.add(connection);
+    return true;
+  }
+
+  /**
+   * Removes a spectator.
+   *
+   * @param connection the connection of the spectator
+   */
+  void unwatch(Connection connection) {
+    spectators.remove(connection);
+  }
+
+  /**
+   * Sends the state of the game to a spectator which missed a GameInfo.
+   *
+   * @param connection the connection of the spectator
+   */
+  void resync(Connection connection) {
+    spectators.resync(connection);
+  }
+
+  int getSpectators() {
+    return spectators.size();
+  }
+
+  /**
+   * Queues a request of the client at the given seat to be applied to the game of the room.
+   *
+   * @param request the request
+   * @param seat    the seat of the client
+   */
+  void apply(Request request, int seat) {
+    lastActivity = lobby.now();
+    Lobby.BotFill botFill = lobby.getBotFill();
+    if (request.getRequestID() == RequestID.START && botFill != null) {
+      // the bots join before the start, which follows them in the mailbox
+      mailbox.execute(() -> {
+        if (!game.isGameOn() && (hostless || seat == Constants.HOST_ID)) {
+          fillWithBots(botFill);
+        }
+        mailbox.post(request, seat);
+      });
+      return;
+    }
+    mailbox.post(request, seat);
+  }
+
+  private void fillWithBots(Lobby.BotFill botFill) {
+    try {
+      while (true) {
+        addBot(botFill.getDifficulty(), botFill.getThinkTime());
+      }
+    } catch (IllegalStateException e) {
+      // every seat is taken
+    }
+  }
+
+  /**
+   * Removes the client at the given seat, or holds its seat if it has a session.
+   *
+   * @param seat       the seat of the client
+   * @param connection the connection of the client
+   */
+  void leave(int seat, Connection connection) {
+    // decides on the thread of the game, which knows whether the game is on
+    mailbox.execute(() -> {
+      boolean held;
+      synchronized (this) {
+        if (clients[seat] != connection) {
+          return;
+        }
+        lastActivity = lobby.now();
+        clients[seat] = null;
+        held = sessions.hold(seat, () -> mailbox.execute(() -> giveUp(seat)));
+      }
+      if (held) {
+        // the others do not wait for the grace period if it is the turn of the player
+        requestHandler.skipHeldTurn();
+      } else {
+        giveUp(seat);
+      }
+    });
+  }
+
+  /**
+   * Removes the player at the given seat, which has no connection anymore.
+   * The room is closed if the host leaves or only one player of a running game is left,
+   * a room without a host once no player is left.
+   * Only called on the thread of the game.
+   *
+   * @param seat the seat of the player
+   */
+  private void giveUp(int seat) {
+    synchronized (this) {
+      if (!open || clients[seat] != null) {
+        // closed, or resumed on a new connection meanwhile
+        return;
+      }
+      sessions.end(seat);
+      // the bots do not keep a room open
+      boolean last = numOfClients - numOfBots == 1 || (hostless ? numOfClients == 1
+          : seat == Constants.HOST_ID || game.isGameOn() && numOfClients == 2);
+      if (last) {
+        // notify all clients if the host is the one disconnecting
+        lobby.remove(this);
+        close();
+        return;
+      }
+      numOfClients--;
+    }
+    game.removePlayer(seat);
+    requestHandler.notifyClientClose();
+  }
+
+  /**
+   * Closes the connections of all clients and spectators.
+   * The clients are told that the game is over, so that they do not try to resume it.
+   */
+  synchronized void close() {
+    open = false;
+    sessions.close();
+    spectators.close();
+    EncodedInfo closed = new EncodedInfo(new SimpleGameInfo(GameInfoID.SERVER_NOT_AVAILABLE));
+    for (int seat = 0; seat < MAX_CLIENTS; seat++) {
+      if (clients[seat] != null) {
+        clients[seat].send(closed);
+        clients[seat].disconnect();
+        clients[seat] = null;
+      }
+    }
+    numOfClients = 0;
+    numOfBots = 0;
+  }
+
+  /**
+   * Publishes the state of the game which other threads read, on the thread of the game.
+   */
+  private void publish() {
+    gameOn = game.isGameOn();
+  }
+
+  /**
+   * Returns whether the game is on, as of the last task of the mailbox.
+   *
+   * @return true if the game is on
+   */
+  boolean isGameOn() {
+    return gameOn;
+  }
+
+  /**
+   * Returns true if nothing happened in the room for the given time.
+   *
+   * @param now     the current time in milliseconds
+   * @param timeout the time in milliseconds
+   * @return true if the room is idle
+   */
+  boolean isIdle(long now, long timeout) {
+    return now - lastActivity > timeout;
+  }
+
+  /**
+   * Describes the room for the list of rooms of the lobby.
+   *
+   * @return the description of the room
+   */
+  RoomsInfo.Room describe() {
+    int players;
+    synchronized (this) {
+      players = numOfClients;
+    }
+    return new RoomsInfo.Room(id, name, players, gameOn);
+  }
+
+  /**
+   * Sends a GameInfo to all clients of the room, it is encoded only once per protocol.
+   *
+   * @param info GameInfo to be sent
+   */
+  @Override
+  public void sendToAll(GameInfo info) {
+    EncodedInfo encoded = new EncodedInfo(info);
+    for (Connection client : connections()) {
+      if (client != null) {
+        client.send(encoded);
+      }
+    }
+  }
+
+  /**
+   * Sends a GameInfo to a specified player of the room.
+   *
+   * @param playerID id of the player (0-n)
+   * @param info     GameInfo getting sent to the player
+   */
+  @Override
+  public void sendToPlayer(int playerID, GameInfo info) {
+    Connection client;
+    synchronized (this) {
+      client = clients[playerID];
+    }
+    if (client != null) {
+      client.send(new EncodedInfo(info));
+    }
+  }
+
+  /**
+   * Sends GameInfos to a specified player of the room at once.
+   *
+   * @param playerID id of the player (0-n)
+   * @param infos    GameInfos getting sent to the player
+   */
+  @Override
+  public void sendBatch(int playerID, List<EncodedInfo> infos) {
+    Connection client;
+    synchronized (this) {
+      client = clients[playerID];
+    }
+    if (client != null) {
+      client.send(infos);
+    }
+  }
+
+  @Override
+  public synchronized boolean isSeated(int playerID) {
+    return clients[playerID] != null;
+  }
+
+  /**
+   * Hands a GameInfo to the spectators of the room.
+   *
+   * @param info     GameInfo to be sent
+   * @param snapshot GameInfo with the whole state info changes
+   */
+  @Override
+  public void sendToSpectators(GameInfo info, GameInfo snapshot) {
+    spectators.publish(info, snapshot);
+  }
+
+  private synchronized Connection[] connections() {
+    return clients.clone();
+  }
+
+  @Override
+  public String getIP() throws UnknownHostException {
+    return InetAddress.getLocalHost().getHostAddress();
+  }
+
+  /**
+   * Connection of a bot, which hands the GameInfos of its seat to the bot on the thread of
+   * the game.
+   */
+  private static final class BotConnection implements Connection {
+    private final Bot bot;
+
+    private BotConnection(Bot bot) {
+      this.bot = bot;
+    }
+
+    @Override
+    public void send(EncodedInfo info) {
+      bot.receive(info.getInfo());
+    }
+
+    @Override
+    public void send(List<EncodedInfo> infos) {
+      for (EncodedInfo info : infos) {
+        bot.receive(info.getInfo());
+      }
+    }
+
+    @Override
+    public int backlog() {
+      return 0;
+    }
+
+    @Override
+    public void disconnect() {
+      // a bot has no connection to close, its turns end with the game
+    }
+  }
+}
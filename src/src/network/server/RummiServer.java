@@ -1,35 +1,57 @@
 package network.server;
 
+import communication.EncodedInfo;
+import communication.gameinfo.ErrorInfo;
 import communication.gameinfo.GameInfo;
 import communication.gameinfo.GameInfoID;
 import communication.gameinfo.SimpleGameInfo;
+import communication.request.ConcreteResume;
+import communication.request.Request;
+import communication.request.RequestID;
+import communication.request.SimpleRequest;
 import game.Game;
 import game.RummiGame;
 import globalconstants.Constants;
+import globalconstants.ErrorMessages;
 
 import java.io.IOException;
 import java.net.InetAddress;
 import java.net.ServerSocket;
 import java.net.Socket;
 import java.net.UnknownHostException;
+import java.util.List;
 
 /**
  * Class acting as the server in a game of Rummikub.
  * Can connect to a number of client at the same time and communicate between
  * the central game-model and the different clients.
+ * Each client has a listener thread, which is a virtual thread if the system property
+ * ServerThreads.VIRTUAL_PROPERTY is true and the Java version has them.
+ * The game sends to an OutboundBatch, each client gets the GameInfos of a request at once.
+ * The GameInfos are written by the ServerSender of each client on its own thread, a client
+ * which does not keep up gets the latest state of the grids instead of every change.
+ * The seat of a player whose connection is lost is held for it, until it resumes its session
+ * on a new connection or the grace period of the Sessions is over. While a seat is held,
+ * a new connection to a full table may only resume a session.
+ * If the system property NioRummiServer.BOTS_PROPERTY names a difficulty, bots take the empty
+ * client slots when the host starts the game.
  */
-public class RummiServer extends Thread implements Server {
+public class RummiServer extends Thread implements OutboundBatch.Target {
 
   private static final int MAX_CLIENTS = Constants.MAX_PLAYERS;
   private static final int PORT = 48410;
   private Socket[] clients = new Socket[MAX_CLIENTS];
   private ServerListener[] listeners = new ServerListener[MAX_CLIENTS];
   private ServerSender[] senders = new ServerSender[MAX_CLIENTS];
+  private Bot[] bots = new Bot[MAX_CLIENTS];
+  private final Sessions sessions = new Sessions();
   private ServerSocket server;
   private int numOfClients;
   private boolean running = true;
   private RequestHandler requestHandler;
+  private GameMailbox mailbox;
   private Game game;
+  private final Bot.Difficulty botFill; // the bots taking the empty slots on start, or null
 
   /**
    * Constructor creating a new Server, including all other classes needed
@@ -38,7 +60,11 @@ public class RummiServer extends Thread implements Server {
   public RummiServer() throws IOException {
     server = new ServerSocket(PORT);
     game = new RummiGame();
-    requestHandler = new RequestHandler(this, game);
+    OutboundBatch outbound = new OutboundBatch(this);
+    requestHandler = new RequestHandler(outbound, game, sessions);
+    mailbox = new GameMailbox(requestHandler, outbound);
+    String bots = System.getProperty(NioRummiServer.BOTS_PROPERTY);
+    botFill = bots == null ? null : Bot.Difficulty.parse(bots);
   }
 
   /**
@@ -49,9 +75,9 @@ public class RummiServer extends Thread implements Server {
   public void run() {
     try {
       while (running) {
-        synchronized (this) {
-          tryToConnect(server.accept());
-        }
+        // accepts without holding the lock, so that bots can be added meanwhile
+        Socket client = server.accept();
+        tryToConnect(client);
       }
     } catch (IOException e) {
       running = false;
@@ -59,17 +85,19 @@ public class RummiServer extends Thread implements Server {
   }
 
   private synchronized void tryToConnect(Socket client) throws IOException {
-    if (numOfClients >= MAX_CLIENTS) {
-      rejectClient(client);
-      return;
-    }
-    // find next free position of clients
-    for (int i = 0; i < MAX_CLIENTS; i++) {
-      if (clients[i] == null) {
+    // find next free position of clients, the held seats count as taken
+    for (int i = 0; numOfClients < MAX_CLIENTS && i < MAX_CLIENTS; i++) {
+      if (clients[i] == null && bots[i] == null && !sessions.isHeld(i)) {
         connectClient(client, i);
-        break;
+        return;
       }
     }
+    if (sessions.isAnyHeld()) {
+      // the client may only resume a held seat
+      connectClient(client, Room.NO_SEAT);
+      return;
+    }
+    rejectClient(client);
   }
 
 
@@ -80,10 +108,9 @@ public class RummiServer extends Thread implements Server {
    */
   private void rejectClient(Socket client) throws IOException {
     ServerSender sender = new ServerSender(client, this, (MAX_CLIENTS + 1));
-    sender.start();
-    sender.send(new SimpleGameInfo(GameInfoID.TOO_MANY_CLIENTS));
+    sender.send(new EncodedInfo(new SimpleGameInfo(GameInfoID.TOO_MANY_CLIENTS)));
+    // closes the socket once the GameInfo is written
     sender.disconnect();
-    client.close();
   }
 
   /**
@@ -91,61 +118,193 @@ public class RummiServer extends Thread implements Server {
    *
    * @param client that will be connected
    * @param id     of the client
-   *               position of the clients among the other clients
+   *               position of the clients among the other clients,
+   *               Room.NO_SEAT for a client which has to resume a seat first
    */
   private void connectClient(Socket client, int id) {
-    clients[id] = client;
-    listeners[id] = new ServerListener(clients[id], this, id);
-    listeners[id].start();
-    senders[id] = new ServerSender(clients[id], this, id);
-    senders[id].start();
-    numOfClients++;
+    ServerSender sender = new ServerSender(client, this, id);
+    ServerListener listener = new ServerListener(client, this, sender, id);
+    if (id != Room.NO_SEAT) {
+      clients[id] = client;
+      senders[id] = sender;
+      listeners[id] = listener;
+      numOfClients++;
+    }
+    ServerThreads.start(listener, "rummi-listener-" + id);
   }
 
   /**
-   * Disconnects from a certain client.
+   * Moves the connection of a listener to the seat of the session with the given token,
+   * closing the former connection of the seat if it is still open.
+   * The player gets the whole state of the game.
    *
-   * @param id of the client
+   * @param listener the listener of the new connection
+   * @param sender   the sender of the new connection
+   * @param id       the seat of the new connection so far, Room.NO_SEAT if it has none
+   * @param resume   the request with the token of the session
+   * @return the seat of the connection afterwards, Room.NO_SEAT if it was closed
    */
-  void disconnectClient(int id) {
-    if (id == 0 || game.isGameOn() && numOfClients == 2) {
-      //Notify all clients if the host is the one disconnecting.
-      suicide();
-    } else {
-      game.removePlayer(id);
-      //Remove player and notify clients about it
-      try {
-        clients[id].close();
-      } catch (IOException e) {
-        e.printStackTrace();
+  synchronized int resumeClient(ServerListener listener, ServerSender sender, int id,
+      ConcreteResume resume) {
+    int seat = sessions.resume(resume.getToken());
+    if (seat == Room.NO_SEAT) {
+      sender.send(new EncodedInfo(new ErrorInfo(ErrorMessages.SESSION_EXPIRED_ERROR)));
+      if (id == Room.NO_SEAT) {
+        sender.disconnect();
       }
-      listeners[id] = null;
+      return id;
+    }
+    if (seat == id) {
+      applyRequest(resume, seat);
+      return seat;
+    }
+    if (clients[seat] != null) {
+      // the former connection of the player was not noticed to be lost yet
+      listeners[seat].notifyDisconnection();
+      senders[seat].disconnect();
+    }
+    if (id != Room.NO_SEAT) {
+      // the seat the new connection was given is free again
       clients[id] = null;
-      senders[id].disconnect();
       senders[id] = null;
+      listeners[id] = null;
       numOfClients--;
-      requestHandler.notifyClientClose();
     }
+    clients[seat] = sender.getClient();
+    senders[seat] = sender;
+    listeners[seat] = listener;
+    applyRequest(resume, seat);
+    return seat;
+  }
+
+  /**
+   * Lets a bot take the next free client slot and join the game.
+   * The host slot is never taken by a bot.
+   *
+   * @param name       the name of the bot in the game
+   * @param difficulty how well the bot plays
+   * @param thinkTime  the milliseconds the bot takes for a turn, its search stops after them
+   * @throws IllegalStateException if there is no free client slot
+   */
+  public synchronized void addBot(String name, Bot.Difficulty difficulty, long thinkTime)
+      throws IllegalStateException {
+    for (int i = Constants.HOST_ID + 1; i < MAX_CLIENTS; i++) {
+      if (clients[i] == null && bots[i] == null && !sessions.isHeld(i)) {
+        bots[i] = new Bot(i, name, game, requestHandler, mailbox, difficulty, thinkTime);
+        numOfClients++;
+        bots[i].join();
+        return;
+      }
+    }
+    throw new IllegalStateException(ErrorMessages.GAME_IS_FULL_ERROR);
   }
 
   /**
-   * Applies the request to the Game.
+   * Disconnects from a certain client, whose seat is held if it has a session.
+   * Runs on the thread of the game, as it reads and changes the game.
+   *
+   * @param id       of the client
+   * @param listener the listener of the client, which may have been replaced meanwhile
+   */
+  void disconnectClient(int id, ServerListener listener) {
+    mailbox.execute(() -> {
+      boolean held;
+      synchronized (this) {
+        if (listeners[id] != listener) {
+          return;
+        }
+        try {
+          clients[id].close();
+        } catch (IOException e) {
+          e.printStackTrace();
+        }
+        listeners[id] = null;
+        clients[id] = null;
+        senders[id].disconnect();
+        senders[id] = null;
+        held = sessions.hold(id, () -> mailbox.execute(() -> giveUp(id)));
+      }
+      if (held) {
+        // the others do not wait for the grace period if it is the turn of the player
+        requestHandler.skipHeldTurn();
+      } else {
+        giveUp(id);
+      }
+    });
+  }
+
+  /**
+   * Removes the player at the given seat, which has no connection anymore.
+   * Runs on the thread of the game, as it reads and changes the game.
+   *
+   * @param id of the client
+   */
+  private void giveUp(int id) {
+    synchronized (this) {
+      if (!running || clients[id] != null) {
+        // stopped, or resumed on a new connection meanwhile
+        return;
+      }
+      sessions.end(id);
+      if (id == 0 || game.isGameOn() && numOfClients == 2) {
+        //Notify all clients if the host is the one disconnecting.
+        suicide();
+        return;
+      }
+      //Remove player and notify clients about it
+      numOfClients--;
+    }
+    game.removePlayer(id);
+    requestHandler.notifyClientClose();
+  }
+
+  /**
+   * Queues the request to be applied to the Game.
    *
    * @param request to be applied
    */
   void applyRequest(Object request, int socketID) {
-    requestHandler.applyRequest(request, socketID);
+    if (botFill != null && socketID == Constants.HOST_ID && request instanceof Request
+        && ((Request) request).getRequestID() == RequestID.START) {
+      // the bots join before the start, which follows them in the mailbox
+      mailbox.execute(() -> {
+        fillWithBots();
+        mailbox.post(request, socketID);
+      });
+      return;
+    }
+    // the listeners and the bots only enqueue, the mailbox applies the requests one by one
+    mailbox.post(request, socketID);
+  }
+
+  /**
+   * Lets bots take the empty client slots before the game starts, on the thread of the game.
+   */
+  private void fillWithBots() {
+    try {
+      for (int bot = 1; !game.isGameOn(); bot++) {
+        addBot("bot" + bot, botFill, Bot.DEFAULT_THINK_TIME);
+      }
+    } catch (IllegalStateException e) {
+      // every slot is taken
+    }
   }
 
   /**
-   * Sends a GameInfo to all clients.
+   * Sends a GameInfo to all clients, it is encoded only once per protocol for all of them.
    *
    * @param info GameInfo to be sent
    */
   public void sendToAll(GameInfo info) {
+    EncodedInfo encoded = new EncodedInfo(info);
     for (ServerSender sender : senders) {
       if (sender != null) {
-        sender.send(info);
+        sender.send(encoded);
+      }
+    }
+    for (Bot bot : bots) {
+      if (bot != null) {
+        bot.receive(info);
       }
     }
   }
@@ -159,10 +318,67 @@ public class RummiServer extends Thread implements Server {
   @Override
   public void sendToPlayer(int playerID, GameInfo info) {
     if (senders[playerID] != null) {
-      senders[playerID].send(info);
+      senders[playerID].send(new EncodedInfo(info));
+    } else if (bots[playerID] != null) {
+      bots[playerID].receive(info);
     }
   }
 
+  /**
+   * Sends GameInfos to a specified player at once.
+   *
+   * @param playerID id of the player (0-n)
+   * @param infos    GameInfos getting sent to the player
+   */
+  @Override
+  public void sendBatch(int playerID, List<EncodedInfo> infos) {
+    if (senders[playerID] != null) {
+      senders[playerID].send(infos);
+    } else if (bots[playerID] != null) {
+      for (EncodedInfo info : infos) {
+        bots[playerID].receive(info.getInfo());
+      }
+    }
+  }
+
+  @Override
+  public synchronized boolean isSeated(int playerID) {
+    return senders[playerID] != null || bots[playerID] != null;
+  }
+
+  /**
+   * Lets the game resend the latest state of the grids to the client of a sender which
+   * dropped their queued states.
+   *
+   * @param sender the sender
+   */
+  synchronized void resync(ServerSender sender) {
+    for (int id = 0; id < senders.length; id++) {
+      if (senders[id] == sender) {
+        applyRequest(new SimpleRequest(RequestID.RESYNC), id);
+      }
+    }
+  }
+
+  /**
+   * Describes the threads of the listeners and the queues of the senders of the clients.
+   *
+   * @return the kind of the threads, the depth of each queue, its largest depth,
+   *     the dropped GameInfos and the overflows
+   */
+  public synchronized String status() {
+    StringBuilder status = new StringBuilder("threads=").append(ServerThreads.kind());
+    for (int id = 0; id < senders.length; id++) {
+      if (senders[id] != null) {
+        status.append(" ").append(id)
+            .append(": queued=").append(senders[id].getQueued())
+            .append(" maxQueued=").append(senders[id].getMaxQueued())
+            .append(" dropped=").append(senders[id].getDropped())
+            .append(" overflows=").append(senders[id].getOverflows());
+      }
+    }
+    return status.toString();
+  }
 
   /**
    * Returns the IP-address of the server.
@@ -179,12 +395,16 @@ public class RummiServer extends Thread implements Server {
    * Stops the thread and closes the closables.
    */
   private void suicide() {
+    sessions.close();
+    // the clients do not try to resume the game
+    EncodedInfo closed = new EncodedInfo(new SimpleGameInfo(GameInfoID.SERVER_NOT_AVAILABLE));
     try {
       for (int id = 0; id < clients.length; id++) {
         if (clients[id] != null) {
+          senders[id].send(closed);
           // notify listener that server closes it
           listeners[id].notifyDisconnection();
-          clients[id].close();
+          // closes the socket once the GameInfo is written
           senders[id].disconnect();
         }
       }
@@ -25,6 +25,17 @@ public interface Server {
    */
   public void sendToPlayer(int playerId, GameInfo info);
 
+  /**
+   * Sends a GameInfo to the spectators of the game, if the server has spectators.
+   * Spectators see the game like player 0 without its hand.
+   *
+   * @param info     GameInfo to be sent
+   * @param snapshot GameInfo with the whole state info changes, for spectators that missed
+   *                 GameInfos, info itself unless it is a delta
+   */
+  public default void sendToSpectators(GameInfo info, GameInfo snapshot) {
+  }
+
   /**
    * Returns the IP-address of the server.
    *
@@ -1,35 +1,55 @@
 package network.server;
 
+import communication.BinaryCodec;
 import communication.Deserializer;
+import communication.EncodedInfo;
+import communication.FrameReader;
+import communication.gameinfo.ErrorInfo;
+import communication.gameinfo.GameInfoID;
+import communication.gameinfo.SimpleGameInfo;
+import communication.request.ConcreteResume;
 import communication.request.Request;
+import communication.request.RequestID;
+import globalconstants.ErrorMessages;
 import java.io.IOException;
 import java.net.Socket;
-import java.util.NoSuchElementException;
-import java.util.Scanner;
 
 /**
- * Thread listening for requests coming from a certain client.
+ * Task listening for requests coming from a certain client.
  * Processes these requests and applies them.
+ * It runs on a platform or a virtual thread started by ServerThreads.
+ * The first byte of the client chooses between lines of JSON and frames of the BinaryCodec,
+ * the ServerSender of the client is switched to the same protocol.
+ * Messages are read by a FrameReader, a client sending a message which is too long or
+ * can not be decoded is disconnected. The requests of a seated client reach the game through
+ * the RequestThrottle of its connection.
+ * A client without a seat may only resume the seat of its session, which gives the listener
+ * the id of that seat.
  */
-public class ServerListener extends Thread {
+public class ServerListener implements Runnable {
   private RummiServer server;
+  private ServerSender sender;
   private Socket clientIn;
   private int id;
-  private boolean connected;
+  private volatile boolean connected;
   private Request request;
-  private Scanner in;
+  private FrameReader in;
   private Deserializer deserializer;
+  private BinaryCodec codec;
+  private RequestThrottle throttle;
 
   /**
    * Constructor setting the necessary instance variables.
    *
    * @param clientIn client the listener listens to
    * @param server   the listener corresponds to
-   * @param id       of the listener, assigned by the server
+   * @param sender   the sender of the same client
+   * @param id       of the listener, assigned by the server, Room.NO_SEAT if it has no seat
    */
-  ServerListener(Socket clientIn, RummiServer server, int id) {
+  ServerListener(Socket clientIn, RummiServer server, ServerSender sender, int id) {
     this.clientIn = clientIn;
     this.server = server;
+    this.sender = sender;
     this.id = id;
     deserializer = new Deserializer();
     this.connected = true;
@@ -41,14 +61,25 @@ public class ServerListener extends Thread {
   @Override
   public void run() {
     try {
-      in = new Scanner(clientIn.getInputStream());
+      in = new FrameReader(clientIn.getInputStream());
+      if (in.skip(BinaryCodec.MAGIC)) {
+        codec = new BinaryCodec();
+        sender.useBinary();
+      }
     } catch (IOException e) {
       return;
     }
     while (connected) {
       connected = processMessages();
     }
-    in.close();
+    if (throttle != null) {
+      throttle.close();
+    }
+    try {
+      in.close();
+    } catch (IOException e) {
+      // the socket is closed anyway
+    }
   }
 
   /**
@@ -57,20 +88,64 @@ public class ServerListener extends Thread {
    * @return boolean indicating if the Listener is still connected.
    */
   private boolean processMessages() {
-    String json;
-    try {
-      json = in.nextLine();
-    } catch (NoSuchElementException e) {
-      if (connected) {
-        server.disconnectClient(id);
+    if (codec != null) {
+      request = readFrame();
+    } else {
+      request = readLine();
+    }
+    if (request == null) {
+      if (connected && id != Room.NO_SEAT) {
+        server.disconnectClient(id, this);
+      } else if (connected) {
+        sender.disconnect();
       }
       return false;
     }
-    request = deserializer.deserializeRequest(json);
-    server.applyRequest(request, id);
+    if (request.getRequestID() == RequestID.RESUME) {
+      id = server.resumeClient(this, sender, id, (ConcreteResume) request);
+      if (throttle != null) {
+        // the seat may have changed
+        throttle.close();
+        throttle = null;
+      }
+      return id != Room.NO_SEAT;
+    }
+    if (id == Room.NO_SEAT) {
+      // the table is full, apart from the seats held for other players
+      sender.send(new EncodedInfo(new SimpleGameInfo(GameInfoID.TOO_MANY_CLIENTS)));
+      sender.disconnect();
+      return false;
+    }
+    if (throttle == null) {
+      int seat = id;
+      throttle = new RequestThrottle(throttled -> server.applyRequest(throttled, seat));
+    }
+    if (!throttle.offer(request)) {
+      sender.send(new EncodedInfo(new ErrorInfo(ErrorMessages.TOO_MANY_REQUESTS_ERROR)));
+    }
     return true;
   }
 
+  private Request readLine() {
+    try {
+      String json = in.readLine();
+      return json == null ? null : deserializer.deserializeRequest(json);
+    } catch (IOException | RuntimeException e) {
+      // a broken line ends the connection like a closed socket
+      return null;
+    }
+  }
+
+  private Request readFrame() {
+    try {
+      int length = in.readFrame();
+      return length < 0 ? null : codec.decodeRequest(in.getBuffer(), length);
+    } catch (IOException | IllegalArgumentException e) {
+      // a broken frame ends the connection like a closed socket
+      return null;
+    }
+  }
+
   /** Sets the disconnection before server closes, so that it ignores the Exception. */
   void notifyDisconnection() {
     connected = false;
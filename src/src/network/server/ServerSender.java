@@ -1,51 +1,183 @@
 package network.server;
 
-import communication.Serializer;
-import communication.gameinfo.GameInfo;
+import communication.EncodedInfo;
+import communication.gameinfo.GameInfoID;
 
+import java.io.BufferedOutputStream;
 import java.io.IOException;
-import java.io.PrintWriter;
+import java.io.OutputStream;
 import java.net.Socket;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
 
 /**
- * Thread sending GameInfos to a certain client.
+ * Sends GameInfos to a certain client from a thread of its own.
+ * The callers, usually the thread of the game, only queue the GameInfos, so that a client which
+ * reads slowly does not hold up the game and the other players. The thread writes everything
+ * queued with a single flush.
+ * The queue is bounded, a client whose queue is full is handled by the overflow policy:
+ * KEEP_LATEST drops the queued states of the table and the hand but their latest snapshots,
+ * a grid whose latest state is a delta is replaced by its snapshot once the game resent it.
+ * If there are no states to drop, the connection is closed. DISCONNECT closes the connection.
+ * The queue is guarded by a ReentrantLock instead of synchronized, so that a virtual thread
+ * waiting for it does not pin its carrier thread.
  */
-public class ServerSender extends Thread {
-  private Socket clientOut;
-  private RummiServer server;
-  private int id;
+public class ServerSender {
+  /** System property choosing the overflow policy, keep-latest or disconnect. */
+  static final String OVERFLOW_PROPERTY = "rummikub.server.overflow";
+  /** Number of GameInfos which may wait for a client. */
+  static final int DEFAULT_CAPACITY = 256;
+  /** Milliseconds a disconnected client gets to read the GameInfos queued for it. */
+  static final long LINGER = TimeUnit.SECONDS.toMillis(5);
+
+  private static final ScheduledExecutorService CLOSE_TIMER =
+      Executors.newSingleThreadScheduledExecutor(task -> {
+        Thread thread = new Thread(task, "rummi-sender-close");
+        thread.setDaemon(true);
+        return thread;
+      });
+
+  /**
+   * What happens to a client whose queue is full.
+   */
+  enum Overflow {
+    /** Drops the queued states of the grids but their latest snapshots. */
+    KEEP_LATEST,
+    /** Closes the connection. */
+    DISCONNECT;
+
+    /**
+     * Returns the policy chosen by the system property OVERFLOW_PROPERTY.
+     *
+     * @return DISCONNECT if the property is disconnect, KEEP_LATEST otherwise
+     */
+    static Overflow configured() {
+      return "disconnect".equalsIgnoreCase(System.getProperty(OVERFLOW_PROPERTY))
+          ? DISCONNECT : KEEP_LATEST;
+    }
+  }
+
+  private final Socket clientOut;
+  private final RummiServer server;
+  private final int id;
+  private final int capacity;
+  private final Overflow overflow;
+  private final ReentrantLock lock = new ReentrantLock();
+  private final Condition queued = lock.newCondition();
+  private final Deque<EncodedInfo> queue = new ArrayDeque<>();
+  private final boolean[] lagging = new boolean[2];
+  private volatile boolean binary;
+  private OutputStream out;
   private boolean connected = true;
-  private Serializer serializer;
-  private PrintWriter out;
+  private boolean closing;
+  private int maxQueued;
+  private long dropped;
+  private long overflows;
 
   /**
-   * Constructor setting the necessary instance variables.
+   * Constructor setting the necessary instance variables and starting the thread of the sender.
    *
    * @param clientOut client the Sender sends to
    * @param server    corresponding to the Sender
    * @param id        fo the Sender, assigned by the server
    */
   ServerSender(Socket clientOut, RummiServer server, int id) {
+    this(clientOut, server, id, DEFAULT_CAPACITY, Overflow.configured());
+  }
+
+  /**
+   * Constructor setting the necessary instance variables and starting the thread of the sender.
+   *
+   * @param clientOut client the Sender sends to
+   * @param server    corresponding to the Sender, which resends the grids after an overflow,
+   *                  may be null
+   * @param id        fo the Sender, assigned by the server
+   * @param capacity  the number of GameInfos which may wait for the client
+   * @param overflow  what happens if the queue is full
+   */
+  ServerSender(Socket clientOut, RummiServer server, int id, int capacity, Overflow overflow) {
     this.clientOut = clientOut;
     this.server = server;
     this.id = id;
-    this.serializer = new Serializer();
+    this.capacity = capacity;
+    this.overflow = overflow;
     try {
-      this.out = new PrintWriter(clientOut.getOutputStream());
+      this.out = new BufferedOutputStream(clientOut.getOutputStream());
     } catch (IOException e) {
       e.printStackTrace();
+      connected = false;
+      return;
     }
+    ServerThreads.start(this::drain, "rummi-sender-" + id);
   }
 
   /**
-   * Sends a GameInfo to the client.
+   * Queues a GameInfo for the client, in bytes which may be shared with other clients.
    *
    * @param info to be sent
    */
-  synchronized void send(GameInfo info) {
-    String json = serializer.serialize(info);
-    out.println(json);
-    out.flush();
+  void send(EncodedInfo info) {
+    List<EncodedInfo> infos = new ArrayList<>(1);
+    infos.add(info);
+    send(infos);
+  }
+
+  /**
+   * Queues GameInfos for the client, which are written together.
+   *
+   * @param infos to be sent
+   */
+  void send(List<EncodedInfo> infos) {
+    boolean resync = false;
+    lock.lock();
+    try {
+      if (!connected || closing) {
+        return;
+      }
+      for (EncodedInfo info : infos) {
+        if (queue.size() >= capacity) {
+          overflows++;
+          if (overflow == Overflow.DISCONNECT || !dropGrids()) {
+            abort();
+            return;
+          }
+          resync |= lagging[0] || lagging[1];
+        }
+        GameInfoID infoID = info.getInfo().getGameInfoID();
+        int grid = gridOf(infoID);
+        if (grid >= 0 && lagging[grid]) {
+          if (!isSnapshot(infoID)) {
+            // the client misses the state this delta is based on, a snapshot replaces it
+            dropped++;
+            continue;
+          }
+          lagging[grid] = false;
+        }
+        queue.add(info);
+      }
+      maxQueued = Math.max(maxQueued, queue.size());
+      queued.signal();
+    } finally {
+      lock.unlock();
+    }
+    if (resync && server != null) {
+      server.resync(this);
+    }
+  }
+
+  /**
+   * Switches to the binary protocol, the client chose it before its first request.
+   */
+  void useBinary() {
+    binary = true;
   }
 
   /**
@@ -58,33 +190,185 @@ public class ServerSender extends Thread {
   }
 
   /**
-   * Waits for the send-method being invoked and then sends the GameInfo.
+   * Disconnects from the client, once the GameInfos queued before are written.
+   * A client which does not read them within the LINGER time is closed anyway.
+   */
+  void disconnect() {
+    lock.lock();
+    try {
+      if (!connected || closing) {
+        return;
+      }
+      closing = true;
+      queued.signal();
+    } finally {
+      lock.unlock();
+    }
+    CLOSE_TIMER.schedule(this::abort, LINGER, TimeUnit.MILLISECONDS);
+  }
+
+  /**
+   * Returns the number of GameInfos waiting for the client.
+   *
+   * @return the depth of the queue
+   */
+  int getQueued() {
+    lock.lock();
+    try {
+      return queue.size();
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Returns the largest number of GameInfos which waited for the client at once.
+   *
+   * @return the largest depth of the queue
+   */
+  int getMaxQueued() {
+    lock.lock();
+    try {
+      return maxQueued;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Returns the number of states of the grids which were dropped after an overflow.
+   *
+   * @return the number of dropped GameInfos
    */
-  @Override
-  public void run() {
-    synchronized (this) {
+  long getDropped() {
+    lock.lock();
+    try {
+      return dropped;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Returns how often the queue was full.
+   *
+   * @return the number of overflows
+   */
+  long getOverflows() {
+    lock.lock();
+    try {
+      return overflows;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Writes the queued GameInfos until the sender is disconnected, runs on the thread of the
+   * sender.
+   */
+  private void drain() {
+    List<EncodedInfo> batch = new ArrayList<>();
+    while (true) {
+      lock.lock();
       try {
-        while (connected) {
-          wait();
+        while (connected && queue.isEmpty() && !closing) {
+          queued.awaitUninterruptibly();
         }
-      } catch (Exception e) {
-        this.connected = false;
+        if (!connected || queue.isEmpty()) {
+          break;
+        }
+        batch.addAll(queue);
+        queue.clear();
+      } finally {
+        lock.unlock();
+      }
+      try {
+        for (EncodedInfo info : batch) {
+          info.writeTo(out, binary);
+        }
+        out.flush();
+      } catch (IOException e) {
+        // the listener of the client notices the closed connection
+        break;
+      }
+      batch.clear();
+    }
+    abort();
+  }
+
+  /**
+   * Drops the queued states of the grids, called with the lock held.
+   * The last state of a grid is kept if it is a snapshot, otherwise the grid is lagging until
+   * the game resent it.
+   *
+   * @return false if there were none to drop
+   */
+  private boolean dropGrids() {
+    EncodedInfo[] latest = new EncodedInfo[lagging.length];
+    for (EncodedInfo info : queue) {
+      int grid = gridOf(info.getInfo().getGameInfoID());
+      if (grid >= 0) {
+        latest[grid] = info;
+      }
+    }
+    int before = queue.size();
+    Iterator<EncodedInfo> infos = queue.iterator();
+    while (infos.hasNext()) {
+      EncodedInfo info = infos.next();
+      int grid = gridOf(info.getInfo().getGameInfoID());
+      if (grid < 0 || info == latest[grid] && isSnapshot(info.getInfo().getGameInfoID())) {
+        continue;
+      }
+      infos.remove();
+      if (!isSnapshot(latest[grid].getInfo().getGameInfoID())) {
+        lagging[grid] = true;
       }
     }
-    System.out.println("From ServerSender: Sender terminates.. id: " + id);
+    dropped += before - queue.size();
+    return queue.size() < before;
   }
 
   /**
-   * Disconnects from the client.
+   * Closes the connection at once, dropping the queued GameInfos.
    */
-  synchronized void disconnect() {
-    this.connected = false;
+  private void abort() {
+    lock.lock();
+    try {
+      if (!connected) {
+        return;
+      }
+      connected = false;
+      queue.clear();
+      queued.signal();
+    } finally {
+      lock.unlock();
+    }
     try {
-      this.clientOut.close();
-      out.close();
+      // closing the socket also ends a write blocked on a client which does not read
+      clientOut.close();
     } catch (IOException e) {
       e.printStackTrace();
     }
-    notifyAll();
+  }
+
+  /**
+   * Returns the grid whose state a GameInfo holds, 0 for the table, 1 for the hand, -1 for none.
+   */
+  static int gridOf(GameInfoID id) {
+    switch (id) {
+      case TABLE:
+      case TABLE_DELTA:
+        return 0;
+      case HAND:
+      case HAND_DELTA:
+        return 1;
+      default:
+        return -1;
+    }
+  }
+
+  static boolean isSnapshot(GameInfoID id) {
+    return id == GameInfoID.TABLE || id == GameInfoID.HAND;
   }
 }
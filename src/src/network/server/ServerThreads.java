@@ -0,0 +1,65 @@
+package network.server;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Creates the threads of the ServerListeners, either platform threads or virtual threads.
+ * Virtual threads are only available from Java 21 on, they are looked up by reflection so that
+ * the server still runs on older versions, which fall back to platform threads. The status of
+ * the server tells which kind of threads it runs on.
+ */
+final class ServerThreads {
+  /** System property which is true if the listeners run on virtual threads. */
+  static final String VIRTUAL_PROPERTY = "rummikub.server.virtual";
+
+  private static final ThreadFactory PLATFORM = Thread::new;
+  private static final ThreadFactory FACTORY = factory(Boolean.getBoolean(VIRTUAL_PROPERTY));
+
+  private ServerThreads() {
+  }
+
+  /**
+   * Returns a factory of virtual threads if they are asked for and available,
+   * else a factory of platform threads.
+   *
+   * @param virtual true if virtual threads are asked for
+   * @return the factory
+   */
+  static ThreadFactory factory(boolean virtual) {
+    if (virtual) {
+      try {
+        Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+        Method factory = Class.forName("java.lang.Thread$Builder").getMethod("factory");
+        return (ThreadFactory) factory.invoke(builder);
+      } catch (ReflectiveOperationException e) {
+        // before Java 21, the status reports the platform threads
+      }
+    }
+    return PLATFORM;
+  }
+
+  /**
+   * Returns the kind of the threads started, which is platform if virtual threads were asked
+   * for but are not available.
+   *
+   * @return virtual or platform
+   */
+  static String kind() {
+    return FACTORY == PLATFORM ? "platform" : "virtual";
+  }
+
+  /**
+   * Starts the given task on a new thread of the configured kind.
+   *
+   * @param task the task
+   * @param name of the thread
+   * @return the started thread
+   */
+  static Thread start(Runnable task, String name) {
+    Thread thread = FACTORY.newThread(task);
+    thread.setName(name);
+    thread.start();
+    return thread;
+  }
+}
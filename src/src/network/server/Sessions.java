@@ -0,0 +1,167 @@
+package network.server;
+
+import globalconstants.Constants;
+import java.security.SecureRandom;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The sessions of the players of a game, which let a player resume its seat on a new connection.
+ * A player gets the token of its session when it joins. If its connection is lost, its seat and
+ * hand are held for a grace period, in which a new connection resumes the seat with the token.
+ * The seat stays held until the game gives it up with end, once the grace period is over.
+ * Meanwhile the RequestHandler times out the turns of the seat, the grace period keeps the hand
+ * of the player but does not stop the others.
+ */
+final class Sessions {
+  /** Milliseconds a seat is held after its connection was lost. */
+  static final long DEFAULT_GRACE = TimeUnit.SECONDS.toMillis(60);
+
+  private static final int TOKEN_BYTES = 16;
+  private static final ScheduledExecutorService SHARED_TIMER =
+      Executors.newSingleThreadScheduledExecutor(task -> {
+        Thread thread = new Thread(task, "rummi-sessions");
+        thread.setDaemon(true);
+        return thread;
+      });
+
+  private final long grace;
+  private final ScheduledExecutorService timer;
+  private final SecureRandom random = new SecureRandom();
+  private final String[] tokens = new String[Constants.MAX_PLAYERS];
+  private final ScheduledFuture<?>[] held = new ScheduledFuture<?>[Constants.MAX_PLAYERS];
+  private boolean closed;
+
+  /**
+   * Creates the sessions of a game with the default grace period.
+   */
+  Sessions() {
+    this(DEFAULT_GRACE, SHARED_TIMER);
+  }
+
+  /**
+   * Creates the sessions of a game.
+   *
+   * @param grace the milliseconds a seat is held after its connection was lost
+   * @param timer the executor giving up the seats after the grace period
+   */
+  Sessions(long grace, ScheduledExecutorService timer) {
+    this.grace = grace;
+    this.timer = timer;
+  }
+
+  /**
+   * Starts a new session for a seat, replacing its former session.
+   *
+   * @param seat the seat of the player
+   * @return the token of the session
+   */
+  synchronized String issue(int seat) {
+    cancel(seat);
+    byte[] bytes = new byte[TOKEN_BYTES];
+    random.nextBytes(bytes);
+    StringBuilder token = new StringBuilder(2 * TOKEN_BYTES);
+    for (byte b : bytes) {
+      token.append(Character.forDigit((b >> 4) & 0xf, 16));
+      token.append(Character.forDigit(b & 0xf, 16));
+    }
+    tokens[seat] = token.toString();
+    return tokens[seat];
+  }
+
+  /**
+   * Holds the seat of a player whose connection was lost, if it has a session.
+   *
+   * @param seat   the seat of the player
+   * @param giveUp run once the grace period is over without the seat being resumed,
+   *               which has to end the session
+   * @return true if the seat is held, false if the player has no session
+   */
+  synchronized boolean hold(int seat, Runnable giveUp) {
+    if (closed || tokens[seat] == null) {
+      return false;
+    }
+    cancel(seat);
+    ScheduledFuture<?>[] future = new ScheduledFuture<?>[1];
+    future[0] = timer.schedule(() -> {
+      synchronized (this) {
+        // the seat may have been resumed meanwhile
+        if (held[seat] != future[0]) {
+          return;
+        }
+      }
+      giveUp.run();
+    }, grace, TimeUnit.MILLISECONDS);
+    held[seat] = future[0];
+    return true;
+  }
+
+  /**
+   * Resumes the session with the given token, the seat is not held anymore.
+   *
+   * @param token the token of the session
+   * @return the seat of the session, Room.NO_SEAT if there is no session with the token
+   */
+  synchronized int resume(String token) {
+    for (int seat = 0; !closed && token != null && seat < tokens.length; seat++) {
+      if (token.equals(tokens[seat])) {
+        cancel(seat);
+        return seat;
+      }
+    }
+    return Room.NO_SEAT;
+  }
+
+  /**
+   * Returns whether the seat of a player is held for it.
+   *
+   * @param seat the seat
+   * @return true if the seat is held
+   */
+  synchronized boolean isHeld(int seat) {
+    return held[seat] != null;
+  }
+
+  /**
+   * Returns whether any seat is held.
+   *
+   * @return true if a seat is held
+   */
+  synchronized boolean isAnyHeld() {
+    for (ScheduledFuture<?> future : held) {
+      if (future != null) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Ends the session of a seat, which can not be resumed anymore.
+   *
+   * @param seat the seat
+   */
+  synchronized void end(int seat) {
+    cancel(seat);
+    tokens[seat] = null;
+  }
+
+  /**
+   * Ends all sessions, the held seats are not given up anymore.
+   */
+  synchronized void close() {
+    closed = true;
+    for (int seat = 0; seat < tokens.length; seat++) {
+      end(seat);
+    }
+  }
+
+  private void cancel(int seat) {
+    if (held[seat] != null) {
+      held[seat].cancel(false);
+      held[seat] = null;
+    }
+  }
+}
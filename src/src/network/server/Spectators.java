@@ -0,0 +1,221 @@
+package network.server;
+
+import communication.EncodedInfo;
+import communication.gameinfo.GameInfo;
+import communication.gameinfo.GameInfoID;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * The spectators of a game, who get the GameInfos all players get and the ones of player 0
+ * except its hand, without taking a seat.
+ * The game only hands its GameInfos over, they are sent to the spectators in tasks on an executor
+ * shared by the spectators of all games, so that many spectators do not slow down the game.
+ * The queue of a spectator is made of the messages waiting in its connection, it holds at most
+ * capacity messages. A spectator with a full queue misses the following GameInfos, and gets
+ * the state of the game instead once its queue is empty again.
+ */
+final class Spectators {
+  /** Number of messages which may wait for a spectator. */
+  static final int DEFAULT_CAPACITY = 64;
+
+  private static final int BATCH_SIZE = 64;
+  private static final Executor SHARED_EXECUTOR =
+      Executors.newFixedThreadPool(Math.max(1, Runtime.getRuntime().availableProcessors() / 2),
+          task -> {
+            Thread thread = new Thread(task, "rummi-spectators");
+            thread.setDaemon(true);
+            return thread;
+          });
+
+  private final int capacity;
+  private final Executor executor;
+  private final Queue<Runnable> tasks = new ConcurrentLinkedQueue<>();
+  private final AtomicBoolean scheduled = new AtomicBoolean();
+  // the fields below are only used by the tasks, one at a time
+  private final List<Spectator> spectators = new ArrayList<>();
+  private final Map<GameInfoID, EncodedInfo> state = new LinkedHashMap<>();
+  private boolean closed;
+  private volatile int size;
+  private volatile long snapshots;
+
+  /**
+   * A spectator and whether it missed GameInfos.
+   */
+  private static final class Spectator {
+    private final Connection connection;
+    private boolean lagging;
+
+    Spectator(Connection connection) {
+      this.connection = connection;
+    }
+  }
+
+  /**
+   * Creates the spectators of a game, which are sent to on the shared executor.
+   */
+  Spectators() {
+    this(DEFAULT_CAPACITY, SHARED_EXECUTOR);
+  }
+
+  /**
+   * Creates the spectators of a game.
+   *
+   * @param capacity the number of messages which may wait for a spectator
+   * @param executor the executor the GameInfos are sent on
+   */
+  Spectators(int capacity, Executor executor) {
+    this.capacity = capacity;
+    this.executor = executor;
+  }
+
+  /**
+   * Adds a spectator, who gets the state of the game first.
+   *
+   * @param connection the connection of the spectator
+   */
+  void add(Connection connection) {
+    execute(() -> {
+      if (closed) {
+        connection.disconnect();
+        return;
+      }
+      sendState(connection);
+      spectators.add(new Spectator(connection));
+      size = spectators.size();
+    });
+  }
+
+  /**
+   * Removes a spectator.
+   *
+   * @param connection the connection of the spectator
+   */
+  void remove(Connection connection) {
+    execute(() -> {
+      spectators.removeIf(spectator -> spectator.connection == connection);
+      size = spectators.size();
+    });
+  }
+
+  /**
+   * Sends the state of the game to a spectator which missed a GameInfo.
+   *
+   * @param connection the connection of the spectator
+   */
+  void resync(Connection connection) {
+    execute(() -> {
+      for (Spectator spectator : spectators) {
+        if (spectator.connection == connection) {
+          spectator.lagging = false;
+          sendState(connection);
+        }
+      }
+    });
+  }
+
+  /**
+   * Hands a GameInfo over to be sent to all spectators, from the thread of the game.
+   *
+   * @param info     the GameInfo
+   * @param snapshot the GameInfo replacing all earlier ones of its id in the state of the game,
+   *                 info itself unless it is a delta
+   */
+  void publish(GameInfo info, GameInfo snapshot) {
+    EncodedInfo encoded = new EncodedInfo(info);
+    EncodedInfo encodedSnapshot = snapshot == info ? encoded : new EncodedInfo(snapshot);
+    execute(() -> dispatch(encoded, encodedSnapshot));
+  }
+
+  /**
+   * Closes the connections of all spectators, as soon as the GameInfos handed over before
+   * are sent.
+   */
+  void close() {
+    execute(() -> {
+      closed = true;
+      for (Spectator spectator : spectators) {
+        spectator.connection.disconnect();
+      }
+      spectators.clear();
+      size = 0;
+    });
+  }
+
+  int size() {
+    return size;
+  }
+
+  /**
+   * Returns how often a spectator got the state of the game after missing GameInfos.
+   *
+   * @return the number of snapshots
+   */
+  long getSnapshots() {
+    return snapshots;
+  }
+
+  private void dispatch(EncodedInfo info, EncodedInfo snapshot) {
+    GameInfoID id = snapshot.getInfo().getGameInfoID();
+    // the state keeps the order in which the GameInfos were last sent
+    state.remove(id);
+    state.put(id, snapshot);
+    List<EncodedInfo> stateInfos = null;
+    for (Spectator spectator : spectators) {
+      int backlog = spectator.connection.backlog();
+      if (spectator.lagging) {
+        if (backlog == 0) {
+          // the state includes this GameInfo
+          spectator.lagging = false;
+          if (stateInfos == null) {
+            stateInfos = new ArrayList<>(state.values());
+          }
+          spectator.connection.send(stateInfos);
+          snapshots++;
+        }
+      } else if (backlog >= capacity) {
+        spectator.lagging = true;
+      } else {
+        spectator.connection.send(info);
+      }
+    }
+  }
+
+  private void sendState(Connection connection) {
+    if (!state.isEmpty()) {
+      connection.send(new ArrayList<>(state.values()));
+    }
+  }
+
+  private void execute(Runnable task) {
+    tasks.add(task);
+    if (scheduled.compareAndSet(false, true)) {
+      executor.execute(this::drain);
+    }
+  }
+
+  /**
+   * Runs a batch of the queued tasks like the GameMailbox does.
+   */
+  private void drain() {
+    Runnable task;
+    for (int i = 0; i < BATCH_SIZE && (task = tasks.poll()) != null; i++) {
+      try {
+        task.run();
+      } catch (RuntimeException e) {
+        e.printStackTrace();
+      }
+    }
+    scheduled.set(false);
+    if (!tasks.isEmpty() && scheduled.compareAndSet(false, true)) {
+      executor.execute(this::drain);
+    }
+  }
+}
@@ -0,0 +1,87 @@
+package communication;
+
+import communication.gameinfo.GameInfo;
+import communication.gameinfo.GameInfoID;
+import communication.gameinfo.GridInfo;
+import communication.gameinfo.StoneInfo;
+import communication.request.ConcreteMove;
+import communication.request.Request;
+import communication.request.RequestID;
+import globalconstants.Constants;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+
+/**
+ * Micro benchmark comparing the binary protocol with the JSON of Gson,
+ * in bytes per message and in ns per encoded or decoded message.
+ * Not a JUnit test, run it with its main method.
+ */
+public class BinaryCodecBenchmark {
+  private static final int WARM_UP_ROUNDS = 20_000;
+  private static final int MEASURED_ROUNDS = 50_000;
+  private static final String[] COLORS = {"RED", "BLACK", "YELLOW", "BLUE"};
+
+  // keeps the decoded messages from being optimized away
+  private static int sink;
+
+  public static void main(String[] args) {
+    Random random = new Random(1);
+    measure("empty table", new GridInfo(GameInfoID.TABLE, grid(random, 0)));
+    measure("late game table", new GridInfo(GameInfoID.TABLE, grid(random, 80)));
+    measure("move", new ConcreteMove(RequestID.TABLE_MOVE, 12, 3, 14, 5));
+  }
+
+  /**
+   * Returns a table with the given number of random stones.
+   */
+  private static StoneInfo[][] grid(Random random, int stones) {
+    StoneInfo[][] grid = new StoneInfo[Constants.TABLE_WIDTH][Constants.TABLE_HEIGHT];
+    for (int i = 0; i < stones; i++) {
+      grid[random.nextInt(Constants.TABLE_WIDTH)][random.nextInt(Constants.TABLE_HEIGHT)] =
+          new StoneInfo(COLORS[random.nextInt(COLORS.length)], 1 + random.nextInt(13));
+    }
+    return grid;
+  }
+
+  private static void measure(String name, Object message) {
+    Serializer serializer = new Serializer();
+    Deserializer deserializer = new Deserializer();
+    BinaryCodec codec = new BinaryCodec();
+    boolean isInfo = message instanceof GameInfo;
+    String json = isInfo ? serializer.serialize((GameInfo) message)
+        : serializer.serialize((Request) message);
+    byte[] binary = isInfo ? codec.encode((GameInfo) message) : codec.encode((Request) message);
+
+    long[] nanos = new long[4];
+    for (int rounds : new int[] {WARM_UP_ROUNDS, MEASURED_ROUNDS}) {
+      long start = System.nanoTime();
+      for (int i = 0; i < rounds; i++) {
+        json = isInfo ? serializer.serialize((GameInfo) message)
+            : serializer.serialize((Request) message);
+      }
+      nanos[0] = (System.nanoTime() - start) / rounds;
+      start = System.nanoTime();
+      for (int i = 0; i < rounds; i++) {
+        Object decoded = isInfo ? deserializer.deserializeInfo(json)
+            : deserializer.deserializeRequest(json);
+        sink ^= System.identityHashCode(decoded);
+      }
+      nanos[1] = (System.nanoTime() - start) / rounds;
+      start = System.nanoTime();
+      for (int i = 0; i < rounds; i++) {
+        binary = isInfo ? codec.encode((GameInfo) message) : codec.encode((Request) message);
+      }
+      nanos[2] = (System.nanoTime() - start) / rounds;
+      start = System.nanoTime();
+      for (int i = 0; i < rounds; i++) {
+        Object decoded = isInfo ? codec.decodeInfo(binary) : codec.decodeRequest(binary);
+        sink ^= System.identityHashCode(decoded);
+      }
+      nanos[3] = (System.nanoTime() - start) / rounds;
+    }
+    System.out.println(name + ": json " + json.getBytes(StandardCharsets.UTF_8).length
+        + " bytes, encode " + nanos[0] + " ns/op, decode " + nanos[1] + " ns/op; binary "
+        + BinaryCodec.frame(binary).length + " bytes, encode " + nanos[2]
+        + " ns/op, decode " + nanos[3] + " ns/op (" + (sink & 1) + ")");
+  }
+}
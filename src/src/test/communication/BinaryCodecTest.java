@@ -0,0 +1,170 @@
+package communication;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import communication.gameinfo.CurrentPlayerInfo;
+import communication.gameinfo.ErrorInfo;
+import communication.gameinfo.GameInfoID;
+import communication.gameinfo.GridDeltaInfo;
+import communication.gameinfo.GridInfo;
+import communication.gameinfo.HandSizesInfo;
+import communication.gameinfo.PlayerNamesInfo;
+import communication.gameinfo.RankInfo;
+import communication.gameinfo.RoomsInfo;
+import communication.gameinfo.SessionInfo;
+import communication.gameinfo.SimpleGameInfo;
+import communication.gameinfo.StoneInfo;
+import communication.request.ConcreteMove;
+import communication.request.ConcreteSetPlayer;
+import communication.request.ConcreteResume;
+import communication.request.ConcreteSpectateRoom;
+import communication.request.ConcreteStart;
+import communication.request.RequestID;
+import communication.request.SimpleRequest;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import org.junit.Test;
+
+public class BinaryCodecTest {
+  private final BinaryCodec codec = new BinaryCodec();
+
+  @Test
+  public void requestTest() {
+    ConcreteMove move = (ConcreteMove) codec.decodeRequest(
+        codec.encode(new ConcreteMove(RequestID.TABLE_MOVE, 25, 7, 0, -1)));
+    assertEquals(RequestID.TABLE_MOVE, move.getRequestID());
+    assertEquals(25, move.getInitCol());
+    assertEquals(7, move.getInitRow());
+    assertEquals(0, move.getTargetCol());
+    assertEquals(-1, move.getTargetRow());
+
+    ConcreteSetPlayer setPlayer = (ConcreteSetPlayer) codec.decodeRequest(
+        codec.encode(new ConcreteSetPlayer("J\u00fcrgen", 42)));
+    assertEquals("J\u00fcrgen", setPlayer.getName());
+    assertEquals(42, setPlayer.getAge());
+
+    assertEquals(Long.MIN_VALUE, ((ConcreteStart) codec.decodeRequest(
+        codec.encode(new ConcreteStart(Long.MIN_VALUE)))).getSeed());
+    assertEquals(RequestID.DRAW,
+        codec.decodeRequest(codec.encode(new SimpleRequest(RequestID.DRAW))).getRequestID());
+    assertEquals(12, ((ConcreteSpectateRoom) codec.decodeRequest(
+        codec.encode(new ConcreteSpectateRoom(12)))).getRoomID());
+    assertEquals("0f3a", ((ConcreteResume) codec.decodeRequest(
+        codec.encode(new ConcreteResume("0f3a")))).getToken());
+    // a move takes the ids and four small numbers
+    assertEquals(6, codec.encode(new ConcreteMove(RequestID.PUT_STONE, 1, 2, 3, 4)).length);
+  }
+
+  @Test
+  public void gridTest() {
+    StoneInfo[][] grid = new StoneInfo[26][8];
+    grid[0][0] = new StoneInfo("RED", 1);
+    grid[3][7] = new StoneInfo("JOKER", 20);
+    grid[25][7] = new StoneInfo("BLUE", 13);
+    byte[] encoded = codec.encode(new GridInfo(GameInfoID.TABLE, grid, 5));
+    // ids, version, width and height, 208 bits of occupancy and one byte per stone
+    assertEquals(5 + 26 + 3, encoded.length);
+
+    GridInfo decoded = (GridInfo) codec.decodeInfo(encoded);
+    assertEquals(GameInfoID.TABLE, decoded.getGameInfoID());
+    assertEquals(5, decoded.getVersion());
+    assertEquals(26, decoded.getGrid().length);
+    assertEquals(8, decoded.getGrid()[0].length);
+    assertEquals("JOKER", decoded.getGrid()[3][7].getColor());
+    assertEquals(20, decoded.getGrid()[3][7].getNumber());
+    assertEquals("BLUE", decoded.getGrid()[25][7].getColor());
+    assertNull(decoded.getGrid()[1][0]);
+  }
+
+  @Test
+  public void gridDeltaTest() {
+    byte[] encoded = codec.encode(new GridDeltaInfo(GameInfoID.TABLE_DELTA, 7, 8, Arrays.asList(
+        new GridDeltaInfo.Cell(25, 7, new StoneInfo("BLUE", 13)),
+        new GridDeltaInfo.Cell(3, 0, null))));
+    // ids, versions, number of cells, two times column and row, one stone
+    assertEquals(2 + 2 + 1 + 4 + 1, encoded.length);
+
+    GridDeltaInfo decoded = (GridDeltaInfo) codec.decodeInfo(encoded);
+    assertEquals(GameInfoID.TABLE_DELTA, decoded.getGameInfoID());
+    assertEquals(7, decoded.getBaseVersion());
+    assertEquals(8, decoded.getVersion());
+    assertEquals(2, decoded.getCells().size());
+    assertEquals(25, decoded.getCells().get(0).getColumn());
+    assertEquals(7, decoded.getCells().get(0).getRow());
+    assertEquals("BLUE", decoded.getCells().get(0).getStone().getColor());
+    assertEquals(13, decoded.getCells().get(0).getStone().getNumber());
+    assertEquals(3, decoded.getCells().get(1).getColumn());
+    assertNull(decoded.getCells().get(1).getStone());
+  }
+
+  @Test
+  public void infoTest() {
+    assertEquals(GameInfoID.YOUR_TURN, codec.decodeInfo(
+        codec.encode(new SimpleGameInfo(GameInfoID.YOUR_TURN))).getGameInfoID());
+    assertEquals(3, ((CurrentPlayerInfo) codec.decodeInfo(
+        codec.encode(new CurrentPlayerInfo(3)))).getPlayerID());
+    assertNull(((ErrorInfo) codec.decodeInfo(codec.encode(new ErrorInfo(null))))
+        .getErrorMessage());
+    assertEquals(Arrays.asList(14, 0, 7), ((HandSizesInfo) codec.decodeInfo(
+        codec.encode(new HandSizesInfo(Arrays.asList(14, 0, 7))))).getHandSizes());
+    assertEquals(Arrays.asList("a", "b"), ((PlayerNamesInfo) codec.decodeInfo(
+        codec.encode(new PlayerNamesInfo(Arrays.asList("a", "b"))))).getNames());
+
+    Map<String, Integer> rank = new LinkedHashMap<>();
+    rank.put("winner", 0);
+    rank.put("loser", -42);
+    assertEquals(rank, ((RankInfo) codec.decodeInfo(codec.encode(new RankInfo(rank))))
+        .getFinalRank());
+
+    RoomsInfo rooms = (RoomsInfo) codec.decodeInfo(codec.encode(new RoomsInfo(
+        Collections.singletonList(new RoomsInfo.Room(5, "table", 2, true)))));
+    assertEquals(5, rooms.getRooms().get(0).getId());
+    assertEquals("table", rooms.getRooms().get(0).getName());
+    assertEquals(true, rooms.getRooms().get(0).isGameOn());
+    assertEquals("0f3a", ((SessionInfo) codec.decodeInfo(codec.encode(new SessionInfo("0f3a"))))
+        .getToken());
+  }
+
+  @Test
+  public void frameTest() throws IOException {
+    byte[] small = new byte[3];
+    byte[] large = new byte[300];
+    large[299] = 7;
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    BinaryCodec.writeFrame(out, small);
+    out.write(BinaryCodec.frame(large));
+    assertEquals(1 + 3 + 2 + 300, out.size());
+
+    ByteArrayInputStream in = new ByteArrayInputStream(out.toByteArray());
+    assertArrayEquals(small, BinaryCodec.readFrame(in));
+    assertArrayEquals(large, BinaryCodec.readFrame(in));
+    assertNull(BinaryCodec.readFrame(in));
+  }
+
+  @Test(expected = IOException.class)
+  public void oversizeFrameTest() throws IOException {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    BinaryCodec.writeFrame(out, new byte[BinaryCodec.MAX_FRAME_LENGTH + 1]);
+    BinaryCodec.readFrame(new ByteArrayInputStream(out.toByteArray()));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void truncatedTest() {
+    byte[] encoded = codec.encode(new ConcreteSetPlayer("name", 20));
+    codec.decodeRequest(Arrays.copyOf(encoded, encoded.length - 1));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void unknownColorTest() {
+    StoneInfo[][] grid = new StoneInfo[1][1];
+    grid[0][0] = new StoneInfo("GREEN", 1);
+    codec.encode(new GridInfo(GameInfoID.TABLE, grid));
+  }
+}
@@ -0,0 +1,57 @@
+package communication;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import communication.gameinfo.BagInfo;
+import communication.gameinfo.GameInfo;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import org.junit.Test;
+
+public class EncodedInfoTest {
+  private final EncodedInfo info = new EncodedInfo(new BagInfo(42));
+
+  private static byte[] remaining(ByteBuffer buffer) {
+    byte[] bytes = new byte[buffer.remaining()];
+    buffer.get(bytes);
+    return bytes;
+  }
+
+  @Test
+  public void jsonTest() throws IOException {
+    assertSame(info.toJson(), info.toJson());
+    byte[] line = (new Serializer().serialize(new BagInfo(42)) + '\n')
+        .getBytes(StandardCharsets.UTF_8);
+    assertArrayEquals(line, remaining(info.toBuffer(false)));
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    info.writeTo(out, false);
+    assertArrayEquals(line, out.toByteArray());
+  }
+
+  @Test
+  public void binaryTest() throws IOException {
+    assertSame(info.toBinary(), info.toBinary());
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    info.writeTo(out, true);
+    byte[] message = BinaryCodec.readFrame(new ByteArrayInputStream(out.toByteArray()));
+    GameInfo decoded = new BinaryCodec().decodeInfo(message);
+    assertEquals(42, ((BagInfo) decoded).getSize());
+    assertArrayEquals(out.toByteArray(), remaining(info.toBuffer(true)));
+  }
+
+  @Test
+  public void sharedBufferTest() {
+    ByteBuffer first = info.toBuffer(false);
+    ByteBuffer second = info.toBuffer(false);
+    assertTrue(first.isReadOnly());
+    // every recipient reads the shared bytes with a position of its own
+    first.get();
+    assertEquals(first.limit(), second.remaining());
+  }
+}
@@ -0,0 +1,105 @@
+package communication;
+
+import communication.request.ConcreteMove;
+import communication.request.Request;
+import communication.request.RequestID;
+import java.io.BufferedInputStream;
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.Scanner;
+
+/**
+ * Benchmark of reading the messages of a connection: lines of JSON with a Scanner like the
+ * ClientListener did, with a BufferedReader like the ServerListener did, with a FrameReader,
+ * and frames of the BinaryCodec copied into a new array each or read into the reused buffer
+ * of a FrameReader. Only the reading is measured, the messages are not deserialized.
+ * Not a JUnit test, run it with its main method.
+ */
+public class FrameReaderBenchmark {
+  private static final int MESSAGES = 200_000;
+
+  // keeps the read messages from being optimized away
+  private static volatile long sink;
+
+  public static void main(String[] args) throws IOException {
+    Serializer serializer = new Serializer();
+    BinaryCodec codec = new BinaryCodec();
+    ByteArrayOutputStream lines = new ByteArrayOutputStream();
+    ByteArrayOutputStream frames = new ByteArrayOutputStream();
+    for (int i = 0; i < MESSAGES; i++) {
+      Request move = new ConcreteMove(RequestID.TABLE_MOVE, i % 20, i % 7, i % 24, i % 8);
+      lines.write((serializer.serialize(move) + '\n').getBytes(StandardCharsets.UTF_8));
+      BinaryCodec.writeFrame(frames, codec.encode(move));
+    }
+    byte[] lineBytes = lines.toByteArray();
+    byte[] frameBytes = frames.toByteArray();
+    for (int pass = 0; pass < 3; pass++) {
+      long scanner = scanner(lineBytes);
+      long bufferedReader = bufferedReader(lineBytes);
+      long frameReaderLines = frameReaderLines(lineBytes);
+      long copiedFrames = copiedFrames(frameBytes);
+      long frameReaderFrames = frameReaderFrames(frameBytes);
+      if (pass == 2) {
+        System.out.println("JSON: Scanner " + scanner + " ns, BufferedReader " + bufferedReader
+            + " ns, FrameReader " + frameReaderLines + " ns per message");
+        System.out.println("binary: new array " + copiedFrames + " ns, FrameReader "
+            + frameReaderFrames + " ns per message");
+      }
+    }
+  }
+
+  private static long scanner(byte[] bytes) {
+    long start = System.nanoTime();
+    Scanner scanner = new Scanner(new ByteArrayInputStream(bytes), "UTF-8");
+    while (scanner.hasNextLine()) {
+      sink += scanner.nextLine().length();
+    }
+    return (System.nanoTime() - start) / MESSAGES;
+  }
+
+  private static long bufferedReader(byte[] bytes) throws IOException {
+    long start = System.nanoTime();
+    BufferedReader in = new BufferedReader(
+        new InputStreamReader(new ByteArrayInputStream(bytes), StandardCharsets.UTF_8));
+    String line;
+    while ((line = in.readLine()) != null) {
+      sink += line.length();
+    }
+    return (System.nanoTime() - start) / MESSAGES;
+  }
+
+  private static long frameReaderLines(byte[] bytes) throws IOException {
+    long start = System.nanoTime();
+    FrameReader in = new FrameReader(new ByteArrayInputStream(bytes));
+    String line;
+    while ((line = in.readLine()) != null) {
+      sink += line.length();
+    }
+    return (System.nanoTime() - start) / MESSAGES;
+  }
+
+  private static long copiedFrames(byte[] bytes) throws IOException {
+    long start = System.nanoTime();
+    InputStream in = new BufferedInputStream(new ByteArrayInputStream(bytes));
+    byte[] frame;
+    while ((frame = BinaryCodec.readFrame(in)) != null) {
+      sink += frame.length;
+    }
+    return (System.nanoTime() - start) / MESSAGES;
+  }
+
+  private static long frameReaderFrames(byte[] bytes) throws IOException {
+    long start = System.nanoTime();
+    FrameReader in = new FrameReader(new ByteArrayInputStream(bytes));
+    int length;
+    while ((length = in.readFrame()) >= 0) {
+      sink += length;
+    }
+    return (System.nanoTime() - start) / MESSAGES;
+  }
+}
@@ -0,0 +1,126 @@
+package communication;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import communication.request.ConcreteSetPlayer;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import org.junit.Test;
+
+public class FrameReaderTest {
+
+  /**
+   * Stream handing out one byte per read, like a slow connection.
+   */
+  private static class TrickleStream extends InputStream {
+    private final byte[] bytes;
+    private int position;
+
+    TrickleStream(byte[] bytes) {
+      this.bytes = bytes;
+    }
+
+    @Override
+    public int read() {
+      return position < bytes.length ? bytes[position++] & 0xFF : -1;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) {
+      if (position == bytes.length) {
+        return -1;
+      }
+      b[off] = bytes[position++];
+      return 1;
+    }
+  }
+
+  private static FrameReader reader(String text, int maxLength) {
+    return new FrameReader(new ByteArrayInputStream(text.getBytes(StandardCharsets.UTF_8)),
+        maxLength);
+  }
+
+  @Test
+  public void lineTest() throws IOException {
+    FrameReader in = reader("{\"a\":1}\r\n\n  \n{\"b\":\"\u00e4\"}\n", 64);
+    assertEquals("{\"a\":1}", in.readLine());
+    // blank lines are skipped
+    assertEquals("{\"b\":\"\u00e4\"}", in.readLine());
+    assertNull(in.readLine());
+  }
+
+  @Test
+  public void longLineTest() throws IOException {
+    char[] line = new char[20000];
+    Arrays.fill(line, 'x');
+    FrameReader in = new FrameReader(new TrickleStream(
+        (new String(line) + "\nnext\n").getBytes(StandardCharsets.UTF_8)), 20000);
+    assertEquals(new String(line), in.readLine());
+    assertEquals("next", in.readLine());
+  }
+
+  @Test(expected = IOException.class)
+  public void oversizeLineTest() throws IOException {
+    reader("0123456789\n", 8).readLine();
+  }
+
+  @Test(expected = EOFException.class)
+  public void unterminatedLineTest() throws IOException {
+    reader("{\"a\":1}", 64).readLine();
+  }
+
+  @Test
+  public void frameTest() throws IOException {
+    BinaryCodec codec = new BinaryCodec();
+    byte[] large = new byte[300];
+    large[299] = 7;
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    out.write(BinaryCodec.MAGIC);
+    BinaryCodec.writeFrame(out, codec.encode(new ConcreteSetPlayer("name", 20)));
+    BinaryCodec.writeFrame(out, large);
+    BinaryCodec.writeFrame(out, new byte[0]);
+
+    FrameReader in = new FrameReader(new TrickleStream(out.toByteArray()));
+    assertTrue(in.skip(BinaryCodec.MAGIC));
+    assertFalse(in.skip(BinaryCodec.MAGIC));
+    int length = in.readFrame();
+    assertEquals("name",
+        ((ConcreteSetPlayer) codec.decodeRequest(in.getBuffer(), length)).getName());
+    assertEquals(300, in.readFrame());
+    assertArrayEquals(large, Arrays.copyOf(in.getBuffer(), 300));
+    assertEquals(0, in.readFrame());
+    assertEquals(-1, in.readFrame());
+  }
+
+  @Test
+  public void oversizeFrameTest() throws IOException {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    BinaryCodec.writeFrame(out, new byte[100]);
+    TrickleStream stream = new TrickleStream(out.toByteArray());
+    try {
+      new FrameReader(stream, 99).readFrame();
+    } catch (IOException e) {
+      // rejected after its length, before its bytes were read
+      assertEquals(1, stream.position);
+      return;
+    }
+    throw new AssertionError("frame was accepted");
+  }
+
+  @Test(expected = EOFException.class)
+  public void truncatedFrameTest() throws IOException {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    BinaryCodec.writeFrame(out, new byte[100]);
+    new FrameReader(new ByteArrayInputStream(Arrays.copyOf(out.toByteArray(), 50)))
+        .readFrame();
+  }
+}
@@ -0,0 +1,97 @@
+package communication;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import com.google.gson.JsonParseException;
+import communication.gameinfo.ErrorInfo;
+import communication.gameinfo.GameInfoID;
+import communication.gameinfo.GridDeltaInfo;
+import communication.gameinfo.GridInfo;
+import communication.gameinfo.HandSizesInfo;
+import communication.gameinfo.SimpleGameInfo;
+import communication.gameinfo.StoneInfo;
+import communication.request.ConcreteMove;
+import communication.request.ConcreteSetPlayer;
+import communication.request.ConcreteStart;
+import communication.request.RequestID;
+import communication.request.SimpleRequest;
+import java.util.Arrays;
+import org.junit.Test;
+
+public class MessageAdaptersTest {
+  private final Serializer serializer = new Serializer();
+  private final Deserializer deserializer = new Deserializer();
+
+  @Test
+  public void sameJsonTest() {
+    // the JSON the reflective adapters of Gson wrote before
+    assertEquals("{\"type\":\"communication.request.ConcreteMove\",\"data\":{\"id\":\"TABLE_MOVE\","
+            + "\"initCol\":1,\"initRow\":2,\"targetCol\":3,\"targetRow\":4}}",
+        serializer.serialize(new ConcreteMove(RequestID.TABLE_MOVE, 1, 2, 3, 4)));
+    assertEquals("{\"type\":\"communication.request.SimpleRequest\",\"data\":{\"id\":\"DRAW\"}}",
+        serializer.serialize(new SimpleRequest(RequestID.DRAW)));
+    assertEquals("{\"type\":\"communication.request.ConcreteSetPlayer\","
+            + "\"data\":{\"name\":\"a\\\"b\",\"age\":20}}",
+        serializer.serialize(new ConcreteSetPlayer("a\"b", 20)));
+    assertEquals("{\"type\":\"communication.request.ConcreteStart\",\"data\":{\"seed\":-5}}",
+        serializer.serialize(new ConcreteStart(-5)));
+    StoneInfo[][] grid = new StoneInfo[2][2];
+    grid[0][1] = new StoneInfo("RED", 3);
+    grid[1][0] = new StoneInfo(null, 0);
+    assertEquals("{\"type\":\"communication.gameinfo.GridInfo\",\"data\":{\"grid\":[[null,"
+            + "{\"color\":\"RED\",\"number\":3}],[{\"number\":0},null]],\"gameInfoID\":\"HAND\"}}",
+        serializer.serialize(new GridInfo(GameInfoID.HAND, grid)));
+    assertEquals("{\"type\":\"communication.gameinfo.SimpleGameInfo\","
+            + "\"data\":{\"gameInfoID\":\"YOUR_TURN\"}}",
+        serializer.serialize(new SimpleGameInfo(GameInfoID.YOUR_TURN)));
+    assertEquals("{\"type\":\"communication.gameinfo.ErrorInfo\",\"data\":{}}",
+        serializer.serialize(new ErrorInfo(null)));
+    assertEquals("{\"type\":\"communication.gameinfo.HandSizesInfo\","
+            + "\"data\":{\"otherHandSizes\":[1,2]}}",
+        serializer.serialize(new HandSizesInfo(Arrays.asList(1, 2))));
+  }
+
+  @Test
+  public void roundTripTest() {
+    ConcreteMove move = (ConcreteMove) deserializer.deserializeRequest(
+        serializer.serialize(new ConcreteMove(RequestID.PUT_STONE, 17, 2, 25, 7)));
+    assertEquals(RequestID.PUT_STONE, move.getRequestID());
+    assertEquals(17, move.getInitCol());
+    assertEquals(7, move.getTargetRow());
+
+    StoneInfo[][] grid = new StoneInfo[26][8];
+    grid[25][7] = new StoneInfo("JOKER", 20);
+    GridInfo info = (GridInfo) deserializer.deserializeInfo(
+        serializer.serialize(new GridInfo(GameInfoID.TABLE, grid, 3)));
+    assertEquals(GameInfoID.TABLE, info.getGameInfoID());
+    assertEquals(3, info.getVersion());
+    assertEquals(26, info.getGrid().length);
+    assertEquals(8, info.getGrid()[25].length);
+    assertEquals("JOKER", info.getGrid()[25][7].getColor());
+    assertNull(info.getGrid()[0][0]);
+
+    GridDeltaInfo delta = (GridDeltaInfo) deserializer.deserializeInfo(
+        serializer.serialize(new GridDeltaInfo(GameInfoID.HAND_DELTA, 1, 2, Arrays.asList(
+            new GridDeltaInfo.Cell(4, 1, new StoneInfo("RED", 9)),
+            new GridDeltaInfo.Cell(5, 1, null)))));
+    assertEquals(GameInfoID.HAND_DELTA, delta.getGameInfoID());
+    assertEquals(1, delta.getBaseVersion());
+    assertEquals(2, delta.getVersion());
+    assertEquals(9, delta.getCells().get(0).getStone().getNumber());
+    assertNull(delta.getCells().get(1).getStone());
+  }
+
+  @Test
+  public void dataBeforeTypeTest() {
+    SimpleRequest request = (SimpleRequest) deserializer.deserializeRequest(
+        "{\"data\":{\"id\":\"RESET\"},\"type\":\"communication.request.SimpleRequest\"}");
+    assertEquals(RequestID.RESET, request.getRequestID());
+  }
+
+  @Test(expected = JsonParseException.class)
+  public void unknownTypeTest() {
+    // only the classes of the protocol can be created
+    deserializer.deserializeRequest("{\"type\":\"java.lang.Thread\",\"data\":{}}");
+  }
+}
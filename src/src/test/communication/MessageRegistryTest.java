@@ -0,0 +1,39 @@
+package communication;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import communication.gameinfo.GameInfoID;
+import communication.gameinfo.GridInfo;
+import communication.gameinfo.SimpleGameInfo;
+import communication.request.ConcreteMove;
+import communication.request.RequestID;
+import communication.request.SimpleRequest;
+import org.junit.Test;
+
+public class MessageRegistryTest {
+
+  @Test
+  public void idTest() {
+    for (RequestID id : RequestID.values()) {
+      // the class of every id can be looked up by its name as well
+      assertSame(MessageRegistry.requestClass(id),
+          MessageRegistry.requestClass(MessageRegistry.requestClass(id).getName()));
+    }
+    for (GameInfoID id : GameInfoID.values()) {
+      assertSame(MessageRegistry.infoClass(id),
+          MessageRegistry.infoClass(MessageRegistry.infoClass(id).getName()));
+    }
+    assertEquals(ConcreteMove.class, MessageRegistry.requestClass(RequestID.TABLE_MOVE));
+    assertEquals(SimpleRequest.class, MessageRegistry.requestClass(RequestID.DRAW));
+    assertEquals(GridInfo.class, MessageRegistry.infoClass(GameInfoID.HAND));
+    assertEquals(SimpleGameInfo.class, MessageRegistry.infoClass(GameInfoID.YOUR_TURN));
+  }
+
+  @Test
+  public void unknownTest() {
+    assertNull(MessageRegistry.requestClass("java.lang.Runtime"));
+    assertNull(MessageRegistry.infoClass(SimpleRequest.class.getName()));
+  }
+}
@@ -0,0 +1,122 @@
+package communication;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonDeserializationContext;
+import com.google.gson.JsonDeserializer;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
+import com.google.gson.JsonSerializationContext;
+import com.google.gson.JsonSerializer;
+import communication.gameinfo.GameInfo;
+import communication.gameinfo.GameInfoID;
+import communication.gameinfo.GridInfo;
+import communication.gameinfo.HandSizesInfo;
+import communication.gameinfo.SimpleGameInfo;
+import communication.gameinfo.StoneInfo;
+import communication.request.ConcreteMove;
+import communication.request.Request;
+import communication.request.RequestID;
+import communication.request.SimpleRequest;
+import globalconstants.Constants;
+import java.lang.reflect.Type;
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Micro benchmark of the throughput of the JSON protocol per message type, comparing the shared
+ * Gson with its hand-written adapters to a Gson built for every message with reflective adapters
+ * and classes loaded by name, which is how messages were serialized before.
+ * Not a JUnit test, run it with its main method.
+ */
+public class SerializerBenchmark {
+  private static final int WARM_UP_ROUNDS = 20_000;
+  private static final int MEASURED_ROUNDS = 50_000;
+
+  // keeps the decoded messages from being optimized away
+  private static int sink;
+
+  public static void main(String[] args) {
+    StoneInfo[][] table = new StoneInfo[Constants.TABLE_WIDTH][Constants.TABLE_HEIGHT];
+    Random random = new Random(1);
+    for (int i = 0; i < 80; i++) {
+      table[random.nextInt(Constants.TABLE_WIDTH)][random.nextInt(Constants.TABLE_HEIGHT)] =
+          new StoneInfo("RED", 1 + random.nextInt(13));
+    }
+    measure("move", new ConcreteMove(RequestID.TABLE_MOVE, 12, 3, 14, 5), true);
+    measure("simple request", new SimpleRequest(RequestID.DRAW), true);
+    measure("table", new GridInfo(GameInfoID.TABLE, table), false);
+    measure("simple info", new SimpleGameInfo(GameInfoID.YOUR_TURN), false);
+    measure("hand sizes", new HandSizesInfo(Arrays.asList(14, 9, 3)), false);
+  }
+
+  private static void measure(String name, Object message, boolean isRequest)
+      {
+    Serializer serializer = new Serializer();
+    Deserializer deserializer = new Deserializer();
+    String json = legacySerialize(message);
+    long legacy = 0;
+    long cached = 0;
+    for (int rounds : new int[] {WARM_UP_ROUNDS, MEASURED_ROUNDS}) {
+      long start = System.nanoTime();
+      for (int i = 0; i < rounds; i++) {
+        sink ^= System.identityHashCode(legacyDeserialize(legacySerialize(message)));
+      }
+      legacy = (System.nanoTime() - start) / rounds;
+      start = System.nanoTime();
+      for (int i = 0; i < rounds; i++) {
+        json = isRequest ? serializer.serialize((Request) message)
+            : serializer.serialize((GameInfo) message);
+        Object decoded = isRequest ? deserializer.deserializeRequest(json)
+            : deserializer.deserializeInfo(json);
+        sink ^= System.identityHashCode(decoded);
+      }
+      cached = (System.nanoTime() - start) / rounds;
+    }
+    System.out.println(name + " (" + json.length() + " chars): per message Gson " + legacy
+        + " ns/op, shared Gson " + cached + " ns/op, " + (legacy / Math.max(1, cached))
+        + "x (" + (sink & 1) + ")");
+  }
+
+  private static String legacySerialize(Object message) {
+    Class<?> type = message instanceof Request ? Request.class : GameInfo.class;
+    return legacyGson(type).toJson(message, type);
+  }
+
+  private static Object legacyDeserialize(String json) {
+    Class<?> type = json.contains(".request.") ? Request.class : GameInfo.class;
+    return legacyGson(type).fromJson(json, type);
+  }
+
+  private static Gson legacyGson(Class<?> type) {
+    return new GsonBuilder().registerTypeAdapter(type, new LegacyAdapter()).create();
+  }
+
+  /**
+   * The former envelope adapter, which serializes the data with reflection and loads the class
+   * named as type.
+   */
+  private static final class LegacyAdapter
+      implements JsonSerializer<Object>, JsonDeserializer<Object> {
+    @Override
+    public JsonElement serialize(Object object, Type type, JsonSerializationContext context) {
+      JsonObject wrapper = new JsonObject();
+      wrapper.addProperty("type", object.getClass().getName());
+      wrapper.add("data", context.serialize(object));
+      return wrapper;
+    }
+
+    @Override
+    public Object deserialize(JsonElement element, Type type,
+        JsonDeserializationContext context) {
+      JsonObject wrapper = (JsonObject) element;
+      try {
+        return context.deserialize(wrapper.get("data"),
+            Class.forName(wrapper.get("type").getAsString()));
+      } catch (ClassNotFoundException e) {
+        throw new JsonParseException(e);
+      }
+    }
+  }
+}
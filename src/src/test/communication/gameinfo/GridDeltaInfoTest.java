@@ -0,0 +1,43 @@
+package communication.gameinfo;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.util.Arrays;
+import java.util.Collections;
+import org.junit.Test;
+
+public class GridDeltaInfoTest {
+
+  @Test
+  public void initTest() {
+    GridDeltaInfo info = new GridDeltaInfo(GameInfoID.TABLE_DELTA, 1, 2,
+        Collections.singletonList(new GridDeltaInfo.Cell(3, 4, null)));
+
+    assertEquals(GameInfoID.TABLE_DELTA, info.getGameInfoID());
+    assertEquals(1, info.getBaseVersion());
+    assertEquals(2, info.getVersion());
+    assertEquals(3, info.getCells().get(0).getColumn());
+    assertEquals(4, info.getCells().get(0).getRow());
+    assertNull(info.getCells().get(0).getStone());
+  }
+
+  @Test
+  public void applyToTest() {
+    StoneInfo[][] grid = new StoneInfo[2][2];
+    grid[0][0] = new StoneInfo("RED", 1);
+    StoneInfo moved = grid[0][0];
+    new GridDeltaInfo(GameInfoID.HAND_DELTA, 1, 2, Arrays.asList(
+        new GridDeltaInfo.Cell(0, 0, null), new GridDeltaInfo.Cell(1, 1, moved))).applyTo(grid);
+
+    assertNull(grid[0][0]);
+    assertEquals(moved, grid[1][1]);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void outsideTest() {
+    new GridDeltaInfo(GameInfoID.HAND_DELTA, 1, 2,
+        Collections.singletonList(new GridDeltaInfo.Cell(2, 0, null)))
+        .applyTo(new StoneInfo[2][2]);
+  }
+}
@@ -0,0 +1,22 @@
+package communication.gameinfo;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class InvalidSetsInfoTest {
+
+  @Test
+  public void initTest() {
+    int[] rows = {0, 0b1110, 0};
+    InvalidSetsInfo info = new InvalidSetsInfo(rows);
+
+    assertTrue(info.getGameInfoID() == GameInfoID.INVALID_SETS);
+    assertTrue(info.getInvalidRows() == rows);
+    assertTrue(info.isInvalid(1, 1));
+    assertTrue(info.isInvalid(3, 1));
+    assertFalse(info.isInvalid(0, 1));
+    assertFalse(info.isInvalid(1, 0));
+    assertFalse(info.isInvalid(1, 5));
+  }
+}
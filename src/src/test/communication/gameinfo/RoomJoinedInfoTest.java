@@ -0,0 +1,17 @@
+package communication.gameinfo;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+public class RoomJoinedInfoTest {
+
+  @Test
+  public void initTest() {
+    RoomJoinedInfo info = new RoomJoinedInfo(5);
+
+    assertTrue(info.getGameInfoID() == GameInfoID.ROOM_JOINED);
+    assertEquals(5, info.getRoomID());
+  }
+}
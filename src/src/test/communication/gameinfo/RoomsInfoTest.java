@@ -0,0 +1,33 @@
+package communication.gameinfo;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import communication.Deserializer;
+import communication.Serializer;
+import java.util.Arrays;
+import org.junit.Test;
+
+public class RoomsInfoTest {
+
+  @Test
+  public void initTest() {
+    RoomsInfo info = new RoomsInfo(Arrays.asList(new RoomsInfo.Room(1, "table 1", 2, false),
+        new RoomsInfo.Room(2, "table 2", 3, true)));
+
+    assertTrue(info.getGameInfoID() == GameInfoID.ROOMS);
+    assertEquals(2, info.getRooms().size());
+    assertEquals("table 2", info.getRooms().get(1).getName());
+    assertTrue(info.getRooms().get(1).isGameOn());
+  }
+
+  @Test
+  public void serializeTest() {
+    RoomsInfo info = new RoomsInfo(Arrays.asList(new RoomsInfo.Room(1, "table 1", 2, false)));
+    RoomsInfo copy = (RoomsInfo) new Deserializer().deserializeInfo(
+        new Serializer().serialize(info));
+
+    assertEquals(1, copy.getRooms().get(0).getId());
+    assertEquals(2, copy.getRooms().get(0).getPlayers());
+  }
+}
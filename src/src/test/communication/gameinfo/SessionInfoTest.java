@@ -0,0 +1,17 @@
+package communication.gameinfo;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+public class SessionInfoTest {
+
+  @Test
+  public void initTest() {
+    SessionInfo info = new SessionInfo("0f3a");
+
+    assertTrue(info.getGameInfoID() == GameInfoID.SESSION);
+    assertEquals("0f3a", info.getToken());
+  }
+}
@@ -0,0 +1,17 @@
+package communication.request;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+public class ConcreteCreateRoomTest {
+
+  @Test
+  public void initTest() {
+    ConcreteCreateRoom createRoom = new ConcreteCreateRoom("table 1");
+
+    assertEquals("table 1", createRoom.getName());
+    assertTrue(createRoom.getRequestID() == RequestID.CREATE_ROOM);
+  }
+}
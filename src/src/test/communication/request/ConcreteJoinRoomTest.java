@@ -0,0 +1,17 @@
+package communication.request;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+public class ConcreteJoinRoomTest {
+
+  @Test
+  public void initTest() {
+    ConcreteJoinRoom joinRoom = new ConcreteJoinRoom(3);
+
+    assertEquals(3, joinRoom.getRoomID());
+    assertTrue(joinRoom.getRequestID() == RequestID.JOIN_ROOM);
+  }
+}
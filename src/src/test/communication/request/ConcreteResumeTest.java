@@ -0,0 +1,27 @@
+package communication.request;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import communication.Deserializer;
+import communication.Serializer;
+import org.junit.Test;
+
+public class ConcreteResumeTest {
+
+  @Test
+  public void initTest() {
+    ConcreteResume resume = new ConcreteResume("0f3a");
+
+    assertEquals("0f3a", resume.getToken());
+    assertTrue(resume.getRequestID() == RequestID.RESUME);
+  }
+
+  @Test
+  public void serializeTest() {
+    ConcreteResume copy = (ConcreteResume) new Deserializer().deserializeRequest(
+        new Serializer().serialize(new ConcreteResume("9bc1")));
+
+    assertEquals("9bc1", copy.getToken());
+  }
+}
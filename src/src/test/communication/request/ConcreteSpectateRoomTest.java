@@ -0,0 +1,27 @@
+package communication.request;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import communication.Deserializer;
+import communication.Serializer;
+import org.junit.Test;
+
+public class ConcreteSpectateRoomTest {
+
+  @Test
+  public void initTest() {
+    ConcreteSpectateRoom spectateRoom = new ConcreteSpectateRoom(3);
+
+    assertEquals(3, spectateRoom.getRoomID());
+    assertTrue(spectateRoom.getRequestID() == RequestID.SPECTATE_ROOM);
+  }
+
+  @Test
+  public void serializeTest() {
+    ConcreteSpectateRoom copy = (ConcreteSpectateRoom) new Deserializer().deserializeRequest(
+        new Serializer().serialize(new ConcreteSpectateRoom(7)));
+
+    assertEquals(7, copy.getRoomID());
+  }
+}
@@ -0,0 +1,28 @@
+package communication.request;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import communication.Deserializer;
+import communication.Serializer;
+import org.junit.Test;
+
+public class ConcreteStartTest {
+
+  @Test
+  public void initTest() {
+    ConcreteStart start = new ConcreteStart(42);
+
+    assertTrue(start.getRequestID() == RequestID.START);
+    assertEquals(42, start.getSeed());
+  }
+
+  @Test
+  public void serializeTest() {
+    Request request = new Deserializer().deserializeRequest(
+        new Serializer().serialize(new ConcreteStart(-7)));
+
+    assertTrue(request instanceof ConcreteStart);
+    assertEquals(-7, ((ConcreteStart) request).getSeed());
+  }
+}
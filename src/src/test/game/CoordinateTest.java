@@ -47,5 +47,14 @@ public class CoordinateTest {
     assertEquals(Objects.hash(coordinate1.getCol(), coordinate1.getRow()), coordinate1.hashCode());
   }
 
-
-}
\ No newline at end of file
+  @Test
+  public void ofTest() {
+    assertSame(Coordinate.of(25, 7), Coordinate.of(25, 7));
+    assertEquals(new Coordinate(3, 2), Coordinate.of(3, 2));
+
+    Coordinate outside = Coordinate.of(-1, 30);
+    assertEquals(-1, outside.getCol());
+    assertEquals(30, outside.getRow());
+    assertEquals(new Coordinate(-1, 30), outside);
+  }
+}
@@ -77,5 +77,33 @@ public class RummiBagTest {
     assertTrue (stringBuilder.toString().equals(bag1.toString()));
   }
 
-}
+  @Test
+  public void sameSeedTest() {
+    RummiBag bag1 = new RummiBag(7);
+    RummiBag bag2 = new RummiBag(7);
+    ArrayList<Stone> drawn = new ArrayList<>();
+    for (int i = 0; i < 20; i++) {
+      drawn.add(bag1.removeStone());
+      assertTrue(drawn.get(i) == bag2.removeStone());
+    }
+    // put back stones are shuffled in the same way
+    bag1.addStones(drawn);
+    bag2.addStones(drawn);
+    assertEquals(bag1.getStones(), bag2.getStones());
+    while (bag1.size() > 0) {
+      assertTrue(bag1.removeStone() == bag2.removeStone());
+    }
+  }
 
+  @Test
+  public void allStonesTest() {
+    RummiBag bag1 = new RummiBag(1);
+    boolean[] drawn = new boolean[BAG_SIZE];
+    for (int i = 0; i < BAG_SIZE; i++) {
+      Stone stone = bag1.removeStone();
+      assertFalse(drawn[stone.getId()]);
+      drawn[stone.getId()] = true;
+    }
+    assertEquals(0, bag1.size());
+  }
+}
@@ -0,0 +1,54 @@
+package game;
+
+import java.util.Random;
+
+/**
+ * Micro benchmark for the traced moves of a long turn of a player and for its reset.
+ * Not a JUnit test, run it with its main method.
+ */
+public class RummiGameBenchmark {
+  private static final int WARM_UP_ROUNDS = 20_000;
+  private static final int MEASURED_ROUNDS = 100_000;
+  private static final int TRACED_MOVES = 60;
+
+  public static void main(String[] args) {
+    RummiGame game = new RummiGame();
+    game.join(0, "player1", 20);
+    game.join(1, "player2", 30);
+    game.start();
+    // a late game table with stones of both players
+    RummiTable lateGameTable = RummiTableBenchmark.lateGameTable();
+    game.getTableStones().putAll(lateGameTable.getStones());
+    game.confirmMove(game.getCurrentPlayerID());
+    Random random = new Random(1);
+
+    measure(game, random, WARM_UP_ROUNDS);
+    long[] elapsed = measure(game, random, MEASURED_ROUNDS);
+    System.out.println("traced move: "
+        + (elapsed[0] / ((long) MEASURED_ROUNDS * TRACED_MOVES)) + " ns/op");
+    System.out.println("reset after " + TRACED_MOVES + " traced moves: "
+        + (elapsed[1] / MEASURED_ROUNDS) + " ns/op (" + game.getTableStones().size() + ")");
+  }
+
+  /**
+   * Plays the given number of rounds of a long turn and its reset.
+   *
+   * @return the time of all moves and the time of all resets in nanoseconds
+   */
+  private static long[] measure(RummiGame game, Random random, int rounds) {
+    long[] elapsed = new long[2];
+    for (int round = 0; round < rounds; round++) {
+      long start = System.nanoTime();
+      game.putStone(Coordinate.of(0, 0), Coordinate.of(25, 7));
+      for (int move = 1; move < TRACED_MOVES; move++) {
+        game.moveStoneOnTable(Coordinate.of(random.nextInt(26), random.nextInt(8)),
+            Coordinate.of(random.nextInt(26), random.nextInt(8)));
+      }
+      elapsed[0] += System.nanoTime() - start;
+      start = System.nanoTime();
+      game.reset();
+      elapsed[1] += System.nanoTime() - start;
+    }
+    return elapsed;
+  }
+}
@@ -7,7 +7,11 @@ import static org.junit.Assert.assertThrows;
 import static org.junit.Assert.assertTrue;
 
 import globalconstants.Constants;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Random;
 import org.junit.Test;
 
 
@@ -95,6 +99,19 @@ public class RummiGameTest {
 
   }
 
+  @Test
+  public void fullTableStartTest() {
+    RummiGame game = new RummiGame();
+    for (int id = 0; id < Constants.MAX_PLAYERS; id++) {
+      game.join(id, "player" + id, 20 + id);
+    }
+    // a table with every seat taken can start
+    game.start();
+    assertTrue(game.isGameOn());
+    assertEquals(Constants.MAX_BAG_SIZE - Constants.MAX_PLAYERS * Constants.FIRST_STONES,
+        game.getBagSize());
+  }
+
   @Test
   public void rankingTest() {
     RummiGame game4 = new RummiGame();
@@ -102,7 +119,8 @@ public class RummiGameTest {
     game4.join(1, "Helga", 21);
     game4.start();
 
-    game4.getPlayerStones(1).clear();
+    // Helga is the youngest and starts
+    game4.getCurrentPlayer().clearHand();
 
     assertTrue(game4.hasWinner());
     /*
@@ -264,18 +282,10 @@ public class RummiGameTest {
     tableStones.put(new Coordinate(6, 0), new Stone(Stone.Color.BLACK, 7));
     tableStones.put(new Coordinate(7, 0), new Stone(Stone.Color.BLACK, 8));
 
-    Map<Coordinate, Stone> currentHandStones = game.getPlayerStones(game.getCurrentPlayerID());
-    currentHandStones.remove(new Coordinate(0,0));
-    currentHandStones.remove(new Coordinate(1,0));
-    currentHandStones.remove(new Coordinate(2,0));
-    currentHandStones.remove(new Coordinate(3,0));
-    currentHandStones.remove(new Coordinate(4,0));
-    currentHandStones.remove(new Coordinate(5,0));
-    currentHandStones.remove(new Coordinate(6,0));
-    currentHandStones.remove(new Coordinate(7,0));
-    currentHandStones.remove(new Coordinate(8,0));
-    currentHandStones.remove(new Coordinate(9,0));
-    currentHandStones.remove(new Coordinate(10,0));
+    Player currentPlayer = game.getCurrentPlayer();
+    for (int col = 0; col <= 10; col++) {
+      currentPlayer.popStone(new Coordinate(col, 0));
+    }
 
     // it should not throw any exception
     game.confirmMove(game.getCurrentPlayerID());
@@ -312,4 +322,112 @@ public class RummiGameTest {
     table.put(new Coordinate(6, 6), new Stone(Stone.Color.BLACK, 10));
     game.confirmMove(game.getCurrentPlayerID());
   }
-}
\ No newline at end of file
+
+  @Test
+  public void undoStepsTest() {
+    RummiGame game = new RummiGame();
+    game.join(0, "player1", 20);
+    game.join(1, "player2", 30);
+    game.start();
+    int playerID = game.getCurrentPlayerID();
+    Map<Coordinate, Stone> handBefore = new HashMap<>(game.getPlayerStones(playerID));
+
+    game.putStone(new Coordinate(0, 0), new Coordinate(0, 0));
+    game.putStone(new Coordinate(1, 0), new Coordinate(1, 0));
+    Map<Coordinate, Stone> tableAfterPuts = new HashMap<>(game.getTableStones());
+    game.moveStoneOnTable(new Coordinate(0, 0), new Coordinate(5, 3));
+    game.moveStoneOnTable(new Coordinate(1, 0), new Coordinate(6, 3));
+
+    // jump back over both moves on the table at once
+    game.undo(2);
+    assertEquals(2, game.getTrace().size());
+    assertEquals(tableAfterPuts, game.getTableStones());
+
+    // the restored snapshot stays valid for further moves and resets
+    game.moveStoneOnTable(new Coordinate(1, 0), new Coordinate(7, 7));
+    game.reset();
+    assertTrue(game.getTrace().empty());
+    assertTrue(game.getTableStones().isEmpty());
+    assertEquals(handBefore, game.getPlayerStones(playerID));
+  }
+
+  @Test
+  public void undoToAnyStepTest() {
+    RummiGame game = new RummiGame();
+    game.join(0, "player1", 20);
+    game.join(1, "player2", 30);
+    game.start();
+    int playerID = game.getCurrentPlayerID();
+    Random random = new Random(7);
+    List<Map<Coordinate, Stone>> tables = new ArrayList<>();
+    List<Map<Coordinate, Stone>> hands = new ArrayList<>();
+    tables.add(new HashMap<>(game.getTableStones()));
+    hands.add(new HashMap<>(game.getPlayerStones(playerID)));
+    while (game.getTrace().size() < 50) {
+      Coordinate target = new Coordinate(random.nextInt(8), random.nextInt(4));
+      try {
+        if (random.nextInt(3) == 0) {
+          game.putStone(new Coordinate(random.nextInt(7), 0), target);
+        } else {
+          game.moveStoneOnTable(new Coordinate(random.nextInt(8), random.nextInt(4)), target);
+        }
+      } catch (IllegalArgumentException e) {
+        continue;
+      }
+      tables.add(new HashMap<>(game.getTableStones()));
+      hands.add(new HashMap<>(game.getPlayerStones(playerID)));
+    }
+
+    // every jump restores the table and the hand as they were after that step
+    for (int steps : new int[] {40, 1, 3, 0, 5}) {
+      game.undo(steps);
+      int step = game.getTrace().size();
+      assertEquals(tables.get(step), game.getTableStones());
+      assertEquals(hands.get(step).size(), game.getPlayerStones(playerID).size());
+    }
+    assertEquals(1, game.getTrace().size());
+    game.undo(10);
+    assertEquals(tables.get(0), game.getTableStones());
+    assertEquals(hands.get(0), game.getPlayerStones(playerID));
+  }
+
+  /**
+   * Replaces the hand of the current player of the given game with the given stones,
+   * for the tests of other packages.
+   */
+  public static void setCurrentHand(RummiGame game, Map<Coordinate, Stone> stones) {
+    Player player = game.getCurrentPlayer();
+    player.clearHand();
+    for (Map.Entry<Coordinate, Stone> entry : stones.entrySet()) {
+      player.getHand().setStone(entry.getKey(), entry.getValue());
+    }
+  }
+
+  @Test
+  public void resetKeepsHandArrangementTest() {
+    RummiGame game = new RummiGame();
+    game.join(0, "player1", 20);
+    game.join(1, "player2", 30);
+    game.start();
+    int playerID = game.getCurrentPlayerID();
+    Stone putStone = game.getPlayerStones(playerID).get(new Coordinate(0, 0));
+
+    game.putStone(new Coordinate(0, 0), new Coordinate(4, 4));
+    game.moveStoneOnHand(playerID, new Coordinate(1, 0), new Coordinate(19, 2));
+    Map<Coordinate, Stone> handArranged = new HashMap<>(game.getPlayerStones(playerID));
+    game.moveStoneOnTable(new Coordinate(4, 4), new Coordinate(5, 5));
+
+    // only the stone on the table goes back, the stone moved on the hand stays
+    game.reset();
+    assertTrue(game.getTableStones().isEmpty());
+    handArranged.put(new Coordinate(0, 0), putStone);
+    assertEquals(handArranged, game.getPlayerStones(playerID));
+
+    // a stone whose position was taken meanwhile goes to the next free position
+    game.putStone(new Coordinate(2, 0), new Coordinate(4, 4));
+    game.moveStoneOnHand(playerID, new Coordinate(3, 0), new Coordinate(2, 0));
+    game.undo();
+    assertTrue(game.getTableStones().isEmpty());
+    assertEquals(Constants.FIRST_STONES, game.getPlayerStones(playerID).size());
+  }
+}
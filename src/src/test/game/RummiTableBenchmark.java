@@ -0,0 +1,72 @@
+package game;
+
+import game.Stone.Color;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Micro benchmark for the table validation done on every CONFIRM_MOVE.
+ * Not a JUnit test, run it with its main method.
+ */
+public class RummiTableBenchmark {
+  private static final int WARM_UP_ROUNDS = 200_000;
+  private static final int MEASURED_ROUNDS = 1_000_000;
+
+  /**
+   * Builds a late game table with runs and groups on every row (including jokers).
+   *
+   * @return a consistent table with more than 100 stones
+   */
+  static RummiTable lateGameTable() {
+    RummiTable table = new RummiTable();
+    Color[] colors = {Color.RED, Color.BLACK, Color.YELLOW, Color.BLUE};
+    for (int row = 0; row < table.getHeight(); row++) {
+      Color color = colors[row % colors.length];
+      // a run from 1 to 7 and a run from 9 to 13
+      for (int number = 1; number <= 7; number++) {
+        table.setStone(new Coordinate(number - 1, row), new Stone(color, number));
+      }
+      for (int number = 9; number <= 13; number++) {
+        table.setStone(new Coordinate(number, row), new Stone(color, number));
+      }
+      // a group of four with the number of the row
+      for (int i = 0; i < colors.length; i++) {
+        table.setStone(new Coordinate(15 + i, row), new Stone(colors[i], row + 1));
+      }
+      // a group of three with a joker
+      table.setStone(new Coordinate(21, row), new Stone(colors[0], 13 - row));
+      table.setStone(new Coordinate(22, row), new Stone());
+      table.setStone(new Coordinate(23, row), new Stone(colors[2], 13 - row));
+    }
+    return table;
+  }
+
+  public static void main(String[] args) {
+    RummiTable table = lateGameTable();
+    if (!table.isConsistent()) {
+      throw new IllegalStateException("benchmark table must be consistent");
+    }
+    System.out.println("stones on table: " + table.size());
+    measure("confirm-move table check", () -> table.isConsistent() && table.getPoints() > 0);
+    // a player moves a group back and forth on one row before each confirmation
+    Coordinate from = Coordinate.of(18, 3);
+    Coordinate to = Coordinate.of(25, 3);
+    measure("confirm-move after a move on one row", () -> {
+      table.setStone(to, table.removeStone(from));
+      table.setStone(from, table.removeStone(to));
+      return table.isConsistent() && table.getPoints() > 0;
+    });
+  }
+
+  private static void measure(String name, BooleanSupplier round) {
+    boolean result = true;
+    for (int i = 0; i < WARM_UP_ROUNDS; i++) {
+      result &= round.getAsBoolean();
+    }
+    long start = System.nanoTime();
+    for (int i = 0; i < MEASURED_ROUNDS; i++) {
+      result &= round.getAsBoolean();
+    }
+    long elapsed = System.nanoTime() - start;
+    System.out.println(name + ": " + (elapsed / MEASURED_ROUNDS) + " ns/op (" + result + ")");
+  }
+}
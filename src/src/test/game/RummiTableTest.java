@@ -5,6 +5,9 @@ import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 
 import game.Stone.Color;
+import globalconstants.Constants;
+import java.util.Map;
+import java.util.Random;
 import org.junit.Test;
 
 
@@ -160,4 +163,168 @@ public class RummiTableTest {
 
     //assertTrue(table.isConsistent());
   }
-}
\ No newline at end of file
+
+  @Test
+  public void stonesViewWritesThroughTest() {
+    RummiTable table = new RummiTable();
+    table.getStones().put(new Coordinate(3, 2), new Stone(Color.RED, 4));
+    table.getStones().put(new Coordinate(4, 2), new Stone(Color.RED, 5));
+    table.getStones().put(new Coordinate(5, 2), new Stone(Color.RED, 6));
+
+    assertEquals(3, table.size());
+    assertEquals(new Coordinate(3, 2), table.getFirstCoordOfStonesAt(new Coordinate(5, 2)));
+    assertEquals(3, table.getNeighborStonesSize(new Coordinate(3, 2)));
+    assertTrue(table.isConsistent());
+
+    table.getStones().remove(new Coordinate(4, 2));
+    assertEquals(2, table.size());
+    assertEquals(1, table.getNeighborStonesSize(new Coordinate(3, 2)));
+    assertFalse(table.isConsistent());
+  }
+
+  @Test
+  public void jokerWrapsAroundTest() {
+    RummiTable table = new RummiTable();
+    Stone joker = new Stone();
+    table.setStone(new Coordinate(0, 0), joker);
+    table.setStone(new Coordinate(1, 0), new Stone(Color.BLUE, 13));
+    table.setStone(new Coordinate(2, 0), new Stone(Color.BLUE, 1));
+
+    assertTrue(table.isConsistent());
+    assertEquals(12, table.getNumberAt(new Coordinate(0, 0)));
+    assertEquals(Constants.JOKER_POINTS, joker.getNumber());
+    assertEquals(26, table.getPoints());
+  }
+
+  @Test
+  public void entrySetValueTest() {
+    RummiTable table = new RummiTable();
+    Stone red1 = new Stone(Color.RED, 1);
+    Stone red2 = new Stone(Color.RED, 2);
+    Stone blue1 = new Stone(Color.BLUE, 1);
+    table.setStone(Coordinate.of(0, 1), red1);
+    table.setStone(Coordinate.of(1, 1), red2);
+    for (Map.Entry<Coordinate, Stone> entry : table.getStones().entrySet()) {
+      if (entry.getKey().equals(Coordinate.of(0, 1))) {
+        assertEquals(red1.toString(), entry.setValue(blue1).toString());
+      } else {
+        // null clears the cell, like put of the map
+        assertEquals(red2.toString(), entry.setValue(null).toString());
+      }
+    }
+    assertEquals(1, table.getStones().size());
+    assertEquals(blue1.toString(), table.getStones().get(Coordinate.of(0, 1)).toString());
+    assertFalse(table.getStones().containsKey(Coordinate.of(1, 1)));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void outOfTableTest() {
+    RummiTable table = new RummiTable();
+    table.setStone(new Coordinate(table.getWidth(), 0), new Stone(Color.BLUE, 1));
+  }
+
+  @Test
+  public void invalidSetsTest() {
+    RummiTable table = new RummiTable();
+    table.setStone(Coordinate.of(0, 1), new Stone(Color.RED, 1));
+    table.setStone(Coordinate.of(1, 1), new Stone(Color.RED, 2));
+    table.setStone(Coordinate.of(2, 1), new Stone(Color.RED, 3));
+    table.setStone(Coordinate.of(5, 1), new Stone(Color.RED, 7));
+    table.setStone(Coordinate.of(6, 1), new Stone(Color.BLUE, 8));
+    table.setStone(Coordinate.of(3, 4), new Stone(Color.RED, 9));
+
+    int[] invalidSets = table.getInvalidSets();
+    assertEquals(table.getHeight(), invalidSets.length);
+    assertEquals(0b1100000, invalidSets[1]);
+    assertEquals(0b1000, invalidSets[4]);
+    assertEquals(0, invalidSets[0]);
+
+    table.removeStone(Coordinate.of(3, 4));
+    assertEquals(0, table.getInvalidSets()[4]);
+    assertEquals(0b1100000, table.getInvalidSets()[1]);
+  }
+
+  @Test
+  public void incrementalValidationTest() {
+    Random random = new Random(42);
+    RummiTable table = new RummiTable();
+    int consistentTables = 0;
+
+    for (int trial = 0; trial < 500; trial++) {
+      table.clear();
+      for (int set = 0; set < 8; set++) {
+        putRandomSet(table, random);
+      }
+      assertEquivalentToFullValidation(table);
+      for (int move = 0; move < 20; move++) {
+        Coordinate source = Coordinate.of(random.nextInt(table.getWidth()),
+            random.nextInt(table.getHeight()));
+        Coordinate target = Coordinate.of(random.nextInt(table.getWidth()),
+            random.nextInt(table.getHeight()));
+        switch (random.nextInt(3)) {
+          case 0:
+            // swap two cells
+            Stone stone = table.removeStone(source);
+            table.setStone(source, table.removeStone(target));
+            table.setStone(target, stone);
+            break;
+          case 1:
+            table.removeStone(source);
+            break;
+          default:
+            table.setStone(target, Stone.of(random.nextInt(Constants.MAX_BAG_SIZE)));
+        }
+        if (assertEquivalentToFullValidation(table)) {
+          consistentTables++;
+        }
+      }
+    }
+    // make sure both verdicts were covered
+    assertTrue(consistentTables > 0);
+  }
+
+  /**
+   * Asserts that the cached validation of the given table gives the same result
+   * as the validation of a new table with the same stones.
+   *
+   * @param table the table to be checked
+   * @return the consistency of the table
+   */
+  private static boolean assertEquivalentToFullValidation(RummiTable table) {
+    RummiTable copy = new RummiTable();
+    copy.getStones().putAll(table.getStones());
+    boolean consistent = copy.isConsistent();
+    assertEquals(consistent, table.isConsistent());
+    assertEquals(copy.getPoints(), table.getPoints());
+    return consistent;
+  }
+
+  /**
+   * Puts a random run or group (possibly with a joker) on a free place of the given table.
+   */
+  private static void putRandomSet(RummiTable table, Random random) {
+    Color[] colors = {Color.RED, Color.BLACK, Color.YELLOW, Color.BLUE};
+    boolean isRun = random.nextBoolean();
+    int setSize = 3 + random.nextInt(isRun ? 5 : 2);
+    int row = random.nextInt(table.getHeight());
+    int col = random.nextInt(table.getWidth() - setSize - 1);
+    for (int i = -1; i <= setSize; i++) {
+      if (table.getStones().containsKey(Coordinate.of(col + i, row))) {
+        return;
+      }
+    }
+    int number = 1 + random.nextInt(Stone.MAX_VALUE);
+    int joker = random.nextInt(setSize * 2);
+    for (int i = 0; i < setSize; i++) {
+      Stone stone;
+      if (i == joker) {
+        stone = new Stone();
+      } else if (isRun) {
+        stone = new Stone(colors[row % colors.length], (number + i - 1) % Stone.MAX_VALUE + 1);
+      } else {
+        stone = new Stone(colors[i], number);
+      }
+      table.setStone(Coordinate.of(col + i, row), stone);
+    }
+  }
+}
@@ -33,4 +33,14 @@ public class StoneTest {
     assertEquals(stone5.getNumber(), Constants.JOKER_POINTS);
   }
 
-}
\ No newline at end of file
+  @Test
+  public void canonicalStonesTest() {
+    for (int id = 0; id < Constants.MAX_BAG_SIZE; id++) {
+      Stone stone = Stone.of(id);
+      assertEquals(id, stone.getId());
+      assertEquals(id, Stone.idOf(stone.getColor(), stone.getNumber(), id % Stone.COPIES));
+    }
+    assertEquals(Stone.Color.JOKER, Stone.of(Constants.MAX_BAG_SIZE - 1).getColor());
+    assertEquals(Stone.NO_ID, new Stone(Stone.Color.RED, 1).getId());
+  }
+}
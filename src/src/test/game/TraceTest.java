@@ -9,12 +9,17 @@ public class TraceTest {
 
   @Test
   public void initTest(){
-
     Trace trace2 = new Trace(TraceMove.MOVE_STONE_ON_TABLE, new Coordinate(2,2), new Coordinate(3,2));
 
     assertTrue(trace2.getCommand().equals(TraceMove.MOVE_STONE_ON_TABLE));
     assertTrue(trace2.getInitialPosition().equals(new Coordinate(2,2)));
     assertTrue(trace2.getTargetPosition().equals(new Coordinate(3,2)));
+    assertNull(trace2.getStone());
+
+    Stone stone = new Stone(Stone.Color.RED, 5);
+    Trace trace3 = new Trace(TraceMove.MOVE_STONE_FROM_HAND, new Coordinate(0,0), new Coordinate(3,2),
+        stone);
+    assertSame(stone, trace3.getStone());
   }
 
-}
\ No newline at end of file
+}
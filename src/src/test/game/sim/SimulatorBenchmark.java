@@ -0,0 +1,25 @@
+package game.sim;
+
+import game.solver.MeldSolver.Objective;
+import java.util.Arrays;
+
+/**
+ * Throughput benchmark of the game engine with self-play on all cores.
+ * Not a JUnit test, run it with its main method.
+ */
+public class SimulatorBenchmark {
+  private static final int DRAWING_GAMES = 20_000;
+  private static final int SOLVER_GAMES = 40;
+
+  public static void main(String[] args) {
+    // only draws, so that the time is spent in the engine
+    Simulator drawing = new Simulator(
+        Arrays.asList(Strategy.drawing(), Strategy.drawing(), Strategy.drawing()), false);
+    drawing.run(DRAWING_GAMES / 10, 0);
+    System.out.println("drawing players:\n" + drawing.run(DRAWING_GAMES, 1));
+
+    Simulator solvers = new Simulator(
+        Arrays.asList(Strategy.solver(Objective.POINTS), Strategy.solver(Objective.STONES)), false);
+    System.out.println("solver players:\n" + solvers.run(SOLVER_GAMES, 1));
+  }
+}
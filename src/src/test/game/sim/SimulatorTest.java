@@ -0,0 +1,60 @@
+package game.sim;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import game.solver.MeldSolver.Objective;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.concurrent.ForkJoinPool;
+import org.junit.Test;
+
+public class SimulatorTest {
+  private final Simulator simulator = new Simulator(
+      Arrays.asList(Strategy.solver(Objective.POINTS), Strategy.solver(Objective.STONES)), true);
+
+  @Test
+  public void checkedGamesTest() {
+    // it should not throw any exception
+    SimulationReport report = simulator.run(8, 1);
+    assertEquals(8, report.getGames());
+    assertEquals(1, report.getWinRate(0) + report.getWinRate(1) + report.getNoWinnerRate(),
+        1e-9);
+    long hands = 0;
+    for (long count : report.getHandPointsHistogram(0)) {
+      hands += count;
+    }
+    assertEquals(8, hands);
+  }
+
+  @Test
+  public void sameSeedSameGameTest() {
+    GameResult first = simulator.play(42);
+    GameResult second = simulator.play(42);
+    assertEquals(first.getWinner(), second.getWinner());
+    assertEquals(first.getTurns(), second.getTurns());
+    assertArrayEquals(first.getHandPoints(), second.getHandPoints());
+  }
+
+  @Test
+  public void sameSeedSameSimulationTest() {
+    SimulationReport parallel = simulator.run(8, 3);
+    SimulationReport serial = simulator.run(8, 3, new ForkJoinPool(1));
+    assertEquals(parallel.getAverageTurns(), serial.getAverageTurns(), 0);
+    assertEquals(parallel.getWinRate(0), serial.getWinRate(0), 0);
+    assertArrayEquals(parallel.getHandPointsHistogram(1), serial.getHandPointsHistogram(1));
+  }
+
+  @Test
+  public void drawingGamesEndTest() {
+    Simulator drawing = new Simulator(
+        Arrays.asList(Strategy.drawing(), Strategy.drawing(), Strategy.drawing()), true);
+    SimulationReport report = drawing.run(4, 5);
+    assertEquals(1, report.getNoWinnerRate(), 0);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void tooFewStrategiesTest() {
+    new Simulator(Collections.singletonList(Strategy.drawing()), false);
+  }
+}
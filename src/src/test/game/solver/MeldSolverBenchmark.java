@@ -0,0 +1,136 @@
+package game.solver;
+
+import game.Coordinate;
+import game.Stone;
+import game.Stone.Color;
+import game.solver.MeldSolver.Objective;
+import globalconstants.Constants;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Micro benchmark for the solver across random game states.
+ * Not a JUnit test, run it with its main method.
+ */
+public class MeldSolverBenchmark {
+  private static final int WARM_UP_STATES = 200;
+  private static final int MEASURED_STATES = 500;
+  private static final long NO_BUDGET = -1;
+  private static final long BOT_BUDGET = 50; // milliseconds
+
+  public static void main(String[] args) {
+    MeldSolver solver = new MeldSolver(Objective.POINTS);
+    measure(solver, "first move, 14 stones", 0, 14, true, NO_BUDGET);
+    measure(solver, "early game, table of 30, hand of 14", 30, 14, false, NO_BUDGET);
+    measure(solver, "mid game, table of 60, hand of 18", 60, 18, false, NO_BUDGET);
+    measure(solver, "late game, table of 80, hand of 26", 80, 26, false, NO_BUDGET);
+    measure(solver, "late game, budget of " + BOT_BUDGET + " ms", 80, 26, false, BOT_BUDGET);
+  }
+
+  private static void measure(MeldSolver solver, String name, int tableStones,
+      int handStones, boolean firstMove, long budget) {
+    Random random = new Random(1);
+    run(solver, random, WARM_UP_STATES, tableStones, handStones, firstMove, budget);
+    long[] times = run(solver, random, MEASURED_STATES, tableStones, handStones, firstMove,
+        budget);
+    long total = 0;
+    long max = 0;
+    for (long time : times) {
+      total += time;
+      max = Math.max(max, time);
+    }
+    System.out.println(name + ": " + (total / times.length / 1000) + " us/op on average, "
+        + (max / 1000) + " us at most");
+  }
+
+  /**
+   * Solves the given number of random game states, each within the given budget
+   * of milliseconds unless it is NO_BUDGET.
+   *
+   * @return the time of each solve in nanoseconds
+   */
+  private static long[] run(MeldSolver solver, Random random, int states,
+      int tableStones, int handStones, boolean firstMove, long budget) {
+    long[] times = new long[states];
+    for (int i = 0; i < states; i++) {
+      boolean[] taken = new boolean[Constants.MAX_BAG_SIZE];
+      Map<Coordinate, Stone> table = toGrid(randomMelds(random, taken, tableStones));
+      List<Stone> bag = new ArrayList<>();
+      for (int id = 0; id < Constants.MAX_BAG_SIZE; id++) {
+        if (!taken[id]) {
+          bag.add(Stone.of(id));
+        }
+      }
+      Collections.shuffle(bag, random);
+      Map<Coordinate, Stone> hand = toGrid(bag.subList(0, Math.min(handStones, bag.size())));
+
+      long start = System.nanoTime();
+      long deadline = budget == NO_BUDGET ? Long.MAX_VALUE : System.currentTimeMillis() + budget;
+      MeldSolution solution = solver.solve(hand, table, firstMove, deadline);
+      times[i] = System.nanoTime() - start;
+      if (solution != null
+          && solution.getTable().size() != table.size() + solution.getPlayedStones()) {
+        throw new IllegalStateException("the solution must keep all stones of the table");
+      }
+    }
+    return times;
+  }
+
+  /**
+   * Lays random runs and groups of the stones which are not taken yet,
+   * until they hold about the given number of stones.
+   */
+  private static List<Stone> randomMelds(Random random, boolean[] taken, int stones) {
+    List<Stone> melds = new ArrayList<>();
+    Color[] colors = {Color.RED, Color.BLACK, Color.YELLOW, Color.BLUE};
+    for (int attempt = 0; attempt < 1000 && melds.size() + 3 <= stones; attempt++) {
+      List<Integer> ids = new ArrayList<>();
+      if (random.nextBoolean()) {
+        Color color = colors[random.nextInt(colors.length)];
+        int length = 3 + random.nextInt(3);
+        int start = Stone.MIN_VALUE + random.nextInt(Stone.MAX_VALUE - length + 1);
+        for (int number = start; number < start + length; number++) {
+          ids.add(freeId(taken, color, number));
+        }
+      } else {
+        int number = Stone.MIN_VALUE + random.nextInt(Stone.MAX_VALUE);
+        List<Color> groupColors = new ArrayList<>(Arrays.asList(colors));
+        Collections.shuffle(groupColors, random);
+        for (Color color : groupColors.subList(0, 3 + random.nextInt(2))) {
+          ids.add(freeId(taken, color, number));
+        }
+      }
+      if (!ids.contains(Stone.NO_ID) && melds.size() + ids.size() <= stones) {
+        for (int id : ids) {
+          taken[id] = true;
+          melds.add(Stone.of(id));
+        }
+      }
+    }
+    return melds;
+  }
+
+  private static int freeId(boolean[] taken, Color color, int number) {
+    for (int copy = 0; copy < Stone.COPIES; copy++) {
+      int id = Stone.idOf(color, number, copy);
+      if (!taken[id]) {
+        return id;
+      }
+    }
+    return Stone.NO_ID;
+  }
+
+  private static Map<Coordinate, Stone> toGrid(List<Stone> stones) {
+    Map<Coordinate, Stone> grid = new HashMap<>();
+    for (int i = 0; i < stones.size(); i++) {
+      grid.put(Coordinate.of(i % Constants.TABLE_WIDTH, i / Constants.TABLE_WIDTH),
+          stones.get(i));
+    }
+    return grid;
+  }
+}
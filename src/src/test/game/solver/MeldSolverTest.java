@@ -0,0 +1,393 @@
+package game.solver;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import game.Coordinate;
+import game.RummiGame;
+import game.RummiGameTest;
+import game.Stone;
+import game.Stone.Color;
+import game.solver.MeldSolver.Objective;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import org.junit.Test;
+
+public class MeldSolverTest {
+  private final MeldSolver solver = new MeldSolver(Objective.POINTS);
+
+  private static Map<Coordinate, Stone> stones(Stone... stones) {
+    Map<Coordinate, Stone> map = new HashMap<>();
+    for (int i = 0; i < stones.length; i++) {
+      map.put(Coordinate.of(i % 20, i / 20), stones[i]);
+    }
+    return map;
+  }
+
+  /**
+   * Starts a game whose current player holds the given hand and whose table is the given one.
+   */
+  private static RummiGame gameWith(Map<Coordinate, Stone> hand, Map<Coordinate, Stone> table) {
+    RummiGame game = new RummiGame();
+    game.join(0, "player1", 20);
+    game.join(1, "player2", 30);
+    game.start();
+    game.getTableStones().clear();
+    game.getTableStones().putAll(table);
+    RummiGameTest.setCurrentHand(game, hand);
+    return game;
+  }
+
+  private static void assertConsistent(RummiGame game) {
+    for (int invalid : game.getInvalidTableSets()) {
+      assertEquals(0, invalid);
+    }
+  }
+
+  @Test
+  public void firstMoveTest() {
+    Map<Coordinate, Stone> hand = stones(new Stone(Color.RED, 10), new Stone(Color.RED, 11),
+        new Stone(Color.RED, 12), new Stone(Color.BLUE, 1), new Stone(Color.BLACK, 1),
+        new Stone(Color.YELLOW, 1));
+    RummiGame game = gameWith(hand, new HashMap<>());
+
+    MeldSolution solution = solver.solve(hand, game.getTableStones(), true);
+    assertNotNull(solution);
+    assertEquals(36, solution.getPoints());
+    assertEquals(6, solution.getPlayedStones());
+
+    solution.applyTo(game);
+    assertConsistent(game);
+    // it should not throw any exception
+    game.confirmMove(game.getCurrentPlayerID());
+  }
+
+  @Test
+  public void firstMoveNeedsPointsTest() {
+    Map<Coordinate, Stone> hand = stones(new Stone(Color.RED, 1), new Stone(Color.RED, 2),
+        new Stone(Color.RED, 3), new Stone(Color.BLUE, 9), new Stone(Color.BLACK, 9));
+    assertNull(solver.solve(hand, new HashMap<>(), true));
+    assertEquals(6, solver.solve(hand, new HashMap<>(), false).getPoints());
+  }
+
+  @Test
+  public void wrapAroundTest() {
+    Map<Coordinate, Stone> hand = stones(new Stone(Color.BLUE, 12), new Stone(Color.BLUE, 13),
+        new Stone(Color.BLUE, 1));
+    MeldSolution solution = solver.solve(hand, new HashMap<>(), false);
+    assertEquals(26, solution.getPoints());
+  }
+
+  @Test
+  public void jokerTest() {
+    // a real stone with two jokers is a group for the table
+    Map<Coordinate, Stone> hand = stones(new Stone(Color.BLUE, 5), new Stone(), new Stone());
+    assertEquals(15, solver.solve(hand, new HashMap<>(), false).getPoints());
+    // a joker stands for the best number of a run
+    hand = stones(new Stone(Color.BLUE, 5), new Stone(Color.BLUE, 6), new Stone());
+    assertEquals(18, solver.solve(hand, new HashMap<>(), false).getPoints());
+  }
+
+  @Test
+  public void rearrangeTableTest() {
+    Map<Coordinate, Stone> table = new HashMap<>();
+    for (int number = 3; number <= 6; number++) {
+      table.put(Coordinate.of(number, 2), new Stone(Color.BLACK, number));
+    }
+    Map<Coordinate, Stone> hand = stones(new Stone(Color.RED, 3), new Stone(Color.BLUE, 3));
+    RummiGame game = gameWith(hand, table);
+
+    MeldSolution solution = solver.solve(hand, table, false);
+    assertEquals(2, solution.getPlayedStones());
+    assertEquals(24, solution.getPoints());
+
+    solution.applyTo(game);
+    assertConsistent(game);
+    assertEquals(6, game.getTableStones().size());
+    assertTrue(game.getPlayerStones(game.getCurrentPlayerID()).isEmpty());
+  }
+
+  @Test
+  public void playMustRaisePointsTest() {
+    Map<Coordinate, Stone> table = new HashMap<>();
+    table.put(Coordinate.of(0, 0), new Stone(Color.RED, 5));
+    table.put(Coordinate.of(1, 0), new Stone(Color.RED, 6));
+    table.put(Coordinate.of(2, 0), new Stone());
+    // 3 laid before the run would move the joker from 7 to 4
+    Map<Coordinate, Stone> hand = stones(new Stone(Color.RED, 3));
+    assertEquals(18, MeldSolver.tablePoints(table));
+    assertNull(solver.solve(hand, table, false));
+    assertNull(new MeldSolver(Objective.STONES).solve(hand, table, false));
+  }
+
+  @Test
+  public void deadlineTest() {
+    Map<Coordinate, Stone> table = new HashMap<>();
+    for (int number = 3; number <= 6; number++) {
+      table.put(Coordinate.of(number, 2), new Stone(Color.BLACK, number));
+    }
+    Map<Coordinate, Stone> hand = stones(new Stone(Color.RED, 3), new Stone(Color.BLUE, 3));
+    // a passed deadline stops the exact search, the play of the beam search is taken
+    MeldSolution solution = solver.solve(hand, table, false, 0);
+    assertNotNull(solution);
+    assertEquals(2, solution.getPlayedStones());
+    assertEquals(24, solution.getPoints());
+  }
+
+  @Test
+  public void tooManyStonesTest() {
+    Map<Coordinate, Stone> hand = stones(new Stone(), new Stone(), new Stone());
+    try {
+      solver.solve(hand, new HashMap<>(), false);
+    } catch (IllegalArgumentException e) {
+      return;
+    }
+    throw new AssertionError("three jokers must not be accepted");
+  }
+
+  @Test
+  public void randomAgainstBruteForceTest() {
+    Random random = new Random(7);
+    Color[] colors = {Color.RED, Color.BLUE};
+    int[] numbers = {11, 12, 13, 1, 2, 3};
+    for (int round = 0; round < 300; round++) {
+      List<Stone> pool = new ArrayList<>();
+      for (Color color : colors) {
+        for (int number : numbers) {
+          pool.add(new Stone(color, number));
+          pool.add(new Stone(color, number));
+        }
+      }
+      pool.add(new Stone());
+      pool.add(new Stone());
+      // some groups
+      pool.add(new Stone(Color.BLACK, 12));
+      pool.add(new Stone(Color.YELLOW, 12));
+      pool.add(new Stone(Color.BLACK, 2));
+      Collections.shuffle(pool, random);
+      Stone[] hand = pool.subList(0, 8).toArray(new Stone[0]);
+
+      assertBest(solver, Objective.POINTS, stones(hand), new HashMap<>(), false);
+    }
+  }
+
+  @Test
+  public void randomTableAgainstBruteForceTest() {
+    Random random = new Random(11);
+    MeldSolver stonesSolver = new MeldSolver(Objective.STONES);
+    for (int round = 0; round < 200; round++) {
+      List<Stone> pool = new ArrayList<>();
+      for (Color color : new Color[] {Color.RED, Color.BLUE, Color.BLACK}) {
+        for (int number : new int[] {12, 13, 1, 2, 3}) {
+          pool.add(new Stone(color, number));
+          pool.add(new Stone(color, number));
+        }
+      }
+      pool.add(new Stone());
+      pool.add(new Stone());
+      Collections.shuffle(pool, random);
+      // one or two sets of the table, each in a row of its own
+      Map<Coordinate, Stone> table = new HashMap<>();
+      int sets = 1 + random.nextInt(2);
+      for (int row = 0; row < sets; row++) {
+        List<Stone> set = takeSet(pool, random);
+        for (int col = 0; col < set.size(); col++) {
+          table.put(Coordinate.of(col, row), set.get(col));
+        }
+      }
+      Map<Coordinate, Stone> hand = stones(pool.subList(0, 4).toArray(new Stone[0]));
+
+      assertBest(solver, Objective.POINTS, hand, table, false);
+      assertBest(stonesSolver, Objective.STONES, hand, table, false);
+      assertBest(solver, Objective.POINTS, hand, table, true);
+      assertBest(stonesSolver, Objective.STONES, hand, table, true);
+    }
+  }
+
+  /**
+   * Takes a random run or group of three stones out of the pool,
+   * one of them may be replaced by a joker.
+   */
+  private static List<Stone> takeSet(List<Stone> pool, Random random) {
+    Color[] colors = {Color.RED, Color.BLUE, Color.BLACK};
+    int[] numbers = {12, 13, 1, 2, 3};
+    while (true) {
+      List<Stone> set = new ArrayList<>();
+      int first = random.nextInt(3);
+      if (random.nextBoolean()) {
+        Color color = colors[random.nextInt(colors.length)];
+        for (int i = first; i < first + 3; i++) {
+          set.add(take(pool, color, numbers[i]));
+        }
+      } else {
+        for (Color color : colors) {
+          set.add(take(pool, color, numbers[first]));
+        }
+      }
+      if (set.contains(null)) {
+        for (Stone stone : set) {
+          if (stone != null) {
+            pool.add(stone);
+          }
+        }
+        continue;
+      }
+      if (random.nextInt(3) == 0) {
+        Stone joker = take(pool, Color.JOKER, 0);
+        if (joker != null) {
+          pool.add(set.set(random.nextInt(set.size()), joker));
+        }
+      }
+      return set;
+    }
+  }
+
+  private static Stone take(List<Stone> pool, Color color, int number) {
+    for (int i = 0; i < pool.size(); i++) {
+      Stone stone = pool.get(i);
+      if (stone.getColor() == color && (color == Color.JOKER || stone.getNumber() == number)) {
+        return pool.remove(i);
+      }
+    }
+    return null;
+  }
+
+  /**
+   * Checks the play of the solver against the best play found by trying all partitions.
+   */
+  private static void assertBest(MeldSolver solver, Objective objective,
+      Map<Coordinate, Stone> hand, Map<Coordinate, Stone> table, boolean firstMove) {
+    List<Stone> stones = new ArrayList<>(hand.values());
+    Set<Stone> mandatory = new HashSet<>();
+    if (!firstMove) {
+      stones.addAll(table.values());
+      mandatory.addAll(table.values());
+    }
+    List<int[]> plays = new ArrayList<>();
+    collectPlays(stones, mandatory, 0, 0, plays);
+    int minPoints = firstMove ? 30 : MeldSolver.tablePoints(table) + 1;
+    int[] best = null;
+    for (int[] play : plays) {
+      if (play[1] == 0 || play[0] < minPoints) {
+        continue;
+      }
+      int first = objective == Objective.POINTS ? 0 : 1;
+      if (best == null || play[first] > best[first]
+          || (play[first] == best[first] && play[1 - first] > best[1 - first])) {
+        best = play;
+      }
+    }
+
+    String state = hand.values() + " on " + table.values() + (firstMove ? " first" : "");
+    MeldSolution solution = solver.solve(hand, table, firstMove);
+    if (best == null) {
+      assertNull(state, solution);
+      return;
+    }
+    assertNotNull(state, solution);
+    assertEquals(state, best[0], solution.getPoints());
+    assertEquals(state, best[1], solution.getPlayedStones());
+
+    RummiGame game = gameWith(hand, table);
+    solution.applyTo(game);
+    assertConsistent(game);
+  }
+
+  /**
+   * Collects the points and the stones of the hand of every play which lays all mandatory
+   * stones in valid sets, by trying all partitions of the stones.
+   */
+  private static void collectPlays(List<Stone> stones, Set<Stone> mandatory, int points,
+      int played, List<int[]> plays) {
+    if (stones.isEmpty()) {
+      plays.add(new int[] {points, played});
+      return;
+    }
+    Stone first = stones.get(0);
+    List<Stone> rest = stones.subList(1, stones.size());
+    // leave the first stone out
+    if (!mandatory.contains(first)) {
+      collectPlays(rest, mandatory, points, played, plays);
+    }
+    // or lay it in a set with other stones
+    for (int mask = 1; mask < (1 << rest.size()); mask++) {
+      List<Stone> set = new ArrayList<>();
+      List<Stone> others = new ArrayList<>();
+      set.add(first);
+      for (int i = 0; i < rest.size(); i++) {
+        ((mask & (1 << i)) != 0 ? set : others).add(rest.get(i));
+      }
+      int setPoints = pointsOf(set);
+      if (setPoints > 0) {
+        int setPlayed = 0;
+        for (Stone stone : set) {
+          setPlayed += mandatory.contains(stone) ? 0 : 1;
+        }
+        collectPlays(others, mandatory, points + setPoints, played + setPlayed, plays);
+      }
+    }
+  }
+
+  /**
+   * Returns the points of the best valid set out of the given stones, 0 if there is none.
+   */
+  private static int pointsOf(List<Stone> set) {
+    if (set.size() < 3) {
+      return 0;
+    }
+    List<Stone> reals = new ArrayList<>();
+    for (Stone stone : set) {
+      if (stone.getColor() != Color.JOKER) {
+        reals.add(stone);
+      }
+    }
+    if (reals.isEmpty()) {
+      return 0;
+    }
+    // a group
+    boolean group = set.size() <= 4;
+    for (Stone stone : reals) {
+      for (Stone other : reals) {
+        group &= stone == other || (stone.getNumber() == reals.get(0).getNumber()
+            && stone.getColor() != other.getColor());
+      }
+    }
+    if (group) {
+      return reals.get(0).getNumber() * set.size();
+    }
+    // a run, 1 comes after 13
+    if (reals.size() < 2 || set.size() > Stone.MAX_VALUE) {
+      return 0;
+    }
+    int best = 0;
+    for (int start = 1; start <= Stone.MAX_VALUE; start++) {
+      boolean[] taken = new boolean[set.size()];
+      boolean fits = true;
+      for (Stone stone : reals) {
+        int position = Math.floorMod(stone.getNumber() - start, Stone.MAX_VALUE);
+        fits &= stone.getColor() == reals.get(0).getColor() && position < set.size()
+            && !taken[Math.min(position, set.size() - 1)];
+        if (fits) {
+          taken[position] = true;
+        }
+      }
+      if (fits) {
+        int points = 0;
+        for (int i = 0; i < set.size(); i++) {
+          points += Math.floorMod(start - 1 + i, Stone.MAX_VALUE) + 1;
+        }
+        best = Math.max(best, points);
+      }
+    }
+    return best;
+  }
+}
@@ -0,0 +1,57 @@
+package network.client;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import communication.gameinfo.GameInfoID;
+import communication.gameinfo.GridDeltaInfo;
+import communication.gameinfo.GridInfo;
+import communication.gameinfo.StoneInfo;
+import java.util.Collections;
+import org.junit.Before;
+import org.junit.Test;
+
+public class GridModelTest {
+  private final GridModel model = new GridModel();
+  private final StoneInfo stone = new StoneInfo("RED", 1);
+
+  @Before
+  public void setUp() {
+    StoneInfo[][] grid = new StoneInfo[3][2];
+    grid[0][0] = stone;
+    model.set(new GridInfo(GameInfoID.TABLE, grid, 4));
+  }
+
+  private static GridDeltaInfo delta(int baseVersion, int column, StoneInfo stone) {
+    return new GridDeltaInfo(GameInfoID.TABLE_DELTA, baseVersion, baseVersion + 1,
+        Collections.singletonList(new GridDeltaInfo.Cell(column, 0, stone)));
+  }
+
+  @Test
+  public void applyTest() {
+    StoneInfo[][] before = model.getGrid();
+    assertTrue(model.apply(delta(4, 2, stone)));
+    assertTrue(model.apply(delta(5, 0, null)));
+
+    assertEquals(6, model.getVersion());
+    assertNull(model.getGrid()[0][0]);
+    assertEquals(stone, model.getGrid()[2][0]);
+    // copies handed out are not changed
+    assertEquals(stone, before[0][0]);
+    assertNull(before[2][0]);
+  }
+
+  @Test
+  public void gapTest() {
+    assertFalse(model.apply(delta(5, 2, stone)));
+    assertFalse(model.hasGrid());
+    assertFalse(model.apply(delta(6, 1, stone)));
+
+    // the next snapshot repairs the grid
+    model.set(new GridInfo(GameInfoID.TABLE, new StoneInfo[3][2], 7));
+    assertTrue(model.apply(delta(7, 1, stone)));
+    assertEquals(stone, model.getGrid()[1][0]);
+  }
+}
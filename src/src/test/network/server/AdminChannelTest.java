@@ -0,0 +1,134 @@
+package network.server;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import communication.Deserializer;
+import communication.Serializer;
+import communication.gameinfo.ErrorInfo;
+import communication.gameinfo.GameInfoID;
+import communication.request.ConcreteCreateRoom;
+import communication.request.ConcreteSetPlayer;
+import communication.request.ConcreteStart;
+import communication.request.Request;
+import globalconstants.ErrorMessages;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintWriter;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class AdminChannelTest {
+  private static final int TIMEOUT = 10_000;
+
+  private NioRummiServer server;
+  private AdminChannel admin;
+
+  @Before
+  public void setUp() throws IOException {
+    server = new NioRummiServer(0, 1, 60_000, true);
+    admin = new AdminChannel(server, 0);
+    server.start();
+    admin.start();
+  }
+
+  @After
+  public void tearDown() {
+    server.stop();
+    admin.close();
+  }
+
+  private String command(String command) throws IOException {
+    try (Socket socket = new Socket(InetAddress.getLoopbackAddress(), admin.getPort())) {
+      socket.setSoTimeout(TIMEOUT);
+      PrintWriter out = new PrintWriter(socket.getOutputStream(), true);
+      out.println(command);
+      return new BufferedReader(new InputStreamReader(socket.getInputStream(),
+          StandardCharsets.UTF_8)).readLine();
+    }
+  }
+
+  private Socket player(String name) throws IOException {
+    Socket socket = new Socket("localhost", server.getPort());
+    socket.setSoTimeout(TIMEOUT);
+    send(socket, new ConcreteSetPlayer(name, 20));
+    return socket;
+  }
+
+  private static void send(Socket socket, Request request) throws IOException {
+    PrintWriter out = new PrintWriter(socket.getOutputStream(), true);
+    out.println(new Serializer().serialize(request));
+  }
+
+  @Test
+  public void statusTest() throws IOException {
+    assertEquals("rooms=0 games=0 players=0 spectators=0 draining=false running=true",
+        command(AdminChannel.STATUS));
+    assertTrue(command("reboot").startsWith("unknown command"));
+  }
+
+  @Test
+  public void drainTest() throws Exception {
+    // any player may start a game of the headless server, not only the first one
+    Socket first = player("first");
+    Socket second = player("second");
+    Socket third = player("third");
+    BufferedReader secondIn = new BufferedReader(
+        new InputStreamReader(second.getInputStream(), StandardCharsets.UTF_8));
+    send(second, new ConcreteStart(1));
+    Deserializer deserializer = new Deserializer();
+    while (deserializer.deserializeInfo(secondIn.readLine()).getGameInfoID()
+        != GameInfoID.GAME_START) {
+      // skips the names and sessions
+    }
+    assertTrue(command(AdminChannel.DRAIN).contains("games=1"));
+
+    // no new players are seated while the server drains
+    try (Socket late = new Socket("localhost", server.getPort())) {
+      late.setSoTimeout(TIMEOUT);
+      send(late, new ConcreteCreateRoom("late"));
+      BufferedReader lateIn = new BufferedReader(
+          new InputStreamReader(late.getInputStream(), StandardCharsets.UTF_8));
+      assertEquals(ErrorMessages.SERVER_DRAINING_ERROR,
+          ((ErrorInfo) deserializer.deserializeInfo(lateIn.readLine())).getErrorMessage());
+    }
+    // the running game keeps the server up
+    Thread.sleep(TimeUnit.SECONDS.toMillis(1));
+    assertTrue(command(AdminChannel.STATUS).contains("games=1"));
+    assertEquals("stopped", command(AdminChannel.STOP));
+    server.awaitStop();
+    first.close();
+    second.close();
+    third.close();
+  }
+
+  @Test
+  public void botTest() throws IOException {
+    Socket first = player("first");
+    // the player sits in the default room
+    BufferedReader in = new BufferedReader(
+        new InputStreamReader(first.getInputStream(), StandardCharsets.UTF_8));
+    in.readLine();
+    assertEquals("bot seated at 1 in room " + Lobby.DEFAULT_ROOM_ID,
+        command("bot " + Lobby.DEFAULT_ROOM_ID + " hard 0"));
+    assertTrue(command(AdminChannel.STATUS).contains("players=2"));
+    assertTrue(command("bot 42 easy").startsWith("failed"));
+    assertTrue(command("bot 0 genius").startsWith("failed"));
+    assertEquals("empty seats are filled with MEDIUM bots", command("fill medium 100"));
+    assertEquals("empty seats stay empty", command("fill off"));
+    first.close();
+  }
+
+  @Test
+  public void drainEmptyTest() throws Exception {
+    command(AdminChannel.DRAIN);
+    // nothing is left to wait for
+    server.awaitStop();
+  }
+}
@@ -0,0 +1,93 @@
+package network.server;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import communication.gameinfo.GameInfo;
+import communication.gameinfo.GameInfoID;
+import communication.request.RequestID;
+import communication.request.SimpleRequest;
+import game.RummiGame;
+import globalconstants.Constants;
+import java.util.concurrent.Executors;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import org.junit.Test;
+
+public class BotTest {
+  private static final int TURNS = 30;
+
+  /**
+   * Server which only hands the GameInfos to its bots.
+   */
+  private static final class BotServer implements Server {
+    private final Bot[] bots = new Bot[Constants.MAX_PLAYERS];
+    private int turns;
+
+    @Override
+    public void sendToAll(GameInfo info) {
+      for (int id = 0; id < bots.length; id++) {
+        sendToPlayer(id, info);
+      }
+    }
+
+    @Override
+    public void sendToPlayer(int playerId, GameInfo info) {
+      if (info.getGameInfoID() == GameInfoID.YOUR_TURN) {
+        turns++;
+      }
+      if (bots[playerId] != null) {
+        bots[playerId].receive(info);
+      }
+    }
+
+    @Override
+    public String getIP() {
+      return "";
+    }
+  }
+
+  @Test
+  public void botsPlayTest() throws Exception {
+    ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor();
+    BotServer server = new BotServer();
+    RummiGame game = new RummiGame();
+    RequestHandler requestHandler = new RequestHandler(server, game);
+    GameMailbox mailbox = new GameMailbox(requestHandler);
+    server.bots[0] = new Bot(0, "bot1", game, requestHandler, mailbox, Bot.Difficulty.HARD, 0,
+        executor);
+    server.bots[1] = new Bot(1, "bot2", game, requestHandler, mailbox, Bot.Difficulty.EASY, 0,
+        executor);
+    server.bots[0].join();
+    server.bots[1].join();
+    mailbox.post(new SimpleRequest(RequestID.START), 0);
+
+    long deadline = System.currentTimeMillis() + TimeUnit.MINUTES.toMillis(1);
+    boolean playing = true;
+    while (playing && System.currentTimeMillis() < deadline) {
+      Thread.sleep(10);
+      // a bot plays its whole turn in one task of the mailbox
+      FutureTask<Boolean> check = new FutureTask<>(() -> {
+        for (int invalid : game.getInvalidTableSets()) {
+          assertEquals(0, invalid);
+        }
+        int stones = game.getTableStones().size() + game.getBagSize();
+        for (int handSize : game.getPlayerHandSizes()) {
+          stones += handSize;
+        }
+        assertEquals(Constants.MAX_BAG_SIZE, stones);
+        return game.isGameOn() && server.turns < TURNS;
+      });
+      mailbox.execute(check);
+      playing = check.get();
+    }
+    executor.shutdownNow();
+    assertTrue(!playing || server.turns >= TURNS);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void negativeThinkTimeTest() {
+    new Bot(0, "bot", new RummiGame(), null, null, Bot.Difficulty.EASY, -1);
+  }
+}
@@ -0,0 +1,65 @@
+package network.server;
+
+import communication.EncodedInfo;
+import communication.Serializer;
+import communication.gameinfo.GameInfoID;
+import communication.gameinfo.GridInfo;
+import communication.gameinfo.StoneInfo;
+import globalconstants.Constants;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+
+/**
+ * Benchmark of a broadcast of a late game table to a growing number of recipients,
+ * serialized for every recipient like the RummiServer did before, or encoded once into
+ * the read-only buffers of an EncodedInfo shared by all recipients.
+ * Not a JUnit test, run it with its main method.
+ */
+public class FanOutBenchmark {
+  private static final int ROUNDS = 200;
+  private static final int[] RECIPIENTS = {4, 16, 64, 256};
+
+  // keeps the encoded messages from being optimized away
+  private static long sink;
+
+  public static void main(String[] args) {
+    StoneInfo[][] table = new StoneInfo[Constants.TABLE_WIDTH][Constants.TABLE_HEIGHT];
+    Random random = new Random(1);
+    for (int i = 0; i < 80; i++) {
+      table[random.nextInt(Constants.TABLE_WIDTH)][random.nextInt(Constants.TABLE_HEIGHT)] =
+          new StoneInfo("RED", 1 + random.nextInt(13));
+    }
+    GridInfo info = new GridInfo(GameInfoID.TABLE, table, 1);
+    for (int pass = 0; pass < 2; pass++) {
+      for (int recipients : RECIPIENTS) {
+        long perRecipient = measure(() -> {
+          Serializer serializer = new Serializer();
+          for (int i = 0; i < recipients; i++) {
+            sink += ByteBuffer.wrap((serializer.serialize(info) + '\n')
+                .getBytes(StandardCharsets.UTF_8)).remaining();
+          }
+        });
+        long shared = measure(() -> {
+          EncodedInfo encoded = new EncodedInfo(info);
+          for (int i = 0; i < recipients; i++) {
+            sink += encoded.toBuffer(false).remaining();
+          }
+        });
+        if (pass == 1) {
+          System.out.println(recipients + " recipients: serialized per recipient "
+              + perRecipient / 1000 + " us, encoded once " + shared / 1000 + " us per broadcast ("
+              + (sink & 1) + ")");
+        }
+      }
+    }
+  }
+
+  private static long measure(Runnable broadcast) {
+    long start = System.nanoTime();
+    for (int i = 0; i < ROUNDS; i++) {
+      broadcast.run();
+    }
+    return (System.nanoTime() - start) / ROUNDS;
+  }
+}
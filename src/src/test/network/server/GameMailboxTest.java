@@ -0,0 +1,170 @@
+package network.server;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import communication.gameinfo.GameInfo;
+import communication.request.ConcreteMove;
+import communication.request.ConcreteSetPlayer;
+import communication.request.ConcreteStart;
+import communication.request.RequestID;
+import communication.request.SimpleRequest;
+import game.RummiGame;
+import globalconstants.Constants;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.Test;
+
+public class GameMailboxTest {
+  private static final int PLAYERS = 3;
+  private static final int CONNECTIONS_PER_PLAYER = 4;
+  private static final int REQUESTS = 1000;
+  private static final RequestID[] SIMPLE_REQUESTS = {RequestID.DRAW, RequestID.CONFIRM_MOVE,
+      RequestID.RESET, RequestID.UNDO, RequestID.TIME_OUT, RequestID.SORT_HAND_BY_RUN};
+
+  /**
+   * Server which records how many threads are inside the RequestHandler at once.
+   */
+  private static final class CountingServer implements Server {
+    private final AtomicInteger inside = new AtomicInteger();
+    private final AtomicInteger maxInside = new AtomicInteger();
+
+    @Override
+    public void sendToAll(GameInfo info) {
+      enter();
+    }
+
+    @Override
+    public void sendToPlayer(int playerId, GameInfo info) {
+      enter();
+    }
+
+    private void enter() {
+      maxInside.accumulateAndGet(inside.incrementAndGet(), Math::max);
+      Thread.yield();
+      inside.decrementAndGet();
+    }
+
+    @Override
+    public String getIP() {
+      return "";
+    }
+  }
+
+  private static Object randomRequest(Random random) {
+    switch (random.nextInt(4)) {
+      case 0:
+        return new SimpleRequest(SIMPLE_REQUESTS[random.nextInt(SIMPLE_REQUESTS.length)]);
+      case 1:
+        return new ConcreteMove(RequestID.PUT_STONE,
+            random.nextInt(Constants.HAND_WIDTH), random.nextInt(Constants.HAND_HEIGHT),
+            random.nextInt(Constants.TABLE_WIDTH), random.nextInt(Constants.TABLE_HEIGHT));
+      case 2:
+        return new ConcreteMove(RequestID.TABLE_MOVE,
+            random.nextInt(Constants.TABLE_WIDTH), random.nextInt(Constants.TABLE_HEIGHT),
+            random.nextInt(Constants.TABLE_WIDTH), random.nextInt(Constants.TABLE_HEIGHT));
+      default:
+        return new ConcreteMove(RequestID.HAND_MOVE,
+            random.nextInt(Constants.HAND_WIDTH), random.nextInt(Constants.HAND_HEIGHT),
+            random.nextInt(Constants.HAND_WIDTH), random.nextInt(Constants.HAND_HEIGHT));
+    }
+  }
+
+  private static int countStones(RummiGame game) {
+    int stones = game.getTableStones().size() + game.getBagSize();
+    for (int handSize : game.getPlayerHandSizes()) {
+      stones += handSize;
+    }
+    return stones;
+  }
+
+  @Test
+  public void stressTest() throws Exception {
+    CountingServer server = new CountingServer();
+    RummiGame game = new RummiGame();
+    RequestHandler requestHandler = new RequestHandler(server, game);
+    GameMailbox mailbox = new GameMailbox(requestHandler);
+    for (int id = 0; id < PLAYERS; id++) {
+      mailbox.post(new ConcreteSetPlayer("player" + id, 20 + id), id);
+    }
+    mailbox.post(new ConcreteStart(1), 0);
+
+    // every player has several connections hammering the game at once
+    ExecutorService connections =
+        Executors.newFixedThreadPool(PLAYERS * CONNECTIONS_PER_PLAYER);
+    for (int connection = 0; connection < PLAYERS * CONNECTIONS_PER_PLAYER; connection++) {
+      int playerID = connection % PLAYERS;
+      Random random = new Random(connection);
+      connections.execute(() -> {
+        for (int i = 0; i < REQUESTS; i++) {
+          mailbox.post(randomRequest(random), playerID);
+        }
+      });
+    }
+    List<FutureTask<Integer>> checks = new ArrayList<>();
+    for (int i = 0; i < 50; i++) {
+      FutureTask<Integer> check = new FutureTask<>(() -> countStones(game));
+      checks.add(check);
+      mailbox.execute(check);
+      Thread.sleep(1);
+    }
+    connections.shutdown();
+    assertTrue(connections.awaitTermination(1, TimeUnit.MINUTES));
+    FutureTask<Integer> last = new FutureTask<>(() -> countStones(game));
+    checks.add(last);
+    mailbox.execute(last);
+
+    for (FutureTask<Integer> check : checks) {
+      assertEquals(Constants.MAX_BAG_SIZE, (int) check.get(1, TimeUnit.MINUTES));
+    }
+    assertEquals(1, server.maxInside.get());
+  }
+
+  @Test
+  public void afterTaskTest() throws Exception {
+    RummiGame game = new RummiGame();
+    RequestHandler requestHandler = new RequestHandler(new CountingServer(), game);
+    AtomicBoolean gameOn = new AtomicBoolean();
+    GameMailbox mailbox = new GameMailbox(requestHandler, null,
+        () -> gameOn.set(game.isGameOn()));
+    for (int id = 0; id < PLAYERS; id++) {
+      mailbox.post(new ConcreteSetPlayer("player" + id, 20 + id), id);
+    }
+    FutureTask<Boolean> beforeStart = new FutureTask<>(gameOn::get);
+    mailbox.execute(beforeStart);
+    mailbox.post(new ConcreteStart(1), 0);
+    FutureTask<Boolean> afterStart = new FutureTask<>(gameOn::get);
+    mailbox.execute(afterStart);
+
+    // the hook ran on the thread of the game after every task
+    assertEquals(false, beforeStart.get(1, TimeUnit.MINUTES));
+    assertEquals(true, afterStart.get(1, TimeUnit.MINUTES));
+  }
+
+  @Test
+  public void failingTaskTest() throws Exception {
+    ExecutorService executor = Executors.newSingleThreadExecutor();
+    AtomicInteger finished = new AtomicInteger();
+    GameMailbox mailbox = new GameMailbox(new RequestHandler(new CountingServer(),
+        new RummiGame()), null, finished::incrementAndGet, executor);
+    mailbox.execute(() -> {
+      throw new IllegalStateException("task fails");
+    });
+    mailbox.execute(() -> {
+      throw new StackOverflowError();
+    });
+    FutureTask<Integer> later = new FutureTask<>(finished::get);
+    mailbox.execute(later);
+
+    // the tasks after the failed ones still run, each failed task was finished
+    assertEquals(2, (int) later.get(1, TimeUnit.MINUTES));
+    executor.shutdown();
+  }
+}
@@ -0,0 +1,105 @@
+package network.server;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import communication.Serializer;
+import communication.gameinfo.GameInfo;
+import communication.gameinfo.GameInfoID;
+import communication.gameinfo.GridDeltaInfo;
+import communication.gameinfo.GridInfo;
+import communication.gameinfo.StoneInfo;
+import globalconstants.Constants;
+import java.util.Random;
+import org.junit.Before;
+import org.junit.Test;
+
+public class GridTrackerTest {
+  private GridTracker tracker;
+  private StoneInfo[][] grid;
+
+  @Before
+  public void setUp() {
+    tracker = new GridTracker(GameInfoID.TABLE, GameInfoID.TABLE_DELTA, 3);
+    grid = new StoneInfo[Constants.TABLE_WIDTH][Constants.TABLE_HEIGHT];
+    grid[0][0] = new StoneInfo("RED", 1);
+  }
+
+  private StoneInfo[][] move(int fromColumn, int toColumn) {
+    StoneInfo[][] next = new StoneInfo[grid.length][];
+    for (int column = 0; column < grid.length; column++) {
+      next[column] = grid[column].clone();
+    }
+    next[toColumn][0] = next[fromColumn][0];
+    next[fromColumn][0] = null;
+    grid = next;
+    return next;
+  }
+
+  @Test
+  public void deltaTest() {
+    tracker.update(grid);
+    GridInfo snapshot = (GridInfo) tracker.infoForAll(3);
+    assertEquals(1, snapshot.getVersion());
+
+    tracker.update(move(0, 5));
+    GridDeltaInfo delta = (GridDeltaInfo) tracker.infoForAll(3);
+    assertEquals(GameInfoID.TABLE_DELTA, delta.getGameInfoID());
+    assertEquals(1, delta.getBaseVersion());
+    assertEquals(2, delta.getVersion());
+    assertEquals(2, delta.getCells().size());
+    assertNull(delta.getCells().get(0).getStone());
+    assertEquals(1, delta.getCells().get(1).getStone().getNumber());
+    assertEquals(5, delta.getCells().get(1).getColumn());
+  }
+
+  @Test
+  public void gapTest() {
+    tracker.update(grid);
+    tracker.infoForAll(3);
+    tracker.forget(1);
+    tracker.update(move(0, 1));
+    // the players need different infos
+    assertNull(tracker.infoForAll(3));
+    assertTrue(tracker.infoFor(0) instanceof GridDeltaInfo);
+    assertTrue(tracker.infoFor(1) instanceof GridInfo);
+    assertEquals(2, ((GridDeltaInfo) tracker.infoFor(2)).getVersion());
+
+    // all of them are up to date again
+    tracker.update(move(1, 2));
+    assertTrue(tracker.infoForAll(3) instanceof GridDeltaInfo);
+  }
+
+  @Test
+  public void largeChangeTest() {
+    tracker.update(grid);
+    tracker.infoForAll(3);
+    StoneInfo[][] full = new StoneInfo[grid.length][grid[0].length];
+    for (StoneInfo[] column : full) {
+      for (int row = 0; row < column.length; row++) {
+        column[row] = new StoneInfo("BLUE", row + 1);
+      }
+    }
+    tracker.update(full);
+    // a snapshot is smaller than a delta of all cells
+    assertTrue(tracker.infoForAll(3) instanceof GridInfo);
+  }
+
+  @Test
+  public void bandwidthTest() {
+    // a late game table with 80 stones
+    Random random = new Random(1);
+    for (int i = 0; i < 80; i++) {
+      grid[1 + random.nextInt(grid.length - 1)][random.nextInt(grid[0].length)] =
+          new StoneInfo("BLACK", 1 + random.nextInt(13));
+    }
+    tracker.update(grid);
+    Serializer serializer = new Serializer();
+    int snapshot = serializer.serialize(tracker.infoFor(0)).length();
+    tracker.update(move(0, grid.length - 1));
+    GameInfo delta = tracker.infoFor(0);
+    assertTrue(delta instanceof GridDeltaInfo);
+    assertTrue(serializer.serialize(delta).length() * 10 < snapshot);
+  }
+}
@@ -0,0 +1,217 @@
+package network.server;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+
+import communication.EncodedInfo;
+import communication.gameinfo.GameInfoID;
+import communication.gameinfo.RoomsInfo;
+import communication.request.ConcreteSetPlayer;
+import communication.request.ConcreteStart;
+import communication.request.RequestID;
+import communication.request.SimpleRequest;
+import globalconstants.Constants;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.Before;
+import org.junit.Test;
+
+public class LobbyTest {
+  private static final long TIMEOUT = 1000;
+
+  private long now;
+  private Lobby lobby;
+
+  private static class FakeConnection implements Connection {
+    private volatile boolean disconnected;
+
+    @Override
+    public void send(EncodedInfo info) {
+    }
+
+    @Override
+    public void send(List<EncodedInfo> infos) {
+    }
+
+    @Override
+    public int backlog() {
+      return 0;
+    }
+
+    @Override
+    public void disconnect() {
+      disconnected = true;
+    }
+  }
+
+  @Before
+  public void setUp() {
+    lobby = new Lobby(TIMEOUT, () -> now);
+  }
+
+  @Test
+  public void createTest() {
+    Room first = lobby.create("first");
+    Room second = lobby.create("second");
+    assertSame(first, lobby.get(first.getId()));
+    assertSame(lobby.getDefaultRoom(), lobby.get(Lobby.DEFAULT_ROOM_ID));
+    assertEquals(0, first.seat(new FakeConnection()));
+
+    RoomsInfo rooms = lobby.list();
+    assertEquals(3, rooms.getRooms().size());
+    assertEquals(Lobby.DEFAULT_ROOM_ID, rooms.getRooms().get(0).getId());
+    assertEquals("first", rooms.getRooms().get(1).getName());
+    assertEquals(1, rooms.getRooms().get(1).getPlayers());
+    assertEquals(second.getId(), rooms.getRooms().get(2).getId());
+  }
+
+  @Test
+  public void fullRoomTest() {
+    Room room = lobby.create("room");
+    for (int seat = 0; seat < Constants.MAX_PLAYERS; seat++) {
+      assertEquals(seat, room.seat(new FakeConnection()));
+    }
+    assertEquals(Room.NO_SEAT, room.seat(new FakeConnection()));
+  }
+
+  @Test
+  public void hostLeaveTest() throws InterruptedException {
+    Room room = lobby.create("room");
+    FakeConnection host = new FakeConnection();
+    FakeConnection guest = new FakeConnection();
+    room.seat(host);
+    room.seat(guest);
+    room.leave(0, host);
+    // the room is closed together with the connections of its clients on the thread of the game
+    long deadline = System.currentTimeMillis() + 10_000;
+    while (!guest.disconnected && System.currentTimeMillis() < deadline) {
+      Thread.sleep(1);
+    }
+    assertTrue(guest.disconnected);
+    assertNull(lobby.get(room.getId()));
+    assertEquals(Room.NO_SEAT, room.seat(new FakeConnection()));
+  }
+
+  @Test
+  public void evictIdleTest() {
+    Room idle = lobby.create("idle");
+    Room busy = lobby.create("busy");
+    FakeConnection client = new FakeConnection();
+    idle.seat(client);
+    now += TIMEOUT;
+    busy.seat(new FakeConnection());
+    assertEquals(0, lobby.evictIdle());
+    now += 1;
+    assertEquals(1, lobby.evictIdle());
+    assertTrue(client.disconnected);
+    assertNull(lobby.get(idle.getId()));
+    assertSame(busy, lobby.get(busy.getId()));
+  }
+
+  @Test
+  public void hostlessLeaveTest() throws InterruptedException {
+    Lobby hostless = new Lobby(TIMEOUT, () -> now, true);
+    Room room = hostless.create("room");
+    FakeConnection first = new FakeConnection();
+    FakeConnection second = new FakeConnection();
+    room.seat(first);
+    room.seat(second);
+    room.leave(0, first);
+    long deadline = System.currentTimeMillis() + 10_000;
+    while (room.describe().getPlayers() > 1 && System.currentTimeMillis() < deadline) {
+      Thread.sleep(1);
+    }
+    // the first player is not a host, the room stays open for the others
+    assertEquals(1, room.describe().getPlayers());
+    assertFalse(second.disconnected);
+    assertSame(room, hostless.get(room.getId()));
+
+    room.leave(1, second);
+    while (hostless.get(room.getId()) != null && System.currentTimeMillis() < deadline) {
+      Thread.sleep(1);
+    }
+    // but is closed once the last player left
+    assertNull(hostless.get(room.getId()));
+  }
+
+  @Test
+  public void closeWithoutGameTest() {
+    Room waiting = lobby.create("waiting");
+    FakeConnection client = new FakeConnection();
+    waiting.seat(client);
+    assertEquals(1, lobby.closeWithoutGame());
+    assertTrue(client.disconnected);
+    assertNull(lobby.get(waiting.getId()));
+  }
+
+  /**
+   * Connection of a player which draws a stone in each of its turns.
+   */
+  private static final class DrawingConnection implements Connection {
+    private final AtomicInteger turns = new AtomicInteger();
+    private Room room;
+    private int seat;
+
+    @Override
+    public void send(EncodedInfo info) {
+      if (info.getInfo().getGameInfoID() == GameInfoID.YOUR_TURN) {
+        turns.incrementAndGet();
+        room.apply(new SimpleRequest(RequestID.DRAW), seat);
+      }
+    }
+
+    @Override
+    public void send(List<EncodedInfo> infos) {
+      for (EncodedInfo info : infos) {
+        send(info);
+      }
+    }
+
+    @Override
+    public int backlog() {
+      return 0;
+    }
+
+    @Override
+    public void disconnect() {
+    }
+  }
+
+  @Test
+  public void botFillTest() throws InterruptedException {
+    Lobby hostless = new Lobby(TIMEOUT, () -> now, true);
+    hostless.setBotFill(Bot.Difficulty.HARD, 0);
+    Room room = hostless.create("room");
+    DrawingConnection player = new DrawingConnection();
+    player.room = room;
+    player.seat = room.seat(player);
+    room.apply(new ConcreteSetPlayer("player", 20), player.seat);
+    room.apply(new ConcreteStart(1), player.seat);
+
+    // the bots play their turns in between the turns of the player
+    long deadline = System.currentTimeMillis() + 60_000;
+    while (player.turns.get() < 5 && System.currentTimeMillis() < deadline) {
+      Thread.sleep(1);
+    }
+    assertTrue(player.turns.get() >= 5);
+    assertEquals(Constants.MAX_PLAYERS, room.describe().getPlayers());
+    assertTrue(room.isGameOn());
+  }
+
+  @Test
+  public void addBotTest() {
+    Room room = lobby.create("room");
+    // the seat of the host is never taken by a bot
+    assertEquals(1, room.addBot(Bot.Difficulty.EASY, 0));
+    assertEquals(0, room.seat(new FakeConnection()));
+    assertEquals(2, room.addBot(Bot.Difficulty.EASY, 0));
+    assertEquals(3, room.addBot(Bot.Difficulty.EASY, 0));
+    assertThrows(IllegalStateException.class, () -> room.addBot(Bot.Difficulty.EASY, 0));
+    assertThrows(IllegalArgumentException.class,
+        () -> lobby.create("other").addBot(Bot.Difficulty.EASY, -1));
+  }
+}
@@ -0,0 +1,119 @@
+package network.server;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import communication.Deserializer;
+import communication.EncodedInfo;
+import communication.gameinfo.BagInfo;
+import communication.gameinfo.GameInfo;
+import communication.gameinfo.GameInfoID;
+import communication.gameinfo.GridInfo;
+import communication.gameinfo.StoneInfo;
+import globalconstants.Constants;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.net.StandardSocketOptions;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class NioConnectionTest {
+  private static final int CAPACITY = 8;
+  private static final int TABLES = 2000;
+
+  private final Deserializer deserializer = new Deserializer();
+  private NioRummiServer server;
+  private NioLoop loop;
+  private ServerSocketChannel serverChannel;
+  private Socket client;
+  private SocketChannel accepted;
+
+  @Before
+  public void setUp() throws IOException {
+    server = new NioRummiServer(0, 1, 60_000);
+    loop = new NioLoop(server, 0);
+    loop.start();
+    serverChannel = ServerSocketChannel.open();
+    serverChannel.bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));
+    client = new Socket();
+    // small buffers, so that a client which does not read soon blocks the writes
+    client.setReceiveBufferSize(4096);
+    client.connect(serverChannel.getLocalAddress());
+    accepted = serverChannel.accept();
+    accepted.setOption(StandardSocketOptions.SO_SNDBUF, 4096);
+    accepted.configureBlocking(false);
+  }
+
+  @After
+  public void tearDown() throws IOException {
+    loop.shutdown();
+    client.close();
+    accepted.close();
+    serverChannel.close();
+  }
+
+  private static EncodedInfo table(int version) {
+    StoneInfo[][] grid = new StoneInfo[Constants.TABLE_WIDTH][Constants.TABLE_HEIGHT];
+    for (int column = 0; column < grid.length; column++) {
+      grid[column][0] = new StoneInfo("BLACK", 1 + column % 13);
+    }
+    return new EncodedInfo(new GridInfo(GameInfoID.TABLE, grid, version));
+  }
+
+  private NioConnection connect(ServerSender.Overflow overflow) {
+    NioConnection connection = new NioConnection(server, loop, accepted, CAPACITY, overflow);
+    loop.register(connection);
+    return connection;
+  }
+
+  @Test
+  public void keepLatestTest() throws IOException {
+    NioConnection connection = connect(ServerSender.Overflow.KEEP_LATEST);
+    // the client does not read, the queue stays bounded
+    for (int version = 0; version < TABLES; version++) {
+      connection.send(table(version));
+      assertTrue(connection.backlog() <= CAPACITY);
+    }
+    connection.send(new EncodedInfo(new BagInfo(7)));
+
+    BufferedReader in = new BufferedReader(
+        new InputStreamReader(client.getInputStream(), StandardCharsets.UTF_8));
+    int tables = 0;
+    int lastVersion = -1;
+    GameInfo info;
+    while ((info = deserializer.deserializeInfo(in.readLine())).getGameInfoID()
+        == GameInfoID.TABLE) {
+      tables++;
+      lastVersion = ((GridInfo) info).getVersion();
+    }
+    assertEquals(GameInfoID.BAG, info.getGameInfoID());
+    assertTrue(tables < TABLES);
+    // the latest table is never dropped
+    assertEquals(TABLES - 1, lastVersion);
+  }
+
+  @Test
+  public void disconnectTest() throws IOException {
+    NioConnection connection = connect(ServerSender.Overflow.DISCONNECT);
+    for (int version = 0; version < TABLES; version++) {
+      connection.send(table(version));
+    }
+    assertEquals(0, connection.backlog());
+    BufferedReader in = new BufferedReader(
+        new InputStreamReader(client.getInputStream(), StandardCharsets.UTF_8));
+    int lines = 0;
+    while (in.readLine() != null) {
+      lines++;
+    }
+    // the connection was closed instead of queueing every table
+    assertTrue(lines < TABLES);
+  }
+}
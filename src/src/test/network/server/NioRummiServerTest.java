@@ -0,0 +1,262 @@
+package network.server;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import communication.BinaryCodec;
+import communication.Deserializer;
+import communication.Serializer;
+import communication.gameinfo.ErrorInfo;
+import communication.gameinfo.GameInfo;
+import communication.gameinfo.GameInfoID;
+import communication.gameinfo.GridInfo;
+import communication.gameinfo.PlayerNamesInfo;
+import communication.gameinfo.RoomJoinedInfo;
+import communication.gameinfo.RoomsInfo;
+import communication.gameinfo.SessionInfo;
+import communication.gameinfo.StoneInfo;
+import communication.request.ConcreteCreateRoom;
+import communication.request.ConcreteJoinRoom;
+import communication.request.ConcreteResume;
+import communication.request.ConcreteSetPlayer;
+import communication.request.ConcreteSpectateRoom;
+import communication.request.ConcreteStart;
+import communication.request.Request;
+import communication.request.RequestID;
+import communication.request.SimpleRequest;
+import globalconstants.Constants;
+import globalconstants.ErrorMessages;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.PrintWriter;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class NioRummiServerTest {
+  private static final int TIMEOUT = 10_000;
+
+  private NioRummiServer server;
+  private final List<Socket> sockets = new ArrayList<>();
+
+  @Before
+  public void setUp() throws IOException {
+    server = new NioRummiServer(0, 2, 60_000);
+    server.start();
+  }
+
+  @After
+  public void tearDown() throws IOException {
+    server.stop();
+    for (Socket socket : sockets) {
+      socket.close();
+    }
+  }
+
+  private Socket connect() throws IOException {
+    Socket socket = new Socket("localhost", server.getPort());
+    socket.setSoTimeout(TIMEOUT);
+    sockets.add(socket);
+    return socket;
+  }
+
+  private static BufferedReader reader(Socket socket) throws IOException {
+    return new BufferedReader(new InputStreamReader(socket.getInputStream(),
+        StandardCharsets.UTF_8));
+  }
+
+  private static void send(Socket socket, Request request) throws IOException {
+    PrintWriter out = new PrintWriter(socket.getOutputStream());
+    out.println(new Serializer().serialize(request));
+    out.flush();
+  }
+
+  private static GameInfo receive(BufferedReader in) throws IOException {
+    return new Deserializer().deserializeInfo(in.readLine());
+  }
+
+  /**
+   * Joins the game of the room of the client and returns the token of its session.
+   */
+  private static String join(Socket socket, BufferedReader in, String name, int age)
+      throws IOException {
+    send(socket, new ConcreteSetPlayer(name, age));
+    return ((SessionInfo) receive(in)).getToken();
+  }
+
+  private static GameInfo receiveUntil(BufferedReader in, GameInfoID id) throws IOException {
+    GameInfo info;
+    do {
+      info = receive(in);
+    } while (info.getGameInfoID() != id);
+    return info;
+  }
+
+  @Test
+  public void joinTest() throws IOException {
+    Socket host = connect();
+    BufferedReader hostIn = reader(host);
+    join(host, hostIn, "host", 20);
+    PlayerNamesInfo names = (PlayerNamesInfo) receive(hostIn);
+    assertEquals(1, names.getNames().size());
+
+    Socket guest = connect();
+    BufferedReader guestIn = reader(guest);
+    join(guest, guestIn, "guest", 30);
+    // both get the names of both players
+    assertEquals(2, ((PlayerNamesInfo) receive(hostIn)).getNames().size());
+    assertEquals(2, ((PlayerNamesInfo) receive(guestIn)).getNames().size());
+  }
+
+  @Test
+  public void binaryTest() throws IOException {
+    Socket host = connect();
+    OutputStream out = host.getOutputStream();
+    BinaryCodec codec = new BinaryCodec();
+    out.write(BinaryCodec.MAGIC);
+    out.write(BinaryCodec.frame(codec.encode(new ConcreteSetPlayer("host", 20))));
+    out.flush();
+    assertTrue(codec.decodeInfo(BinaryCodec.readFrame(host.getInputStream()))
+        instanceof SessionInfo);
+    PlayerNamesInfo names =
+        (PlayerNamesInfo) codec.decodeInfo(BinaryCodec.readFrame(host.getInputStream()));
+    assertEquals(Collections.singletonList("host"), names.getNames());
+
+    // a JSON client at the same table
+    Socket guest = connect();
+    BufferedReader guestIn = reader(guest);
+    join(guest, guestIn, "guest", 30);
+    assertEquals(2, ((PlayerNamesInfo) receive(guestIn)).getNames().size());
+    assertEquals(2, ((PlayerNamesInfo) codec.decodeInfo(
+        BinaryCodec.readFrame(host.getInputStream()))).getNames().size());
+  }
+
+  @Test
+  public void tooManyClientsTest() throws IOException {
+    int threads = Thread.activeCount();
+    for (int i = 0; i < Constants.MAX_PLAYERS; i++) {
+      Socket socket = connect();
+      BufferedReader in = reader(socket);
+      join(socket, in, "player" + i, 20);
+    }
+    for (int i = 0; i < 50; i++) {
+      Socket socket = connect();
+      BufferedReader in = reader(socket);
+      // clients are seated in the default room by their first request
+      send(socket, new ConcreteSetPlayer("late" + i, 20));
+      assertEquals(GameInfoID.TOO_MANY_CLIENTS, receive(in).getGameInfoID());
+      // the server closes the connection
+      assertNull(in.readLine());
+    }
+    // the connections do not need threads
+    assertTrue(Thread.activeCount() <= threads);
+  }
+
+  @Test
+  public void roomsTest() throws IOException {
+    Socket host = connect();
+    BufferedReader hostIn = reader(host);
+    send(host, new ConcreteCreateRoom("table"));
+    int roomID = ((RoomJoinedInfo) receive(hostIn)).getRoomID();
+    join(host, hostIn, "host", 20);
+    assertEquals(1, ((PlayerNamesInfo) receive(hostIn)).getNames().size());
+
+    // a player of the default room does not see the players of the room
+    Socket other = connect();
+    BufferedReader otherIn = reader(other);
+    join(other, otherIn, "other", 20);
+    assertEquals(1, ((PlayerNamesInfo) receive(otherIn)).getNames().size());
+
+    Socket guest = connect();
+    BufferedReader guestIn = reader(guest);
+    send(guest, new SimpleRequest(RequestID.LIST_ROOMS));
+    RoomsInfo rooms = (RoomsInfo) receive(guestIn);
+    assertEquals(2, rooms.getRooms().size());
+    assertEquals(roomID, rooms.getRooms().get(1).getId());
+    assertEquals(1, rooms.getRooms().get(1).getPlayers());
+    send(guest, new ConcreteJoinRoom(roomID));
+    assertEquals(roomID, ((RoomJoinedInfo) receive(guestIn)).getRoomID());
+    join(guest, guestIn, "guest", 30);
+    assertEquals(2, ((PlayerNamesInfo) receive(hostIn)).getNames().size());
+    assertEquals(2, ((PlayerNamesInfo) receive(guestIn)).getNames().size());
+  }
+
+  @Test
+  public void spectateTest() throws IOException {
+    Socket host = connect();
+    BufferedReader hostIn = reader(host);
+    send(host, new ConcreteCreateRoom("table"));
+    int roomID = ((RoomJoinedInfo) receive(hostIn)).getRoomID();
+    join(host, hostIn, "host", 20);
+    assertEquals(1, ((PlayerNamesInfo) receive(hostIn)).getNames().size());
+
+    Socket spectator = connect();
+    BufferedReader spectatorIn = reader(spectator);
+    send(spectator, new ConcreteSpectateRoom(roomID));
+    assertEquals(roomID, ((RoomJoinedInfo) receive(spectatorIn)).getRoomID());
+    // the spectator gets the state of the game first
+    assertEquals(1, ((PlayerNamesInfo) receive(spectatorIn)).getNames().size());
+
+    // but can not play
+    send(spectator, new ConcreteSetPlayer("spectator", 30));
+    assertEquals(ErrorMessages.SPECTATOR_CANNOT_PLAY_ERROR,
+        ((ErrorInfo) receive(spectatorIn)).getErrorMessage());
+
+    Socket guest = connect();
+    BufferedReader guestIn = reader(guest);
+    send(guest, new ConcreteJoinRoom(roomID));
+    assertEquals(roomID, ((RoomJoinedInfo) receive(guestIn)).getRoomID());
+    join(guest, guestIn, "guest", 30);
+    assertEquals(2, ((PlayerNamesInfo) receive(guestIn)).getNames().size());
+    assertEquals(2, ((PlayerNamesInfo) receive(spectatorIn)).getNames().size());
+  }
+
+  @Test
+  public void resumeTest() throws IOException {
+    Socket host = connect();
+    BufferedReader hostIn = reader(host);
+    join(host, hostIn, "host", 20);
+    Socket guest = connect();
+    BufferedReader guestIn = reader(guest);
+    String token = join(guest, guestIn, "guest", 30);
+    Socket third = connect();
+    join(third, reader(third), "third", 40);
+    send(host, new ConcreteStart(1));
+    receiveUntil(guestIn, GameInfoID.HAND);
+
+    // the guest loses its connection and resumes its seat on a new one
+    guest.close();
+    Socket resumed = connect();
+    BufferedReader resumedIn = reader(resumed);
+    send(resumed, new ConcreteResume(token));
+    PlayerNamesInfo names = (PlayerNamesInfo) receive(resumedIn);
+    assertEquals("guest", names.getNames().get(0));
+    assertEquals(3, names.getNames().size());
+    GameInfo info = receiveUntil(resumedIn, GameInfoID.HAND);
+    int stones = 0;
+    for (StoneInfo[] column : ((GridInfo) info).getGrid()) {
+      for (StoneInfo stone : column) {
+        stones += stone == null ? 0 : 1;
+      }
+    }
+    // the hand was held for the guest
+    assertEquals(Constants.FIRST_STONES, stones);
+  }
+
+  @Test
+  public void expiredSessionTest() throws IOException {
+    Socket client = connect();
+    BufferedReader in = reader(client);
+    send(client, new ConcreteResume("unknown"));
+    assertEquals(ErrorMessages.SESSION_EXPIRED_ERROR,
+        ((ErrorInfo) receive(in)).getErrorMessage());
+  }
+}
@@ -0,0 +1,135 @@
+package network.server;
+
+import communication.EncodedInfo;
+import communication.gameinfo.GameInfo;
+import communication.request.ConcreteMove;
+import communication.request.ConcreteSetPlayer;
+import communication.request.ConcreteStart;
+import communication.request.RequestID;
+import communication.request.SimpleRequest;
+import game.RummiGame;
+import globalconstants.Constants;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Benchmark of the writes and bytes per request sent by a game of three players, with every
+ * GameInfo written and flushed on its own and with the GameInfos of a request sent as one batch
+ * per player.
+ * A write is one flush of a ServerSender or one message of a NioConnection, so one system call
+ * and at least one TCP segment, counted with 40 bytes of TCP and IP headers.
+ * Not a JUnit test, run it with its main method.
+ */
+public class OutboundBatchBenchmark {
+  private static final int PLAYERS = 3;
+  private static final int TURNS = 300;
+  private static final int MOVES_PER_TURN = 3;
+  private static final int HEADER_BYTES = 40;
+
+  /**
+   * Server counting the writes and bytes of the GameInfos sent to the players.
+   */
+  private static final class CountingServer implements OutboundBatch.Target {
+    private long writes;
+    private long jsonBytes;
+    private long binaryBytes;
+
+    @Override
+    public void sendToAll(GameInfo info) {
+      EncodedInfo encoded = new EncodedInfo(info);
+      for (int playerID = 0; playerID < PLAYERS; playerID++) {
+        count(encoded);
+        writes++;
+      }
+    }
+
+    @Override
+    public void sendToPlayer(int playerID, GameInfo info) {
+      count(new EncodedInfo(info));
+      writes++;
+    }
+
+    @Override
+    public void sendBatch(int playerID, List<EncodedInfo> infos) {
+      if (playerID >= PLAYERS) {
+        return;
+      }
+      for (EncodedInfo info : infos) {
+        count(info);
+      }
+      writes++;
+    }
+
+    private void count(EncodedInfo info) {
+      jsonBytes += info.toJson().getBytes(StandardCharsets.UTF_8).length + 1;
+      // one byte of length prefix for most frames
+      binaryBytes += info.toBinary().length + 1;
+    }
+
+    @Override
+    public String getIP() {
+      return "";
+    }
+  }
+
+  public static void main(String[] args) {
+    CountingServer direct = new CountingServer();
+    int requests = play(direct, null);
+    CountingServer batched = new CountingServer();
+    play(batched, new OutboundBatch(batched));
+    System.out.println(requests + " requests of " + PLAYERS + " players");
+    report("one write per info", direct, requests);
+    report("one batch per player", batched, requests);
+  }
+
+  /**
+   * Plays the same game, moving stones at random before drawing in every turn.
+   */
+  private static int play(CountingServer server, OutboundBatch batch) {
+    RummiGame game = new RummiGame();
+    RequestHandler requestHandler = new RequestHandler(batch == null ? server : batch, game);
+    // the same game in every run
+    requestHandler.setReplay(true);
+    Random random = new Random(1);
+    int requests = 0;
+    for (int playerID = 0; playerID < PLAYERS; playerID++) {
+      apply(requestHandler, batch, new ConcreteSetPlayer("player" + playerID, 20), playerID);
+      requests++;
+    }
+    apply(requestHandler, batch, new ConcreteStart(1), 0);
+    requests++;
+    for (int turn = 0; turn < TURNS && game.isGameOn(); turn++) {
+      int current = game.getCurrentPlayerID();
+      for (int move = 0; move < MOVES_PER_TURN; move++) {
+        apply(requestHandler, batch, new ConcreteMove(RequestID.PUT_STONE,
+            random.nextInt(Constants.HAND_WIDTH), random.nextInt(Constants.HAND_HEIGHT),
+            random.nextInt(Constants.TABLE_WIDTH), random.nextInt(Constants.TABLE_HEIGHT)),
+            current);
+        requests++;
+      }
+      apply(requestHandler, batch, new SimpleRequest(RequestID.RESET), current);
+      apply(requestHandler, batch, new SimpleRequest(game.getBagSize() > 0 ? RequestID.DRAW
+          : RequestID.TIME_OUT), current);
+      requests += 2;
+    }
+    return requests;
+  }
+
+  private static void apply(RequestHandler requestHandler, OutboundBatch batch, Object request,
+      int playerID) {
+    requestHandler.applyRequest(request, playerID);
+    if (batch != null) {
+      batch.flush();
+    }
+  }
+
+  private static void report(String mode, CountingServer server, int requests) {
+    System.out.printf("%s: %.2f writes, %.0f bytes of JSON (%.0f with headers),"
+            + " %.0f bytes binary (%.0f with headers) per request%n", mode,
+        (double) server.writes / requests, (double) server.jsonBytes / requests,
+        (double) (server.jsonBytes + server.writes * HEADER_BYTES) / requests,
+        (double) server.binaryBytes / requests,
+        (double) (server.binaryBytes + server.writes * HEADER_BYTES) / requests);
+  }
+}
@@ -0,0 +1,108 @@
+package network.server;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import communication.EncodedInfo;
+import communication.gameinfo.BagInfo;
+import communication.gameinfo.GameInfo;
+import communication.gameinfo.GameInfoID;
+import communication.gameinfo.SimpleGameInfo;
+import communication.request.ConcreteSetPlayer;
+import communication.request.RequestID;
+import communication.request.SimpleRequest;
+import game.RummiGame;
+import globalconstants.Constants;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.TimeUnit;
+import org.junit.Test;
+
+public class OutboundBatchTest {
+
+  /**
+   * Server which records the batches it is asked to send.
+   */
+  private static final class RecordingServer implements OutboundBatch.Target {
+    private final List<List<List<EncodedInfo>>> batches = new ArrayList<>();
+
+    RecordingServer() {
+      for (int playerID = 0; playerID < Constants.MAX_PLAYERS; playerID++) {
+        batches.add(new ArrayList<>());
+      }
+    }
+
+    @Override
+    public void sendBatch(int playerID, List<EncodedInfo> infos) {
+      batches.get(playerID).add(infos);
+    }
+
+    @Override
+    public void sendToAll(GameInfo info) {
+      throw new AssertionError("sent without the batch");
+    }
+
+    @Override
+    public void sendToPlayer(int playerId, GameInfo info) {
+      throw new AssertionError("sent without the batch");
+    }
+
+    @Override
+    public String getIP() {
+      return "";
+    }
+  }
+
+  @Test
+  public void flushTest() {
+    RecordingServer server = new RecordingServer();
+    OutboundBatch batch = new OutboundBatch(server);
+    batch.sendToPlayer(1, new SimpleGameInfo(GameInfoID.YOUR_TURN));
+    batch.sendToAll(new BagInfo(3));
+    batch.sendToPlayer(1, new BagInfo(4));
+    assertTrue(server.batches.get(1).isEmpty());
+
+    batch.flush();
+    List<EncodedInfo> first = server.batches.get(0).get(0);
+    List<EncodedInfo> second = server.batches.get(1).get(0);
+    assertEquals(1, first.size());
+    // in the order they were sent
+    assertEquals(3, second.size());
+    assertEquals(GameInfoID.YOUR_TURN, second.get(0).getInfo().getGameInfoID());
+    assertEquals(4, ((BagInfo) second.get(2).getInfo()).getSize());
+    // encoded once for all players
+    assertSame(first.get(0), second.get(1));
+
+    batch.flush();
+    assertEquals(1, server.batches.get(1).size());
+  }
+
+  @Test
+  public void requestTest() throws Exception {
+    RecordingServer server = new RecordingServer();
+    OutboundBatch batch = new OutboundBatch(server);
+    RummiGame game = new RummiGame();
+    GameMailbox mailbox = new GameMailbox(new RequestHandler(batch, game), batch);
+    for (int playerID = 0; playerID < 3; playerID++) {
+      mailbox.post(new ConcreteSetPlayer("player" + playerID, 20), playerID);
+    }
+    mailbox.post(new SimpleRequest(RequestID.START), 0);
+    FutureTask<Integer> current = new FutureTask<>(game::getCurrentPlayerID);
+    mailbox.execute(current);
+    int currentPlayerID = current.get(1, TimeUnit.MINUTES);
+    mailbox.post(new SimpleRequest(RequestID.DRAW), currentPlayerID);
+    FutureTask<Void> done = new FutureTask<>(() -> null);
+    mailbox.execute(done);
+    done.get(1, TimeUnit.MINUTES);
+
+    // three joins, start and draw, one batch each per player
+    for (int playerID = 0; playerID < 3; playerID++) {
+      assertEquals(5, server.batches.get(playerID).size());
+    }
+    // the draw sends the hand, table, invalid sets, hand sizes, bag and turn at once
+    List<List<EncodedInfo>> batches = server.batches.get(currentPlayerID);
+    assertEquals(6, batches.get(batches.size() - 1).size());
+  }
+}
@@ -0,0 +1,129 @@
+package network.server;
+
+import communication.gameinfo.GameInfo;
+import communication.request.ConcreteMove;
+import communication.request.ConcreteSetPlayer;
+import communication.request.ConcreteStart;
+import communication.request.Request;
+import communication.request.RequestID;
+import game.RummiGame;
+import globalconstants.Constants;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * Benchmark of a client dragging stones over the table, which sends a move for every cell
+ * a stone passes: a drag over 12 cells within 12 milliseconds every 200 milliseconds.
+ * Counts the moves the game applies, the GameInfos it sends to three players and the time the
+ * thread of the game spends on them, with every move applied and with the moves passing a
+ * RequestThrottle. The time of the drags is simulated, the benchmark does not sleep.
+ * Not a JUnit test, run it with its main method.
+ */
+public class RequestThrottleBenchmark {
+  private static final int DRAGS = 2000;
+  private static final int CELLS_PER_DRAG = 12;
+  private static final int DRAG_PERIOD = 200;
+  private static final int PLAYERS = 3;
+
+  /**
+   * Server counting the GameInfos sent to the players.
+   */
+  private static final class CountingServer implements Server {
+    private long infos;
+
+    @Override
+    public void sendToAll(GameInfo info) {
+      infos += PLAYERS;
+    }
+
+    @Override
+    public void sendToPlayer(int playerID, GameInfo info) {
+      infos++;
+    }
+
+    @Override
+    public String getIP() {
+      return "";
+    }
+  }
+
+  /**
+   * Applies the moves to a game and measures the time spent on them.
+   */
+  private static final class Game implements Consumer<Request> {
+    private final CountingServer server = new CountingServer();
+    private final RequestHandler requestHandler = new RequestHandler(server, new RummiGame());
+    private long moves;
+    private long nanos;
+
+    Game() {
+      // the same game in every run
+      requestHandler.setReplay(true);
+      for (int playerID = 0; playerID < PLAYERS; playerID++) {
+        requestHandler.applyRequest(new ConcreteSetPlayer("player" + playerID, 20), playerID);
+      }
+      requestHandler.applyRequest(new ConcreteStart(1), 0);
+      server.infos = 0;
+    }
+
+    @Override
+    public void accept(Request request) {
+      long start = System.nanoTime();
+      requestHandler.applyRequest(request, 0);
+      nanos += System.nanoTime() - start;
+      moves++;
+    }
+  }
+
+  public static void main(String[] args) {
+    ScheduledExecutorService timer = Executors.newSingleThreadScheduledExecutor();
+    for (int pass = 0; pass < 3; pass++) {
+      Game direct = new Game();
+      drag(direct, null, null);
+      Game throttled = new Game();
+      AtomicLong clock = new AtomicLong();
+      RequestThrottle throttle = new RequestThrottle(throttled, RequestThrottle.DEFAULT_BURST,
+          RequestThrottle.DEFAULT_RATE, RequestThrottle.DEFAULT_WINDOW, clock::get, timer);
+      drag(throttled, throttle, clock);
+      if (pass == 2) {
+        print("every move", direct);
+        print("throttled", throttled);
+        System.out.println(throttle.getCoalesced() + " moves coalesced, "
+            + throttle.getDropped() + " dropped");
+      }
+    }
+    timer.shutdownNow();
+  }
+
+  private static void print(String name, Game game) {
+    System.out.println(name + ": " + game.moves + " moves applied, " + game.server.infos
+        + " GameInfos sent, " + game.nanos / 1_000_000 + " ms on the game thread");
+  }
+
+  /**
+   * Drags stones along a row of the table, one cell per millisecond.
+   */
+  private static void drag(Game game, RequestThrottle throttle, AtomicLong clock) {
+    long time = 0;
+    for (int drag = 0; drag < DRAGS; drag++) {
+      int row = drag % Constants.TABLE_HEIGHT;
+      for (int cell = 0; cell < DRAG_PERIOD; cell++, time++) {
+        ConcreteMove move = cell < CELLS_PER_DRAG
+            ? new ConcreteMove(RequestID.TABLE_MOVE, cell, row, cell + 1, row) : null;
+        if (throttle == null) {
+          if (move != null) {
+            game.accept(move);
+          }
+          continue;
+        }
+        clock.set(time);
+        if (move != null) {
+          throttle.offer(move);
+        }
+        throttle.release();
+      }
+    }
+  }
+}
@@ -0,0 +1,179 @@
+package network.server;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import communication.request.ConcreteMove;
+import communication.request.Request;
+import communication.request.RequestID;
+import communication.request.SimpleRequest;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.After;
+import org.junit.Test;
+
+public class RequestThrottleTest {
+  private static final long WINDOW = 30;
+
+  private final ScheduledExecutorService timer = Executors.newSingleThreadScheduledExecutor();
+  private final AtomicLong clock = new AtomicLong();
+  private final List<Request> applied = new ArrayList<>();
+
+  @After
+  public void tearDown() {
+    timer.shutdownNow();
+  }
+
+  private RequestThrottle throttle(int burst, double rate) {
+    return new RequestThrottle(request -> {
+      synchronized (applied) {
+        applied.add(request);
+      }
+    }, burst, rate, WINDOW, clock::get, timer);
+  }
+
+  private static ConcreteMove move(RequestID id, int fromCol, int toCol) {
+    return new ConcreteMove(id, fromCol, 0, toCol, 0);
+  }
+
+  private int appliedCount() {
+    synchronized (applied) {
+      return applied.size();
+    }
+  }
+
+  @Test
+  public void singleMoveTest() {
+    RequestThrottle throttle = throttle(5, 10);
+    // a connection below its rate does not wait for the window
+    throttle.offer(move(RequestID.HAND_MOVE, 0, 1));
+    assertEquals(1, appliedCount());
+    throttle.offer(move(RequestID.HAND_MOVE, 1, 2));
+    assertEquals(2, appliedCount());
+    assertEquals(0, throttle.getCoalesced());
+    assertEquals(0, throttle.getQueued());
+  }
+
+  @Test
+  public void coalesceTest() {
+    RequestThrottle throttle = throttle(1, 10);
+    throttle.offer(new SimpleRequest(RequestID.RESET));
+    // the bucket is empty, the moves wait and are coalesced
+    throttle.offer(move(RequestID.HAND_MOVE, 0, 1));
+    throttle.offer(move(RequestID.HAND_MOVE, 1, 2));
+    throttle.offer(move(RequestID.HAND_MOVE, 2, 3));
+    assertEquals(1, appliedCount());
+    assertEquals(2, throttle.getCoalesced());
+
+    clock.addAndGet(100);
+    throttle.release();
+    assertEquals(2, appliedCount());
+    ConcreteMove net = (ConcreteMove) applied.get(1);
+    assertEquals(RequestID.HAND_MOVE, net.getRequestID());
+    assertEquals(0, net.getInitCol());
+    assertEquals(3, net.getTargetCol());
+  }
+
+  @Test
+  public void windowTest() {
+    RequestThrottle throttle = throttle(3, 10);
+    for (int i = 0; i < 3; i++) {
+      throttle.offer(new SimpleRequest(RequestID.RESET));
+    }
+    // the bucket is empty, the move waits for a token
+    throttle.offer(move(RequestID.TABLE_MOVE, 0, 1));
+    clock.addAndGet(WINDOW);
+    throttle.offer(move(RequestID.TABLE_MOVE, 1, 2));
+    assertEquals(1, throttle.getCoalesced());
+    // a move after the window is a move of its own, even if the first still waits
+    clock.addAndGet(1);
+    throttle.offer(move(RequestID.TABLE_MOVE, 2, 3));
+    assertEquals(1, throttle.getCoalesced());
+    assertEquals(2, throttle.getQueued());
+
+    clock.addAndGet(200);
+    throttle.release();
+    assertEquals(5, appliedCount());
+    assertEquals(0, ((ConcreteMove) applied.get(3)).getInitCol());
+    assertEquals(2, ((ConcreteMove) applied.get(3)).getTargetCol());
+    assertEquals(2, ((ConcreteMove) applied.get(4)).getInitCol());
+    assertEquals(3, ((ConcreteMove) applied.get(4)).getTargetCol());
+  }
+
+  @Test
+  public void orderTest() {
+    RequestThrottle throttle = throttle(5, 10);
+    throttle.offer(move(RequestID.TABLE_MOVE, 0, 1));
+    // neither a move of another stone nor a hand move continue the table move
+    throttle.offer(move(RequestID.TABLE_MOVE, 5, 6));
+    throttle.offer(move(RequestID.HAND_MOVE, 6, 7));
+    throttle.offer(new SimpleRequest(RequestID.DRAW));
+    // the bucket has tokens, every request goes through at once
+    assertEquals(4, appliedCount());
+    assertEquals(0, ((ConcreteMove) applied.get(0)).getInitCol());
+    assertEquals(5, ((ConcreteMove) applied.get(1)).getInitCol());
+    assertEquals(RequestID.HAND_MOVE, applied.get(2).getRequestID());
+    assertEquals(RequestID.DRAW, applied.get(3).getRequestID());
+    assertEquals(0, throttle.getCoalesced());
+  }
+
+  @Test
+  public void bucketTest() {
+    RequestThrottle throttle = throttle(3, 10);
+    for (int i = 0; i < 5; i++) {
+      throttle.offer(new SimpleRequest(RequestID.RESET));
+    }
+    assertEquals(3, appliedCount());
+    assertEquals(2, throttle.getQueued());
+    // moves waiting for the bucket are coalesced as well
+    throttle.offer(move(RequestID.TABLE_MOVE, 0, 1));
+    throttle.offer(move(RequestID.TABLE_MOVE, 1, 2));
+    assertEquals(3, throttle.getQueued());
+
+    // one token per 100 milliseconds
+    clock.addAndGet(100);
+    throttle.release();
+    assertEquals(4, appliedCount());
+    clock.addAndGet(200);
+    throttle.release();
+    assertEquals(6, appliedCount());
+    assertEquals(2, ((ConcreteMove) applied.get(5)).getTargetCol());
+    assertEquals(0, throttle.getQueued());
+  }
+
+  @Test
+  public void dropTest() {
+    RequestThrottle throttle = throttle(1, 1);
+    assertTrue(throttle.offer(new SimpleRequest(RequestID.RESET)));
+    for (int i = 0; i < RequestThrottle.MAX_QUEUED; i++) {
+      assertTrue(throttle.offer(new SimpleRequest(RequestID.RESET)));
+    }
+    assertFalse(throttle.offer(new SimpleRequest(RequestID.DRAW)));
+    assertEquals(1, appliedCount());
+    assertEquals(1, throttle.getDropped());
+
+    throttle.close();
+    assertEquals(0, throttle.getQueued());
+    clock.addAndGet(TimeUnit.MINUTES.toMillis(1));
+    throttle.offer(new SimpleRequest(RequestID.DRAW));
+    throttle.release();
+    assertEquals(1, appliedCount());
+  }
+
+  @Test
+  public void timerTest() throws InterruptedException {
+    CountDownLatch released = new CountDownLatch(2);
+    RequestThrottle throttle = new RequestThrottle(request -> released.countDown(),
+        1, 100, 10, System::currentTimeMillis, timer);
+    throttle.offer(move(RequestID.HAND_MOVE, 0, 1));
+    throttle.offer(move(RequestID.HAND_MOVE, 4, 5));
+    // the first move goes through at once, the second waits for a token
+    assertTrue(released.await(10, TimeUnit.SECONDS));
+  }
+}
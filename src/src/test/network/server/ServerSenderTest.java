@@ -0,0 +1,126 @@
+package network.server;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import communication.Deserializer;
+import communication.EncodedInfo;
+import communication.gameinfo.BagInfo;
+import communication.gameinfo.GameInfo;
+import communication.gameinfo.GameInfoID;
+import communication.gameinfo.GridInfo;
+import communication.gameinfo.StoneInfo;
+import globalconstants.Constants;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class ServerSenderTest {
+  private static final int CAPACITY = 8;
+  private static final int TABLES = 2000;
+
+  private final Deserializer deserializer = new Deserializer();
+  private ServerSocket serverSocket;
+  private Socket client;
+  private Socket accepted;
+
+  @Before
+  public void setUp() throws IOException {
+    serverSocket = new ServerSocket(0, 1, InetAddress.getLoopbackAddress());
+    client = new Socket(InetAddress.getLoopbackAddress(), serverSocket.getLocalPort());
+    // small buffers, so that a client which does not read soon blocks the writes
+    client.setReceiveBufferSize(4096);
+    accepted = serverSocket.accept();
+    accepted.setSendBufferSize(4096);
+  }
+
+  @After
+  public void tearDown() throws IOException {
+    client.close();
+    accepted.close();
+    serverSocket.close();
+  }
+
+  private static EncodedInfo table(int version) {
+    StoneInfo[][] grid = new StoneInfo[Constants.TABLE_WIDTH][Constants.TABLE_HEIGHT];
+    for (int column = 0; column < grid.length; column++) {
+      grid[column][0] = new StoneInfo("BLACK", 1 + column % 13);
+    }
+    return new EncodedInfo(new GridInfo(GameInfoID.TABLE, grid, version));
+  }
+
+  private GameInfo receive(BufferedReader in) throws IOException {
+    String line = in.readLine();
+    return line == null ? null : deserializer.deserializeInfo(line);
+  }
+
+  @Test
+  public void sendTest() throws IOException {
+    ServerSender sender = new ServerSender(accepted, null, 0, CAPACITY,
+        ServerSender.Overflow.KEEP_LATEST);
+    BufferedReader in = new BufferedReader(
+        new InputStreamReader(client.getInputStream(), StandardCharsets.UTF_8));
+    for (int size = 100; size > 100 - CAPACITY; size--) {
+      sender.send(new EncodedInfo(new BagInfo(size)));
+    }
+    for (int size = 100; size > 100 - CAPACITY; size--) {
+      assertEquals(size, ((BagInfo) receive(in)).getSize());
+    }
+    sender.disconnect();
+    // the socket is closed once everything queued was written
+    assertEquals(null, in.readLine());
+  }
+
+  @Test
+  public void keepLatestTest() throws IOException {
+    ServerSender sender = new ServerSender(accepted, null, 0, CAPACITY,
+        ServerSender.Overflow.KEEP_LATEST);
+    // the client does not read, the game is not held up
+    for (int version = 0; version < TABLES; version++) {
+      sender.send(table(version));
+    }
+    assertTrue(sender.getOverflows() > 0);
+    assertTrue(sender.getDropped() > 0);
+    assertTrue(sender.getMaxQueued() <= CAPACITY);
+    sender.send(new EncodedInfo(new BagInfo(7)));
+
+    BufferedReader in = new BufferedReader(
+        new InputStreamReader(client.getInputStream(), StandardCharsets.UTF_8));
+    int tables = 0;
+    int lastVersion = -1;
+    GameInfo info;
+    while ((info = receive(in)).getGameInfoID() == GameInfoID.TABLE) {
+      tables++;
+      lastVersion = ((GridInfo) info).getVersion();
+    }
+    assertEquals(GameInfoID.BAG, info.getGameInfoID());
+    assertTrue(tables < TABLES);
+    // the latest table is never dropped
+    assertEquals(TABLES - 1, lastVersion);
+    sender.disconnect();
+  }
+
+  @Test
+  public void disconnectTest() throws IOException {
+    ServerSender sender = new ServerSender(accepted, null, 0, CAPACITY,
+        ServerSender.Overflow.DISCONNECT);
+    for (int version = 0; version < TABLES; version++) {
+      sender.send(table(version));
+    }
+    assertEquals(1, sender.getOverflows());
+    BufferedReader in = new BufferedReader(
+        new InputStreamReader(client.getInputStream(), StandardCharsets.UTF_8));
+    int tables = 0;
+    while (receive(in) != null) {
+      tables++;
+    }
+    assertTrue(tables < TABLES);
+  }
+}
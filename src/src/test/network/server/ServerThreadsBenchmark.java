@@ -0,0 +1,118 @@
+package network.server;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.lang.management.ManagementFactory;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Load test comparing platform and virtual listener threads.
+ * Every connection gets a thread blocking in a read like a ServerListener, which answers
+ * every line like a ServerSender. The benchmark reports the memory of the process with all
+ * connections open and the round trip latency of a message.
+ * Not a JUnit test, run it with its main method, optionally with the number of connections.
+ * Each connection needs two file descriptors, the limit of open files may have to be raised.
+ */
+public class ServerThreadsBenchmark {
+  private static final int CONNECTIONS = 10_000;
+  private static final int ROUND_TRIPS = 20_000;
+
+  public static void main(String[] args) throws Exception {
+    int connections = args.length > 0 ? Integer.parseInt(args[0]) : CONNECTIONS;
+    measure("platform", ServerThreads.factory(false), connections);
+    measure("virtual", ServerThreads.factory(true), connections);
+  }
+
+  private static void measure(String mode, ThreadFactory factory, int connections)
+      throws IOException, InterruptedException {
+    long memoryBefore = processMemory();
+    List<Socket> clients = new ArrayList<>();
+    List<BufferedReader> readers = new ArrayList<>();
+    List<Writer> writers = new ArrayList<>();
+    try (ServerSocket server = new ServerSocket(0, connections)) {
+      long start = System.nanoTime();
+      for (int i = 0; i < connections; i++) {
+        Socket client = new Socket("localhost", server.getLocalPort());
+        Socket accepted = server.accept();
+        factory.newThread(() -> echo(accepted)).start();
+        clients.add(client);
+        readers.add(new BufferedReader(
+            new InputStreamReader(client.getInputStream(), StandardCharsets.UTF_8)));
+        writers.add(new BufferedWriter(
+            new OutputStreamWriter(client.getOutputStream(), StandardCharsets.UTF_8)));
+      }
+      long setUp = System.nanoTime() - start;
+      System.gc();
+      Thread.sleep(500);
+      long memory = processMemory() - memoryBefore;
+
+      long[] latencies = new long[ROUND_TRIPS];
+      for (int i = 0; i < ROUND_TRIPS; i++) {
+        int connection = i * 7919 % connections;
+        long sent = System.nanoTime();
+        Writer out = writers.get(connection);
+        out.write("{\"requestID\":\"DRAW\"}\n");
+        out.flush();
+        readers.get(connection).readLine();
+        latencies[i] = System.nanoTime() - sent;
+      }
+      Arrays.sort(latencies);
+      System.out.println(mode + ": " + connections + " connections in " + (setUp / 1_000_000)
+          + " ms, " + (memory >> 20) + " MiB, " + ManagementFactory.getThreadMXBean()
+          .getThreadCount() + " platform threads, round trip p50 "
+          + (latencies[ROUND_TRIPS / 2] / 1000) + " us, p99 "
+          + (latencies[ROUND_TRIPS * 99 / 100] / 1000) + " us");
+    } finally {
+      for (Socket client : clients) {
+        client.close();
+      }
+    }
+    // lets the echo threads see the closed connections
+    Thread.sleep(1000);
+  }
+
+  private static void echo(Socket socket) {
+    try (BufferedReader in = new BufferedReader(
+        new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+         Writer out = new BufferedWriter(
+             new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8))) {
+      String line;
+      while ((line = in.readLine()) != null) {
+        out.write(line);
+        out.write('\n');
+        out.flush();
+      }
+    } catch (IOException e) {
+      // the benchmark closed the connection
+    }
+  }
+
+  /**
+   * Returns the resident memory of the process on Linux, else the used heap.
+   */
+  private static long processMemory() {
+    try {
+      for (String line : Files.readAllLines(Paths.get("/proc/self/status"))) {
+        if (line.startsWith("VmRSS:")) {
+          return Long.parseLong(line.replaceAll("[^0-9]", "")) << 10;
+        }
+      }
+    } catch (IOException e) {
+      // not on Linux
+    }
+    Runtime runtime = Runtime.getRuntime();
+    return runtime.totalMemory() - runtime.freeMemory();
+  }
+}
@@ -0,0 +1,43 @@
+package network.server;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import org.junit.Test;
+
+public class ServerThreadsTest {
+
+  private static boolean runs(ThreadFactory factory) throws InterruptedException {
+    CountDownLatch ran = new CountDownLatch(1);
+    factory.newThread(ran::countDown).start();
+    return ran.await(10, TimeUnit.SECONDS);
+  }
+
+  @Test
+  public void platformTest() throws InterruptedException {
+    assertTrue(runs(ServerThreads.factory(false)));
+  }
+
+  @Test
+  public void virtualTest() throws InterruptedException {
+    // falls back to platform threads before Java 21
+    assertTrue(runs(ServerThreads.factory(true)));
+  }
+
+  @Test
+  public void kindTest() {
+    // the tests do not ask for virtual threads
+    assertEquals("platform", ServerThreads.kind());
+  }
+
+  @Test
+  public void startTest() throws InterruptedException {
+    CountDownLatch ran = new CountDownLatch(1);
+    Thread thread = ServerThreads.start(ran::countDown, "rummi-listener-test");
+    assertTrue(ran.await(10, TimeUnit.SECONDS));
+    assertEquals("rummi-listener-test", thread.getName());
+  }
+}
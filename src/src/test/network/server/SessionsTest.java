@@ -0,0 +1,111 @@
+package network.server;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+import communication.gameinfo.GameInfo;
+import communication.request.ConcreteSetPlayer;
+import communication.request.ConcreteStart;
+import communication.request.RequestID;
+import communication.request.SimpleRequest;
+import game.RummiGame;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.After;
+import org.junit.Test;
+
+public class SessionsTest {
+  private final ScheduledExecutorService timer = Executors.newSingleThreadScheduledExecutor();
+
+  @After
+  public void tearDown() {
+    timer.shutdownNow();
+  }
+
+  @Test
+  public void resumeTest() {
+    Sessions sessions = new Sessions(TimeUnit.MINUTES.toMillis(1), timer);
+    String first = sessions.issue(1);
+    String second = sessions.issue(2);
+    assertNotEquals(first, second);
+    AtomicInteger givenUp = new AtomicInteger();
+    assertTrue(sessions.hold(1, givenUp::incrementAndGet));
+    assertTrue(sessions.isHeld(1));
+    assertTrue(sessions.isAnyHeld());
+
+    assertEquals(1, sessions.resume(first));
+    assertFalse(sessions.isHeld(1));
+    assertEquals(Room.NO_SEAT, sessions.resume("unknown"));
+    // a player without a session is not held
+    assertFalse(sessions.hold(3, givenUp::incrementAndGet));
+    assertFalse(sessions.isAnyHeld());
+    assertEquals(0, givenUp.get());
+  }
+
+  @Test
+  public void giveUpTest() throws InterruptedException {
+    Sessions sessions = new Sessions(10, timer);
+    String token = sessions.issue(0);
+    CountDownLatch givenUp = new CountDownLatch(1);
+    sessions.hold(0, () -> {
+      sessions.end(0);
+      givenUp.countDown();
+    });
+    assertTrue(givenUp.await(10, TimeUnit.SECONDS));
+    assertFalse(sessions.isHeld(0));
+    assertEquals(Room.NO_SEAT, sessions.resume(token));
+  }
+
+  @Test
+  public void closeTest() {
+    Sessions sessions = new Sessions(TimeUnit.MINUTES.toMillis(1), timer);
+    String token = sessions.issue(0);
+    sessions.close();
+    assertEquals(Room.NO_SEAT, sessions.resume(token));
+    assertFalse(sessions.hold(0, () -> { }));
+  }
+
+  @Test
+  public void skipHeldTurnTest() {
+    Sessions sessions = new Sessions(TimeUnit.MINUTES.toMillis(1), timer);
+    RummiGame game = new RummiGame();
+    RequestHandler requestHandler = new RequestHandler(new Server() {
+      @Override
+      public void sendToAll(GameInfo info) {
+      }
+
+      @Override
+      public void sendToPlayer(int playerId, GameInfo info) {
+      }
+
+      @Override
+      public String getIP() {
+        return "";
+      }
+    }, game, sessions);
+    for (int id = 0; id < 3; id++) {
+      requestHandler.applyRequest(new ConcreteSetPlayer("player" + id, 20 + id), id);
+    }
+    requestHandler.applyRequest(new ConcreteStart(1), 0);
+    int held = game.getCurrentPlayerID();
+    int handSize = game.getPlayerHandSizes().get(held);
+
+    assertTrue(sessions.hold(held, () -> { }));
+    requestHandler.skipHeldTurn();
+    // the player whose seat is held keeps its hand and draws, the others go on
+    assertNotEquals(held, game.getCurrentPlayerID());
+    assertEquals(handSize + 1, (int) game.getPlayerHandSizes().get(held));
+
+    // the turns of the held seat are skipped until it is resumed
+    for (int turn = 0; turn < 4; turn++) {
+      requestHandler.applyRequest(new SimpleRequest(RequestID.DRAW), game.getCurrentPlayerID());
+      assertNotEquals(held, game.getCurrentPlayerID());
+    }
+    assertEquals(handSize + 3, (int) game.getPlayerHandSizes().get(held));
+  }
+}
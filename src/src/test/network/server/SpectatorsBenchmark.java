@@ -0,0 +1,136 @@
+package network.server;
+
+import communication.EncodedInfo;
+import communication.gameinfo.GameInfo;
+import communication.request.ConcreteMove;
+import communication.request.ConcreteSetPlayer;
+import communication.request.ConcreteStart;
+import communication.request.RequestID;
+import communication.request.SimpleRequest;
+import game.RummiGame;
+import globalconstants.Constants;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Benchmark of the time the thread of a game spends on a request while 1000 spectators watch,
+ * with the GameInfos sent to the spectators on the thread of the game, or handed over to
+ * the Spectators which send them on their own executor.
+ * Not a JUnit test, run it with its main method.
+ */
+public class SpectatorsBenchmark {
+  private static final int REQUESTS = 2000;
+  private static final int SPECTATORS = 1000;
+
+  // keeps the encoded messages from being optimized away
+  private static volatile long sink;
+
+  /**
+   * Connection which only takes the bytes of the GameInfos like a NioConnection does.
+   */
+  private static final class QueueingConnection implements Connection {
+    @Override
+    public void send(EncodedInfo info) {
+      sink += info.toBuffer(false).remaining();
+    }
+
+    @Override
+    public void send(List<EncodedInfo> infos) {
+      for (EncodedInfo info : infos) {
+        send(info);
+      }
+    }
+
+    @Override
+    public int backlog() {
+      return 0;
+    }
+
+    @Override
+    public void disconnect() {
+    }
+  }
+
+  /**
+   * Server of a game with spectators, without players.
+   */
+  private static final class WatchedServer implements Server {
+    private final List<Connection> inline;
+    private final Spectators spectators;
+
+    WatchedServer(List<Connection> inline, Spectators spectators) {
+      this.inline = inline;
+      this.spectators = spectators;
+    }
+
+    @Override
+    public void sendToAll(GameInfo info) {
+    }
+
+    @Override
+    public void sendToPlayer(int playerID, GameInfo info) {
+    }
+
+    @Override
+    public void sendToSpectators(GameInfo info, GameInfo snapshot) {
+      if (spectators != null) {
+        spectators.publish(info, snapshot);
+        return;
+      }
+      EncodedInfo encoded = new EncodedInfo(info);
+      for (Connection connection : inline) {
+        connection.send(encoded);
+      }
+    }
+
+    @Override
+    public String getIP() {
+      return "";
+    }
+  }
+
+  public static void main(String[] args) {
+    List<Connection> connections = new ArrayList<>();
+    for (int i = 0; i < SPECTATORS; i++) {
+      connections.add(new QueueingConnection());
+    }
+    for (int pass = 0; pass < 2; pass++) {
+      long none = measure(new WatchedServer(new ArrayList<>(), null));
+      long inline = measure(new WatchedServer(connections, null));
+      Spectators spectators = new Spectators();
+      for (Connection connection : connections) {
+        spectators.add(connection);
+      }
+      long handedOver = measure(new WatchedServer(null, spectators));
+      spectators.close();
+      if (pass == 1) {
+        System.out.println("no spectators " + none / 1000 + " us, " + SPECTATORS
+            + " spectators sent on the game thread " + inline / 1000 + " us, handed over "
+            + handedOver / 1000 + " us per request");
+      }
+    }
+  }
+
+  private static long measure(Server server) {
+    RequestHandler requestHandler = new RequestHandler(server, new RummiGame());
+    // the same game in every run
+    requestHandler.setReplay(true);
+    for (int playerID = 0; playerID < 3; playerID++) {
+      requestHandler.applyRequest(new ConcreteSetPlayer("player" + playerID, 20), playerID);
+    }
+    requestHandler.applyRequest(new ConcreteStart(1), 0);
+    Random random = new Random(1);
+    long start = System.nanoTime();
+    for (int i = 0; i < REQUESTS; i++) {
+      if (i % 2 == 0) {
+        requestHandler.applyRequest(new ConcreteMove(RequestID.PUT_STONE,
+            random.nextInt(Constants.HAND_WIDTH), random.nextInt(Constants.HAND_HEIGHT),
+            random.nextInt(Constants.TABLE_WIDTH), random.nextInt(Constants.TABLE_HEIGHT)), 0);
+      } else {
+        requestHandler.applyRequest(new SimpleRequest(RequestID.RESET), 0);
+      }
+    }
+    return (System.nanoTime() - start) / REQUESTS;
+  }
+}
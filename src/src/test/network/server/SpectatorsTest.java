@@ -0,0 +1,161 @@
+package network.server;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import communication.EncodedInfo;
+import communication.gameinfo.BagInfo;
+import communication.gameinfo.GameInfo;
+import communication.gameinfo.GameInfoID;
+import communication.request.ConcreteMove;
+import communication.request.ConcreteSetPlayer;
+import communication.request.ConcreteStart;
+import communication.request.RequestID;
+import communication.request.SimpleRequest;
+import game.RummiGame;
+import globalconstants.Constants;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.Test;
+
+public class SpectatorsTest {
+  private static final int CAPACITY = 4;
+
+  private static class FakeConnection implements Connection {
+    private final List<GameInfo> received = new ArrayList<>();
+    private int backlog;
+    private boolean disconnected;
+
+    @Override
+    public void send(EncodedInfo info) {
+      received.add(info.getInfo());
+      backlog++;
+    }
+
+    @Override
+    public void send(List<EncodedInfo> infos) {
+      for (EncodedInfo info : infos) {
+        send(info);
+      }
+    }
+
+    @Override
+    public int backlog() {
+      return backlog;
+    }
+
+    @Override
+    public void disconnect() {
+      disconnected = true;
+    }
+  }
+
+  /**
+   * Server which only records the GameInfos for the spectators.
+   */
+  private static class SpectatedServer implements Server {
+    private final List<GameInfo> spectated = new ArrayList<>();
+
+    @Override
+    public void sendToAll(GameInfo info) {
+    }
+
+    @Override
+    public void sendToPlayer(int playerID, GameInfo info) {
+    }
+
+    @Override
+    public void sendToSpectators(GameInfo info, GameInfo snapshot) {
+      spectated.add(info);
+    }
+
+    @Override
+    public String getIP() {
+      return "";
+    }
+  }
+
+  @Test
+  public void stateTest() {
+    Spectators spectators = new Spectators(CAPACITY, Runnable::run);
+    spectators.publish(new BagInfo(100), new BagInfo(100));
+    spectators.publish(new BagInfo(99), new BagInfo(99));
+    FakeConnection late = new FakeConnection();
+    spectators.add(late);
+    // a late spectator gets the last GameInfo of each id
+    assertEquals(1, late.received.size());
+    assertEquals(99, ((BagInfo) late.received.get(0)).getSize());
+    assertEquals(1, spectators.size());
+
+    spectators.publish(new BagInfo(98), new BagInfo(98));
+    assertEquals(2, late.received.size());
+    spectators.remove(late);
+    spectators.publish(new BagInfo(97), new BagInfo(97));
+    assertEquals(2, late.received.size());
+    assertEquals(0, spectators.size());
+  }
+
+  @Test
+  public void slowSpectatorTest() {
+    Spectators spectators = new Spectators(CAPACITY, Runnable::run);
+    FakeConnection slow = new FakeConnection();
+    FakeConnection fast = new FakeConnection();
+    spectators.add(slow);
+    spectators.add(fast);
+    for (int size = 100; size > 90; size--) {
+      spectators.publish(new BagInfo(size), new BagInfo(size));
+      // only the fast spectator reads its messages
+      fast.backlog = 0;
+    }
+    assertEquals(10, fast.received.size());
+    // the slow spectator stops getting GameInfos once its queue is full
+    assertEquals(CAPACITY, slow.received.size());
+
+    // and gets the state once it read its queue
+    slow.backlog = 0;
+    spectators.publish(new BagInfo(90), new BagInfo(90));
+    assertEquals(CAPACITY + 1, slow.received.size());
+    assertEquals(90, ((BagInfo) slow.received.get(CAPACITY)).getSize());
+    assertEquals(1, spectators.getSnapshots());
+    spectators.publish(new BagInfo(89), new BagInfo(89));
+    assertEquals(CAPACITY + 2, slow.received.size());
+  }
+
+  @Test
+  public void closeTest() {
+    Spectators spectators = new Spectators(CAPACITY, Runnable::run);
+    FakeConnection spectator = new FakeConnection();
+    spectators.add(spectator);
+    spectators.close();
+    assertTrue(spectator.disconnected);
+    FakeConnection late = new FakeConnection();
+    spectators.add(late);
+    assertTrue(late.disconnected);
+  }
+
+  @Test
+  public void noHandTest() {
+    SpectatedServer server = new SpectatedServer();
+    RequestHandler requestHandler = new RequestHandler(server, new RummiGame());
+    for (int playerID = 0; playerID < 3; playerID++) {
+      requestHandler.applyRequest(new ConcreteSetPlayer("player" + playerID, 20), playerID);
+    }
+    requestHandler.applyRequest(new ConcreteStart(1), 0);
+    for (int i = 0; i < 20; i++) {
+      requestHandler.applyRequest(new ConcreteMove(RequestID.PUT_STONE, i % Constants.HAND_WIDTH,
+          0, i % Constants.TABLE_WIDTH, 0), 0);
+      requestHandler.applyRequest(new SimpleRequest(RequestID.DRAW), i % 3);
+    }
+    List<GameInfoID> ids = new ArrayList<>();
+    for (GameInfo info : server.spectated) {
+      ids.add(info.getGameInfoID());
+    }
+    assertTrue(ids.contains(GameInfoID.GAME_START));
+    assertTrue(ids.contains(GameInfoID.TABLE));
+    assertTrue(ids.contains(GameInfoID.HAND_SIZES));
+    // spectators never see a hand
+    assertFalse(ids.contains(GameInfoID.HAND));
+    assertFalse(ids.contains(GameInfoID.HAND_DELTA));
+  }
+}
@@ -33,6 +33,14 @@ public interface Controller {
    */
   void setTable(StoneInfo[][] table);
 
+  /**
+   * Marks the stones on the table which are not part of a valid set.
+   *
+   * @param invalidRows a bitmask for each row of the table,
+   *                    the bit of a column is set if the stone there is in an invalid set
+   */
+  void setInvalidSets(int[] invalidRows);
+
   /**
    * Updates the hand (including the stones) of the player.
    *
@@ -355,6 +355,28 @@ public class GameController {
     constructGrid(table, tableGrid);
   }
 
+  /**
+   * Highlights the cells of the table with stones which are not part of a valid set.
+   *
+   * @param invalidRows a bitmask for each row of the table,
+   *                    the bit of a column is set if the stone there is in an invalid set
+   */
+  void setInvalidSets(int[] invalidRows) {
+    Platform.runLater(() -> {
+      for (Node cell : tableGrid.getChildren()) {
+        if (cell instanceof Pane) {
+          int x = GridPane.getColumnIndex(cell);
+          int y = GridPane.getRowIndex(cell);
+          List<String> styleClass = cell.getStyleClass();
+          styleClass.remove(ViewConstants.INVALID_CELL_STYLE);
+          if (y < invalidRows.length && (invalidRows[y] & (1 << x)) != 0) {
+            styleClass.add(ViewConstants.INVALID_CELL_STYLE);
+          }
+        }
+      }
+    });
+  }
+
   /**
    * Updates the hand that the player sees.
    *
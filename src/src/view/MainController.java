@@ -17,6 +17,7 @@ import javafx.stage.Stage;
 import network.client.GameInfoHandler;
 import network.client.RequestBuilder;
 import network.client.RummiClient;
+import network.server.NioRummiServer;
 import network.server.RummiServer;
 import view.music.Audio;
 
@@ -268,6 +269,16 @@ public class MainController implements Controller {
   }
 
 
+  /**
+   * Marks the stones on the table which are not part of a valid set.
+   *
+   * @param invalidRows a bitmask for each row of the table
+   */
+  @Override
+  public void setInvalidSets(int[] invalidRows) {
+    gameController.setInvalidSets(invalidRows);
+  }
+
   /**
    * Updates the hand (including the stones) of the player.
    *
@@ -383,7 +394,11 @@ public class MainController implements Controller {
    */
   boolean startServer() {
     try {
-      new RummiServer().start();
+      if (Boolean.getBoolean(NioRummiServer.ENABLED_PROPERTY)) {
+        new NioRummiServer().start();
+      } else {
+        new RummiServer().start();
+      }
     } catch (IOException e) {
       showError(ViewConstants.MULTIPLE_HOSTS_ON_SINGLE_MACHINE_ERROR);
       return false;
@@ -50,6 +50,7 @@ public class ViewConstants {
 
   //Cell-Styles
   static final String CELL_STYLE = "cell";
+  static final String INVALID_CELL_STYLE = "invalidCell";
   static final String SHADOW_STYLE = "shadow";
   static final String STONE_VALUE_STYLE = "stoneValue";
 